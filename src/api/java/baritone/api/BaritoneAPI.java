@@ -27,25 +27,35 @@ import baritone.api.utils.SettingsUtil;
  */
 public final class BaritoneAPI {
 
-    private static final IBaritoneProvider provider;
     private static final Settings settings;
 
     static {
         settings = new Settings();
         SettingsUtil.readAndApply(settings);
-
-        try {
-            provider = (IBaritoneProvider) Class.forName("baritone.BaritoneProvider").newInstance();
-        } catch (ReflectiveOperationException ex) {
-            throw new RuntimeException(ex);
-        }
     }
 
     public static IBaritoneProvider getProvider() {
-        return BaritoneAPI.provider;
+        return ProviderHolder.PROVIDER;
     }
 
     public static Settings getSettings() {
         return BaritoneAPI.settings;
     }
+
+    /**
+     * Creating the provider creates a {@link IBaritone}, which needs a running game. Keeping it in its own class means
+     * it's only created on the first {@link #getProvider()}, so the settings can still be used without a game.
+     */
+    private static final class ProviderHolder {
+
+        private static final IBaritoneProvider PROVIDER;
+
+        static {
+            try {
+                PROVIDER = (IBaritoneProvider) Class.forName("baritone.BaritoneProvider").newInstance();
+            } catch (ReflectiveOperationException ex) {
+                throw new RuntimeException(ex);
+            }
+        }
+    }
 }
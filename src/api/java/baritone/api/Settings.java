@@ -488,6 +488,105 @@ public final class Settings {
      */
     public final Setting<Float> pathingMapLoadFactor = new Setting<>(0.75f);
 
+    /**
+     * Keep pathing nodes in parallel primitive arrays indexed by an int id, instead of allocating a PathNode object
+     * for every block the search visits.
+     * <p>
+     * Cuts down on GC pressure for very long searches, especially with a large {@link #pathingMapDefaultSize}
+     */
+    public final Setting<Boolean> pathingPrimitiveNodeStore = new Setting<>(false);
+
+    /**
+     * The open set (priority queue of nodes to expand) used in pathing. Either "binary" for a plain binary heap,
+     * "quaternary" for a shallower 4-ary heap that keeps its keys inline, or "radix" for a radix heap with lazy
+     * decrease-key, which is fastest when lots of small cost improvements are repropagated (e.g. flat terrain)
+     */
+    public final Setting<String> pathingOpenSet = new Setting<>("binary");
+
+    /**
+     * How many threads a single path calculation can use. Above 1, each step expands a handful of the most promising
+     * nodes at once, spread over this many threads, which gets through long segments faster on a multicore machine at
+     * the price of some duplicated work.
+     * <p>
+     * Only applies to plain pathing, builder and other processes with their own costs always use one thread. Also
+     * ignores {@link #pathingPrimitiveNodeStore}
+     */
+    public final Setting<Integer> pathingThreads = new Setting<>(1);
+
+    /**
+     * Plan long paths over whole chunks of the cache first, and steer the block level search along that plan instead
+     * of straight at the goal. Helps a lot when the straight line is blocked by an ocean, a ravine or a mountain range.
+     * <p>
+     * Only uses what's in the cache, so it doesn't do anything with {@link #chunkCaching} off.
+     */
+    public final Setting<Boolean> pathingHierarchical = new Setting<>(false);
+
+    /**
+     * How far away the goal has to be, in blocks, before {@link #pathingHierarchical} plans over chunks
+     */
+    public final Setting<Integer> pathingHierarchicalMinDistance = new Setting<>(512);
+
+    /**
+     * Remember movement costs between calculations, so that the next segment, the plan ahead and recalculations
+     * don't have to work out the same blocks again. Anything remembered is forgotten as soon as the blocks around it
+     * change, or settings, hotbar, potion effects or AltoClef rules that could change its cost do.
+     * <p>
+     * Only applies to plain pathing, builder and other processes with their own costs never use it.
+     */
+    public final Setting<Boolean> pathingCostCache = new Setting<>(true);
+
+    /**
+     * How many movement costs {@link #pathingCostCache} remembers per world, about 30 bytes each. Takes effect on the
+     * next world load.
+     */
+    public final Setting<Integer> pathingCostCacheSize = new Setting<>(1 << 17);
+
+    /**
+     * When something changes in the world that makes the current path impossible or too expensive, repair the search
+     * that found it instead of starting over from scratch. Only the part of the search that the change could have
+     * affected is searched again, which is usually a small fraction of it.
+     * <p>
+     * Needs {@link #pathingCostCache}, which keeps track of which chunks changed. Doesn't apply with
+     * {@link #pathingPrimitiveNodeStore} or {@link #pathingThreads} above 1.
+     */
+    public final Setting<Boolean> pathingIncrementalReplan = new Setting<>(false);
+
+    /**
+     * {@link #pathingIncrementalReplan} keeps the searches behind the current and next path in memory, this is the
+     * most nodes a search can have to be kept
+     */
+    public final Setting<Integer> pathingIncrementalMaxNodes = new Setting<>(250_000);
+
+    /**
+     * Find the first path with an inflated heuristic, so it comes back sooner, then keep improving it in the
+     * background for as long as {@link #failureTimeoutMS} allows, switching over whenever a better one turns up.
+     * Searches that do this aren't repaired by {@link #pathingIncrementalReplan} until they're done improving.
+     */
+    public final Setting<Boolean> pathingAnytime = new Setting<>(false);
+
+    /**
+     * How much {@link #pathingAnytime} inflates the heuristic by for the first path. Higher is faster, but the first
+     * path can be up to this many times as expensive as the best one
+     */
+    public final Setting<Double> pathingAnytimeInitialWeight = new Setting<>(2.0);
+
+    /**
+     * How much {@link #pathingAnytime} lowers the heuristic weight by every time it goes over the search again
+     */
+    public final Setting<Double> pathingAnytimeWeightStep = new Setting<>(0.5);
+
+    /**
+     * Measure how much of every search goes into movement costs, the open set and the heuristic, for the stats command.
+     * Asking for the time that often slows pathing down a little. The heuristic is only timed without
+     * {@link #pathingPrimitiveNodeStore}, and none of it is timed with {@link #pathingThreads} above 1
+     */
+    public final Setting<Boolean> pathingMetricsTiming = new Setting<>(false);
+
+    /**
+     * Write the pathing metrics to baritone/metrics.prom after every search, in the Prometheus text format
+     */
+    public final Setting<Boolean> pathingMetricsExport = new Setting<>(false);
+
     /**
      * How far are you allowed to fall onto solid ground (without a water bucket)?
      * 3 won't deal any damage. But if you just want to get down the mountain quickly and you have
@@ -584,6 +683,40 @@ public final class Settings {
      */
     public final Setting<Boolean> chunkCaching = new Setting<>(true);
 
+    /**
+     * How many threads pack loaded chunks into the cache. Only read when a world is loaded.
+     */
+    public final Setting<Integer> chunkPackerThreads = new Setting<>(2);
+
+    /**
+     * How many chunks can be waiting to be packed at once. Once there are more, the one that's been waiting the longest
+     * is dropped, it'll be queued again when it unloads anyway.
+     */
+    public final Setting<Integer> chunkPackerQueueSize = new Setting<>(2048);
+
+    /**
+     * How many path calculations can run at once, across all bots. Any more wait their turn, with calculations for a
+     * bot that has no path at all going before planning ahead. Only read at startup.
+     */
+    public final Setting<Integer> schedulerPathingThreads = new Setting<>(4);
+
+    /**
+     * How many rescans for blocks (mining, farming, getting to a block) can run at once. A rescan that's still waiting
+     * when the next one for the same process comes along is dropped. Only read at startup.
+     */
+    public final Setting<Integer> schedulerScanningThreads = new Setting<>(2);
+
+    /**
+     * How many threads read and write the cache on disk. Only read at startup.
+     */
+    public final Setting<Integer> schedulerDiskThreads = new Setting<>(2);
+
+    /**
+     * Use virtual threads for reading and writing the cache on disk, on a Java that has them (21 and up). Only read at
+     * startup.
+     */
+    public final Setting<Boolean> schedulerVirtualDiskThreads = new Setting<>(false);
+
     /**
      * On save, delete from RAM any cached regions that are more than 1024 blocks away from the player
      * <p>
@@ -995,11 +1128,32 @@ public final class Settings {
      */
     public final Setting<Integer> builderTickScanRadius = new Setting<>(5);
 
+    /**
+     * Keep track of incorrect schematic blocks from block updates and chunk loads, instead of rescanning the area
+     * around the player every tick and the whole schematic from the start every time it seems done. Only blocks that
+     * changed, and known incorrect blocks within {@link #builderTickScanRadius}, are checked every tick. While there are
+     * more than {@link #incorrectSize} incorrect blocks, the whole area within {@link #builderTickScanRadius} is still
+     * scanned every tick, since not all of them are known.
+     */
+    public final Setting<Boolean> builderIncrementalTracking = new Setting<>(true);
+
     /**
      * While mining, should it also consider dropped items of the correct type as a pathing destination (as well as ore blocks)?
      */
     public final Setting<Boolean> mineScanDroppedItems = new Setting<>(true);
 
+    /**
+     * When scanning loaded chunks for blocks (mining, farming), skip any chunk section whose palette doesn't have a
+     * single matching state, instead of looking at every block in it.
+     */
+    public final Setting<Boolean> worldScannerPaletteFilter = new Setting<>(true);
+
+    /**
+     * When scanning loaded chunks for blocks, scan the chunks at the same distance from the player in parallel on the
+     * common fork join pool. The results are the same and in the same order either way.
+     */
+    public final Setting<Boolean> worldScannerParallel = new Setting<>(true);
+
     /**
      * While mining, wait this number of milliseconds after mining an ore to see if it will drop an item
      * instead of immediately going onto the next one
@@ -19,6 +19,7 @@ package baritone.api.behavior;
 
 import baritone.api.pathing.calc.IPath;
 import baritone.api.pathing.calc.IPathFinder;
+import baritone.api.pathing.calc.IPathingMetrics;
 import baritone.api.pathing.goals.Goal;
 import baritone.api.pathing.path.IPathExecutor;
 
@@ -129,4 +130,9 @@ public interface IPathingBehavior extends IBehavior {
      * @return The next path executor
      */
     IPathExecutor getNext();
+
+    /**
+     * @return What path calculation and execution have been up to, for the stats command and dashboards
+     */
+    IPathingMetrics getMetrics();
 }
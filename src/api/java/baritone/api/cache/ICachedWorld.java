@@ -60,6 +60,9 @@ public interface ICachedWorld {
      * Scans the cached chunks for location of the specified special block. The
      * information that is returned by this method may not be up to date, because
      * older cached chunks can contain data that is much more likely to have changed.
+     * Chunks that haven't been read from disk yet are left out, and read in the background,
+     * so that this doesn't block on the disk. The first call that touches a region can therefore
+     * find nothing in it even though it's cached, and calling it again later may find more.
      *
      * @param block               The special block to search for
      * @param maximum             The maximum number of position results to receive
@@ -70,6 +73,21 @@ public interface ICachedWorld {
      */
     ArrayList<BlockPos> getLocationsOf(String block, int maximum, int centerX, int centerZ, int maxRegionDistanceSq);
 
+    /**
+     * Finds the cached locations of the specified special block that are closest to a position, nearest first. Like
+     * {@link #getLocationsOf(String, int, int, int, int)}, the result may be out of date, and only covers the chunks
+     * read from disk so far, starting to read the rest of every region it touches in the background.
+     *
+     * @param block               The special block to search for
+     * @param maximum             The maximum number of position results to receive
+     * @param centerX             The x block coordinate center of the search
+     * @param centerY             The y block coordinate center of the search
+     * @param centerZ             The z block coordinate center of the search
+     * @param maxRegionDistanceSq The maximum region distance, squared
+     * @return Up to {@code maximum} locations that match the special block, sorted by distance to the center
+     */
+    ArrayList<BlockPos> getNearestLocationsOf(String block, int maximum, int centerX, int centerY, int centerZ, int maxRegionDistanceSq);
+
     /**
      * Reloads all of the cached regions in this world from disk. Anything that is not saved
      * will be lost. This operation does not execute in a new thread by default.
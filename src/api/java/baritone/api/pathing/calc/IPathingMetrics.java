@@ -0,0 +1,61 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.api.pathing.calc;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Counters, gauges and histograms about how path calculation and execution have been going, since the game started
+ * or they were last {@link #reset()}. Every sample is named the way it's exported in the Prometheus text format,
+ * labels included, for example {@code baritone_searches_total{result="success_to_goal"}}.
+ *
+ * @see baritone.api.behavior.IPathingBehavior#getMetrics()
+ */
+public interface IPathingMetrics {
+
+    /**
+     * @param sample The full name of a sample, including its labels if it has any
+     * @return Its current value, or 0 if nothing has been recorded under that name yet
+     */
+    double get(String sample);
+
+    /**
+     * @return A copy of every sample, in the order they're exported in
+     */
+    Map<String, Double> getSamples();
+
+    /**
+     * @return Every metric in the Prometheus text exposition format, with help and type lines
+     */
+    String toPrometheusText();
+
+    /**
+     * Writes {@link #toPrometheusText()} to a file, replacing it all at once so that a scraper never reads half of it
+     *
+     * @param file The file to write to
+     * @throws IOException If it couldn't be written
+     */
+    void writeTo(Path file) throws IOException;
+
+    /**
+     * Sets everything back to zero
+     */
+    void reset();
+}
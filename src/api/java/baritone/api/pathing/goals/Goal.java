@@ -68,4 +68,17 @@ public interface Goal {
     default double heuristic() {
         return 0;
     }
+
+    /**
+     * Returns a box around everywhere this goal can be satisfied, so that it can be found by position in a
+     * {@link IndexedGoalComposite}. A goal may only report a box if it is never satisfied outside of it, and if its
+     * {@link #heuristic(int, int, int)} is never less than {@link GoalBlock#calculate} to the nearest point of the box.
+     * A subclass that changes either of those must make sure that still holds, or report no box.
+     *
+     * @param box Filled with the inclusive bounds, as min x, min y, min z, max x, max y, max z
+     * @return Whether this goal has such a box at all
+     */
+    default boolean bounds(int[] box) {
+        return false;
+    }
 }
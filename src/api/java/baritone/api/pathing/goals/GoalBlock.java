@@ -66,6 +66,17 @@ public class GoalBlock implements Goal, IGoalRenderPos {
         return calculate(xDiff, yDiff, zDiff);
     }
 
+    @Override
+    public boolean bounds(int[] box) {
+        box[0] = x;
+        box[1] = y;
+        box[2] = z;
+        box[3] = x;
+        box[4] = y;
+        box[5] = z;
+        return true;
+    }
+
     @Override
     public String toString() {
         return String.format(
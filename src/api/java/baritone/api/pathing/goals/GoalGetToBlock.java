@@ -60,6 +60,17 @@ public class GoalGetToBlock implements Goal, IGoalRenderPos {
         return GoalBlock.calculate(xDiff, yDiff < 0 ? yDiff + 1 : yDiff, zDiff);
     }
 
+    @Override
+    public boolean bounds(int[] box) {
+        box[0] = x - 1;
+        box[1] = y - 2;
+        box[2] = z - 1;
+        box[3] = x + 1;
+        box[4] = y + 1;
+        box[5] = z + 1;
+        return true;
+    }
+
     @Override
     public String toString() {
         return String.format(
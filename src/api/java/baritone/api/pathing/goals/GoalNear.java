@@ -81,6 +81,18 @@ public class GoalNear implements Goal, IGoalRenderPos {
         return maxInside;
     }
 
+    @Override
+    public boolean bounds(int[] box) {
+        int range = (int) Math.ceil(Math.sqrt(rangeSq));
+        box[0] = x - range;
+        box[1] = y - range;
+        box[2] = z - range;
+        box[3] = x + range;
+        box[4] = y + range;
+        box[5] = z + range;
+        return true;
+    }
+
     @Override
     public BlockPos getGoalPos() {
         return new BlockPos(x, y, z);
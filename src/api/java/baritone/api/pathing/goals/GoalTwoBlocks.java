@@ -72,6 +72,17 @@ public class GoalTwoBlocks implements Goal, IGoalRenderPos {
         return new BlockPos(x, y, z);
     }
 
+    @Override
+    public boolean bounds(int[] box) {
+        box[0] = x;
+        box[1] = y - 1;
+        box[2] = z;
+        box[3] = x;
+        box[4] = y;
+        box[5] = z;
+        return true;
+    }
+
     @Override
     public String toString() {
         return String.format(
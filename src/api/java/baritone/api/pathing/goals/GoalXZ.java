@@ -64,6 +64,17 @@ public class GoalXZ implements Goal {
         return calculate(xDiff, zDiff);
     }
 
+    @Override
+    public boolean bounds(int[] box) {
+        box[0] = x;
+        box[1] = Integer.MIN_VALUE;
+        box[2] = z;
+        box[3] = x;
+        box[4] = Integer.MAX_VALUE;
+        box[5] = z;
+        return true;
+    }
+
     @Override
     public String toString() {
         return String.format(
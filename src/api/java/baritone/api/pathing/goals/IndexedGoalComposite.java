@@ -0,0 +1,233 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package baritone.api.pathing.goals;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link GoalComposite} that finds its closest members by position instead of asking every one of them, for
+ * composites of hundreds of goals like every known ore or every nearby chest.
+ * <p>
+ * Members that report {@link Goal#bounds(int[])} are put into a grid of square columns, sized so that there are about
+ * as many columns as members. {@link #heuristic(int, int, int)} then looks at the columns in rings around the position,
+ * and stops once no member in the next ring could possibly be closer than the best one so far.
+ * {@link #isInGoal(int, int, int)} only looks at the one column the position is in. Members without bounds, or with
+ * bounds too large to be worth it, are always asked, just like in a plain {@link GoalComposite}.
+ */
+public class IndexedGoalComposite extends GoalComposite {
+
+    /**
+     * Fewer members than this are faster to just go through
+     */
+    private static final int MIN_INDEXED = 16;
+
+    /**
+     * Members whose bounds cover more columns than this are always asked instead
+     */
+    private static final int MAX_COLUMNS_PER_GOAL = 64;
+
+    /**
+     * Members that aren't in the grid
+     */
+    private final Goal[] unindexed;
+
+    /**
+     * Column x and z (packed like a chunk position) to the members whose bounds overlap it, or null if not indexed at all
+     */
+    private final Long2ObjectOpenHashMap<int[]> columns;
+
+    /**
+     * The bounds of every member, six ints each, see {@link Goal#bounds(int[])}
+     */
+    private final int[] bounds;
+
+    /**
+     * Columns are {@code 1 << shift} blocks wide
+     */
+    private final int shift;
+
+    /**
+     * The columns that have anything in them are all within these
+     */
+    private final int minColumnX;
+    private final int minColumnZ;
+    private final int maxColumnX;
+    private final int maxColumnZ;
+
+    public IndexedGoalComposite(Goal... goals) {
+        super(goals);
+        this.bounds = new int[goals.length * 6];
+        if (goals.length < MIN_INDEXED) {
+            this.unindexed = goals;
+            this.columns = null;
+            this.shift = 0;
+            this.minColumnX = this.minColumnZ = this.maxColumnX = this.maxColumnZ = 0;
+            return;
+        }
+        boolean[] bounded = new boolean[goals.length];
+        int[] box = new int[6];
+        long minX = Long.MAX_VALUE;
+        long minZ = Long.MAX_VALUE;
+        long maxX = Long.MIN_VALUE;
+        long maxZ = Long.MIN_VALUE;
+        int count = 0;
+        for (int i = 0; i < goals.length; i++) {
+            if (!goals[i].bounds(box)) {
+                continue;
+            }
+            System.arraycopy(box, 0, bounds, i * 6, 6);
+            bounded[i] = true;
+            minX = Math.min(minX, box[0]);
+            minZ = Math.min(minZ, box[2]);
+            maxX = Math.max(maxX, box[3]);
+            maxZ = Math.max(maxZ, box[5]);
+            count++;
+        }
+        // about one column per member, but no smaller than a chunk and no larger than a region
+        int shift = 4;
+        if (count > 0) {
+            double area = (double) (maxX - minX + 1) * (double) (maxZ - minZ + 1);
+            while (shift < 9 && (double) (1L << (2 * shift)) * count < area) {
+                shift++;
+            }
+        }
+        this.shift = shift;
+        Long2ObjectOpenHashMap<IntArrayList> building = new Long2ObjectOpenHashMap<>();
+        List<Goal> unindexed = new ArrayList<>();
+        int minColumnX = Integer.MAX_VALUE;
+        int minColumnZ = Integer.MAX_VALUE;
+        int maxColumnX = Integer.MIN_VALUE;
+        int maxColumnZ = Integer.MIN_VALUE;
+        for (int i = 0; i < goals.length; i++) {
+            int x0 = bounds[i * 6] >> shift;
+            int z0 = bounds[i * 6 + 2] >> shift;
+            int x1 = bounds[i * 6 + 3] >> shift;
+            int z1 = bounds[i * 6 + 5] >> shift;
+            if (!bounded[i] || (long) (x1 - x0 + 1) * (z1 - z0 + 1) > MAX_COLUMNS_PER_GOAL) {
+                unindexed.add(goals[i]);
+                continue;
+            }
+            for (int cx = x0; cx <= x1; cx++) {
+                for (int cz = z0; cz <= z1; cz++) {
+                    building.computeIfAbsent(column(cx, cz), c -> new IntArrayList()).add(i);
+                }
+            }
+            minColumnX = Math.min(minColumnX, x0);
+            minColumnZ = Math.min(minColumnZ, z0);
+            maxColumnX = Math.max(maxColumnX, x1);
+            maxColumnZ = Math.max(maxColumnZ, z1);
+        }
+        this.unindexed = unindexed.toArray(new Goal[0]);
+        this.columns = new Long2ObjectOpenHashMap<>(building.size());
+        for (Long2ObjectMap.Entry<IntArrayList> entry : building.long2ObjectEntrySet()) {
+            this.columns.put(entry.getLongKey(), entry.getValue().toIntArray());
+        }
+        this.minColumnX = minColumnX;
+        this.minColumnZ = minColumnZ;
+        this.maxColumnX = maxColumnX;
+        this.maxColumnZ = maxColumnZ;
+    }
+
+    @Override
+    public boolean isInGoal(int x, int y, int z) {
+        for (Goal goal : unindexed) {
+            if (goal.isInGoal(x, y, z)) {
+                return true;
+            }
+        }
+        if (columns == null) {
+            return false;
+        }
+        int[] members = columns.get(column(x >> shift, z >> shift));
+        if (members == null) {
+            return false;
+        }
+        Goal[] goals = goals();
+        for (int i : members) {
+            int b = i * 6;
+            if (x >= bounds[b] && x <= bounds[b + 3]
+                    && y >= bounds[b + 1] && y <= bounds[b + 4]
+                    && z >= bounds[b + 2] && z <= bounds[b + 5]
+                    && goals[i].isInGoal(x, y, z)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public double heuristic(int x, int y, int z) {
+        double min = Double.MAX_VALUE;
+        for (Goal goal : unindexed) {
+            min = Math.min(min, goal.heuristic(x, y, z));
+        }
+        if (columns == null || columns.isEmpty()) {
+            return min;
+        }
+        Goal[] goals = goals();
+        int cx = x >> shift;
+        int cz = z >> shift;
+        // no need to look at rings that are entirely outside of the columns that have anything in them
+        int first = Math.max(Math.max(minColumnX - cx, cx - maxColumnX), Math.max(minColumnZ - cz, cz - maxColumnZ));
+        int last = Math.max(Math.max(cx - minColumnX, maxColumnX - cx), Math.max(cz - minColumnZ, maxColumnZ - cz));
+        for (int r = Math.max(first, 0); r <= last; r++) {
+            // every column in ring r is at least r - 1 whole columns away along x or z
+            if (r > 0 && GoalBlock.calculate(((r - 1) << shift) + 1, 0, 0) >= min) {
+                break;
+            }
+            // only the part of the ring that overlaps the columns with anything in them
+            int dxMin = Math.max(-r, minColumnX - cx);
+            int dxMax = Math.min(r, maxColumnX - cx);
+            int dzMin = Math.max(-r, minColumnZ - cz);
+            int dzMax = Math.min(r, maxColumnZ - cz);
+            for (int dx = dxMin; dx <= dxMax; dx++) {
+                if (dx == -r || dx == r) {
+                    for (int dz = dzMin; dz <= dzMax; dz++) {
+                        min = visit(goals, cx + dx, cz + dz, x, y, z, min);
+                    }
+                } else {
+                    if (-r >= dzMin) {
+                        min = visit(goals, cx + dx, cz - r, x, y, z, min);
+                    }
+                    if (r <= dzMax) {
+                        min = visit(goals, cx + dx, cz + r, x, y, z, min);
+                    }
+                }
+            }
+        }
+        return min;
+    }
+
+    private double visit(Goal[] goals, int columnX, int columnZ, int x, int y, int z, double min) {
+        int[] members = columns.get(column(columnX, columnZ));
+        if (members != null) {
+            for (int i : members) {
+                min = Math.min(min, goals[i].heuristic(x, y, z));
+            }
+        }
+        return min;
+    }
+
+    private static long column(int x, int z) {
+        return (long) x & 0xFFFFFFFFL | ((long) z & 0xFFFFFFFFL) << 32;
+    }
+}
@@ -50,11 +50,14 @@ import java.util.stream.Stream;
 
 public class SettingsUtil {
 
-    private static final Path SETTINGS_PATH = Minecraft.getInstance().gameDirectory.toPath().resolve("baritone").resolve("settings.txt");
     private static final Pattern SETTING_PATTERN = Pattern.compile("^(?<setting>[^ ]+) +(?<value>.+)"); // key and value split by the first space
     private static final String[] JAVA_ONLY_SETTINGS = {"logger", "notifier", "toaster"};
 
 
+    private static Path settingsPath() {
+        return Minecraft.getInstance().gameDirectory.toPath().resolve("baritone").resolve("settings.txt");
+    }
+
     private static boolean isComment(String line) {
         return line.startsWith("#") || line.startsWith("//");
     }
@@ -72,8 +75,12 @@ public class SettingsUtil {
     }
 
     public static void readAndApply(Settings settings) {
+        if (Minecraft.getInstance() == null) {
+            // no game directory to read from, e.g. running headless in the benchmarks, so just keep the defaults
+            return;
+        }
         try {
-            forEachLine(SETTINGS_PATH, line -> {
+            forEachLine(settingsPath(), line -> {
                 Matcher matcher = SETTING_PATTERN.matcher(line);
                 if (!matcher.matches()) {
                     System.out.println("Invalid syntax in setting file: " + line);
@@ -98,7 +105,7 @@ public class SettingsUtil {
     }
 
     public static synchronized void save(Settings settings) {
-        try (BufferedWriter out = Files.newBufferedWriter(SETTINGS_PATH)) {
+        try (BufferedWriter out = Files.newBufferedWriter(settingsPath())) {
             for (Settings.Setting setting : modifiedSettings(settings)) {
                 out.write(settingToString(setting) + "\n");
             }
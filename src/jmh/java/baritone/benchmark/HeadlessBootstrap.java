@@ -0,0 +1,78 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.benchmark;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.tags.BlockTags;
+import net.minecraft.util.valueproviders.UniformInt;
+import net.minecraft.world.level.dimension.BuiltinDimensionTypes;
+import net.minecraft.world.level.dimension.DimensionType;
+
+import java.util.OptionalLong;
+
+/**
+ * Everything needed to run Baritone code in a JVM without a game, which is what the benchmarks do. Only the block and
+ * item registries are set up, so anything that needs a player, a level or the client will still fail.
+ */
+public final class HeadlessBootstrap {
+
+    private static boolean done;
+
+    private HeadlessBootstrap() {
+    }
+
+    public static synchronized void bootstrap() {
+        if (done) {
+            return;
+        }
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+        done = true;
+    }
+
+    /**
+     * Creates a dimension type with the given bounds, roughly like the vanilla ones. Only {@link DimensionType#minY()},
+     * {@link DimensionType#height()}, {@link DimensionType#natural()} and {@link DimensionType#ultraWarm()} are
+     * actually read by the cache.
+     *
+     * @param minY   The lowest y level, must be a multiple of 16
+     * @param height The height, must be a multiple of 16
+     * @param nether Whether this should be nether-like, rather than overworld-like
+     * @return The dimension type
+     */
+    public static DimensionType dimension(int minY, int height, boolean nether) {
+        return new DimensionType(
+                nether ? OptionalLong.of(18000L) : OptionalLong.empty(),
+                !nether,
+                nether,
+                nether,
+                !nether,
+                nether ? 8.0 : 1.0,
+                !nether,
+                nether,
+                minY,
+                height,
+                nether ? 128 : height,
+                nether ? BlockTags.INFINIBURN_NETHER : BlockTags.INFINIBURN_OVERWORLD,
+                nether ? BuiltinDimensionTypes.NETHER_EFFECTS : BuiltinDimensionTypes.OVERWORLD_EFFECTS,
+                nether ? 0.1F : 0.0F,
+                new DimensionType.MonsterSettings(nether, !nether, nether ? UniformInt.of(7, 7) : UniformInt.of(0, 7), nether ? 15 : 0)
+        );
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.benchmark;
+
+import baritone.utils.ToolSet;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link ToolSet} without a player, that always mines with a diamond pickaxe. Since potion effects would be read off
+ * of the player, {@link baritone.api.Settings#considerPotionEffects} must be off before creating one.
+ */
+public final class PickaxeToolSet extends ToolSet {
+
+    private static final ItemStack PICKAXE = new ItemStack(Items.DIAMOND_PICKAXE);
+
+    private final Map<Block, Double> cache = new HashMap<>();
+
+    public PickaxeToolSet() {
+        super(null);
+    }
+
+    @Override
+    public double getStrVsBlock(BlockState state) {
+        return cache.computeIfAbsent(state.getBlock(), block -> calculateSpeedVsBlock(PICKAXE, block.defaultBlockState()));
+    }
+}
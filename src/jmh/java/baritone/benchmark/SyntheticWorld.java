@@ -0,0 +1,385 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.benchmark;
+
+import baritone.api.pathing.goals.Goal;
+import baritone.api.pathing.goals.GoalBlock;
+import baritone.api.utils.BetterBlockPos;
+import baritone.utils.BlockStateInterface;
+import baritone.utils.pathing.BetterWorldBorder;
+import net.minecraft.core.Registry;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.border.WorldBorder;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.dimension.DimensionType;
+
+/**
+ * A fixed size, fully generated world that A* can path through and that chunks can be built from. Generation only
+ * depends on the terrain and the seed, so every fork of a benchmark sees exactly the same blocks.
+ * <p>
+ * The world spans {@link #SIZE} blocks on x and z starting at 0, everything outside of that is air and not loaded.
+ */
+public final class SyntheticWorld extends BlockStateInterface {
+
+    public static final int SIZE = 256;
+
+    private static final BlockState[] PALETTE = {
+            Blocks.AIR.defaultBlockState(),
+            Blocks.STONE.defaultBlockState(),
+            Blocks.DIRT.defaultBlockState(),
+            Blocks.GRASS_BLOCK.defaultBlockState(),
+            Blocks.GRASS.defaultBlockState(),
+            Blocks.BEDROCK.defaultBlockState(),
+            Blocks.SAND.defaultBlockState(),
+            Blocks.WATER.defaultBlockState(),
+            Blocks.NETHERRACK.defaultBlockState(),
+            Blocks.LAVA.defaultBlockState(),
+            Blocks.DIAMOND_ORE.defaultBlockState(),
+            Blocks.GRAVEL.defaultBlockState()
+    };
+    private static final byte AIR = 0;
+    private static final byte STONE = 1;
+    private static final byte DIRT = 2;
+    private static final byte GRASS_BLOCK = 3;
+    private static final byte GRASS = 4;
+    private static final byte BEDROCK = 5;
+    private static final byte SAND = 6;
+    private static final byte WATER = 7;
+    private static final byte NETHERRACK = 8;
+    private static final byte LAVA = 9;
+    private static final byte DIAMOND_ORE = 10;
+    private static final byte GRAVEL = 11;
+
+    public enum Terrain {
+        /**
+         * Superflat-ish grass with scattered plants and pillars to walk around
+         */
+        FLAT(-64, 384),
+        /**
+         * Solid stone riddled with noise caves, with a winding tunnel from start to goal
+         */
+        CAVE(-64, 384),
+        /**
+         * Open water over an uneven sea floor, between two islands
+         */
+        OCEAN(-64, 384),
+        /**
+         * Netherrack caverns over a lava sea between two bedrock layers, with a winding tunnel from start to goal
+         */
+        NETHER(0, 256);
+
+        public final int minY;
+        public final int height;
+
+        Terrain(int minY, int height) {
+            this.minY = minY;
+            this.height = height;
+        }
+    }
+
+    public final Terrain terrain;
+    public final int minY;
+    public final int height;
+    private final long seed;
+    private final byte[] blocks;
+    private BetterBlockPos start;
+    private BetterBlockPos end;
+
+    public SyntheticWorld(Terrain terrain, long seed) {
+        super(new BetterWorldBorder(new WorldBorder()));
+        this.terrain = terrain;
+        this.minY = terrain.minY;
+        this.height = terrain.height;
+        this.seed = seed;
+        this.blocks = new byte[SIZE * SIZE * height];
+        switch (terrain) {
+            case FLAT:
+                generateFlat();
+                break;
+            case CAVE:
+                generateCave();
+                break;
+            case OCEAN:
+                generateOcean();
+                break;
+            case NETHER:
+                generateNether();
+                break;
+            default:
+                throw new IllegalStateException();
+        }
+    }
+
+    public BetterBlockPos start() {
+        return start;
+    }
+
+    public Goal goal() {
+        return new GoalBlock(end.x, end.y, end.z);
+    }
+
+    public DimensionType dimensionType() {
+        return HeadlessBootstrap.dimension(minY, height, terrain == Terrain.NETHER);
+    }
+
+    @Override
+    public BlockState get0(int x, int y, int z) {
+        y -= minY;
+        if (y < 0 || y >= height || x < 0 || x >= SIZE || z < 0 || z >= SIZE) {
+            return PALETTE[AIR];
+        }
+        return PALETTE[blocks[index(x, y, z)]];
+    }
+
+    @Override
+    public boolean isLoaded(int x, int z) {
+        return x >= 0 && x < SIZE && z >= 0 && z < SIZE;
+    }
+
+    @Override
+    public boolean worldContainsLoadedChunk(int blockX, int blockZ) {
+        return isLoaded(blockX, blockZ);
+    }
+
+    /**
+     * Builds the sections of a chunk of this world, the same way they'd be stored in a real chunk.
+     *
+     * @param chunkX The chunk x, from 0 to {@code SIZE / 16}
+     * @param chunkZ The chunk z, from 0 to {@code SIZE / 16}
+     * @param biomes The biome registry, which the sections need for their biome containers
+     * @return The sections, bottom to top
+     */
+    public LevelChunkSection[] sections(int chunkX, int chunkZ, Registry<Biome> biomes) {
+        LevelChunkSection[] sections = new LevelChunkSection[height >> 4];
+        for (int i = 0; i < sections.length; i++) {
+            LevelChunkSection section = new LevelChunkSection(i + (minY >> 4), biomes);
+            for (int y = 0; y < 16; y++) {
+                for (int z = 0; z < 16; z++) {
+                    for (int x = 0; x < 16; x++) {
+                        byte block = blocks[index(chunkX << 4 | x, i << 4 | y, chunkZ << 4 | z)];
+                        if (block != AIR) {
+                            section.setBlockState(x, y, z, PALETTE[block], false);
+                        }
+                    }
+                }
+            }
+            sections[i] = section;
+        }
+        return sections;
+    }
+
+    private void generateFlat() {
+        int surface = 63 - minY;
+        for (int x = 0; x < SIZE; x++) {
+            for (int z = 0; z < SIZE; z++) {
+                set(x, 0, z, BEDROCK);
+                fill(x, 1, surface - 4, z, STONE);
+                fill(x, surface - 3, surface - 1, z, DIRT);
+                set(x, surface, z, GRASS_BLOCK);
+                double r = random(x, 0, z);
+                if (r < 0.02) {
+                    fill(x, surface + 1, surface + 3, z, STONE);
+                } else if (r < 0.12) {
+                    set(x, surface + 1, z, GRASS);
+                }
+            }
+        }
+        scatterOres();
+        start = clearAt(8, surface + 1, 8);
+        end = clearAt(SIZE - 8, surface + 1, SIZE - 8);
+    }
+
+    private void generateOcean() {
+        int sea = 62 - minY;
+        for (int x = 0; x < SIZE; x++) {
+            for (int z = 0; z < SIZE; z++) {
+                int floor = 30 - minY + (int) (noise(x, 0, z, 32) * 20);
+                set(x, 0, z, BEDROCK);
+                fill(x, 1, floor - 3, z, STONE);
+                fill(x, floor - 2, floor, z, random(x, 1, z) < 0.5 ? SAND : GRAVEL);
+                fill(x, floor + 1, sea, z, WATER);
+            }
+        }
+        scatterOres();
+        start = island(8, 8, sea + 1);
+        end = island(SIZE - 8, SIZE - 8, sea + 1);
+    }
+
+    private void generateCave() {
+        for (int x = 0; x < SIZE; x++) {
+            for (int z = 0; z < SIZE; z++) {
+                set(x, 0, z, BEDROCK);
+                fill(x, 1, 63 - minY, z, STONE);
+                set(x, 64 - minY, z, GRASS_BLOCK);
+                for (int y = 10; y < 100; y++) {
+                    if (noise(x, y, z, 16) > 0.62) {
+                        set(x, y, z, y < 16 ? LAVA : AIR);
+                    }
+                }
+            }
+        }
+        scatterOres();
+        tunnel(-40 - minY, 30 - minY);
+    }
+
+    private void generateNether() {
+        for (int x = 0; x < SIZE; x++) {
+            for (int z = 0; z < SIZE; z++) {
+                set(x, 0, z, BEDROCK);
+                set(x, 127, z, BEDROCK);
+                for (int y = 1; y < 127; y++) {
+                    if (noise(x, y, z, 24) < 0.55) {
+                        set(x, y, z, NETHERRACK);
+                    } else if (y <= 31) {
+                        set(x, y, z, LAVA);
+                    }
+                }
+            }
+        }
+        tunnel(40, 100);
+    }
+
+    /**
+     * Carves a 3 tall, 3 wide winding tunnel from one corner of the world to the other, with the start and the end of
+     * the path at its ends, so that there is always at least one way through.
+     */
+    private void tunnel(int minTunnelY, int maxTunnelY) {
+        int x = 8;
+        int z = 8;
+        int y = (minTunnelY + maxTunnelY) / 2;
+        start = carve(x, y, z);
+        int step = 0;
+        while (x != SIZE - 8 || z != SIZE - 8) {
+            double r = random(x, step, z);
+            if (r < 0.4 && x != SIZE - 8) {
+                x++;
+            } else if (r < 0.8 && z != SIZE - 8) {
+                z++;
+            } else if (r < 0.87 && x > 8) {
+                x--;
+            } else if (r < 0.94 && z > 8) {
+                z--;
+            } else if (r < 0.97) {
+                y = Math.min(y + 1, maxTunnelY);
+            } else {
+                y = Math.max(y - 1, minTunnelY);
+            }
+            carve(x, y, z);
+            step++;
+        }
+        end = carve(x, y, z);
+    }
+
+    private BetterBlockPos carve(int x, int y, int z) {
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dz = -1; dz <= 1; dz++) {
+                set(x + dx, y - 1, z + dz, terrain == Terrain.NETHER ? NETHERRACK : STONE);
+                fill(x + dx, y, y + 2, z + dz, AIR);
+            }
+        }
+        return new BetterBlockPos(x, y + minY, z);
+    }
+
+    private BetterBlockPos island(int x, int z, int y) {
+        for (int dx = -6; dx <= 6; dx++) {
+            for (int dz = -6; dz <= 6; dz++) {
+                if (dx * dx + dz * dz <= 36) {
+                    fill(x + dx, 1, y - 1, z + dz, SAND);
+                }
+            }
+        }
+        return new BetterBlockPos(x, y + minY, z);
+    }
+
+    private BetterBlockPos clearAt(int x, int y, int z) {
+        fill(x, y, y + 1, z, AIR);
+        return new BetterBlockPos(x, y + minY, z);
+    }
+
+    private void scatterOres() {
+        for (int x = 0; x < SIZE; x++) {
+            for (int z = 0; z < SIZE; z++) {
+                for (int y = 1; y < 16 - minY; y++) {
+                    if (blocks[index(x, y, z)] == STONE && random(x, y, z) < 0.002) {
+                        set(x, y, z, DIAMOND_ORE);
+                    }
+                }
+            }
+        }
+    }
+
+    private void fill(int x, int fromY, int toY, int z, byte block) {
+        for (int y = fromY; y <= toY; y++) {
+            set(x, y, z, block);
+        }
+    }
+
+    private void set(int x, int y, int z, byte block) {
+        if (y >= 0 && y < height && x >= 0 && x < SIZE && z >= 0 && z < SIZE) {
+            blocks[index(x, y, z)] = block;
+        }
+    }
+
+    private static int index(int x, int y, int z) {
+        return (y * SIZE + z) * SIZE + x;
+    }
+
+    /**
+     * @return A value in [0, 1) that only depends on the seed and the coordinates
+     */
+    private double random(int x, int y, int z) {
+        long h = seed;
+        h = mix(h ^ x);
+        h = mix(h ^ y);
+        h = mix(h ^ z);
+        return (h >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Trilinearly interpolated value noise in [0, 1), with lattice points every {@code scale} blocks
+     */
+    private double noise(int x, int y, int z, int scale) {
+        int x0 = Math.floorDiv(x, scale);
+        int y0 = Math.floorDiv(y, scale);
+        int z0 = Math.floorDiv(z, scale);
+        double fx = smooth((x - x0 * scale) / (double) scale);
+        double fy = smooth((y - y0 * scale) / (double) scale);
+        double fz = smooth((z - z0 * scale) / (double) scale);
+        double c00 = lerp(fx, random(x0, y0, z0), random(x0 + 1, y0, z0));
+        double c10 = lerp(fx, random(x0, y0 + 1, z0), random(x0 + 1, y0 + 1, z0));
+        double c01 = lerp(fx, random(x0, y0, z0 + 1), random(x0 + 1, y0, z0 + 1));
+        double c11 = lerp(fx, random(x0, y0 + 1, z0 + 1), random(x0 + 1, y0 + 1, z0 + 1));
+        return lerp(fz, lerp(fy, c00, c10), lerp(fy, c01, c11));
+    }
+
+    private static double smooth(double t) {
+        return t * t * (3 - 2 * t);
+    }
+
+    private static double lerp(double t, double a, double b) {
+        return a + t * (b - a);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+}
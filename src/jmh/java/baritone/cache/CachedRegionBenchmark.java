@@ -0,0 +1,99 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.cache;
+
+import baritone.benchmark.HeadlessBootstrap;
+import baritone.benchmark.SyntheticWorld;
+import net.minecraft.data.BuiltinRegistries;
+import net.minecraft.world.level.EmptyBlockGetter;
+import net.minecraft.world.level.dimension.DimensionType;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Saving one changed chunk of, and loading all of, a region with all 32x32 chunks cached, built by tiling the chunks
+ * of a {@link SyntheticWorld}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2G")
+public class CachedRegionBenchmark {
+
+    @Param({"FLAT", "CAVE", "OCEAN", "NETHER"})
+    public SyntheticWorld.Terrain terrain;
+
+    private DimensionType dimension;
+    private CachedRegion region;
+    private CachedChunk first;
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        HeadlessBootstrap.bootstrap();
+        SyntheticWorld world = new SyntheticWorld(terrain, 42);
+        dimension = world.dimensionType();
+        region = new CachedRegion(0, 0, dimension);
+        int chunks = SyntheticWorld.SIZE >> 4;
+        for (int x = 0; x < 32; x++) {
+            for (int z = 0; z < 32; z++) {
+                CachedChunk chunk = ChunkPacker.pack(x, z, world.sections(x % chunks, z % chunks, BuiltinRegistries.BIOME), world.minY, world.height, EmptyBlockGetter.INSTANCE);
+                region.updateCachedChunk(x, z, chunk);
+                if (x == 0 && z == 0) {
+                    first = chunk;
+                }
+            }
+        }
+        directory = Files.createTempDirectory("baritone-region-benchmark");
+        region.save(directory.toString());
+    }
+
+    @Setup(Level.Invocation)
+    public void markUnsaved() {
+        // save is a no op unless something changed since the last one
+        region.updateCachedChunk(0, 0, first);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void save() {
+        region.save(directory.toString());
+    }
+
+    @Benchmark
+    public CachedRegion load() {
+        CachedRegion loaded = new CachedRegion(0, 0, dimension);
+        loaded.load(directory.toString());
+        loaded.loadAll();
+        return loaded;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.cache;
+
+import baritone.benchmark.HeadlessBootstrap;
+import baritone.benchmark.SyntheticWorld;
+import net.minecraft.data.BuiltinRegistries;
+import net.minecraft.world.level.EmptyBlockGetter;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ChunkPacker#pack} over every chunk of a {@link SyntheticWorld}, reported per chunk.
+ * <p>
+ * Packing a real {@link net.minecraft.world.level.chunk.LevelChunk} needs a level behind it, so this packs the same
+ * sections directly, with an empty level for the water flow checks on the chunk border. The mixins aren't applied
+ * here either, so this measures the path that reads every block through {@code PalettedContainer.get} rather than
+ * palette ids.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2G")
+public class ChunkPackerBenchmark {
+
+    private static final int CHUNKS = SyntheticWorld.SIZE >> 4;
+
+    @Param({"FLAT", "CAVE", "OCEAN", "NETHER"})
+    public SyntheticWorld.Terrain terrain;
+
+    private SyntheticWorld world;
+    private LevelChunkSection[][][] sections;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        HeadlessBootstrap.bootstrap();
+        world = new SyntheticWorld(terrain, 42);
+        sections = new LevelChunkSection[CHUNKS][CHUNKS][];
+        for (int x = 0; x < CHUNKS; x++) {
+            for (int z = 0; z < CHUNKS; z++) {
+                sections[x][z] = world.sections(x, z, BuiltinRegistries.BIOME);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHUNKS * CHUNKS)
+    public void pack(Blackhole blackhole) {
+        for (int x = 0; x < CHUNKS; x++) {
+            for (int z = 0; z < CHUNKS; z++) {
+                blackhole.consume(ChunkPacker.pack(x, z, sections[x][z], world.minY, world.height, EmptyBlockGetter.INSTANCE));
+            }
+        }
+    }
+}
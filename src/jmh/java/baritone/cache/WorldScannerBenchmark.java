@@ -0,0 +1,118 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.cache;
+
+import baritone.api.utils.BlockOptionalMeta;
+import baritone.api.utils.BlockOptionalMetaLookup;
+import baritone.benchmark.HeadlessBootstrap;
+import baritone.benchmark.SyntheticWorld;
+import net.minecraft.core.BlockPos;
+import net.minecraft.data.BuiltinRegistries;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * The scan behind {@link WorldScanner#scanChunk} over every chunk of a {@link SyntheticWorld}, reported per chunk.
+ * Like {@link ChunkPackerBenchmark}, this scans the sections directly since there's no level to get chunks from.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2G")
+public class WorldScannerBenchmark {
+
+    private static final int CHUNKS = SyntheticWorld.SIZE >> 4;
+
+    @Param({"FLAT", "CAVE", "OCEAN", "NETHER"})
+    public SyntheticWorld.Terrain terrain;
+
+    /**
+     * A rare block and a common one
+     */
+    @Param({"diamond_ore", "lava"})
+    public String target;
+
+    /**
+     * See {@link baritone.api.Settings#worldScannerPaletteFilter}
+     */
+    @Param({"true", "false"})
+    public boolean paletteFilter;
+
+    private SyntheticWorld world;
+    private LevelChunkSection[][][] sections;
+    private BlockOptionalMetaLookup filter;
+    private int[] order;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        HeadlessBootstrap.bootstrap();
+        world = new SyntheticWorld(terrain, 42);
+        sections = new LevelChunkSection[CHUNKS][CHUNKS][];
+        for (int x = 0; x < CHUNKS; x++) {
+            for (int z = 0; z < CHUNKS; z++) {
+                sections[x][z] = world.sections(x, z, BuiltinRegistries.BIOME);
+            }
+        }
+        filter = new StateLookup(target.equals("lava") ? Blocks.LAVA : Blocks.DIAMOND_ORE);
+        order = IntStream.range(0, world.height >> 4).toArray();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHUNKS * CHUNKS)
+    public int scan() {
+        ArrayList<BlockPos> result = new ArrayList<>();
+        for (int x = 0; x < CHUNKS; x++) {
+            for (int z = 0; z < CHUNKS; z++) {
+                WorldScanner.scanSectionsInto(x << 4, z << 4, world.minY, sections[x][z], filter, result, Integer.MAX_VALUE, 10, 64, order, paletteFilter);
+            }
+        }
+        return result.size();
+    }
+
+    /**
+     * Matches states the same way {@link BlockOptionalMeta#matches(BlockState)} does. A real
+     * {@link BlockOptionalMeta} can't be made without a game, it looks up the block's drops in the loot tables.
+     */
+    private static final class StateLookup extends BlockOptionalMetaLookup {
+
+        private final Block block;
+        private final Set<Integer> stateHashes;
+
+        private StateLookup(Block block) {
+            super(new BlockOptionalMeta[0]);
+            this.block = block;
+            this.stateHashes = block.getStateDefinition().getPossibleStates().stream().map(BlockState::hashCode).collect(Collectors.toSet());
+        }
+
+        @Override
+        public boolean has(BlockState state) {
+            return state.getBlock() == block && stateHashes.contains(state.hashCode());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc;
+
+import baritone.Baritone;
+import baritone.api.pathing.calc.IPath;
+import baritone.api.utils.BetterBlockPos;
+import baritone.api.utils.PathCalculationResult;
+import baritone.benchmark.HeadlessBootstrap;
+import baritone.benchmark.PickaxeToolSet;
+import baritone.benchmark.SyntheticWorld;
+import baritone.pathing.movement.CalculationContext;
+import baritone.utils.pathing.Favoring;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One complete A* search from one corner of a {@link SyntheticWorld} to the other, with the default settings. The
+ * timeouts are long enough that no search is cut short by the clock, so each invocation does the same work.
+ * <p>
+ * Run with {@code -prof gc} to see the allocation rate per search, the node throughput is reported as the
+ * {@code nodes} counter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2G")
+public class AStarPathFinderBenchmark {
+
+    private static final long TIMEOUT = TimeUnit.MINUTES.toMillis(1);
+
+    @Param({"FLAT", "CAVE", "OCEAN", "NETHER"})
+    public SyntheticWorld.Terrain terrain;
+
+    @Param({"false", "true"})
+    public boolean primitiveNodeStore;
+
+    @Param({"binary", "quaternary", "radix"})
+    public String openSet;
+
+    private SyntheticWorld world;
+    private PickaxeToolSet toolSet;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        HeadlessBootstrap.bootstrap();
+        Baritone.settings().considerPotionEffects.value = false;
+        Baritone.settings().pathingPrimitiveNodeStore.value = primitiveNodeStore;
+        Baritone.settings().pathingOpenSet.value = openSet;
+        world = new SyntheticWorld(terrain, 42);
+        toolSet = new PickaxeToolSet();
+    }
+
+    /**
+     * Counts the nodes considered per operation, JMH reports it next to the time as {@code nodes}
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Nodes {
+
+        public long nodes;
+    }
+
+    @Benchmark
+    public PathCalculationResult search(Nodes counter) {
+        CalculationContext context = new CalculationContext(world, toolSet, world.minY, world.height);
+        BetterBlockPos start = world.start();
+        AStarPathFinder finder = new AStarPathFinder(start.x, start.y, start.z, world.goal(), new Favoring(null, context), context);
+        PathCalculationResult result = finder.calculate(TIMEOUT, TIMEOUT);
+        IPath path = result.getPath().orElseThrow(() -> new IllegalStateException("No path through " + terrain + ": " + result.getType()));
+        counter.nodes += path.getNumNodesConsidered();
+        return result;
+    }
+}
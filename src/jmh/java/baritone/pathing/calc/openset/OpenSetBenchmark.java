@@ -0,0 +1,153 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc.openset;
+
+import baritone.api.pathing.goals.Goal;
+import baritone.api.pathing.goals.GoalBlock;
+import baritone.api.utils.BetterBlockPos;
+import baritone.pathing.calc.NodeStore;
+import baritone.pathing.calc.PathNode;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays the open set traffic of an A* search without the rest of it: every removed node opens up to four
+ * neighbours a little more expensive than itself, and some already open nodes get a cheaper cost, like when a better
+ * path to them is found. Both the {@link PathNode} and the {@link NodeStore} flavours of each heap run the exact same
+ * sequence of operations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OpenSetBenchmark {
+
+    private static final Goal GOAL = new GoalBlock(0, 0, 0);
+
+    @Param({"100000", "1000000"})
+    public int nodes;
+
+    @Param({"binary", "quaternary", "radix"})
+    public String openSet;
+
+    private PathNode[] pathNodes;
+    private NodeStore store;
+    private int[] ids;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        pathNodes = new PathNode[nodes];
+        store = new NodeStore(GOAL, nodes, 0.75F);
+        ids = new int[nodes];
+        for (int i = 0; i < nodes; i++) {
+            int x = i % 1024;
+            int y = (i / 1024) % 256;
+            int z = i / (1024 * 256);
+            pathNodes[i] = new PathNode(x, y, z, GOAL);
+            ids[i] = store.getOrCreate(x, y, z, BetterBlockPos.longHash(x, y, z));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        for (int i = 0; i < nodes; i++) {
+            pathNodes[i].heapPosition = -1;
+            store.setHeapPosition(ids[i], -1);
+        }
+    }
+
+    @Benchmark
+    public int pathNodes() {
+        IOpenSet set = createOpenSet();
+        SplittableRandom random = new SplittableRandom(42);
+        int created = 1;
+        int removed = 0;
+        pathNodes[0].combinedCost = 0;
+        set.insert(pathNodes[0]);
+        while (!set.isEmpty()) {
+            PathNode node = set.removeLowest();
+            removed++;
+            for (int i = 0; i < 4 && created < nodes; i++) {
+                PathNode neighbour = pathNodes[created++];
+                neighbour.combinedCost = node.combinedCost + 1 + random.nextDouble() * 4;
+                set.insert(neighbour);
+            }
+            if (created > 1 && random.nextInt(4) == 0) {
+                PathNode better = pathNodes[random.nextInt(created)];
+                if (better.isOpen()) {
+                    better.combinedCost = Math.max(node.combinedCost, better.combinedCost - random.nextDouble() * 2);
+                    set.update(better);
+                }
+            }
+        }
+        return removed;
+    }
+
+    @Benchmark
+    public int nodeStore() {
+        IPrimitiveOpenSet set = createPrimitiveOpenSet();
+        SplittableRandom random = new SplittableRandom(42);
+        int created = 1;
+        int removed = 0;
+        store.setCombinedCost(ids[0], 0);
+        set.insert(ids[0]);
+        while (!set.isEmpty()) {
+            int node = set.removeLowest();
+            removed++;
+            for (int i = 0; i < 4 && created < nodes; i++) {
+                int neighbour = ids[created++];
+                store.setCombinedCost(neighbour, store.combinedCost(node) + 1 + random.nextDouble() * 4);
+                set.insert(neighbour);
+            }
+            if (created > 1 && random.nextInt(4) == 0) {
+                int better = ids[random.nextInt(created)];
+                if (store.isOpen(better)) {
+                    store.setCombinedCost(better, Math.max(store.combinedCost(node), store.combinedCost(better) - random.nextDouble() * 2));
+                    set.update(better);
+                }
+            }
+        }
+        return removed;
+    }
+
+    private IOpenSet createOpenSet() {
+        switch (openSet) {
+            case "quaternary":
+                return new QuaternaryHeapOpenSet();
+            case "radix":
+                return new RadixHeapOpenSet();
+            default:
+                return new BinaryHeapOpenSet();
+        }
+    }
+
+    private IPrimitiveOpenSet createPrimitiveOpenSet() {
+        switch (openSet) {
+            case "quaternary":
+                return new PrimitiveQuaternaryHeapOpenSet(store);
+            case "radix":
+                return new PrimitiveRadixHeapOpenSet(store);
+            default:
+                return new PrimitiveBinaryHeapOpenSet(store);
+        }
+    }
+}
@@ -23,6 +23,11 @@ import net.minecraft.world.level.chunk.LevelChunk;
 import org.spongepowered.asm.mixin.Final;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 
 import java.util.concurrent.atomic.AtomicReferenceArray;
 
@@ -54,6 +59,25 @@ public abstract class MixinChunkArray implements IChunkArray {
     @Shadow
     protected abstract void replace(int index, LevelChunk chunk);
 
+    @Unique
+    private long version;
+
+    @Inject(
+            method = "replace(ILnet/minecraft/world/level/chunk/LevelChunk;)V",
+            at = @At("RETURN")
+    )
+    private void onReplace(int index, LevelChunk chunk, CallbackInfo ci) {
+        version++;
+    }
+
+    @Inject(
+            method = "replace(ILnet/minecraft/world/level/chunk/LevelChunk;Lnet/minecraft/world/level/chunk/LevelChunk;)Lnet/minecraft/world/level/chunk/LevelChunk;",
+            at = @At("RETURN")
+    )
+    private void onCompareAndReplace(int index, LevelChunk expected, LevelChunk chunk, CallbackInfoReturnable<LevelChunk> cir) {
+        version++;
+    }
+
     @Override
     public int centerX() {
         return viewCenterX;
@@ -69,6 +93,11 @@ public abstract class MixinChunkArray implements IChunkArray {
         return chunkRadius;
     }
 
+    @Override
+    public long version() {
+        return version;
+    }
+
     @Override
     public AtomicReferenceArray<LevelChunk> getChunks() {
         return chunks;
@@ -24,6 +24,7 @@ import net.minecraft.client.multiplayer.ClientLevel;
 import org.spongepowered.asm.mixin.Final;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.Unique;
 
 import java.lang.reflect.Field;
 import java.util.Arrays;
@@ -35,15 +36,44 @@ public class MixinClientChunkProvider implements IClientChunkProvider {
     @Shadow
     ClientLevel level;
 
+    /**
+     * The most recent copy, handed out again for as long as the array it was copied from hasn't changed. Only ever
+     * touched on the client thread, like the array itself.
+     */
+    @Unique
+    private ClientChunkCache snapshot;
+
+    /**
+     * What {@link #snapshot} was copied from, and what that looked like at the time
+     */
+    @Unique
+    private IChunkArray snapshotOf;
+    @Unique
+    private long snapshotVersion;
+    @Unique
+    private int snapshotCenterX;
+    @Unique
+    private int snapshotCenterZ;
+
     @Override
     public ClientChunkCache createThreadSafeCopy() {
         IChunkArray arr = extractReferenceArray();
+        // the copy is only ever read from, so every caller can share it until a chunk is loaded or unloaded, or the
+        // view moves (the array is replaced outright when the view distance changes)
+        if (snapshot != null && snapshotOf == arr && snapshotVersion == arr.version() && snapshotCenterX == arr.centerX() && snapshotCenterZ == arr.centerZ()) {
+            return snapshot;
+        }
         ClientChunkCache result = new ClientChunkCache(level, arr.viewDistance() - 3); // -3 because its adds 3 for no reason lmao
         IChunkArray copyArr = ((IClientChunkProvider) result).extractReferenceArray();
         copyArr.copyFrom(arr);
         if (copyArr.viewDistance() != arr.viewDistance()) {
             throw new IllegalStateException(copyArr.viewDistance() + " " + arr.viewDistance());
         }
+        snapshot = result;
+        snapshotOf = arr;
+        snapshotVersion = arr.version();
+        snapshotCenterX = arr.centerX();
+        snapshotCenterZ = arr.centerZ();
         return result;
     }
 
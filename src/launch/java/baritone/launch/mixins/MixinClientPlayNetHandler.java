@@ -118,6 +118,8 @@ public class MixinClientPlayNetHandler {
             at = @At("RETURN")
     )
     private void postHandleBlockChange(ClientboundBlockUpdatePacket packetIn, CallbackInfo ci) {
+        onChunkChanged(packetIn.getPos().getX() >> 4, packetIn.getPos().getZ() >> 4);
+        onBlockChanged(packetIn.getPos().getX(), packetIn.getPos().getY(), packetIn.getPos().getZ());
         if (!Baritone.settings().repackOnAnyBlockChange.value) {
             return;
         }
@@ -144,16 +146,21 @@ public class MixinClientPlayNetHandler {
             at = @At("RETURN")
     )
     private void postHandleMultiBlockChange(ClientboundSectionBlocksUpdatePacket packetIn, CallbackInfo ci) {
-        if (!Baritone.settings().repackOnAnyBlockChange.value) {
-            return;
-        }
+        ChunkPos[] changed = new ChunkPos[1];
         ChunkPos[] chunkPos = new ChunkPos[1];
         packetIn.runUpdates((pos, state) -> {
+            if (changed[0] == null) {
+                changed[0] = new ChunkPos(pos); // they're all in the same section
+            }
+            onBlockChanged(pos.getX(), pos.getY(), pos.getZ());
             if (CachedChunk.BLOCKS_TO_KEEP_TRACK_OF.contains(state.getBlock())) {
                 chunkPos[0] = new ChunkPos(pos);
             }
         });
-        if (chunkPos[0] == null) {
+        if (changed[0] != null) {
+            onChunkChanged(changed[0].x, changed[0].z);
+        }
+        if (!Baritone.settings().repackOnAnyBlockChange.value || chunkPos[0] == null) {
             return;
         }
         for (IBaritone ibaritone : BaritoneAPI.getProvider().getAllBaritones()) {
@@ -171,6 +178,30 @@ public class MixinClientPlayNetHandler {
         }
     }
 
+    /**
+     * Unlike repacking, remembered movement costs have to be invalidated on any block change, tracked block or not
+     */
+    private void onChunkChanged(int chunkX, int chunkZ) {
+        for (IBaritone ibaritone : BaritoneAPI.getProvider().getAllBaritones()) {
+            LocalPlayer player = ibaritone.getPlayerContext().player();
+            if (player != null && player.connection == (ClientPacketListener) (Object) this) {
+                ((Baritone) ibaritone).getWorldProvider().ifWorldLoaded(worldData -> worldData.cache.onChunkChanged(chunkX, chunkZ));
+            }
+        }
+    }
+
+    /**
+     * So that the builder only has to check the blocks that actually changed, see BuilderProcess#recalcChanged
+     */
+    private void onBlockChanged(int x, int y, int z) {
+        for (IBaritone ibaritone : BaritoneAPI.getProvider().getAllBaritones()) {
+            LocalPlayer player = ibaritone.getPlayerContext().player();
+            if (player != null && player.connection == (ClientPacketListener) (Object) this) {
+                ((Baritone) ibaritone).getBuilderProcess().onBlockChanged(x, y, z);
+            }
+        }
+    }
+
     @Inject(
             method = "handlePlayerCombatKill",
             at = @At(
@@ -0,0 +1,79 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.launch.mixins;
+
+import baritone.utils.accessor.IPalettedContainer;
+import baritone.utils.accessor.IPalettedContainerData;
+import net.minecraft.util.BitStorage;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.RecordComponent;
+
+@Mixin(PalettedContainer.class)
+public abstract class MixinPalettedContainer<T> implements IPalettedContainer<T> {
+
+    /**
+     * The data record is package private, so it can't be named in a shadow or an accessor here. Its field is found by
+     * its type instead: the only record with a {@link BitStorage} in it.
+     */
+    @Unique
+    private static final MethodHandle DATA_GETTER;
+
+    static {
+        Field dataField = null;
+        for (Field field : PalettedContainer.class.getDeclaredFields()) {
+            Class<?> type = field.getType();
+            if (!type.isRecord()) {
+                continue;
+            }
+            for (RecordComponent component : type.getRecordComponents()) {
+                if (component.getType() == BitStorage.class) {
+                    if (dataField != null) {
+                        throw new IllegalStateException("PalettedContainer has more than one data field");
+                    }
+                    dataField = field;
+                }
+            }
+        }
+        if (dataField == null) {
+            throw new IllegalStateException("PalettedContainer has no data field");
+        }
+        try {
+            dataField.setAccessible(true);
+            DATA_GETTER = MethodHandles.lookup().unreflectGetter(dataField);
+        } catch (IllegalAccessException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public IPalettedContainerData<T> getData() {
+        try {
+            // the data record implements IPalettedContainerData, see MixinPalettedContainerData
+            return (IPalettedContainerData<T>) DATA_GETTER.invoke((PalettedContainer<T>) (Object) this);
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+}
@@ -33,6 +33,7 @@ import baritone.utils.BlockStateInterface;
 import baritone.utils.GuiClick;
 import baritone.utils.InputOverrideHandler;
 import baritone.utils.PathingControlManager;
+import baritone.utils.TaskScheduler;
 import baritone.utils.player.PrimaryPlayerContext;
 import net.minecraft.client.Minecraft;
 
@@ -40,9 +41,6 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.util.concurrent.Executor;
-import java.util.concurrent.SynchronousQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
 
 /**
  * @author Brady
@@ -50,17 +48,24 @@ import java.util.concurrent.TimeUnit;
  */
 public class Baritone implements IBaritone {
 
-    private static ThreadPoolExecutor threadPool;
+    private static TaskScheduler scheduler;
     private static File dir;
 
     static {
-        threadPool = new ThreadPoolExecutor(4, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS, new SynchronousQueue<>());
-
-        dir = new File(Minecraft.getInstance().gameDirectory, "baritone");
-        if (!Files.exists(dir.toPath())) {
-            try {
-                Files.createDirectories(dir.toPath());
-            } catch (IOException ignored) {
+        scheduler = new TaskScheduler(
+                settings().schedulerPathingThreads.value,
+                settings().schedulerScanningThreads.value,
+                settings().schedulerDiskThreads.value,
+                settings().schedulerVirtualDiskThreads.value
+        );
+
+        if (Minecraft.getInstance() != null) { // null when running headless, e.g. in the benchmarks
+            dir = new File(Minecraft.getInstance().gameDirectory, "baritone");
+            if (!Files.exists(dir.toPath())) {
+                try {
+                    Files.createDirectories(dir.toPath());
+                } catch (IOException ignored) {
+                }
             }
         }
     }
@@ -228,7 +233,14 @@ public class Baritone implements IBaritone {
         return dir;
     }
 
+    public static TaskScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * @return An executor that gives every task a thread of its own right away, see {@link TaskScheduler.Lane#BACKGROUND}
+     */
     public static Executor getExecutor() {
-        return threadPool;
+        return scheduler.executor(TaskScheduler.Lane.BACKGROUND);
     }
 }
@@ -17,18 +17,24 @@
 
 package baritone.altoclef;
 
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import net.minecraft.core.BlockPos;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.block.state.BlockState;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.function.BiFunction;
 import java.util.function.BiPredicate;
 import java.util.function.Predicate;
 
+/**
+ * Rules AltoClef sets on the client thread and the pathing thread checks from movement costs. Writers still change
+ * them under the mutexes, but every collection republishes an immutable snapshot on change, so that the checks never
+ * lock and never allocate. Predicates are handed a position that is reused between calls, they must not keep it.
+ */
 public class AltoClefSettings {
 
     // woo singletons
@@ -38,6 +44,8 @@ public class AltoClefSettings {
         return _instance;
     }
 
+    private static final int[] NO_BOXES = new int[0];
+
     private final Object breakMutex = new Object();
     private final Object placeMutex = new Object();
 
@@ -45,30 +53,37 @@ public class AltoClefSettings {
 
     private final Object globalHeuristicMutex = new Object();
 
-    private final HashSet<BlockPos> _blocksToAvoidBreaking = new HashSet<>();
-    private final List<Predicate<BlockPos>> _breakAvoiders = new ArrayList<>();
+    private final ThreadLocal<BlockPos.MutableBlockPos> _scratch = ThreadLocal.withInitial(BlockPos.MutableBlockPos::new);
 
-    private final List<Predicate<BlockPos>> _placeAvoiders = new ArrayList<>();
+    private final SnapshotPositionSet _blocksToAvoidBreaking = new SnapshotPositionSet();
+    private final SnapshotList<Predicate<BlockPos>> _breakAvoiders = new SnapshotList<>();
 
-    private final List<Predicate<BlockPos>> _forceCanWalkOn = new ArrayList<>();
+    private final SnapshotList<Predicate<BlockPos>> _placeAvoiders = new SnapshotList<>();
 
-    private final List<Predicate<BlockPos>> _forceAvoidWalkThrough = new ArrayList<>();
+    private final SnapshotList<Predicate<BlockPos>> _forceCanWalkOn = new SnapshotList<>();
 
-    private final List<BiPredicate<BlockState, ItemStack>> _forceUseTool = new ArrayList<>();
+    private final SnapshotList<Predicate<BlockPos>> _forceAvoidWalkThrough = new SnapshotList<>();
 
-    private final List<BiFunction<Double, BlockPos, Double>> _globalHeuristics = new ArrayList<>();
+    private final SnapshotList<BiPredicate<BlockState, ItemStack>> _forceUseTool = new SnapshotList<>();
+
+    private final SnapshotList<BiFunction<Double, BlockPos, Double>> _globalHeuristics = new SnapshotList<>();
 
     private final HashSet<Item> _protectedItems = new HashSet<>();
 
-    private boolean _allowFlowingWaterPass;
+    // minX, minY, minZ, maxX, maxY, maxZ per box, replaced as a whole on change
+    private volatile int[] _breakAvoidBoxes = NO_BOXES;
+
+    private volatile int[] _placeAvoidBoxes = NO_BOXES;
 
-    private boolean _pauseInteractions;
+    private volatile boolean _allowFlowingWaterPass;
 
-    private boolean _dontPlaceBucketButStillFall;
+    private volatile boolean _pauseInteractions;
 
-    private boolean _allowSwimThroughLava = false;
+    private volatile boolean _dontPlaceBucketButStillFall;
 
-    private boolean _treatSoulSandAsOrdinaryBlock = false;
+    private volatile boolean _allowSwimThroughLava = false;
+
+    private volatile boolean _treatSoulSandAsOrdinaryBlock = false;
 
     public void avoidBlockBreak(BlockPos pos) {
         synchronized (breakMutex) {
@@ -80,6 +95,16 @@ public class AltoClefSettings {
             _breakAvoiders.add(avoider);
         }
     }
+    public void avoidBlockBreak(BlockPos from, BlockPos to) {
+        synchronized (breakMutex) {
+            _breakAvoidBoxes = withBox(_breakAvoidBoxes, from, to);
+        }
+    }
+    public void stopAvoidingBlockBreak(BlockPos from, BlockPos to) {
+        synchronized (breakMutex) {
+            _breakAvoidBoxes = withoutBox(_breakAvoidBoxes, from, to);
+        }
+    }
 
     public void configurePlaceBucketButDontFall(boolean allow) {
         synchronized (propertiesMutex) {
@@ -98,74 +123,74 @@ public class AltoClefSettings {
             _placeAvoiders.add(avoider);
         }
     }
+    public void avoidBlockPlace(BlockPos from, BlockPos to) {
+        synchronized (placeMutex) {
+            _placeAvoidBoxes = withBox(_placeAvoidBoxes, from, to);
+        }
+    }
+    public void stopAvoidingBlockPlace(BlockPos from, BlockPos to) {
+        synchronized (placeMutex) {
+            _placeAvoidBoxes = withoutBox(_placeAvoidBoxes, from, to);
+        }
+    }
 
     public boolean shouldAvoidBreaking(int x, int y, int z) {
-        return shouldAvoidBreaking(new BlockPos(x, y, z));
+        if (_blocksToAvoidBreaking.contains(x, y, z) || inBox(_breakAvoidBoxes, x, y, z)) {
+            return true;
+        }
+        return anyMatch(_breakAvoiders.snapshot(), x, y, z);
     }
     public boolean shouldAvoidBreaking(BlockPos pos) {
-        synchronized (breakMutex) {
-            if (_blocksToAvoidBreaking.contains(pos))
-                return true;
-            return (_breakAvoiders.stream().anyMatch(pred -> pred.test(pos)));
+        if (_blocksToAvoidBreaking.contains(pos.getX(), pos.getY(), pos.getZ()) || inBox(_breakAvoidBoxes, pos.getX(), pos.getY(), pos.getZ())) {
+            return true;
         }
+        return anyMatch(_breakAvoiders.snapshot(), pos);
     }
     public boolean shouldAvoidPlacingAt(BlockPos pos) {
-        synchronized (placeMutex) {
-            return _placeAvoiders.stream().anyMatch(pred -> pred.test(pos));
-        }
+        return inBox(_placeAvoidBoxes, pos.getX(), pos.getY(), pos.getZ()) || anyMatch(_placeAvoiders.snapshot(), pos);
     }
     public boolean shouldAvoidPlacingAt(int x, int y, int z) {
-        return shouldAvoidPlacingAt(new BlockPos(x, y, z));
+        return inBox(_placeAvoidBoxes, x, y, z) || anyMatch(_placeAvoiders.snapshot(), x, y, z);
     }
 
     public boolean canWalkOnForce(int x, int y, int z) {
-        synchronized (propertiesMutex) {
-            return _forceCanWalkOn.stream().anyMatch(pred -> pred.test(new BlockPos(x, y, z)));
-        }
+        return anyMatch(_forceCanWalkOn.snapshot(), x, y, z);
     }
 
     public boolean shouldAvoidWalkThroughForce(BlockPos pos) {
-        synchronized (propertiesMutex) {
-            return _forceAvoidWalkThrough.stream().anyMatch(pred -> pred.test(pos));
-        }
+        return anyMatch(_forceAvoidWalkThrough.snapshot(), pos);
     }
     public boolean shouldAvoidWalkThroughForce(int x, int y, int z) {
-        return shouldAvoidWalkThroughForce(new BlockPos(x, y, z));
+        return anyMatch(_forceAvoidWalkThrough.snapshot(), x, y, z);
     }
 
+    @SuppressWarnings("unchecked")
     public boolean shouldForceUseTool(BlockState state, ItemStack tool) {
-        synchronized (propertiesMutex) {
-            return _forceUseTool.stream().anyMatch(pred -> pred.test(state, tool));
+        for (Object pred : _forceUseTool.snapshot()) {
+            if (((BiPredicate<BlockState, ItemStack>) pred).test(state, tool)) {
+                return true;
+            }
         }
+        return false;
     }
 
     public boolean shouldNotPlaceBucketButStillFall() {
-        synchronized (propertiesMutex) {
-            return _dontPlaceBucketButStillFall;
-        }
+        return _dontPlaceBucketButStillFall;
     }
 
     public boolean shouldTreatSoulSandAsOrdinaryBlock() {
-        synchronized (propertiesMutex) {
-            return _treatSoulSandAsOrdinaryBlock;
-        }
+        return _treatSoulSandAsOrdinaryBlock;
     }
 
     public boolean isInteractionPaused() {
-        synchronized (propertiesMutex) {
-            return _pauseInteractions;
-        }
+        return _pauseInteractions;
     }
     public boolean isFlowingWaterPassAllowed() {
-        synchronized (propertiesMutex) {
-            return _allowFlowingWaterPass;
-        }
+        return _allowFlowingWaterPass;
     }
 
     public boolean canSwimThroughLava() {
-        synchronized (propertiesMutex) {
-            return _allowSwimThroughLava;
-        }
+        return _allowSwimThroughLava;
     }
 
     public void setInteractionPaused(boolean paused) {
@@ -186,6 +211,89 @@ public class AltoClefSettings {
         }
     }
 
+    /**
+     * A hash of everything here that movement costs depend on, so that remembered costs can be dropped when it
+     * changes. Predicates are compared by identity, one that changes its answers without being replaced isn't noticed.
+     */
+    public long costFingerprint() {
+        LongOpenHashSet avoided = _blocksToAvoidBreaking.snapshot();
+        long hash = avoided.size() * 31L + avoided.hashCode();
+        hash = hash * 31 + Arrays.hashCode(_breakAvoiders.snapshot());
+        hash = hash * 31 + Arrays.hashCode(_breakAvoidBoxes);
+        hash = hash * 31 + Arrays.hashCode(_placeAvoiders.snapshot());
+        hash = hash * 31 + Arrays.hashCode(_placeAvoidBoxes);
+        hash = hash * 31 + Arrays.hashCode(_forceCanWalkOn.snapshot());
+        hash = hash * 31 + Arrays.hashCode(_forceAvoidWalkThrough.snapshot());
+        hash = hash * 31 + Arrays.hashCode(_forceUseTool.snapshot());
+        hash = hash * 31 + (_allowFlowingWaterPass ? 1 : 0);
+        hash = hash * 31 + (_pauseInteractions ? 1 : 0);
+        hash = hash * 31 + (_dontPlaceBucketButStillFall ? 1 : 0);
+        hash = hash * 31 + (_allowSwimThroughLava ? 1 : 0);
+        hash = hash * 31 + (_treatSoulSandAsOrdinaryBlock ? 1 : 0);
+        return hash;
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean anyMatch(Object[] predicates, int x, int y, int z) {
+        if (predicates.length == 0) {
+            return false;
+        }
+        BlockPos.MutableBlockPos pos = _scratch.get();
+        for (Object pred : predicates) {
+            // set again every time, in case a predicate ended up checking something else on this thread
+            if (((Predicate<BlockPos>) pred).test(pos.set(x, y, z))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean anyMatch(Object[] predicates, BlockPos pos) {
+        for (Object pred : predicates) {
+            if (((Predicate<BlockPos>) pred).test(pos)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean inBox(int[] boxes, int x, int y, int z) {
+        for (int i = 0; i < boxes.length; i += 6) {
+            if (x >= boxes[i] && y >= boxes[i + 1] && z >= boxes[i + 2]
+                    && x <= boxes[i + 3] && y <= boxes[i + 4] && z <= boxes[i + 5]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] box(BlockPos from, BlockPos to) {
+        return new int[]{
+                Math.min(from.getX(), to.getX()), Math.min(from.getY(), to.getY()), Math.min(from.getZ(), to.getZ()),
+                Math.max(from.getX(), to.getX()), Math.max(from.getY(), to.getY()), Math.max(from.getZ(), to.getZ())
+        };
+    }
+
+    private static int[] withBox(int[] boxes, BlockPos from, BlockPos to) {
+        int[] result = Arrays.copyOf(boxes, boxes.length + 6);
+        System.arraycopy(box(from, to), 0, result, boxes.length, 6);
+        return result;
+    }
+
+    private static int[] withoutBox(int[] boxes, BlockPos from, BlockPos to) {
+        int[] box = box(from, to);
+        for (int i = 0; i < boxes.length; i += 6) {
+            if (Arrays.equals(boxes, i, i + 6, box, 0, 6)) {
+                int[] result = new int[boxes.length - 6];
+                System.arraycopy(boxes, 0, result, 0, i);
+                System.arraycopy(boxes, i + 6, result, i, boxes.length - i - 6);
+                return result;
+            }
+        }
+        return boxes;
+    }
+
     public double applyGlobalHeuristic(double prev, int x, int y, int z) {
         return prev;
         /*
@@ -0,0 +1,142 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.altoclef;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * An {@link ArrayList} that publishes an array copy of itself after every change, so that the pathing thread can read
+ * it through {@link #snapshot()} without locking or allocating while it keeps being changed on the client thread.
+ * <p>
+ * Changes still need to be made under whatever lock the owner uses. Changes through a {@link #subList(int, int)}
+ * aren't seen.
+ */
+final class SnapshotList<T> extends ArrayList<T> {
+
+    private static final Object[] EMPTY = new Object[0];
+
+    private volatile Object[] snapshot = EMPTY;
+
+    /**
+     * @return The contents as of the most recent change, never modified afterwards
+     */
+    Object[] snapshot() {
+        return snapshot;
+    }
+
+    private void publish() {
+        snapshot = isEmpty() ? EMPTY : toArray();
+    }
+
+    @Override
+    public boolean add(T t) {
+        boolean changed = super.add(t);
+        publish();
+        return changed;
+    }
+
+    @Override
+    public void add(int index, T element) {
+        super.add(index, element);
+        publish();
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends T> c) {
+        boolean changed = super.addAll(c);
+        publish();
+        return changed;
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends T> c) {
+        boolean changed = super.addAll(index, c);
+        publish();
+        return changed;
+    }
+
+    @Override
+    public T set(int index, T element) {
+        T previous = super.set(index, element);
+        publish();
+        return previous;
+    }
+
+    @Override
+    public T remove(int index) {
+        T removed = super.remove(index); // also what the iterators remove with
+        publish();
+        return removed;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        boolean changed = super.remove(o);
+        publish();
+        return changed;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        boolean changed = super.removeAll(c);
+        publish();
+        return changed;
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        boolean changed = super.retainAll(c);
+        publish();
+        return changed;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        boolean changed = super.removeIf(filter);
+        publish();
+        return changed;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        super.removeRange(fromIndex, toIndex);
+        publish();
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<T> operator) {
+        super.replaceAll(operator);
+        publish();
+    }
+
+    @Override
+    public void sort(Comparator<? super T> c) {
+        super.sort(c);
+        publish();
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        publish();
+    }
+}
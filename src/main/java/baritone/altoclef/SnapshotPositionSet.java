@@ -0,0 +1,174 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.altoclef;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.core.BlockPos;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.function.Predicate;
+
+/**
+ * A {@link HashSet} of positions that publishes a primitive copy of itself after every change, so that the pathing
+ * thread can check {@link #contains(int, int, int)} without locking or allocating while it keeps being changed on the
+ * client thread.
+ * <p>
+ * Changes still need to be made under whatever lock the owner uses.
+ */
+final class SnapshotPositionSet extends HashSet<BlockPos> {
+
+    private volatile LongOpenHashSet snapshot = new LongOpenHashSet();
+
+    /**
+     * @return Whether the position was in the set as of the most recent change
+     */
+    boolean contains(int x, int y, int z) {
+        LongOpenHashSet snapshot = this.snapshot;
+        return !snapshot.isEmpty() && snapshot.contains(BlockPos.asLong(x, y, z));
+    }
+
+    /**
+     * @return The contents as of the most recent change, see {@link BlockPos#asLong()}, never modified afterwards
+     */
+    LongOpenHashSet snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * @return A copy of the snapshot to apply changes to and then publish. Copying its arrays is a lot cheaper than
+     * building it again from every position, which made each change cost as much as the whole set.
+     */
+    private LongOpenHashSet copy() {
+        return snapshot.clone();
+    }
+
+    @Override
+    public boolean add(BlockPos pos) {
+        boolean changed = super.add(pos);
+        if (changed) {
+            LongOpenHashSet snapshot = copy();
+            snapshot.add(pos.asLong());
+            this.snapshot = snapshot;
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends BlockPos> c) {
+        LongOpenHashSet snapshot = null;
+        for (BlockPos pos : c) {
+            if (super.add(pos)) {
+                if (snapshot == null) {
+                    snapshot = copy();
+                }
+                snapshot.add(pos.asLong());
+            }
+        }
+        if (snapshot != null) {
+            this.snapshot = snapshot;
+        }
+        return snapshot != null;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        boolean changed = super.remove(o);
+        if (changed) {
+            LongOpenHashSet snapshot = copy();
+            snapshot.remove(((BlockPos) o).asLong());
+            this.snapshot = snapshot;
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        LongOpenHashSet snapshot = null;
+        for (Object o : c) {
+            if (super.remove(o)) {
+                if (snapshot == null) {
+                    snapshot = copy();
+                }
+                snapshot.remove(((BlockPos) o).asLong());
+            }
+        }
+        if (snapshot != null) {
+            this.snapshot = snapshot;
+        }
+        return snapshot != null;
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        return removeIf(pos -> !c.contains(pos));
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super BlockPos> filter) {
+        LongOpenHashSet snapshot = null;
+        Iterator<BlockPos> it = super.iterator();
+        while (it.hasNext()) {
+            BlockPos pos = it.next();
+            if (filter.test(pos)) {
+                it.remove();
+                if (snapshot == null) {
+                    snapshot = copy();
+                }
+                snapshot.remove(pos.asLong());
+            }
+        }
+        if (snapshot != null) {
+            this.snapshot = snapshot;
+        }
+        return snapshot != null;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        snapshot = new LongOpenHashSet();
+    }
+
+    @Override
+    public Iterator<BlockPos> iterator() {
+        Iterator<BlockPos> it = super.iterator();
+        return new Iterator<BlockPos>() {
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            private BlockPos last;
+
+            @Override
+            public BlockPos next() {
+                return last = it.next();
+            }
+
+            @Override
+            public void remove() {
+                it.remove();
+                LongOpenHashSet snapshot = copy();
+                snapshot.remove(last.asLong());
+                SnapshotPositionSet.this.snapshot = snapshot;
+            }
+        };
+    }
+}
@@ -28,16 +28,26 @@ import baritone.api.utils.BetterBlockPos;
 import baritone.api.utils.Helper;
 import baritone.api.utils.PathCalculationResult;
 import baritone.api.utils.interfaces.IGoalRenderPos;
+import baritone.cache.CachedWorld;
+import baritone.cache.WorldData;
 import baritone.pathing.calc.AStarPathFinder;
 import baritone.pathing.calc.AbstractNodeCostSearch;
+import baritone.pathing.calc.ParallelAStarPathFinder;
 import baritone.pathing.movement.CalculationContext;
 import baritone.pathing.movement.MovementHelper;
 import baritone.pathing.path.PathExecutor;
 import baritone.utils.PathRenderer;
+import baritone.utils.PathingMetrics;
 import baritone.utils.PathingCommandContext;
+import baritone.utils.TaskScheduler;
 import baritone.utils.pathing.Favoring;
+import baritone.utils.pathing.GoalCorridor;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.phys.Vec3;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Objects;
@@ -46,9 +56,20 @@ import java.util.concurrent.LinkedBlockingQueue;
 
 public final class PathingBehavior extends Behavior implements IPathingBehavior, Helper {
 
+    /**
+     * How long improving a path goes on for at a time before the pathing thread is given back, see {@link #improve}
+     */
+    private static final long IMPROVE_SLICE_MS = 50;
+
     private PathExecutor current;
     private PathExecutor next;
 
+    /**
+     * A better way to the goal from partway along {@link #current}, found by {@link AStarPathFinder#improve}, waiting
+     * for a safe moment to switch over to it
+     */
+    private PathExecutor improved;
+
     private Goal goal;
     private CalculationContext context;
 
@@ -66,6 +87,8 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
     private volatile AbstractNodeCostSearch inProgress;
     private final Object pathCalcLock = new Object();
 
+    private final PathingMetrics metrics = new PathingMetrics();
+
     private final Object pathPlanLock = new Object();
 
     private boolean lastAutoJump;
@@ -79,6 +102,7 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
     }
 
     private void queuePathEvent(PathEvent event) {
+        metrics.recordEvent(event);
         toDispatch.add(event);
     }
 
@@ -102,10 +126,40 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
         expectedSegmentStart = pathStart();
         baritone.getPathingControlManager().preTick();
         tickPath();
+        focusCache();
         ticksElapsedSoFar++;
         dispatchEvents();
     }
 
+    private void focusCache() {
+        if (ctx.player() == null || ctx.player().tickCount % 20 != 0 || !(ctx.worldData() instanceof WorldData)) {
+            return;
+        }
+        CachedWorld cache = ((WorldData) ctx.worldData()).cache;
+        // the cache is read from disk a chunk at a time as it's needed, so get started on what's around and ahead of us
+        Vec3 motion = ctx.player().getDeltaMovement();
+        BetterBlockPos feet = ctx.playerFeet();
+        cache.prefetch(feet.x, feet.z, motion.x, motion.z);
+        // and pack what's around us and our path first
+        LongOpenHashSet chunks = new LongOpenHashSet();
+        chunks.add(ChunkPos.asLong(feet.x >> 4, feet.z >> 4));
+        PathExecutor current = this.current;
+        if (current != null) {
+            for (BetterBlockPos pos : current.getPath().positions()) {
+                chunks.add(ChunkPos.asLong(pos.x >> 4, pos.z >> 4));
+            }
+        }
+        int[] chunkX = new int[chunks.size()];
+        int[] chunkZ = new int[chunks.size()];
+        int i = 0;
+        for (long chunk : chunks) {
+            chunkX[i] = ChunkPos.getX(chunk);
+            chunkZ[i] = ChunkPos.getZ(chunk);
+            i++;
+        }
+        cache.focusPacking(chunkX, chunkZ);
+    }
+
     @Override
     public void onPlayerSprintState(SprintStateEvent event) {
         if (isPathing()) {
@@ -151,7 +205,9 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
             }
             safeToCancel = current.onTick();
             if (current.failed() || current.finished()) {
+                AStarPathFinder failedSearch = current.failed() ? current.getSearch() : null;
                 current = null;
+                improved = null;
                 if (goal == null || goal.isInGoal(ctx.playerFeet())) {
                     logDebug("All done. At " + goal);
                     queuePathEvent(PathEvent.AT_GOAL);
@@ -175,8 +231,10 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
                 if (next != null) {
                     logDebug("Continuing on to planned next path");
                     queuePathEvent(PathEvent.CONTINUING_ONTO_PLANNED_NEXT);
+                    metrics.recordSplice("continued");
                     current = next;
                     next = null;
+                    improved = null;
                     current.onTick(); // don't waste a tick doing nothing, get started right away
                     return;
                 }
@@ -188,7 +246,7 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
                     }
                     // we aren't calculating
                     queuePathEvent(PathEvent.CALC_STARTED);
-                    findPathInNewThread(expectedSegmentStart, true, context);
+                    findPathInNewThread(expectedSegmentStart, true, context, failedSearch);
                 }
                 return;
             }
@@ -197,13 +255,36 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
                 // a movement just ended; jump directly onto the next path
                 logDebug("Splicing into planned next path early...");
                 queuePathEvent(PathEvent.SPLICING_ONTO_NEXT_EARLY);
+                metrics.recordSplice("early");
                 current = next;
                 next = null;
+                improved = null;
+                current.onTick();
+                return;
+            }
+            if (improved != null && improved.getPath().getGoal() != current.getPath().getGoal()) {
+                improved = null; // current isn't the path that was being improved anymore
+            }
+            if (safeToCancel && improved != null && improved.snipsnapifpossible()) {
+                // same idea as splicing onto next early, except this one goes to the same place, just for less
+                logDebug("Switching to an improved path");
+                metrics.recordSplice("improved");
+                current = improved;
+                improved = null;
+                if (next != null && !next.getPath().getSrc().equals(current.getPath().getDest())) {
+                    logDebug("Discarding next path as it doesn't start where the improved path ends");
+                    queuePathEvent(PathEvent.DISCARD_NEXT);
+                    next = null;
+                }
                 current.onTick();
                 return;
             }
             if (Baritone.settings().splicePath.value) {
-                current = current.trySplice(next);
+                PathExecutor spliced = current.trySplice(next);
+                if (next != null && spliced != current && !current.getPath().getDest().equals(next.getPath().getDest()) && spliced.getPath().getDest().equals(next.getPath().getDest())) {
+                    metrics.recordSplice("spliced");
+                }
+                current = spliced;
             }
             if (next != null && current.getPath().getDest().equals(next.getPath().getDest())) {
                 next = null;
@@ -302,6 +383,11 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
         return next;
     }
 
+    @Override
+    public PathingMetrics getMetrics() {
+        return metrics;
+    }
+
     @Override
     public Optional<AbstractNodeCostSearch> getInProgress() {
         return Optional.ofNullable(inProgress);
@@ -345,6 +431,7 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
             }
             current = null;
             next = null;
+            improved = null;
         }
         cancelRequested = true;
         // do everything BUT clear keys
@@ -358,6 +445,7 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
             if (current != null) {
                 current = null;
                 next = null;
+                improved = null;
                 baritone.getInputOverrideHandler().clearAllKeys();
                 baritone.getInputOverrideHandler().getBlockBreakHelper().stopBreakingBlock();
             }
@@ -463,6 +551,18 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
      * @param talkAboutIt
      */
     private void findPathInNewThread(final BlockPos start, final boolean talkAboutIt, CalculationContext context) {
+        findPathInNewThread(start, talkAboutIt, context, null);
+    }
+
+    /**
+     * In a new thread, pathfind to target blockpos, repairing a previous search if possible
+     *
+     * @param start
+     * @param talkAboutIt
+     * @param context
+     * @param repairable The search behind a path that just failed, if any
+     */
+    private void findPathInNewThread(final BlockPos start, final boolean talkAboutIt, CalculationContext context, AStarPathFinder repairable) {
         // this must be called with synchronization on pathCalcLock!
         // actually, we can check this, muahaha
         if (!Thread.holdsLock(pathCalcLock)) {
@@ -489,24 +589,42 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
             primaryTimeout = Baritone.settings().planAheadPrimaryTimeoutMS.value;
             failureTimeout = Baritone.settings().planAheadFailureTimeoutMS.value;
         }
-        AbstractNodeCostSearch pathfinder = createPathfinder(start, goal, current == null ? null : current.getPath(), context);
-        if (!Objects.equals(pathfinder.getGoal(), goal)) { // will return the exact same object if simplification didn't happen
+        AbstractNodeCostSearch pathfinder = createPathfinder(start, goal, current == null ? null : current.getPath(), context, repairable);
+        Goal searched = pathfinder.getGoal();
+        if (searched instanceof GoalCorridor) {
+            searched = ((GoalCorridor) searched).getGoal();
+        }
+        if (!Objects.equals(searched, goal)) { // will return the exact same object if simplification didn't happen
             logDebug("Simplifying " + goal.getClass() + " to GoalXZ due to distance");
         }
         inProgress = pathfinder;
-        Baritone.getExecutor().execute(() -> {
+        metrics.recordSearchStarted(repairable != null && repairable.isRepaired() ? "repair" : current == null ? "fresh" : "plan_ahead");
+        // planning ahead can wait for a path to be found for wherever we're standing right now
+        TaskScheduler.Priority priority = current == null ? TaskScheduler.Priority.HIGH : TaskScheduler.Priority.NORMAL;
+        Baritone.getScheduler().execute(TaskScheduler.Lane.PATHING, priority, () -> {
             if (talkAboutIt) {
                 logDebug("Starting to search for path from " + start + " to " + goal);
             }
 
+            long calcStart = System.currentTimeMillis();
             PathCalculationResult calcResult = pathfinder.calculate(primaryTimeout, failureTimeout);
+            metrics.recordSearch(pathfinder.getStats(), calcResult.getType());
+            if (Baritone.settings().pathingMetricsExport.value) {
+                // only the latest numbers matter, so an export that hasn't started yet gets replaced by this one
+                Baritone.getScheduler().execute(TaskScheduler.Lane.DISK, TaskScheduler.Priority.LOW, metrics, this::exportMetrics);
+            }
+            PathExecutor executing = null;
             synchronized (pathPlanLock) {
                 Optional<PathExecutor> executor = calcResult.getPath().map(p -> new PathExecutor(PathingBehavior.this, p));
+                if (Baritone.settings().pathingIncrementalReplan.value && pathfinder instanceof AStarPathFinder && ((AStarPathFinder) pathfinder).isRepairable()) {
+                    executor.ifPresent(e -> e.setSearch((AStarPathFinder) pathfinder));
+                }
                 if (current == null) {
                     if (executor.isPresent()) {
                         if (executor.get().getPath().positions().contains(expectedSegmentStart)) {
                             queuePathEvent(PathEvent.CALC_FINISHED_NOW_EXECUTING);
                             current = executor.get();
+                            executing = current;
                             resetEstimatedTicksToGoal(start);
                         } else {
                             logDebug("Warning: discarding orphan path segment with incorrect start");
@@ -546,10 +664,50 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
                     inProgress = null;
                 }
             }
+            if (executing != null && pathfinder instanceof AStarPathFinder && ((AStarPathFinder) pathfinder).canImprove()) {
+                // only for paths we're already walking, a plan ahead has the whole of current to finish in the meantime
+                long deadline = calcStart + failureTimeout;
+                Goal walking = executing.getPath().getGoal();
+                Baritone.getScheduler().execute(TaskScheduler.Lane.PATHING, TaskScheduler.Priority.LOW, () -> improve((AStarPathFinder) pathfinder, walking, deadline));
+            }
+        });
+    }
+
+    private void exportMetrics() {
+        try {
+            metrics.writeTo(PathingMetrics.exportFile());
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    /**
+     * Keeps improving the path that was just found until the failure timeout is up, see
+     * {@link baritone.api.Settings#pathingAnytime}. Goes on in slices of {@link #IMPROVE_SLICE_MS}, each its own low
+     * priority pathing task, so that planning ahead and any other search get a pathing thread in between.
+     */
+    private void improve(AStarPathFinder pathfinder, Goal searched, long deadline) {
+        boolean more = pathfinder.improve(deadline, IMPROVE_SLICE_MS, () -> {
+            PathExecutor current = this.current;
+            return current != null && current.getPath().getGoal() == searched;
+        }, () -> {
+            // improving runs on a pathing thread, so it gets the position as of the latest tick instead of asking the player
+            PathExecutor current = this.current;
+            return current == null ? null : current.getLastFeet();
+        }, path -> {
+            synchronized (pathPlanLock) {
+                PathExecutor current = this.current;
+                if (current != null && current.getPath().getGoal() == searched) {
+                    improved = new PathExecutor(PathingBehavior.this, path);
+                }
+            }
         });
+        if (more) {
+            Baritone.getScheduler().execute(TaskScheduler.Lane.PATHING, TaskScheduler.Priority.LOW, () -> improve(pathfinder, searched, deadline));
+        }
     }
 
-    private static AbstractNodeCostSearch createPathfinder(BlockPos start, Goal goal, IPath previous, CalculationContext context) {
+    private static AbstractNodeCostSearch createPathfinder(BlockPos start, Goal goal, IPath previous, CalculationContext context, AStarPathFinder repairable) {
         Goal transformed = goal;
         if (Baritone.settings().simplifyUnloadedYCoord.value && goal instanceof IGoalRenderPos) {
             BlockPos pos = ((IGoalRenderPos) goal).getGoalPos();
@@ -557,7 +715,35 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
                 transformed = new GoalXZ(pos.getX(), pos.getZ());
             }
         }
+        if (repairable != null && Baritone.settings().pathingIncrementalReplan.value && repairable.canRepairFrom(start.getX(), start.getY(), start.getZ(), context)) {
+            Goal searched = repairable.getGoal();
+            if (searched instanceof GoalCorridor) {
+                searched = ((GoalCorridor) searched).getGoal();
+            }
+            // same comparison as PathingControlManager uses to decide whether a path is still for the same goal
+            if (searched.toString().equals(transformed.toString())) {
+                return new AStarPathFinder(repairable, start.getX(), start.getY(), start.getZ(), context);
+            }
+        }
+        if (Baritone.settings().pathingHierarchical.value && context.worldData != null) {
+            BlockPos target = null;
+            if (transformed instanceof IGoalRenderPos) {
+                target = ((IGoalRenderPos) transformed).getGoalPos();
+            } else if (transformed instanceof GoalXZ) {
+                target = new BlockPos(((GoalXZ) transformed).getX(), 0, ((GoalXZ) transformed).getZ());
+            }
+            double minDistance = Baritone.settings().pathingHierarchicalMinDistance.value;
+            if (target != null && Math.pow(target.getX() - start.getX(), 2) + Math.pow(target.getZ() - start.getZ(), 2) >= minDistance * minDistance) {
+                // the plan itself happens on the first heuristic call, which is on the pathing thread
+                transformed = new GoalCorridor(transformed, context.worldData.cache.getPortalGraph(), start.getX(), start.getY(), start.getZ(), target.getX(), target.getZ());
+            }
+        }
         Favoring favoring = new Favoring(context.getBaritone().getPlayerContext(), previous, context);
+        int threads = Baritone.settings().pathingThreads.value;
+        // subclasses can override costs with state that isn't safe to share between threads, and can't be copied anyway
+        if (threads > 1 && context.getClass() == CalculationContext.class) {
+            return new ParallelAStarPathFinder(start.getX(), start.getY(), start.getZ(), transformed, favoring, context, threads);
+        }
         return new AStarPathFinder(start.getX(), start.getY(), start.getZ(), transformed, favoring, context);
     }
 
@@ -0,0 +1,272 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package baritone.cache;
+
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Where each tracked block (see {@link CachedChunk#BLOCKS_TO_KEEP_TRACK_OF}) is in one {@link CachedRegion}, kept up
+ * to date as chunks of the region are cached, read from disk or dropped, so that looking them up never has to go
+ * through every chunk.
+ * <p>
+ * Positions are stored absolute and packed with {@link BlockPos#asLong(int, int, int)}, grouped by block name and
+ * then by chunk, so that a nearest neighbour search can skip entire chunks that are too far away.
+ */
+final class BlockLocationIndex {
+
+    /**
+     * Region x and z in blocks, i.e. the corner of chunk 0,0
+     */
+    private final int originX;
+    private final int originZ;
+
+    /**
+     * Block name to the positions in each chunk, see {@link RegionFile#index(int, int)}. Empty chunks are null.
+     */
+    private final Map<String, Locations> byBlock = new Object2ObjectOpenHashMap<>();
+
+    BlockLocationIndex(int regionX, int regionZ) {
+        this.originX = regionX << 9;
+        this.originZ = regionZ << 9;
+    }
+
+    /**
+     * Replaces whatever was known about a chunk with its contents
+     *
+     * @param index The chunk index in the region, see {@link RegionFile#index(int, int)}
+     * @param chunk The chunk now there, or null if there is none any more
+     */
+    synchronized void set(int index, CachedChunk chunk) {
+        for (Locations locations : byBlock.values()) {
+            locations.set(index, null);
+        }
+        if (chunk == null) {
+            return;
+        }
+        int offsetX = chunk.x << 4;
+        int offsetZ = chunk.z << 4;
+        for (Map.Entry<String, List<BlockPos>> entry : chunk.getRelativeBlocks().entrySet()) {
+            List<BlockPos> relative = entry.getValue();
+            if (relative.isEmpty()) {
+                continue;
+            }
+            long[] packed = new long[relative.size()];
+            for (int i = 0; i < packed.length; i++) {
+                BlockPos pos = relative.get(i);
+                packed[i] = BlockPos.asLong(pos.getX() + offsetX, pos.getY(), pos.getZ() + offsetZ);
+            }
+            byBlock.computeIfAbsent(entry.getKey(), name -> new Locations()).set(index, packed);
+        }
+    }
+
+    synchronized void clear() {
+        byBlock.clear();
+    }
+
+    /**
+     * @param block The block name
+     * @return Every known position of the block in this region, packed
+     */
+    synchronized long[] get(String block) {
+        Locations locations = byBlock.get(block);
+        return locations == null ? new long[0] : locations.flatten();
+    }
+
+    /**
+     * Offers every position of the block that could be one of the nearest to the query
+     *
+     * @param block   The block name
+     * @param nearest The nearest positions found so far, in this region and others
+     */
+    synchronized void collectNearest(String block, Nearest nearest) {
+        Locations locations = byBlock.get(block);
+        if (locations == null || locations.count == 0) {
+            return;
+        }
+        for (int index = 0; index < locations.byChunk.length; index++) {
+            long[] packed = locations.byChunk[index];
+            if (packed == null) {
+                continue;
+            }
+            int chunkX = originX + ((index >> 5) << 4);
+            int chunkZ = originZ + ((index & 31) << 4);
+            if (nearest.isFull() && nearest.minDistanceSq(chunkX, chunkZ, 16) > nearest.worstDistanceSq()) {
+                continue;
+            }
+            for (long pos : packed) {
+                nearest.offer(pos);
+            }
+        }
+    }
+
+    private static final class Locations {
+
+        private final long[][] byChunk = new long[32 * 32][];
+
+        /**
+         * The total number of positions in {@link #byChunk}
+         */
+        private int count;
+
+        /**
+         * All of {@link #byChunk} in one array, null until asked for after a change
+         */
+        private long[] flat;
+
+        void set(int index, long[] packed) {
+            long[] prev = byChunk[index];
+            if (prev == null && packed == null) {
+                return;
+            }
+            count += (packed == null ? 0 : packed.length) - (prev == null ? 0 : prev.length);
+            byChunk[index] = packed;
+            flat = null;
+        }
+
+        long[] flatten() {
+            if (flat == null) {
+                long[] all = new long[count];
+                int i = 0;
+                for (long[] packed : byChunk) {
+                    if (packed != null) {
+                        System.arraycopy(packed, 0, all, i, packed.length);
+                        i += packed.length;
+                    }
+                }
+                flat = all;
+            }
+            return flat;
+        }
+    }
+
+    /**
+     * The k nearest positions to a point seen so far, as a bounded max heap on squared distance
+     */
+    static final class Nearest {
+
+        private final int x;
+        private final int y;
+        private final int z;
+        private final int k;
+        private long[] positions;
+        private long[] distances;
+        private int size;
+
+        Nearest(int k, int x, int y, int z) {
+            this.k = k;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            int capacity = Math.min(k, 64); // k is often "as many as there are"
+            this.positions = new long[capacity];
+            this.distances = new long[capacity];
+        }
+
+        boolean isFull() {
+            return size >= k;
+        }
+
+        /**
+         * @return The squared distance of the furthest position kept, only meaningful once {@link #isFull()}
+         */
+        long worstDistanceSq() {
+            return size == 0 ? Long.MAX_VALUE : distances[0];
+        }
+
+        /**
+         * @return The smallest possible horizontal squared distance from the query point to an area
+         */
+        long minDistanceSq(int minX, int minZ, int width) {
+            long dx = Math.max(0, Math.max(minX - x, x - (minX + width - 1)));
+            long dz = Math.max(0, Math.max(minZ - z, z - (minZ + width - 1)));
+            return dx * dx + dz * dz;
+        }
+
+        void offer(long pos) {
+            long dx = BlockPos.getX(pos) - x;
+            long dy = BlockPos.getY(pos) - y;
+            long dz = BlockPos.getZ(pos) - z;
+            long dist = dx * dx + dy * dy + dz * dz;
+            if (size < k) {
+                if (size == positions.length) {
+                    int capacity = (int) Math.min((long) k, positions.length * 2L);
+                    positions = Arrays.copyOf(positions, capacity);
+                    distances = Arrays.copyOf(distances, capacity);
+                }
+                int i = size++;
+                // sift up
+                while (i > 0) {
+                    int parent = (i - 1) >> 1;
+                    if (distances[parent] >= dist) {
+                        break;
+                    }
+                    distances[i] = distances[parent];
+                    positions[i] = positions[parent];
+                    i = parent;
+                }
+                distances[i] = dist;
+                positions[i] = pos;
+                return;
+            }
+            if (dist >= distances[0]) {
+                return;
+            }
+            // replace the furthest and sift down
+            int i = 0;
+            while (true) {
+                int child = (i << 1) + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && distances[child + 1] > distances[child]) {
+                    child++;
+                }
+                if (distances[child] <= dist) {
+                    break;
+                }
+                distances[i] = distances[child];
+                positions[i] = positions[child];
+                i = child;
+            }
+            distances[i] = dist;
+            positions[i] = pos;
+        }
+
+        /**
+         * @return The positions kept, nearest first
+         */
+        ArrayList<BlockPos> toSortedList() {
+            int[] order = new int[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            IntArrays.quickSort(order, (a, b) -> Long.compare(distances[a], distances[b]));
+            ArrayList<BlockPos> res = new ArrayList<>(size);
+            for (int i : order) {
+                res.add(BlockPos.of(positions[i]));
+            }
+            return res;
+        }
+    }
+}
@@ -228,6 +228,18 @@ public final class CachedChunk {
         return ChunkPacker.pathingTypeToBlock(type, dimension);
     }
 
+    /**
+     * Reads the raw cached type of a block, without any of the guessing {@link #getBlock} does
+     *
+     * @param x The chunk relative x position
+     * @param y The y position, relative to the bottom of the dimension
+     * @param z The chunk relative z position
+     * @return The pathing type of the block
+     */
+    public final PathingBlockType getPathingType(int x, int y, int z) {
+        return getType(getPositionIndex(x, y, z));
+    }
+
     private PathingBlockType getType(int index) {
         return PathingBlockType.fromBits(data.get(index), data.get(index + 1));
     }
@@ -20,6 +20,8 @@ package baritone.cache;
 import baritone.Baritone;
 import baritone.api.cache.ICachedRegion;
 import baritone.api.utils.BlockUtils;
+import baritone.utils.TaskScheduler;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import net.minecraft.core.BlockPos;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.dimension.DimensionType;
@@ -30,7 +32,6 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 
 /**
  * @author Brady
@@ -42,7 +43,8 @@ public final class CachedRegion implements ICachedRegion {
     private static final byte CHUNK_PRESENT = 1;
 
     /**
-     * Magic value to detect invalid cache files, or incompatible cache files saved in an old version of Baritone
+     * Magic value of the old format, a single GZIP stream of the whole region. Still read, and converted to a
+     * {@link RegionFile} on the next save.
      */
     private static final int CACHED_REGION_MAGIC = 456022911;
 
@@ -63,16 +65,65 @@ public final class CachedRegion implements ICachedRegion {
 
     private final DimensionType dimension;
 
+    /**
+     * The world this region belongs to, told about chunks that settle. Null for a region on its own, like in the benchmarks
+     */
+    private final CachedWorld world;
+
+    /**
+     * Where the tracked blocks in the cached chunks of this region are
+     */
+    private final BlockLocationIndex locations;
+
     /**
      * Has this region been modified since its most recent load or save
      */
     private boolean hasUnsavedChanges;
 
+    /**
+     * Which chunks have been modified or removed since the most recent load or save, see {@link RegionFile#index(int, int)}
+     */
+    private final BitSet dirty = new BitSet(32 * 32);
+
+    /**
+     * Which chunks are settled, i.e. have been read from disk, found not to be there, or replaced by a newer copy.
+     * Anything else might still be on disk, and is read in the background when it's first asked for.
+     * <p>
+     * Sized up front so that it never reallocates, since it's read without holding the lock.
+     */
+    private final BitSet settled = new BitSet(32 * 32);
+
+    /**
+     * Chunks that have been asked for but aren't settled yet, waiting for the loader
+     */
+    private final BitSet requested = new BitSet(32 * 32);
+
+    /**
+     * Whether a loader task is working through {@link #requested}
+     */
+    private boolean loading;
+
+    /**
+     * Where this region lives on disk, null until {@link #load(String)} or {@link #save(String)}
+     */
+    private Path regionFile;
+
+    /**
+     * The file this region was loaded from or saved to, null until one of those needs it
+     */
+    private RegionFile file;
+
     CachedRegion(int x, int z, DimensionType dimension) {
+        this(x, z, dimension, null);
+    }
+
+    CachedRegion(int x, int z, DimensionType dimension, CachedWorld world) {
         this.x = x;
         this.z = z;
         this.hasUnsavedChanges = false;
         this.dimension = dimension;
+        this.world = world;
+        this.locations = new BlockLocationIndex(x, z);
     }
 
     @Override
@@ -82,37 +133,268 @@ public final class CachedRegion implements ICachedRegion {
         if (chunk != null) {
             return chunk.getBlock(x & 15, adjY, z & 15, dimension);
         }
+        request(x >> 4, z >> 4);
         return null;
     }
 
     @Override
     public final boolean isCached(int x, int z) {
-        return chunks[x >> 4][z >> 4] != null;
+        if (chunks[x >> 4][z >> 4] != null) {
+            return true;
+        }
+        request(x >> 4, z >> 4);
+        return false;
     }
 
+    /**
+     * @param x The region relative block x
+     * @param z The region relative block z
+     * @return Whether {@link #isCached(int, int)} is final for this chunk, rather than waiting on the disk
+     */
+    public final boolean isSettled(int x, int z) {
+        return settled.get(RegionFile.index(x >> 4, z >> 4));
+    }
+
+    /**
+     * Answers from the chunks that have been read so far, and asks for the rest in the background like
+     * {@link #getBlock(int, int, int)} does, so a later call may find more
+     *
+     * @param block The block name
+     * @return The positions of that block in this region
+     */
     public final ArrayList<BlockPos> getLocationsOf(String block) {
-        ArrayList<BlockPos> res = new ArrayList<>();
-        for (int chunkX = 0; chunkX < 32; chunkX++) {
-            for (int chunkZ = 0; chunkZ < 32; chunkZ++) {
-                if (chunks[chunkX][chunkZ] == null) {
-                    continue;
-                }
-                ArrayList<BlockPos> locs = chunks[chunkX][chunkZ].getAbsoluteBlocks(block);
-                if (locs != null) {
-                    res.addAll(locs);
-                }
-            }
+        requestAll();
+        long[] packed = locations.get(block);
+        ArrayList<BlockPos> res = new ArrayList<>(packed.length);
+        for (long pos : packed) {
+            res.add(BlockPos.of(pos));
         }
         return res;
     }
 
+    /**
+     * Offers the positions of a tracked block in this region that could be among the nearest ones
+     *
+     * @param block   The block name
+     * @param nearest The nearest positions found so far
+     */
+    final void collectNearest(String block, BlockLocationIndex.Nearest nearest) {
+        requestAll(); // same as getLocationsOf, only the chunks read so far
+        locations.collectNearest(block, nearest);
+    }
+
+    /**
+     * @param chunkX The region relative chunk x
+     * @param chunkZ The region relative chunk z
+     * @return The cached chunk there, or null if it isn't cached, or hasn't been read from disk yet
+     */
+    final CachedChunk getChunk(int chunkX, int chunkZ) {
+        CachedChunk chunk = chunks[chunkX][chunkZ];
+        if (chunk == null) {
+            request(chunkX, chunkZ);
+        }
+        return chunk;
+    }
+
     public final synchronized void updateCachedChunk(int chunkX, int chunkZ, CachedChunk chunk) {
         this.chunks[chunkX][chunkZ] = chunk;
+        int index = RegionFile.index(chunkX, chunkZ);
+        locations.set(index, chunk);
+        dirty.set(index);
+        settled.set(index); // whatever is on disk is older than this
         hasUnsavedChanges = true;
     }
 
+    /**
+     * Asks for a chunk to be read from disk in the background, if it might be there and hasn't been already
+     *
+     * @param chunkX The region relative chunk x
+     * @param chunkZ The region relative chunk z
+     */
+    public final void request(int chunkX, int chunkZ) {
+        int index = RegionFile.index(chunkX, chunkZ);
+        if (settled.get(index)) {
+            return; // the common case, checked without the lock since this is called for every uncached block lookup
+        }
+        synchronized (this) {
+            if (settled.get(index) || requested.get(index)) {
+                return;
+            }
+            requested.set(index);
+            if (!loading) {
+                loading = true;
+                Baritone.getScheduler().execute(TaskScheduler.Lane.DISK, this::loadRequested);
+            }
+        }
+    }
+
+    private void loadRequested() {
+        convertLegacy();
+        while (true) {
+            int index;
+            RegionFile file;
+            boolean convert;
+            synchronized (this) {
+                index = requested.nextSetBit(0);
+                if (index < 0) {
+                    loading = false;
+                    return;
+                }
+                file = open();
+                convert = file == null && regionFile != null; // pointed at a file in the old format since this task started
+                if (!convert) {
+                    requested.clear(index);
+                }
+            }
+            if (convert) {
+                convertLegacy();
+                continue;
+            }
+            // read and decompress without the lock, so that saving and packing aren't held up
+            CachedChunk chunk = readChunk(file, index >> 5, index & 31);
+            synchronized (this) {
+                settle(index, chunk);
+            }
+        }
+    }
+
+    /**
+     * Asks for every chunk that isn't settled yet to be read from disk in the background
+     */
+    final void requestAll() {
+        if (settled.nextClearBit(0) >= 32 * 32) {
+            return; // everything is settled, checked without the lock like in request
+        }
+        synchronized (this) {
+            for (int index = settled.nextClearBit(0); index < 32 * 32; index = settled.nextClearBit(index + 1)) {
+                requested.set(index);
+            }
+            if (!loading && !requested.isEmpty()) {
+                loading = true;
+                Baritone.getScheduler().execute(TaskScheduler.Lane.DISK, this::loadRequested);
+            }
+        }
+    }
+
+    /**
+     * Reads every chunk that isn't settled yet, right now. Blocks on the disk, so not for the client thread.
+     */
+    final void loadAll() {
+        convertLegacy();
+        synchronized (this) {
+            RegionFile file = open();
+            for (int index = settled.nextClearBit(0); index < 32 * 32; index = settled.nextClearBit(index + 1)) {
+                settle(index, readChunk(file, index >> 5, index & 31));
+            }
+        }
+    }
+
+    private void settle(int index, CachedChunk chunk) {
+        if (settled.get(index)) {
+            return; // replaced while we were reading it
+        }
+        settled.set(index);
+        if (chunk == null) {
+            return;
+        }
+        long expiry = Baritone.settings().cachedChunksExpirySeconds.value;
+        if (expiry >= 0 && chunk.cacheTimestamp < System.currentTimeMillis() - expiry * 1000L) {
+            dirty.set(index); // delete it from disk on the next save
+            hasUnsavedChanges = true;
+            return;
+        }
+        this.chunks[index >> 5][index & 31] = chunk;
+        locations.set(index, chunk);
+        if (world != null) {
+            // anything calculated while this chunk was still missing is stale now
+            world.onChunkChanged((this.x << 5) + (index >> 5), (this.z << 5) + (index & 31));
+        }
+    }
 
-    public synchronized final void save(String directory) {
+    private CachedChunk readChunk(RegionFile file, int x, int z) {
+        if (file == null || !file.has(x, z)) {
+            return null;
+        }
+        // every chunk is on its own, so a corrupt one doesn't take the rest of the region with it
+        try (DataInputStream in = file.read(x, z)) {
+            return in == null ? null : fromRecord(in, x, z);
+        } catch (Exception ex) {
+            System.out.println("Skipping corrupt chunk " + (x + 32 * this.x) + "," + (z + 32 * this.z) + ": " + ex);
+            return null;
+        }
+    }
+
+    /**
+     * Opens the region file if that hasn't happened yet
+     *
+     * @return The region file, or null if this region doesn't know where it lives on disk, or the file is still in
+     * the old format and {@link #convertLegacy()} hasn't got to it yet
+     */
+    private RegionFile open() {
+        if (file != null || regionFile == null) {
+            return file;
+        }
+        try {
+            if (Files.exists(regionFile) && !RegionFile.isRegionFile(regionFile)) {
+                return null; // opening it as a region file would drop what's in it on the next save
+            }
+            file = RegionFile.open(regionFile);
+        } catch (Exception ex) { // corrupted files can cause NullPointerExceptions as well as IOExceptions
+            ex.printStackTrace();
+            file = RegionFile.create(regionFile); // the next save starts the file over with whatever we have
+        }
+        return file;
+    }
+
+    /**
+     * A file in the old format can't be read a chunk at a time, so it's read in full the first time anything needs
+     * the file, and written back in the new format on the next save. That happens on whichever thread needs it, which
+     * is the disk lane for everything but saving, and without holding the lock, so that {@link #request(int, int)}
+     * and {@link #settle(int, CachedChunk)} aren't held up by it.
+     */
+    private void convertLegacy() {
+        Path regionFile;
+        synchronized (this) {
+            if (file != null || this.regionFile == null) {
+                return;
+            }
+            regionFile = this.regionFile;
+        }
+        CachedChunk[] legacy;
+        try {
+            if (!Files.exists(regionFile) || RegionFile.isRegionFile(regionFile)) {
+                return;
+            }
+            System.out.println("Converting region " + x + "," + z + " from the old format");
+            legacy = readLegacy(regionFile);
+        } catch (Exception ex) { // corrupted files can cause NullPointerExceptions as well as IOExceptions
+            ex.printStackTrace();
+            legacy = null;
+        }
+        synchronized (this) {
+            if (file != null || this.regionFile != regionFile) {
+                return; // converted already, or load pointed this region somewhere else meanwhile
+            }
+            if (legacy != null) {
+                for (int index = 0; index < legacy.length; index++) {
+                    if (legacy[index] != null) {
+                        settle(index, legacy[index]);
+                    }
+                }
+                hasUnsavedChanges = true;
+            }
+            file = RegionFile.create(regionFile); // the next save starts the file over with whatever we have
+        }
+    }
+
+    public final void save(String directory) {
+        convertLegacy();
+        synchronized (this) {
+            saveConverted(directory);
+        }
+    }
+
+    private void saveConverted(String directory) {
         if (!hasUnsavedChanges) {
             return;
         }
@@ -124,186 +406,213 @@ public final class CachedRegion implements ICachedRegion {
 
             }
             System.out.println("Saving region " + x + "," + z + " to disk " + path);
-            Path regionFile = getRegionFile(path, this.x, this.z);
-            if (!Files.exists(regionFile)) {
-                Files.createFile(regionFile);
+            if (regionFile == null) {
+                regionFile = getRegionFile(path, this.x, this.z);
             }
-            try (
-                    FileOutputStream fileOut = new FileOutputStream(regionFile.toFile());
-                    GZIPOutputStream gzipOut = new GZIPOutputStream(fileOut, 16384);
-                    DataOutputStream out = new DataOutputStream(gzipOut)
-            ) {
-                out.writeInt(CACHED_REGION_MAGIC);
-                for (int x = 0; x < 32; x++) {
-                    for (int z = 0; z < 32; z++) {
-                        CachedChunk chunk = this.chunks[x][z];
-                        if (chunk == null) {
-                            out.write(CHUNK_NOT_PRESENT);
-                        } else {
-                            out.write(CHUNK_PRESENT);
-                            byte[] chunkBytes = chunk.toByteArray();
-                            out.write(chunkBytes);
-                            // Messy, but fills the empty 0s that should be trailing to fill up the space.
-                            out.write(new byte[chunk.sizeInBytes - chunkBytes.length]);
-                        }
-                    }
-                }
-                for (int x = 0; x < 32; x++) {
-                    for (int z = 0; z < 32; z++) {
-                        if (chunks[x][z] != null) {
-                            for (int i = 0; i < 256; i++) {
-                                out.writeUTF(BlockUtils.blockToString(chunks[x][z].getOverview()[i].getBlock()));
-                            }
-                        }
-                    }
-                }
-                for (int x = 0; x < 32; x++) {
-                    for (int z = 0; z < 32; z++) {
-                        if (chunks[x][z] != null) {
-                            Map<String, List<BlockPos>> locs = chunks[x][z].getRelativeBlocks();
-                            out.writeShort(locs.entrySet().size());
-                            for (Map.Entry<String, List<BlockPos>> entry : locs.entrySet()) {
-                                out.writeUTF(entry.getKey());
-                                out.writeShort(entry.getValue().size());
-                                for (BlockPos pos : entry.getValue()) {
-                                    out.writeByte((byte) (pos.getZ() << 4 | pos.getX()));
-                                    out.writeInt(pos.getY() - dimension.minY());
-                                }
-                            }
-                        }
-                    }
-                }
-                for (int x = 0; x < 32; x++) {
-                    for (int z = 0; z < 32; z++) {
-                        if (chunks[x][z] != null) {
-                            out.writeLong(chunks[x][z].cacheTimestamp);
-                        }
+            RegionFile file = open();
+            if (file == null) {
+                System.out.println("Not saving region " + x + "," + z + " until it's converted from the old format");
+                return;
+            }
+            // a file in the old format (or no file at all) gets every chunk, otherwise only the ones that changed
+            boolean everything = file.needsRewrite();
+            Int2ObjectOpenHashMap<byte[]> changed = new Int2ObjectOpenHashMap<>();
+            for (int x = 0; x < 32; x++) {
+                for (int z = 0; z < 32; z++) {
+                    int index = RegionFile.index(x, z);
+                    if (everything ? chunks[x][z] != null : dirty.get(index)) {
+                        changed.put(index, chunks[x][z] == null ? null : toRecord(chunks[x][z]));
                     }
                 }
             }
+            file.write(changed);
+            dirty.clear();
             hasUnsavedChanges = false;
-            System.out.println("Saved region successfully");
+            System.out.println("Saved " + changed.size() + " chunks of region successfully");
         } catch (Exception ex) {
             ex.printStackTrace();
         }
     }
 
+    /**
+     * Points this region at its file on disk. Nothing is read here, chunks are read in the background as they're
+     * asked for (see {@link #request(int, int)}), so this is cheap enough to do while holding the world lock.
+     * <p>
+     * Calling this again drops every chunk that hasn't changed since it was read, so that they're read again.
+     *
+     * @param directory The directory of the region files
+     */
     public synchronized void load(String directory) {
-        try {
-            Path path = Paths.get(directory);
-            if (!Files.exists(path)) {
-                Files.createDirectories(path);
+        this.regionFile = getRegionFile(Paths.get(directory), this.x, this.z);
+        this.file = null;
+        for (int x = 0; x < 32; x++) {
+            for (int z = 0; z < 32; z++) {
+                int index = RegionFile.index(x, z);
+                if (!dirty.get(index)) {
+                    chunks[x][z] = null;
+                    settled.clear(index);
+                    locations.set(index, null);
+                }
             }
+        }
+    }
 
-            Path regionFile = getRegionFile(path, this.x, this.z);
-            if (!Files.exists(regionFile)) {
-                return;
+    /**
+     * @return Everything there is to save about a chunk, uncompressed, see {@link #fromRecord(DataInputStream, int, int)}
+     */
+    private byte[] toRecord(CachedChunk chunk) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(chunk.sizeInBytes + 4096);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            byte[] chunkBytes = chunk.toByteArray();
+            out.write(chunkBytes);
+            // Messy, but fills the empty 0s that should be trailing to fill up the space.
+            out.write(new byte[chunk.sizeInBytes - chunkBytes.length]);
+            for (int i = 0; i < 256; i++) {
+                out.writeUTF(BlockUtils.blockToString(chunk.getOverview()[i].getBlock()));
             }
-
-            System.out.println("Loading region " + x + "," + z + " from disk " + path);
-            long start = System.nanoTime() / 1000000L;
-
-            try (
-                    FileInputStream fileIn = new FileInputStream(regionFile.toFile());
-                    GZIPInputStream gzipIn = new GZIPInputStream(fileIn, 32768);
-                    DataInputStream in = new DataInputStream(gzipIn)
-            ) {
-                int magic = in.readInt();
-                if (magic != CACHED_REGION_MAGIC) {
-                    // in the future, if we change the format on disk
-                    // we can keep converters for the old format
-                    // by switching on the magic value, and either loading it normally, or loading through a converter.
-                    throw new IOException("Bad magic value " + magic);
+            Map<String, List<BlockPos>> locs = chunk.getRelativeBlocks();
+            out.writeShort(locs.entrySet().size());
+            for (Map.Entry<String, List<BlockPos>> entry : locs.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeShort(entry.getValue().size());
+                for (BlockPos pos : entry.getValue()) {
+                    out.writeByte((byte) (pos.getZ() << 4 | pos.getX()));
+                    out.writeInt(pos.getY() - dimension.minY());
                 }
-                boolean[][] present = new boolean[32][32];
-                BitSet[][] bitSets = new BitSet[32][32];
-                Map<String, List<BlockPos>>[][] location = new Map[32][32];
-                BlockState[][][] overview = new BlockState[32][32][];
-                long[][] cacheTimestamp = new long[32][32];
-                for (int x = 0; x < 32; x++) {
-                    for (int z = 0; z < 32; z++) {
-                        int isChunkPresent = in.read();
-                        switch (isChunkPresent) {
-                            case CHUNK_PRESENT:
-                                byte[] bytes = new byte[CachedChunk.sizeInBytes(CachedChunk.size(dimension.height()))];
-                                in.readFully(bytes);
-                                bitSets[x][z] = BitSet.valueOf(bytes);
-                                location[x][z] = new HashMap<>();
-                                //this is top block in columns
-                                overview[x][z] = new BlockState[256];
-                                present[x][z] = true;
-                                break;
-                            case CHUNK_NOT_PRESENT:
-                                break;
-                            default:
-                                throw new IOException("Malformed stream");
-                        }
+            }
+            out.writeLong(chunk.cacheTimestamp);
+        }
+        return bytes.toByteArray();
+    }
+
+    private CachedChunk fromRecord(DataInputStream in, int x, int z) throws IOException {
+        byte[] bytes = new byte[CachedChunk.sizeInBytes(CachedChunk.size(dimension.height()))];
+        in.readFully(bytes);
+        BlockState[] overview = new BlockState[256];
+        for (int i = 0; i < 256; i++) {
+            overview[i] = BlockUtils.stringToBlockRequired(in.readUTF()).defaultBlockState();
+        }
+        Map<String, List<BlockPos>> location = new HashMap<>();
+        int numSpecialBlockTypes = in.readShort() & 0xffff;
+        for (int i = 0; i < numSpecialBlockTypes; i++) {
+            String blockName = in.readUTF();
+            BlockUtils.stringToBlockRequired(blockName);
+            List<BlockPos> locs = new ArrayList<>();
+            location.put(blockName, locs);
+            int numLocations = in.readShort() & 0xffff;
+            if (numLocations == 0) {
+                // an entire chunk full of air can happen in the end
+                numLocations = 65536;
+            }
+            for (int j = 0; j < numLocations; j++) {
+                byte xz = in.readByte();
+                locs.add(new BlockPos(xz & 0x0f, in.readInt() + dimension.minY(), (xz >>> 4) & 0x0f));
+            }
+        }
+        long cacheTimestamp = in.readLong();
+        return new CachedChunk(x + 32 * this.x, z + 32 * this.z, dimension.height(), BitSet.valueOf(bytes), overview, location, cacheTimestamp);
+    }
+
+    /**
+     * Reads a region saved as a single GZIP stream, as Baritone did before {@link RegionFile}. Only reads, so that it
+     * can run without the lock.
+     *
+     * @return The chunks in the file by {@link RegionFile#index(int, int)}, null where there isn't one
+     */
+    private CachedChunk[] readLegacy(Path regionFile) throws IOException {
+        try (
+                FileInputStream fileIn = new FileInputStream(regionFile.toFile());
+                GZIPInputStream gzipIn = new GZIPInputStream(fileIn, 32768);
+                DataInputStream in = new DataInputStream(gzipIn)
+        ) {
+            int magic = in.readInt();
+            if (magic != CACHED_REGION_MAGIC) {
+                throw new IOException("Bad magic value " + magic);
+            }
+            boolean[][] present = new boolean[32][32];
+            BitSet[][] bitSets = new BitSet[32][32];
+            Map<String, List<BlockPos>>[][] location = new Map[32][32];
+            BlockState[][][] overview = new BlockState[32][32][];
+            long[][] cacheTimestamp = new long[32][32];
+            for (int x = 0; x < 32; x++) {
+                for (int z = 0; z < 32; z++) {
+                    int isChunkPresent = in.read();
+                    switch (isChunkPresent) {
+                        case CHUNK_PRESENT:
+                            byte[] bytes = new byte[CachedChunk.sizeInBytes(CachedChunk.size(dimension.height()))];
+                            in.readFully(bytes);
+                            bitSets[x][z] = BitSet.valueOf(bytes);
+                            location[x][z] = new HashMap<>();
+                            //this is top block in columns
+                            overview[x][z] = new BlockState[256];
+                            present[x][z] = true;
+                            break;
+                        case CHUNK_NOT_PRESENT:
+                            break;
+                        default:
+                            throw new IOException("Malformed stream");
                     }
                 }
-                for (int x = 0; x < 32; x++) {
-                    for (int z = 0; z < 32; z++) {
-                        if (present[x][z]) {
-                            for (int i = 0; i < 256; i++) {
-                                overview[x][z][i] = BlockUtils.stringToBlockRequired(in.readUTF()).defaultBlockState();
-                            }
+            }
+            for (int x = 0; x < 32; x++) {
+                for (int z = 0; z < 32; z++) {
+                    if (present[x][z]) {
+                        for (int i = 0; i < 256; i++) {
+                            overview[x][z][i] = BlockUtils.stringToBlockRequired(in.readUTF()).defaultBlockState();
                         }
                     }
                 }
-                for (int x = 0; x < 32; x++) {
-                    for (int z = 0; z < 32; z++) {
-                        if (present[x][z]) {
-                            // 16 * 16 * 256 = 65536 so a short is enough
-                            // ^ haha jokes on leijurv, java doesn't have unsigned types so that isn't correct
-                            //   also why would you have more than 32767 special blocks in a chunk
-                            // haha double jokes on you now it works for 65535 not just 32767
-                            int numSpecialBlockTypes = in.readShort() & 0xffff;
-                            for (int i = 0; i < numSpecialBlockTypes; i++) {
-                                String blockName = in.readUTF();
-                                BlockUtils.stringToBlockRequired(blockName);
-                                List<BlockPos> locs = new ArrayList<>();
-                                location[x][z].put(blockName, locs);
-                                int numLocations = in.readShort() & 0xffff;
-                                if (numLocations == 0) {
-                                    // an entire chunk full of air can happen in the end
-                                    numLocations = 65536;
-                                }
-                                for (int j = 0; j < numLocations; j++) {
-                                    byte xz = in.readByte();
-                                    int X = xz & 0x0f;
-                                    int Z = (xz >>> 4) & 0x0f;
-                                    int Y = in.readInt();
-                                    locs.add(new BlockPos(X, Y + dimension.minY(), Z));
-                                }
+            }
+            for (int x = 0; x < 32; x++) {
+                for (int z = 0; z < 32; z++) {
+                    if (present[x][z]) {
+                        // 16 * 16 * 256 = 65536 so a short is enough
+                        // ^ haha jokes on leijurv, java doesn't have unsigned types so that isn't correct
+                        //   also why would you have more than 32767 special blocks in a chunk
+                        // haha double jokes on you now it works for 65535 not just 32767
+                        int numSpecialBlockTypes = in.readShort() & 0xffff;
+                        for (int i = 0; i < numSpecialBlockTypes; i++) {
+                            String blockName = in.readUTF();
+                            BlockUtils.stringToBlockRequired(blockName);
+                            List<BlockPos> locs = new ArrayList<>();
+                            location[x][z].put(blockName, locs);
+                            int numLocations = in.readShort() & 0xffff;
+                            if (numLocations == 0) {
+                                // an entire chunk full of air can happen in the end
+                                numLocations = 65536;
+                            }
+                            for (int j = 0; j < numLocations; j++) {
+                                byte xz = in.readByte();
+                                int X = xz & 0x0f;
+                                int Z = (xz >>> 4) & 0x0f;
+                                int Y = in.readInt();
+                                locs.add(new BlockPos(X, Y + dimension.minY(), Z));
                             }
                         }
                     }
                 }
-                for (int x = 0; x < 32; x++) {
-                    for (int z = 0; z < 32; z++) {
-                        if (present[x][z]) {
-                            cacheTimestamp[x][z] = in.readLong();
-                        }
+            }
+            for (int x = 0; x < 32; x++) {
+                for (int z = 0; z < 32; z++) {
+                    if (present[x][z]) {
+                        cacheTimestamp[x][z] = in.readLong();
                     }
                 }
-                // only if the entire file was uncorrupted do we actually set the chunks
-                for (int x = 0; x < 32; x++) {
-                    for (int z = 0; z < 32; z++) {
-                        if (present[x][z]) {
-                            int regionX = this.x;
-                            int regionZ = this.z;
-                            int chunkX = x + 32 * regionX;
-                            int chunkZ = z + 32 * regionZ;
-                            this.chunks[x][z] = new CachedChunk(chunkX, chunkZ, dimension.height(), bitSets[x][z], overview[x][z], location[x][z], cacheTimestamp[x][z]);
-                        }
+            }
+            // only if the entire file was uncorrupted do we actually set the chunks
+            CachedChunk[] chunks = new CachedChunk[32 * 32];
+            for (int x = 0; x < 32; x++) {
+                for (int z = 0; z < 32; z++) {
+                    if (present[x][z]) {
+                        int regionX = this.x;
+                        int regionZ = this.z;
+                        int chunkX = x + 32 * regionX;
+                        int chunkZ = z + 32 * regionZ;
+                        chunks[RegionFile.index(x, z)] = new CachedChunk(chunkX, chunkZ, dimension.height(), bitSets[x][z], overview[x][z], location[x][z], cacheTimestamp[x][z]);
                     }
                 }
             }
-            removeExpired();
-            hasUnsavedChanges = false;
-            long end = System.nanoTime() / 1000000L;
-            System.out.println("Loaded region successfully in " + (end - start) + "ms");
-        } catch (Exception ex) { // corrupted files can cause NullPointerExceptions as well as IOExceptions
-            ex.printStackTrace();
+            return chunks;
         }
     }
 
@@ -319,6 +628,9 @@ public final class CachedRegion implements ICachedRegion {
                 if (this.chunks[x][z] != null && this.chunks[x][z].cacheTimestamp < oldestAcceptableAge) {
                     System.out.println("Removing chunk " + (x + 32 * this.x) + "," + (z + 32 * this.z) + " because it was cached " + (now - this.chunks[x][z].cacheTimestamp) / 1000L + " seconds ago, and max age is " + expiry);
                     this.chunks[x][z] = null;
+                    dirty.set(RegionFile.index(x, z));
+                    locations.set(RegionFile.index(x, z), null);
+                    hasUnsavedChanges = true;
                 }
             }
         }
@@ -23,10 +23,9 @@ import baritone.api.IBaritone;
 import baritone.api.cache.ICachedWorld;
 import baritone.api.cache.IWorldData;
 import baritone.api.utils.Helper;
-import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
-import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import baritone.pathing.calc.MovementCostCache;
+import baritone.utils.TaskScheduler;
 import net.minecraft.core.BlockPos;
-import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.chunk.LevelChunk;
 import net.minecraft.world.level.dimension.DimensionType;
 
@@ -34,10 +33,9 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingQueue;
 
 /**
  * @author Brady
@@ -50,10 +48,20 @@ public final class CachedWorld implements ICachedWorld, Helper {
      */
     private static final int REGION_MAX = 30_000_000 / 512 + 1;
 
+    /**
+     * How many chunks around a position {@link #prefetch(int, int, double, double)} reads
+     */
+    private static final int PREFETCH_RADIUS = 4;
+
+    /**
+     * How many chunks ahead of a moving position {@link #prefetch(int, int, double, double)} also reads around
+     */
+    private static final int PREFETCH_AHEAD = 8;
+
     /**
      * A map of all of the cached regions.
      */
-    private Long2ObjectMap<CachedRegion> cachedRegions = new Long2ObjectOpenHashMap<>();
+    private final RegionMap cachedRegions = new RegionMap();
 
     /**
      * The directory that the cached region files are saved to
@@ -61,18 +69,21 @@ public final class CachedWorld implements ICachedWorld, Helper {
     private final String directory;
 
     /**
-     * Queue of positions to pack. Refers to the toPackMap, in that every element of this queue will be a
-     * key in that map.
+     * Packs loaded chunks in the background, see {@link #queueForPacking(LevelChunk)}
      */
-    private final LinkedBlockingQueue<ChunkPos> toPackQueue = new LinkedBlockingQueue<>();
+    private final ChunkPackerPool packer;
+
+    private final DimensionType dimension;
 
     /**
-     * All chunk positions pending packing. This map will be updated in-place if a new update to the chunk occurs
-     * while waiting in the queue for the packer thread to get to it.
+     * Chunk level portals between cached chunks, kept in step with the cache as chunks are updated and pruned
      */
-    private final Map<ChunkPos, LevelChunk> toPackMap = new ConcurrentHashMap<>();
+    private final ChunkPortalGraph portalGraph;
 
-    private final DimensionType dimension;
+    /**
+     * Movement costs remembered between calculations in this world, see {@link MovementCostCache}
+     */
+    private final MovementCostCache costCache;
 
     CachedWorld(Path directory, DimensionType dimension) {
         if (!Files.exists(directory)) {
@@ -83,9 +94,11 @@ public final class CachedWorld implements ICachedWorld, Helper {
         }
         this.directory = directory.toString();
         this.dimension = dimension;
+        this.portalGraph = new ChunkPortalGraph(this, dimension.minY());
+        this.costCache = new MovementCostCache(Baritone.settings().pathingCostCacheSize.value);
         System.out.println("Cached world directory: " + directory);
-        Baritone.getExecutor().execute(new PackerThread());
-        Baritone.getExecutor().execute(() -> {
+        this.packer = new ChunkPackerPool(this, Baritone.settings().chunkPackerThreads.value, Baritone.settings().chunkPackerQueueSize.value);
+        Baritone.getScheduler().execute(TaskScheduler.Lane.BACKGROUND, () -> {
             try {
                 Thread.sleep(30000);
                 while (true) {
@@ -103,9 +116,24 @@ public final class CachedWorld implements ICachedWorld, Helper {
 
     @Override
     public final void queueForPacking(LevelChunk chunk) {
-        if (toPackMap.put(chunk.getPos(), chunk) == null) {
-            toPackQueue.add(chunk.getPos());
-        }
+        packer.queue(chunk);
+    }
+
+    /**
+     * Makes the packer get to chunks near these first, e.g. the player and their path
+     *
+     * @param chunkX The chunk x of each position
+     * @param chunkZ The chunk z of each position
+     */
+    public final void focusPacking(int[] chunkX, int[] chunkZ) {
+        packer.setFocus(chunkX, chunkZ);
+    }
+
+    /**
+     * Lets the packer threads finish the chunks already queued and then stop, for when this world is closed
+     */
+    public final void stopPacking() {
+        packer.shutdown();
     }
 
     @Override
@@ -121,6 +149,44 @@ public final class CachedWorld implements ICachedWorld, Helper {
         return getRegion(blockX >> 9, blockZ >> 9) != null;
     }
 
+    /**
+     * @return Whether {@link #isCached(int, int)} is final for this position, rather than waiting on the disk
+     */
+    public final boolean isSettled(int blockX, int blockZ) {
+        CachedRegion region = getRegion(blockX >> 9, blockZ >> 9);
+        return region != null && region.isSettled(blockX & 511, blockZ & 511);
+    }
+
+    /**
+     * Starts reading the cached chunks around a position, and further out in the direction it's moving, in the
+     * background so that they're there by the time pathing gets to them.
+     *
+     * @param blockX The x of the position
+     * @param blockZ The z of the position
+     * @param motionX Which way the position is moving along x, any scale
+     * @param motionZ Which way the position is moving along z, any scale
+     */
+    public final void prefetch(int blockX, int blockZ, double motionX, double motionZ) {
+        int chunkX = blockX >> 4;
+        int chunkZ = blockZ >> 4;
+        prefetchAround(chunkX, chunkZ);
+        double speed = Math.sqrt(motionX * motionX + motionZ * motionZ);
+        if (speed > 1e-3) {
+            prefetchAround(chunkX + (int) Math.round(motionX / speed * PREFETCH_AHEAD), chunkZ + (int) Math.round(motionZ / speed * PREFETCH_AHEAD));
+        }
+    }
+
+    private void prefetchAround(int chunkX, int chunkZ) {
+        for (int x = chunkX - PREFETCH_RADIUS; x <= chunkX + PREFETCH_RADIUS; x++) {
+            for (int z = chunkZ - PREFETCH_RADIUS; z <= chunkZ + PREFETCH_RADIUS; z++) {
+                CachedRegion region = getOrCreateRegion(x >> 5, z >> 5);
+                if (region != null) {
+                    region.request(x & 31, z & 31);
+                }
+            }
+        }
+    }
+
     @Override
     public final ArrayList<BlockPos> getLocationsOf(String block, int maximum, int centerX, int centerZ, int maxRegionDistanceSq) {
         ArrayList<BlockPos> res = new ArrayList<>();
@@ -139,7 +205,6 @@ public final class CachedWorld implements ICachedWorld, Helper {
                     int regionZ = zoff + centerRegionZ;
                     CachedRegion region = getOrCreateRegion(regionX, regionZ);
                     if (region != null) {
-                        // TODO: 100% verify if this or addAll is faster.
                         res.addAll(region.getLocationsOf(block));
                     }
                 }
@@ -152,9 +217,39 @@ public final class CachedWorld implements ICachedWorld, Helper {
         return res;
     }
 
-    private void updateCachedChunk(CachedChunk chunk) {
+    @Override
+    public final ArrayList<BlockPos> getNearestLocationsOf(String block, int maximum, int centerX, int centerY, int centerZ, int maxRegionDistanceSq) {
+        int centerRegionX = centerX >> 9;
+        int centerRegionZ = centerZ >> 9;
+        int radius = (int) Math.sqrt(maxRegionDistanceSq);
+        List<CachedRegion> regions = new ArrayList<>();
+        for (int xoff = -radius; xoff <= radius; xoff++) {
+            for (int zoff = -radius; zoff <= radius; zoff++) {
+                if (xoff * xoff + zoff * zoff > maxRegionDistanceSq) {
+                    continue;
+                }
+                CachedRegion region = getOrCreateRegion(xoff + centerRegionX, zoff + centerRegionZ);
+                if (region != null) {
+                    regions.add(region);
+                }
+            }
+        }
+        BlockLocationIndex.Nearest nearest = new BlockLocationIndex.Nearest(maximum, centerX, centerY, centerZ);
+        // closest regions first, so that the further ones can be skipped entirely once there are enough positions
+        regions.sort(Comparator.comparingLong(region -> nearest.minDistanceSq(region.getX() << 9, region.getZ() << 9, 512)));
+        for (CachedRegion region : regions) {
+            if (nearest.isFull() && nearest.minDistanceSq(region.getX() << 9, region.getZ() << 9, 512) > nearest.worstDistanceSq()) {
+                break;
+            }
+            region.collectNearest(block, nearest);
+        }
+        return nearest.toSortedList();
+    }
+
+    void updateCachedChunk(CachedChunk chunk) {
         CachedRegion region = getOrCreateRegion(chunk.x >> 5, chunk.z >> 5);
         region.updateCachedChunk(chunk.x & 31, chunk.z & 31, chunk);
+        portalGraph.invalidate(chunk.x, chunk.z);
     }
 
     @Override
@@ -183,7 +278,7 @@ public final class CachedWorld implements ICachedWorld, Helper {
     /**
      * Delete regions that are too far from the player
      */
-    private synchronized void prune() {
+    private void prune() {
         if (!Baritone.settings().pruneRegionsFromRAM.value) {
             return;
         }
@@ -200,6 +295,7 @@ public final class CachedWorld implements ICachedWorld, Helper {
                     logDebug("Deleting cached region " + region.getX() + "," + region.getZ() + " from ram");
                 }
                 cachedRegions.remove(getRegionID(region.getX(), region.getZ()));
+                portalGraph.invalidateRegion(region.getX(), region.getZ());
             }
         }
     }
@@ -233,8 +329,8 @@ public final class CachedWorld implements ICachedWorld, Helper {
         return new BlockPos((mostRecentlyModified.x << 4) + 8, 0, (mostRecentlyModified.z << 4) + 8);
     }
 
-    private synchronized List<CachedRegion> allRegions() {
-        return new ArrayList<>(this.cachedRegions.values());
+    private List<CachedRegion> allRegions() {
+        return this.cachedRegions.values();
     }
 
     @Override
@@ -249,22 +345,49 @@ public final class CachedWorld implements ICachedWorld, Helper {
         System.out.println("World load took " + (now - start) + "ms");
     }
 
+    public final ChunkPortalGraph getPortalGraph() {
+        return portalGraph;
+    }
+
+    public final MovementCostCache getCostCache() {
+        return costCache;
+    }
+
+    /**
+     * @return How the region map, the chunk packer, the movement cost cache and the scheduler have been doing, a line
+     * each
+     */
+    public final List<String> stats() {
+        return Arrays.asList(cachedRegions.stats(), packer.stats(), costCache.stats(), Baritone.getScheduler().stats());
+    }
+
+    /**
+     * Called when a chunk changed in a way that pathing would see, whether in the loaded world or in the cache
+     *
+     * @param chunkX The chunk x
+     * @param chunkZ The chunk z
+     */
+    public final void onChunkChanged(int chunkX, int chunkZ) {
+        costCache.invalidateChunk(chunkX, chunkZ);
+    }
+
     @Override
-    public final synchronized CachedRegion getRegion(int regionX, int regionZ) {
+    public final CachedRegion getRegion(int regionX, int regionZ) {
         return cachedRegions.get(getRegionID(regionX, regionZ));
     }
 
     /**
      * Returns the region at the specified region coordinates. If a
-     * region is not found, then a new one is created.
+     * region is not found, then a new one is created. Creating one doesn't
+     * read anything from disk, see {@link CachedRegion#load(String)}.
      *
      * @param regionX The region X coordinate
      * @param regionZ The region Z coordinate
      * @return The region located at the specified coordinates
      */
-    private synchronized CachedRegion getOrCreateRegion(int regionX, int regionZ) {
+    private CachedRegion getOrCreateRegion(int regionX, int regionZ) {
         return cachedRegions.computeIfAbsent(getRegionID(regionX, regionZ), id -> {
-            CachedRegion newRegion = new CachedRegion(regionX, regionZ, dimension);
+            CachedRegion newRegion = new CachedRegion(regionX, regionZ, dimension, this);
             newRegion.load(this.directory);
             return newRegion;
         });
@@ -300,25 +423,4 @@ public final class CachedWorld implements ICachedWorld, Helper {
     private boolean isRegionInWorld(int regionX, int regionZ) {
         return regionX <= REGION_MAX && regionX >= -REGION_MAX && regionZ <= REGION_MAX && regionZ >= -REGION_MAX;
     }
-
-    private class PackerThread implements Runnable {
-
-        public void run() {
-            while (true) {
-                try {
-                    ChunkPos pos = toPackQueue.take();
-                    LevelChunk chunk = toPackMap.remove(pos);
-                    CachedChunk cached = ChunkPacker.pack(chunk);
-                    CachedWorld.this.updateCachedChunk(cached);
-                    //System.out.println("Processed chunk at " + chunk.x + "," + chunk.z);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                    break;
-                } catch (Throwable th) {
-                    // in the case of an exception, keep consuming from the queue so as not to leak memory
-                    th.printStackTrace();
-                }
-            }
-        }
-    }
 }
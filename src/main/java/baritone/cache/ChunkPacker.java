@@ -19,12 +19,17 @@ package baritone.cache;
 
 import baritone.api.utils.BlockUtils;
 import baritone.pathing.movement.MovementHelper;
+import baritone.utils.accessor.IPalettedContainer;
+import baritone.utils.accessor.IPalettedContainerData;
 import baritone.utils.pathing.PathingBlockType;
 import net.minecraft.core.BlockPos;
+import net.minecraft.util.BitStorage;
+import net.minecraft.world.level.BlockGetter;
 import net.minecraft.world.level.block.*;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.chunk.LevelChunk;
 import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.Palette;
 import net.minecraft.world.level.chunk.PalettedContainer;
 import net.minecraft.world.level.dimension.BuiltinDimensionTypes;
 import net.minecraft.world.level.dimension.DimensionType;
@@ -32,25 +37,46 @@ import net.minecraft.world.phys.Vec3;
 
 import java.util.*;
 
-import static baritone.utils.BlockStateInterface.getFromChunk;
-
 /**
  * @author Brady
  * @since 8/3/2018
  */
 public final class ChunkPacker {
 
+    /**
+     * The largest palette a section has before it switches to the global one, which has every block state in it
+     */
+    private static final int MAX_PALETTE_SIZE = 1 << 8;
+
     private ChunkPacker() {
     }
 
     public static CachedChunk pack(LevelChunk chunk) {
+        return pack(chunk.getPos().x, chunk.getPos().z, chunk.getSections(), chunk.getLevel().dimensionType().minY(), chunk.getLevel().dimensionType().height(), chunk.getLevel());
+    }
+
+    /**
+     * Packs a chunk given only its sections, so that this can run without a live {@link LevelChunk}, e.g. in the
+     * benchmarks.
+     *
+     * @param chunkX                    The chunk x coordinate
+     * @param chunkZ                    The chunk z coordinate
+     * @param chunkInternalStorageArray The sections of the chunk, bottom to top
+     * @param minY                      The lowest y level of the dimension
+     * @param height                    The height of the dimension
+     * @param level                     Used to check the flow of water on the chunk border
+     * @return The packed chunk
+     */
+    public static CachedChunk pack(int chunkX, int chunkZ, LevelChunkSection[] chunkInternalStorageArray, int minY, int height, BlockGetter level) {
         //long start = System.nanoTime() / 1000000L;
 
         Map<String, List<BlockPos>> specialBlocks = new HashMap<>();
-        final int height = chunk.getLevel().dimensionType().height();
         BitSet bitSet = new BitSet(CachedChunk.size(height));
+        Map<BlockState, StateClass> classes = new IdentityHashMap<>();
+        // the class and state of each palette id of the current section, filled in as the ids come up
+        StateClass[] classById = new StateClass[MAX_PALETTE_SIZE];
+        BlockState[] stateById = new BlockState[MAX_PALETTE_SIZE];
         try {
-            LevelChunkSection[] chunkInternalStorageArray = chunk.getSections();
             for (int y0 = 0; y0 < height / 16; y0++) {
                 LevelChunkSection extendedblockstorage = chunkInternalStorageArray[y0];
                 if (extendedblockstorage == null) {
@@ -64,8 +90,34 @@ public final class ChunkPacker {
                     // since a bitset is initialized to all zero, and air is saved as zeros
                     continue;
                 }
+                if (extendedblockstorage.hasOnlyAir()) {
+                    continue; // same as null storage, all zeros
+                }
                 PalettedContainer<BlockState> bsc = extendedblockstorage.getStates();
                 int yReal = y0 << 4;
+                // read the palette ids directly, so that each state is looked up and classified once per section
+                // instead of once per block. the palette and storage are read together, since the chunk can change
+                // under us, and a palette that outgrows its storage is replaced along with it
+                Palette<BlockState> palette = null;
+                BitStorage storage = null;
+                if (bsc instanceof IPalettedContainer) { // not in the benchmarks, which run without mixins
+                    IPalettedContainerData<BlockState> data = ((IPalettedContainer<BlockState>) bsc).getData();
+                    if (data.getPalette().getSize() <= MAX_PALETTE_SIZE) { // anything bigger is the global palette
+                        palette = data.getPalette();
+                        storage = data.getStorage();
+                        Arrays.fill(classById, null);
+                    }
+                }
+                int uniform = palette == null ? -1 : uniformId(storage);
+                if (uniform >= 0) {
+                    BlockState state = palette.valueFor(uniform);
+                    StateClass cls = classes.computeIfAbsent(state, ChunkPacker::classify);
+                    if (!cls.special && cls.type != null) {
+                        // the whole section is one state, so it's one bit pattern repeated, see CachedChunk.getPositionIndex
+                        fill(bitSet, CachedChunk.getPositionIndex(0, yReal, 0), CachedChunk.getPositionIndex(0, yReal + 16, 0), cls.type);
+                        continue;
+                    }
+                }
                 // the mapping of BlockStateContainer.getIndex from xyz to index is y << 8 | z << 4 | x;
                 // for better cache locality, iterate in that order
                 for (int y1 = 0; y1 < 16; y1++) {
@@ -73,14 +125,31 @@ public final class ChunkPacker {
                     for (int z = 0; z < 16; z++) {
                         for (int x = 0; x < 16; x++) {
                             int index = CachedChunk.getPositionIndex(x, y, z);
-                            BlockState state = bsc.get(x, y1, z);
-                            boolean[] bits = getPathingBlockType(state, chunk, x, y, z).getBits();
+                            BlockState state;
+                            StateClass cls;
+                            if (palette != null) {
+                                int id = storage.get(y1 << 8 | z << 4 | x);
+                                cls = classById[id];
+                                if (cls == null) {
+                                    stateById[id] = palette.valueFor(id);
+                                    cls = classById[id] = classes.computeIfAbsent(stateById[id], ChunkPacker::classify);
+                                }
+                                state = stateById[id];
+                            } else {
+                                state = bsc.get(x, y1, z);
+                                cls = classes.computeIfAbsent(state, ChunkPacker::classify);
+                            }
+                            PathingBlockType type = cls.type;
+                            if (type == null) {
+                                // only still water depends on its neighbours
+                                type = getWaterPathingBlockType(state, chunkInternalStorageArray, chunkX, chunkZ, minY, level, x, y, z);
+                            }
+                            boolean[] bits = type.getBits();
                             bitSet.set(index, bits[0]);
                             bitSet.set(index + 1, bits[1]);
-                            Block block = state.getBlock();
-                            if (CachedChunk.BLOCKS_TO_KEEP_TRACK_OF.contains(block)) {
-                                String name = BlockUtils.blockToString(block);
-                                specialBlocks.computeIfAbsent(name, b -> new ArrayList<>()).add(new BlockPos(x, y + chunk.getMinBuildHeight(), z));
+                            if (cls.special) {
+                                String name = BlockUtils.blockToString(state.getBlock());
+                                specialBlocks.computeIfAbsent(name, b -> new ArrayList<>()).add(new BlockPos(x, y + minY, z));
                             }
                         }
                     }
@@ -102,7 +171,7 @@ public final class ChunkPacker {
                 for (int y = height - 1; y >= 0; y--) {
                     int index = CachedChunk.getPositionIndex(x, y, z);
                     if (bitSet.get(index) || bitSet.get(index + 1)) {
-                        blocks[z << 4 | x] = getFromChunk(chunk, x, y, z);
+                        blocks[z << 4 | x] = getFromSections(chunkInternalStorageArray, x, y, z);
                         continue https;
                     }
                 }
@@ -110,10 +179,66 @@ public final class ChunkPacker {
             }
         }
         // @formatter:on
-        return new CachedChunk(chunk.getPos().x, chunk.getPos().z, height, bitSet, blocks, specialBlocks, System.currentTimeMillis());
+        return new CachedChunk(chunkX, chunkZ, height, bitSet, blocks, specialBlocks, System.currentTimeMillis());
+    }
+
+    private static StateClass classify(BlockState state) {
+        return new StateClass(getPathingBlockType(state), CachedChunk.BLOCKS_TO_KEEP_TRACK_OF.contains(state.getBlock()));
+    }
+
+    /**
+     * @return The palette id every entry in the storage has, or -1 if they aren't all the same. Compares a word at a
+     * time, since the same id over and over always packs into the same word.
+     */
+    private static int uniformId(BitStorage storage) {
+        int id = storage.get(0);
+        int bits = storage.getBits();
+        if (bits == 0) {
+            return id; // a single value palette, nothing is stored
+        }
+        int perWord = 64 / bits;
+        long word = 0;
+        for (int i = 0; i < perWord; i++) {
+            word |= (long) id << (i * bits);
+        }
+        long[] raw = storage.getRaw();
+        int fullWords = storage.getSize() / perWord;
+        for (int i = 0; i < fullWords; i++) {
+            if (raw[i] != word) {
+                return -1;
+            }
+        }
+        for (int i = fullWords * perWord; i < storage.getSize(); i++) {
+            if (storage.get(i) != id) {
+                return -1;
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Sets every position from {@code from} to {@code to} to the same type, two bits at a time
+     */
+    private static void fill(BitSet bitSet, int from, int to, PathingBlockType type) {
+        boolean[] bits = type.getBits();
+        if (bits[0] && bits[1]) {
+            bitSet.set(from, to);
+            return;
+        }
+        if (!bits[0] && !bits[1]) {
+            return; // already all zeros
+        }
+        int offset = bits[0] ? 0 : 1;
+        for (int index = from + offset; index < to; index += 2) {
+            bitSet.set(index);
+        }
     }
 
-    private static PathingBlockType getPathingBlockType(BlockState state, LevelChunk chunk, int x, int y, int z) {
+    /**
+     * @return The type of a block that only depends on its state, or null if it's still water, which depends on the
+     * water around it, see {@link #getWaterPathingBlockType}
+     */
+    private static PathingBlockType getPathingBlockType(BlockState state) {
         Block block = state.getBlock();
         if (MovementHelper.isWater(state)) {
             // only water source blocks are plausibly usable, flowing water should be avoid
@@ -121,23 +246,7 @@ public final class ChunkPacker {
             if (MovementHelper.possiblyFlowing(state)) {
                 return PathingBlockType.AVOID;
             }
-            int adjY = y - chunk.getLevel().dimensionType().minY();
-            if (
-                    (x != 15 && MovementHelper.possiblyFlowing(getFromChunk(chunk, x + 1, adjY, z)))
-                            || (x != 0 && MovementHelper.possiblyFlowing(getFromChunk(chunk, x - 1, adjY, z)))
-                            || (z != 15 && MovementHelper.possiblyFlowing(getFromChunk(chunk, x, adjY, z + 1)))
-                            || (z != 0 && MovementHelper.possiblyFlowing(getFromChunk(chunk, x, adjY, z - 1)))
-            ) {
-                return PathingBlockType.AVOID;
-            }
-            if (x == 0 || x == 15 || z == 0 || z == 15) {
-                Vec3 flow = state.getFluidState().getFlow(chunk.getLevel(), new BlockPos(x + (chunk.getPos().x << 4), y, z + (chunk.getPos().z << 4)));
-                if (flow.x != 0.0 || flow.z != 0.0) {
-                    return PathingBlockType.WATER;
-                }
-                return PathingBlockType.AVOID;
-            }
-            return PathingBlockType.WATER;
+            return null;
         }
 
         if (MovementHelper.avoidWalkingInto(state) || MovementHelper.isBottomSlab(state)) {
@@ -154,6 +263,35 @@ public final class ChunkPacker {
         return PathingBlockType.SOLID;
     }
 
+    private static PathingBlockType getWaterPathingBlockType(BlockState state, LevelChunkSection[] sections, int chunkX, int chunkZ, int minY, BlockGetter level, int x, int y, int z) {
+        int adjY = y - minY;
+        if (
+                (x != 15 && MovementHelper.possiblyFlowing(getFromSections(sections, x + 1, adjY, z)))
+                        || (x != 0 && MovementHelper.possiblyFlowing(getFromSections(sections, x - 1, adjY, z)))
+                        || (z != 15 && MovementHelper.possiblyFlowing(getFromSections(sections, x, adjY, z + 1)))
+                        || (z != 0 && MovementHelper.possiblyFlowing(getFromSections(sections, x, adjY, z - 1)))
+        ) {
+            return PathingBlockType.AVOID;
+        }
+        if (x == 0 || x == 15 || z == 0 || z == 15) {
+            Vec3 flow = state.getFluidState().getFlow(level, new BlockPos(x + (chunkX << 4), y, z + (chunkZ << 4)));
+            if (flow.x != 0.0 || flow.z != 0.0) {
+                return PathingBlockType.WATER;
+            }
+            return PathingBlockType.AVOID;
+        }
+        return PathingBlockType.WATER;
+    }
+
+    // same as BlockStateInterface.getFromChunk, but without needing the chunk itself
+    private static BlockState getFromSections(LevelChunkSection[] sections, int x, int y, int z) {
+        LevelChunkSection section = sections[y >> 4];
+        if (section.hasOnlyAir()) {
+            return Blocks.AIR.defaultBlockState();
+        }
+        return section.getBlockState(x & 15, y & 15, z & 15);
+    }
+
     public static BlockState pathingTypeToBlock(PathingBlockType type, DimensionType dimension) {
         switch (type) {
             case AIR:
@@ -177,4 +315,21 @@ public final class ChunkPacker {
                 return null;
         }
     }
+
+    /**
+     * What packing needs to know about a block state, worked out once per state per chunk
+     */
+    private static final class StateClass {
+
+        /**
+         * Null if it depends on the neighbouring blocks
+         */
+        private final PathingBlockType type;
+        private final boolean special;
+
+        private StateClass(PathingBlockType type, boolean special) {
+            this.type = type;
+            this.special = special;
+        }
+    }
 }
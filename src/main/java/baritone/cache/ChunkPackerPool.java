@@ -0,0 +1,272 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.cache;
+
+import baritone.Baritone;
+import baritone.utils.TaskScheduler;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.chunk.LevelChunk;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Packs loaded chunks into a {@link CachedWorld} on a few background threads.
+ * <p>
+ * A chunk that's queued again before it's packed just replaces the queued copy. The queue is bounded, and drops the
+ * chunk that has been waiting the longest when it's full, rather than ever making the game thread wait. Chunks near
+ * the focus (the player and their path, see {@link #setFocus(int[], int[])}) are packed before the rest, so that the
+ * cache is freshest where it matters most, and otherwise it's oldest first.
+ */
+final class ChunkPackerPool {
+
+    /**
+     * How many chunks away from a focus position a chunk still counts as near it
+     */
+    private static final int FOCUS_RADIUS = 2;
+
+    private final CachedWorld world;
+    private final int capacity;
+
+    /**
+     * Chunks waiting to be packed, oldest first. Guarded by this.
+     */
+    private final LinkedHashMap<ChunkPos, Pending> queue = new LinkedHashMap<>();
+
+    /**
+     * Chunks being packed right now. A newer copy of one of these has to wait, or it could be overwritten by the older
+     * one finishing later. Guarded by this.
+     */
+    private final Set<ChunkPos> packing = new HashSet<>();
+
+    /**
+     * The queued chunks that can be packed right now, split by whether they're near the focus, each oldest first.
+     * Chunks dropped from the queue can linger in here, and are skipped by {@link #poll(ArrayDeque)}. Guarded by this.
+     */
+    private final ArrayDeque<Pending> near = new ArrayDeque<>();
+    private final ArrayDeque<Pending> far = new ArrayDeque<>();
+
+    /**
+     * Every chunk within {@link #FOCUS_RADIUS} of a focus position, see {@link ChunkPos#asLong(int, int)}. Guarded by
+     * this.
+     */
+    private LongOpenHashSet focus = new LongOpenHashSet();
+
+    /**
+     * Set once the world is closed, after which the workers finish what's queued and stop. Guarded by this.
+     */
+    private boolean shutdown;
+
+    private final LongAdder packed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private int maxDepth; // guarded by this
+
+    ChunkPackerPool(CachedWorld world, int threads, int capacity) {
+        this.world = world;
+        this.capacity = Math.max(1, capacity);
+        for (int i = 0; i < Math.max(1, threads); i++) {
+            Baritone.getScheduler().execute(TaskScheduler.Lane.BACKGROUND, this::work);
+        }
+    }
+
+    void queue(LevelChunk chunk) {
+        ChunkPos pos = chunk.getPos();
+        synchronized (this) {
+            if (shutdown) {
+                return;
+            }
+            Pending pending = queue.get(pos);
+            if (pending != null) {
+                // keeps its place in line, just packs the newer copy
+                pending.chunk = chunk;
+                coalesced.increment();
+                return;
+            }
+            if (queue.size() >= capacity) {
+                Iterator<Pending> oldest = queue.values().iterator();
+                Pending victim = oldest.next();
+                oldest.remove();
+                dropped.increment();
+                // usually the head of one of them, anything else is skipped once it comes up
+                if (near.peekFirst() == victim) {
+                    near.pollFirst();
+                } else if (far.peekFirst() == victim) {
+                    far.pollFirst();
+                }
+            }
+            pending = new Pending(pos, chunk);
+            queue.put(pos, pending);
+            maxDepth = Math.max(maxDepth, queue.size());
+            if (!packing.contains(pos)) {
+                ready(pending);
+            }
+        }
+    }
+
+    /**
+     * Sets the chunk positions that queued chunks near them are packed ahead of the rest for
+     *
+     * @param chunkX The chunk x of each focus
+     * @param chunkZ The chunk z of each focus
+     */
+    void setFocus(int[] chunkX, int[] chunkZ) {
+        LongOpenHashSet focus = new LongOpenHashSet();
+        for (int i = 0; i < chunkX.length; i++) {
+            for (int dx = -FOCUS_RADIUS; dx <= FOCUS_RADIUS; dx++) {
+                for (int dz = -FOCUS_RADIUS; dz <= FOCUS_RADIUS; dz++) {
+                    focus.add(ChunkPos.asLong(chunkX[i] + dx, chunkZ[i] + dz));
+                }
+            }
+        }
+        synchronized (this) {
+            if (focus.equals(this.focus)) {
+                return;
+            }
+            this.focus = focus;
+            // sort everything that's ready again, once per focus change rather than on every take
+            near.clear();
+            far.clear();
+            for (Pending pending : queue.values()) {
+                if (!packing.contains(pending.pos)) {
+                    (focus.contains(pending.pos.toLong()) ? near : far).addLast(pending);
+                }
+            }
+        }
+    }
+
+    /**
+     * Makes the workers stop once they've packed what's queued, and ignores any chunks queued after this
+     */
+    synchronized void shutdown() {
+        shutdown = true;
+        notifyAll();
+    }
+
+    private void work() {
+        while (true) {
+            Pending next;
+            try {
+                next = take();
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+                return;
+            }
+            if (next == null) {
+                return; // shut down
+            }
+            try {
+                world.updateCachedChunk(ChunkPacker.pack(next.chunk));
+                long latency = System.nanoTime() - next.queuedAt;
+                latencyNanos.add(latency);
+                maxLatencyNanos.accumulateAndGet(latency, Math::max);
+                packed.increment();
+            } catch (Throwable th) {
+                // in the case of an exception, keep consuming from the queue so as not to leak memory
+                th.printStackTrace();
+                failed.increment();
+            } finally {
+                synchronized (this) {
+                    packing.remove(next.pos);
+                    Pending newer = queue.get(next.pos);
+                    if (newer != null) {
+                        ready(newer); // a newer copy of this chunk was waiting on it
+                    }
+                    if (shutdown) {
+                        notifyAll(); // the others might be waiting to see whether that was the last one
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The next chunk to pack, or null once shut down and there's nothing left
+     */
+    private synchronized Pending take() throws InterruptedException {
+        while (true) {
+            Pending next = poll(near);
+            if (next == null) {
+                next = poll(far);
+            }
+            if (next != null) {
+                queue.remove(next.pos);
+                packing.add(next.pos);
+                return next;
+            }
+            if (shutdown && queue.isEmpty()) {
+                return null;
+            }
+            wait();
+        }
+    }
+
+    /**
+     * @return The oldest chunk in the deque that's still queued, skipping over any that were dropped since
+     */
+    private Pending poll(ArrayDeque<Pending> ready) {
+        while (!ready.isEmpty()) {
+            Pending pending = ready.pollFirst();
+            if (queue.get(pending.pos) == pending) {
+                return pending;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Hands a queued chunk to the workers, near the focus or not
+     */
+    private void ready(Pending pending) {
+        (focus.contains(pending.pos.toLong()) ? near : far).addLast(pending);
+        notify();
+    }
+
+    /**
+     * @return The queue depth, throughput and latency of packing since the world was loaded
+     */
+    String stats() {
+        int depth;
+        int maxDepth;
+        synchronized (this) {
+            depth = queue.size();
+            maxDepth = this.maxDepth;
+        }
+        long packed = this.packed.sum();
+        return String.format("Chunk packer: %d queued (max %d), %d packed, %d coalesced, %d dropped, %d failed, latency %.1fms avg %.1fms max",
+                depth, maxDepth, packed, coalesced.sum(), dropped.sum(), failed.sum(),
+                packed == 0 ? 0 : latencyNanos.sum() / 1e6 / packed, maxLatencyNanos.get() / 1e6);
+    }
+
+    private static final class Pending {
+
+        private final ChunkPos pos;
+        private LevelChunk chunk;
+        private final long queuedAt = System.nanoTime();
+
+        private Pending(ChunkPos pos, LevelChunk chunk) {
+            this.pos = pos;
+            this.chunk = chunk;
+        }
+    }
+}
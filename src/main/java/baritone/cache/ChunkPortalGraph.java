@@ -0,0 +1,636 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.cache;
+
+import baritone.api.pathing.goals.Goal;
+import baritone.api.pathing.movement.ActionCosts;
+import baritone.api.utils.BetterBlockPos;
+import baritone.utils.pathing.PathingBlockType;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongHeapPriorityQueue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * A coarse, chunk level view of the cache for planning long trips, in the style of HPA*.
+ * <p>
+ * Every pair of neighbouring cached chunks is connected by portals: one per stretch of the border that can be walked
+ * across, with a standable position on either side. Within a chunk, the cost between each pair of its portals is found
+ * by searching over the standable positions in that chunk, using only the 2 bit {@link PathingBlockType} data. A
+ * search over portals instead of blocks can then cross thousands of blocks in a few thousand nodes, see
+ * {@link #plan(int, int, int, int, int, Goal)}.
+ * <p>
+ * Portals are computed the first time a chunk is needed, and thrown away when it or one of its neighbours changes.
+ */
+public final class ChunkPortalGraph {
+
+    /**
+     * The largest drop the abstraction will take. Falls further than this need a water bucket, which might not be there
+     */
+    private static final int MAX_FALL = 3;
+
+    /**
+     * How many portals a plan may expand before giving up and going with the closest one found so far
+     */
+    private static final int MAX_PLAN_NODES = 200_000;
+
+    private final CachedWorld world;
+    private final int minY;
+    private final Long2ObjectOpenHashMap<ChunkPortals> chunks = new Long2ObjectOpenHashMap<>();
+
+    ChunkPortalGraph(CachedWorld world, int minY) {
+        this.world = world;
+        this.minY = minY;
+    }
+
+    /**
+     * Throws away the portals of the chunk and its neighbours, since their shared borders might have changed
+     *
+     * @param chunkX The chunk x
+     * @param chunkZ The chunk z
+     */
+    public synchronized void invalidate(int chunkX, int chunkZ) {
+        chunks.remove(chunkKey(chunkX, chunkZ));
+        chunks.remove(chunkKey(chunkX + 1, chunkZ));
+        chunks.remove(chunkKey(chunkX - 1, chunkZ));
+        chunks.remove(chunkKey(chunkX, chunkZ + 1));
+        chunks.remove(chunkKey(chunkX, chunkZ - 1));
+    }
+
+    /**
+     * Throws away the portals of every chunk in a region, e.g. when it's removed from memory
+     *
+     * @param regionX The region x
+     * @param regionZ The region z
+     */
+    public synchronized void invalidateRegion(int regionX, int regionZ) {
+        for (int x = -1; x <= 32; x++) {
+            for (int z = -1; z <= 32; z++) {
+                chunks.remove(chunkKey((regionX << 5) + x, (regionZ << 5) + z));
+            }
+        }
+    }
+
+    /**
+     * Plans a route over portals from the start towards the goal, like a block level search would, but only through
+     * cached chunks.
+     *
+     * @param startX The start x
+     * @param startY The start y
+     * @param startZ The start z
+     * @param goalX  The x of a block in the goal, used to tell when the plan has reached the goal chunk
+     * @param goalZ  The z of a block in the goal
+     * @param goal   The goal, for its heuristic
+     * @return The portals to go through in order, or null if there's no route that gets any closer than the start
+     */
+    public Plan plan(int startX, int startY, int startZ, int goalX, int goalZ, Goal goal) {
+        int startChunkX = startX >> 4;
+        int startChunkZ = startZ >> 4;
+        int goalChunkX = goalX >> 4;
+        int goalChunkZ = goalZ >> 4;
+        if (startChunkX == goalChunkX && startChunkZ == goalChunkZ) {
+            return null;
+        }
+        ChunkPortals first = portals(startChunkX, startChunkZ);
+        if (first == null || first.count == 0) {
+            return null;
+        }
+        CachedChunk startChunk = cachedChunk(startChunkX, startChunkZ);
+        if (startChunk == null) {
+            return null;
+        }
+        Cells cells = new Cells(startChunk);
+        int startCell = cells.closest(startX & 15, startY - minY, startZ & 15);
+        if (startCell < 0) {
+            return null;
+        }
+        double[] fromStart = cells.costsFrom(startCell);
+
+        Long2ObjectOpenHashMap<PortalNode> nodes = new Long2ObjectOpenHashMap<>();
+        PriorityQueue<PortalNode> open = new PriorityQueue<>((a, b) -> Double.compare(a.combinedCost, b.combinedCost));
+        double startHeuristic = goal.heuristic(startX, startY, startZ);
+        PortalNode best = null;
+        double bestHeuristic = startHeuristic;
+        for (int i = 0; i < first.count; i++) {
+            double cost = fromStart[first.cell[i]];
+            if (cost < ActionCosts.COST_INF) {
+                relax(nodes, open, null, first, i, cost, goal);
+            }
+        }
+        int expanded = 0;
+        while (!open.isEmpty() && expanded < MAX_PLAN_NODES) {
+            PortalNode node = open.poll();
+            if (node.closed) {
+                continue;
+            }
+            node.closed = true;
+            expanded++;
+            if (node.heuristic < bestHeuristic) {
+                bestHeuristic = node.heuristic;
+                best = node;
+            }
+            ChunkPortals chunk = node.chunk;
+            int i = node.portal;
+            if ((chunk.chunkX == goalChunkX && chunk.chunkZ == goalChunkZ) || goal.isInGoal(chunk.x[i], chunk.y[i], chunk.z[i])) {
+                best = node;
+                break;
+            }
+            for (int j = 0; j < chunk.count; j++) {
+                double cost = chunk.costs[i * chunk.count + j];
+                if (j != i && cost < ActionCosts.COST_INF) {
+                    relax(nodes, open, node, chunk, j, node.cost + cost, goal);
+                }
+            }
+            for (int k = 0; k < chunk.count; k++) {
+                // a corner can be a portal both ways, and is only one node
+                if (chunk.x[k] != chunk.x[i] || chunk.y[k] != chunk.y[i] || chunk.z[k] != chunk.z[i]) {
+                    continue;
+                }
+                ChunkPortals other = portals(chunk.chunkX + chunk.dx[k], chunk.chunkZ + chunk.dz[k]);
+                if (other == null) {
+                    continue;
+                }
+                int j = other.indexOf(chunk.partnerX[k], chunk.partnerY[k], chunk.partnerZ[k]);
+                if (j >= 0) {
+                    relax(nodes, open, node, other, j, node.cost + crossingCost(chunk.y[k], other.y[j]), goal);
+                }
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+        List<PortalNode> route = new ArrayList<>();
+        for (PortalNode node = best; node != null; node = node.previous) {
+            route.add(node);
+        }
+        int length = route.size();
+        Plan plan = new Plan(length);
+        for (int k = 0; k < length; k++) {
+            PortalNode node = route.get(length - 1 - k);
+            plan.x[k] = node.chunk.x[node.portal];
+            plan.y[k] = node.chunk.y[node.portal];
+            plan.z[k] = node.chunk.z[node.portal];
+            plan.remaining[k] = best.cost - node.cost + best.heuristic;
+        }
+        return plan;
+    }
+
+    private static void relax(Long2ObjectOpenHashMap<PortalNode> nodes, PriorityQueue<PortalNode> open, PortalNode from, ChunkPortals chunk, int portal, double cost, Goal goal) {
+        long hash = BetterBlockPos.longHash(chunk.x[portal], chunk.y[portal], chunk.z[portal]);
+        PortalNode node = nodes.get(hash);
+        if (node == null) {
+            node = new PortalNode(chunk, portal, goal.heuristic(chunk.x[portal], chunk.y[portal], chunk.z[portal]));
+            nodes.put(hash, node);
+        } else if (node.closed || node.cost <= cost) {
+            return;
+        } else {
+            // can't decrease-key a PriorityQueue, so just queue a fresh copy and leave the old one to be skipped
+            PortalNode replacement = new PortalNode(chunk, portal, node.heuristic);
+            node.closed = true;
+            nodes.put(hash, replacement);
+            node = replacement;
+        }
+        node.cost = cost;
+        node.combinedCost = cost + node.heuristic;
+        node.previous = from;
+        open.add(node);
+    }
+
+    private static double crossingCost(int fromY, int toY) {
+        return ActionCosts.WALK_ONE_BLOCK_COST + (toY > fromY ? ActionCosts.JUMP_ONE_BLOCK_COST : 0);
+    }
+
+    /**
+     * @return The portals of a cached chunk, computing them if they aren't known yet, or null if it isn't cached
+     */
+    ChunkPortals portals(int chunkX, int chunkZ) {
+        // only lock around the map, so that plans on different threads don't wait for each other's portals
+        long key = chunkKey(chunkX, chunkZ);
+        CachedChunk chunk = cachedChunk(chunkX, chunkZ);
+        if (chunk == null) {
+            return null;
+        }
+        CachedChunk east = cachedChunk(chunkX + 1, chunkZ);
+        CachedChunk west = cachedChunk(chunkX - 1, chunkZ);
+        CachedChunk south = cachedChunk(chunkX, chunkZ + 1);
+        CachedChunk north = cachedChunk(chunkX, chunkZ - 1);
+        ChunkPortals portals;
+        synchronized (this) {
+            portals = chunks.get(key);
+        }
+        if (portals != null && portals.source == chunk && portals.neighbours == neighbourMask(east, west, south, north)) {
+            return portals;
+        }
+        portals = new ChunkPortals(chunk, east, west, south, north, minY);
+        synchronized (this) {
+            chunks.put(key, portals);
+        }
+        return portals;
+    }
+
+    private CachedChunk cachedChunk(int chunkX, int chunkZ) {
+        CachedRegion region = world.getRegion(chunkX >> 5, chunkZ >> 5);
+        if (region == null) {
+            return null;
+        }
+        return region.getChunk(chunkX & 31, chunkZ & 31);
+    }
+
+    private static int neighbourMask(CachedChunk east, CachedChunk west, CachedChunk south, CachedChunk north) {
+        return (east != null ? 1 : 0) | (west != null ? 2 : 0) | (south != null ? 4 : 0) | (north != null ? 8 : 0);
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return (long) chunkX & 0xFFFFFFFFL | ((long) chunkZ & 0xFFFFFFFFL) << 32;
+    }
+
+    private static boolean passable(PathingBlockType type) {
+        return type == PathingBlockType.AIR || type == PathingBlockType.WATER;
+    }
+
+    /**
+     * Whether a player could be at this chunk relative position: two passable blocks, on top of something solid or
+     * swimming at the surface. y is relative to the bottom of the dimension.
+     */
+    private static boolean standable(CachedChunk chunk, int x, int y, int z) {
+        if (y < 1 || y + 1 >= chunk.height) {
+            return false;
+        }
+        PathingBlockType feet = chunk.getPathingType(x, y, z);
+        PathingBlockType head = chunk.getPathingType(x, y + 1, z);
+        if (!passable(feet) || !passable(head)) {
+            return false;
+        }
+        return chunk.getPathingType(x, y - 1, z) == PathingBlockType.SOLID || (feet == PathingBlockType.WATER && head == PathingBlockType.AIR);
+    }
+
+    /**
+     * @return The standable y levels of a column, from the bottom up
+     */
+    private static int[] standableColumn(CachedChunk chunk, int x, int z) {
+        IntArrayList ys = new IntArrayList();
+        for (int y = 1; y + 1 < chunk.height; y++) {
+            if (standable(chunk, x, y, z)) {
+                ys.add(y);
+            }
+        }
+        return ys.toIntArray();
+    }
+
+    /**
+     * Finds the portals along the border between two chunks, the same way no matter which of the two is asking, so
+     * that both agree on where exactly the portals are.
+     *
+     * @param low      The chunk on the west or north side
+     * @param high     The chunk on the east or south side
+     * @param eastWest Whether the border runs along z between west and east, rather than along x between north and south
+     * @return Flattened triples of position along the border, y in the low chunk and y in the high chunk
+     */
+    private static int[] borderPortals(CachedChunk low, CachedChunk high, boolean eastWest) {
+        IntArrayList pairs = new IntArrayList();
+        for (int t = 0; t < 16; t++) {
+            int[] lowYs = eastWest ? standableColumn(low, 15, t) : standableColumn(low, t, 15);
+            int[] highYs = eastWest ? standableColumn(high, 0, t) : standableColumn(high, t, 0);
+            for (int lowY : lowYs) {
+                int match = -1;
+                for (int highY : highYs) {
+                    if (Math.abs(highY - lowY) <= 1 && (match < 0 || Math.abs(highY - lowY) < Math.abs(match - lowY))) {
+                        match = highY;
+                    }
+                }
+                if (match >= 0) {
+                    pairs.add(t);
+                    pairs.add(lowY);
+                    pairs.add(match);
+                }
+            }
+        }
+        // group the crossings into runs that are walkable along the border, and put one portal in the middle of each
+        int count = pairs.size() / 3;
+        int[] runOf = new int[count];
+        int[] runLength = new int[count];
+        int[] lastT = new int[count];
+        int[] lastY = new int[count];
+        int runs = 0;
+        for (int p = 0; p < count; p++) {
+            int t = pairs.getInt(p * 3);
+            int y = pairs.getInt(p * 3 + 1);
+            int run = -1;
+            for (int r = 0; r < runs; r++) {
+                if (lastT[r] == t - 1 && Math.abs(lastY[r] - y) <= 1) {
+                    run = r;
+                    break;
+                }
+            }
+            if (run < 0) {
+                run = runs++;
+            }
+            lastT[run] = t;
+            lastY[run] = y;
+            runOf[p] = run;
+            runLength[run]++;
+        }
+        int[] seen = new int[runs];
+        IntArrayList portals = new IntArrayList();
+        for (int p = 0; p < count; p++) {
+            if (seen[runOf[p]]++ == runLength[runOf[p]] / 2) {
+                portals.add(pairs.getInt(p * 3));
+                portals.add(pairs.getInt(p * 3 + 1));
+                portals.add(pairs.getInt(p * 3 + 2));
+            }
+        }
+        return portals.toIntArray();
+    }
+
+    /**
+     * The standable positions of one chunk, for searching within it
+     */
+    private static final class Cells {
+
+        private final CachedChunk chunk;
+        /**
+         * Index of the first cell of each column in {@link #ys}, with columns ordered z << 4 | x
+         */
+        private final int[] columnStart = new int[257];
+        private final int[] ys;
+        private final int[] cellX;
+        private final int[] cellZ;
+
+        private Cells(CachedChunk chunk) {
+            this.chunk = chunk;
+            IntArrayList all = new IntArrayList();
+            for (int column = 0; column < 256; column++) {
+                columnStart[column] = all.size();
+                all.addElements(all.size(), standableColumn(chunk, column & 15, column >> 4));
+            }
+            columnStart[256] = all.size();
+            this.ys = all.toIntArray();
+            this.cellX = new int[ys.length];
+            this.cellZ = new int[ys.length];
+            for (int column = 0; column < 256; column++) {
+                for (int cell = columnStart[column]; cell < columnStart[column + 1]; cell++) {
+                    cellX[cell] = column & 15;
+                    cellZ[cell] = column >> 4;
+                }
+            }
+        }
+
+        private int find(int x, int y, int z) {
+            int column = z << 4 | x;
+            for (int cell = columnStart[column]; cell < columnStart[column + 1]; cell++) {
+                if (ys[cell] == y) {
+                    return cell;
+                }
+            }
+            return -1;
+        }
+
+        private int closest(int x, int y, int z) {
+            int column = z << 4 | x;
+            int best = -1;
+            for (int cell = columnStart[column]; cell < columnStart[column + 1]; cell++) {
+                if (best < 0 || Math.abs(ys[cell] - y) < Math.abs(ys[best] - y)) {
+                    best = cell;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Dijkstra over the cells of this chunk, walking, jumping up one block or dropping up to {@link #MAX_FALL}
+         *
+         * @return The cost from the given cell to every cell, or {@link ActionCosts#COST_INF} if it can't be reached
+         */
+        private double[] costsFrom(int from) {
+            double[] dist = new double[ys.length];
+            Arrays.fill(dist, ActionCosts.COST_INF);
+            dist[from] = 0;
+            // costs are positive, so the float bits sort the same as the costs themselves, and the cell goes in the low bits
+            LongHeapPriorityQueue queue = new LongHeapPriorityQueue();
+            queue.enqueue(from);
+            while (!queue.isEmpty()) {
+                long entry = queue.dequeueLong();
+                int cell = (int) entry;
+                double cost = Float.intBitsToFloat((int) (entry >>> 32));
+                if (cost > (float) dist[cell]) {
+                    continue; // stale entry, this cell was reached more cheaply since
+                }
+                int x = cellX[cell];
+                int y = ys[cell];
+                int z = cellZ[cell];
+                for (int dir = 0; dir < 4; dir++) {
+                    int nx = x + (dir == 0 ? 1 : dir == 1 ? -1 : 0);
+                    int nz = z + (dir == 2 ? 1 : dir == 3 ? -1 : 0);
+                    if (nx < 0 || nx > 15 || nz < 0 || nz > 15) {
+                        continue;
+                    }
+                    int column = nz << 4 | nx;
+                    for (int next = columnStart[column]; next < columnStart[column + 1]; next++) {
+                        double step = stepCost(x, y, z, nx, ys[next], nz);
+                        if (step >= ActionCosts.COST_INF) {
+                            continue;
+                        }
+                        double tentative = dist[cell] + step;
+                        if (tentative < dist[next]) {
+                            dist[next] = tentative;
+                            queue.enqueue((long) Float.floatToIntBits((float) tentative) << 32 | next);
+                        }
+                    }
+                }
+            }
+            return dist;
+        }
+
+        private double stepCost(int x, int y, int z, int nx, int ny, int nz) {
+            int dy = ny - y;
+            double cost = chunk.getPathingType(nx, ny, nz) == PathingBlockType.WATER ? ActionCosts.WALK_ONE_IN_WATER_COST : ActionCosts.WALK_ONE_BLOCK_COST;
+            if (dy == 1) {
+                if (y + 2 >= chunk.height || !passable(chunk.getPathingType(x, y + 2, z))) {
+                    return ActionCosts.COST_INF; // no room to jump
+                }
+                return cost + ActionCosts.JUMP_ONE_BLOCK_COST;
+            }
+            if (dy == 0) {
+                return cost;
+            }
+            if (dy < 0 && dy >= -MAX_FALL) {
+                // the destination column has to be open from where we'd walk off down to where we land
+                for (int fall = ny + 2; fall <= y + 1; fall++) {
+                    if (!passable(chunk.getPathingType(nx, fall, nz))) {
+                        return ActionCosts.COST_INF;
+                    }
+                }
+                return cost + ActionCosts.FALL_N_BLOCKS_COST[-dy];
+            }
+            return ActionCosts.COST_INF;
+        }
+    }
+
+    /**
+     * The portals of one cached chunk, along with the cost of getting from each to each other within the chunk
+     */
+    static final class ChunkPortals {
+
+        /**
+         * The data these portals were computed from, to tell when they're out of date
+         */
+        private final CachedChunk source;
+        private final int neighbours;
+        final int chunkX;
+        final int chunkZ;
+        final int count;
+        // absolute position of each portal
+        final int[] x;
+        final int[] y;
+        final int[] z;
+        // cell index in this chunk, only needed while computing the costs
+        private final int[] cell;
+        // which neighbouring chunk each portal leads to, and the absolute position it arrives at there
+        final int[] dx;
+        final int[] dz;
+        final int[] partnerX;
+        final int[] partnerY;
+        final int[] partnerZ;
+        /**
+         * Cost from portal i to portal j at i * count + j, {@link ActionCosts#COST_INF} if there's no way
+         */
+        final double[] costs;
+
+        private ChunkPortals(CachedChunk chunk, CachedChunk east, CachedChunk west, CachedChunk south, CachedChunk north, int minY) {
+            this.source = chunk;
+            this.neighbours = neighbourMask(east, west, south, north);
+            this.chunkX = chunk.x;
+            this.chunkZ = chunk.z;
+            int baseX = chunk.x << 4;
+            int baseZ = chunk.z << 4;
+            IntArrayList portals = new IntArrayList(); // flattened x, y, z, dx, dz, partner x, y, z, all chunk relative
+            if (east != null) {
+                int[] border = borderPortals(chunk, east, true);
+                for (int i = 0; i < border.length; i += 3) {
+                    portals.addElements(portals.size(), new int[]{15, border[i + 1], border[i], 1, 0, 16, border[i + 2], border[i]});
+                }
+            }
+            if (west != null) {
+                int[] border = borderPortals(west, chunk, true);
+                for (int i = 0; i < border.length; i += 3) {
+                    portals.addElements(portals.size(), new int[]{0, border[i + 2], border[i], -1, 0, -1, border[i + 1], border[i]});
+                }
+            }
+            if (south != null) {
+                int[] border = borderPortals(chunk, south, false);
+                for (int i = 0; i < border.length; i += 3) {
+                    portals.addElements(portals.size(), new int[]{border[i], border[i + 1], 15, 0, 1, border[i], border[i + 2], 16});
+                }
+            }
+            if (north != null) {
+                int[] border = borderPortals(north, chunk, false);
+                for (int i = 0; i < border.length; i += 3) {
+                    portals.addElements(portals.size(), new int[]{border[i], border[i + 2], 0, 0, -1, border[i], border[i + 1], -1});
+                }
+            }
+            this.count = portals.size() / 8;
+            this.x = new int[count];
+            this.y = new int[count];
+            this.z = new int[count];
+            this.cell = new int[count];
+            this.dx = new int[count];
+            this.dz = new int[count];
+            this.partnerX = new int[count];
+            this.partnerY = new int[count];
+            this.partnerZ = new int[count];
+            this.costs = new double[count * count];
+            if (count == 0) {
+                return;
+            }
+            Cells cells = new Cells(chunk);
+            for (int i = 0; i < count; i++) {
+                int p = i * 8;
+                x[i] = baseX + portals.getInt(p);
+                y[i] = portals.getInt(p + 1) + minY;
+                z[i] = baseZ + portals.getInt(p + 2);
+                cell[i] = cells.find(portals.getInt(p), portals.getInt(p + 1), portals.getInt(p + 2));
+                dx[i] = portals.getInt(p + 3);
+                dz[i] = portals.getInt(p + 4);
+                partnerX[i] = baseX + portals.getInt(p + 5);
+                partnerY[i] = portals.getInt(p + 6) + minY;
+                partnerZ[i] = baseZ + portals.getInt(p + 7);
+            }
+            for (int i = 0; i < count; i++) {
+                double[] dist = cells.costsFrom(cell[i]);
+                for (int j = 0; j < count; j++) {
+                    costs[i * count + j] = dist[cell[j]];
+                }
+            }
+        }
+
+        int indexOf(int x, int y, int z) {
+            for (int i = 0; i < count; i++) {
+                if (this.x[i] == x && this.y[i] == y && this.z[i] == z) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private static final class PortalNode {
+
+        final ChunkPortals chunk;
+        final int portal;
+        final double heuristic;
+        double cost;
+        double combinedCost;
+        PortalNode previous;
+        boolean closed;
+
+        PortalNode(ChunkPortals chunk, int portal, double heuristic) {
+            this.chunk = chunk;
+            this.portal = portal;
+            this.heuristic = heuristic;
+        }
+    }
+
+    /**
+     * A route over portals, in order from the start
+     */
+    public static final class Plan {
+
+        public final int[] x;
+        public final int[] y;
+        public final int[] z;
+        /**
+         * The estimated cost from each portal to the goal, following the rest of the plan
+         */
+        public final double[] remaining;
+
+        private Plan(int length) {
+            this.x = new int[length];
+            this.y = new int[length];
+            this.z = new int[length];
+            this.remaining = new double[length];
+        }
+
+        public int length() {
+            return x.length;
+        }
+    }
+}
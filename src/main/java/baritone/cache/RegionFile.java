@@ -0,0 +1,354 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.cache;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * The on disk layout of a region cache file, with every chunk compressed on its own so that one can be read or
+ * rewritten without touching the rest.
+ * <p>
+ * The file starts with {@link #MAGIC} and two copies of a table of 32x32 entries, each the offset and compressed length
+ * of a chunk record (both zero if that chunk isn't cached). Every table carries a generation and a checksum, and the
+ * one with the highest generation that checks out is the current one. Changed records are appended to the end of the
+ * file and then the other table is overwritten to point at them, so a crash part way through a save leaves the current
+ * table, and the records it points at, as they were. Once more than half of the file is unused, it's rewritten with the
+ * live records packed together.
+ * <p>
+ * What goes in a record is up to {@link CachedRegion}, this only handles where it goes.
+ */
+final class RegionFile {
+
+    /**
+     * Magic value of this format. {@link CachedRegion} still reads files with the old, single GZIP stream magic, and
+     * converts them on the next save.
+     */
+    static final int MAGIC = 456022912;
+
+    private static final int ENTRY_SIZE = 12; // long offset, int length
+
+    private static final int TABLE_SIZE = 4 + 32 * 32 * ENTRY_SIZE + 4; // int generation, entries, int checksum
+
+    static final int HEADER_SIZE = 4 + 2 * TABLE_SIZE;
+
+    private final Path path;
+    private final long[] offsets = new long[32 * 32];
+    private final int[] lengths = new int[32 * 32];
+
+    /**
+     * Which of the two tables is the current one, and its generation
+     */
+    private int table;
+    private int generation;
+
+    /**
+     * Whether the header on disk isn't ours yet, e.g. because the file is still in the old format
+     */
+    private boolean fresh;
+
+    private RegionFile(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * @param path The region file
+     * @return The region file, empty until something is written, if the file doesn't exist or is in another format
+     * @throws IOException If the file couldn't be read, or neither of its tables is intact
+     */
+    static RegionFile open(Path path) throws IOException {
+        if (!isRegionFile(path)) {
+            return create(path);
+        }
+        RegionFile file = new RegionFile(path);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        long size;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            readFully(channel, header, 0);
+            size = channel.size();
+        }
+        int current = -1;
+        int currentGeneration = 0;
+        for (int t = 0; t < 2; t++) {
+            int start = 4 + t * TABLE_SIZE;
+            CRC32 crc = new CRC32();
+            crc.update(header.array(), start, TABLE_SIZE - 4);
+            int generation = header.getInt(start);
+            if ((int) crc.getValue() == header.getInt(start + TABLE_SIZE - 4) && (current == -1 || generation - currentGeneration > 0)) {
+                current = t;
+                currentGeneration = generation;
+            }
+        }
+        if (current == -1) {
+            throw new IOException("Neither region table is intact");
+        }
+        header.position(4 + current * TABLE_SIZE + 4);
+        for (int i = 0; i < 32 * 32; i++) {
+            long offset = header.getLong();
+            int length = header.getInt();
+            if (length != 0 && (offset < HEADER_SIZE || length < 0 || offset + length > size)) {
+                throw new IOException("Malformed region table entry " + i);
+            }
+            file.offsets[i] = offset;
+            file.lengths[i] = length;
+        }
+        file.table = current;
+        file.generation = currentGeneration;
+        return file;
+    }
+
+    /**
+     * @param path The region file
+     * @return A region file that ignores whatever is at the path now, and overwrites it on the first write
+     */
+    static RegionFile create(Path path) {
+        RegionFile file = new RegionFile(path);
+        file.fresh = true;
+        return file;
+    }
+
+    /**
+     * @return Whether the file exists and starts with {@link #MAGIC}
+     */
+    static boolean isRegionFile(Path path) throws IOException {
+        if (!Files.exists(path) || Files.size(path) < HEADER_SIZE) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+            return in.readInt() == MAGIC;
+        }
+    }
+
+    /**
+     * @return Whether the next {@link #write(Int2ObjectMap)} has to include every cached chunk, since there's nothing
+     * in the file to keep
+     */
+    boolean needsRewrite() {
+        return fresh;
+    }
+
+    /**
+     * @param chunkX The region relative chunk x
+     * @param chunkZ The region relative chunk z
+     * @return Whether there's a record for the chunk in this file
+     */
+    boolean has(int chunkX, int chunkZ) {
+        return lengths[index(chunkX, chunkZ)] != 0;
+    }
+
+    /**
+     * @param chunkX The region relative chunk x
+     * @param chunkZ The region relative chunk z
+     * @return The uncompressed record of a chunk, or null if there isn't one
+     * @throws IOException If the file couldn't be read
+     */
+    synchronized DataInputStream read(int chunkX, int chunkZ) throws IOException {
+        int index = index(chunkX, chunkZ);
+        if (lengths[index] == 0) {
+            return null;
+        }
+        // read through a channel that's closed right away rather than a mapping, which would keep the file open until
+        // it's garbage collected and so stop a rewrite from moving a new file over it on some platforms
+        ByteBuffer compressed = ByteBuffer.allocate(lengths[index]);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (offsets[index] + lengths[index] > channel.size()) {
+                return null;
+            }
+            readFully(channel, compressed, offsets[index]);
+        }
+        return new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(compressed.array())));
+    }
+
+    /**
+     * Writes records for the given chunks, leaving every other chunk's record as it is.
+     * <p>
+     * New records only ever go into space the current table doesn't point at, and only the other table is written
+     * over, so a crash part way through leaves the file as it was before. When the file has to be built from scratch,
+     * either because it's in another format or because it's mostly unused space, it's written next to the old one and
+     * moved over it once it's complete.
+     *
+     * @param changed Region relative chunk index, see {@link #index(int, int)}, to its uncompressed record, or to null
+     *                if the chunk should be removed
+     * @throws IOException If the file couldn't be written
+     */
+    synchronized void write(Int2ObjectMap<byte[]> changed) throws IOException {
+        Int2ObjectMap<byte[]> compressed = new Int2ObjectOpenHashMap<>(changed.size());
+        for (Int2ObjectMap.Entry<byte[]> entry : changed.int2ObjectEntrySet()) {
+            compressed.put(entry.getIntKey(), entry.getValue() == null ? null : compress(entry.getValue()));
+        }
+        long live = HEADER_SIZE;
+        long appended = 0;
+        for (int i = 0; i < 32 * 32; i++) {
+            if (compressed.containsKey(i)) {
+                byte[] record = compressed.get(i);
+                if (record != null) {
+                    live += record.length;
+                    appended += record.length;
+                }
+            } else if (!fresh) {
+                live += lengths[i];
+            }
+        }
+        // the records are never moved around in the live file, so once more than half of it is unused, start over
+        if (fresh || Files.size(path) + appended > 2 * live) {
+            rewrite(compressed);
+        } else {
+            append(compressed);
+        }
+        fresh = false;
+    }
+
+    /**
+     * Adds the changed records to the end of the file, and only then points the other table at them
+     */
+    private void append(Int2ObjectMap<byte[]> compressed) throws IOException {
+        long[] newOffsets = offsets.clone();
+        int[] newLengths = lengths.clone();
+        int newTable = 1 - table;
+        int newGeneration = generation + 1;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long end = channel.size();
+            for (Int2ObjectMap.Entry<byte[]> entry : compressed.int2ObjectEntrySet()) {
+                int index = entry.getIntKey();
+                byte[] record = entry.getValue();
+                if (record == null) {
+                    newOffsets[index] = 0;
+                    newLengths[index] = 0;
+                    continue;
+                }
+                writeFully(channel, ByteBuffer.wrap(record), end);
+                newOffsets[index] = end;
+                newLengths[index] = record.length;
+                end += record.length;
+            }
+            channel.force(false); // the records have to be on disk before anything points at them
+            writeFully(channel, table(newGeneration, newOffsets, newLengths), 4 + newTable * TABLE_SIZE);
+            channel.force(false);
+        }
+        System.arraycopy(newOffsets, 0, offsets, 0, offsets.length);
+        System.arraycopy(newLengths, 0, lengths, 0, lengths.length);
+        table = newTable;
+        generation = newGeneration;
+    }
+
+    /**
+     * Writes a whole new file with the live records packed together, and moves it over the old one
+     */
+    private void rewrite(Int2ObjectMap<byte[]> compressed) throws IOException {
+        long[] newOffsets = new long[32 * 32];
+        int[] newLengths = new int[32 * 32];
+        int newGeneration = generation + 1;
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel in = fresh ? null : FileChannel.open(path, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long position = HEADER_SIZE;
+            for (int i = 0; i < 32 * 32; i++) {
+                byte[] record;
+                if (compressed.containsKey(i)) {
+                    record = compressed.get(i);
+                } else if (in != null && lengths[i] != 0) {
+                    ByteBuffer buffer = ByteBuffer.allocate(lengths[i]);
+                    readFully(in, buffer, offsets[i]);
+                    record = buffer.array();
+                } else {
+                    record = null;
+                }
+                if (record == null) {
+                    continue;
+                }
+                writeFully(out, ByteBuffer.wrap(record), position);
+                newOffsets[i] = position;
+                newLengths[i] = record.length;
+                position += record.length;
+            }
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            magic.putInt(MAGIC).flip();
+            writeFully(out, magic, 0);
+            // the second table is left zeroed, which doesn't pass its checksum
+            writeFully(out, table(newGeneration, newOffsets, newLengths), 4);
+            out.force(false);
+        }
+        try {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        System.arraycopy(newOffsets, 0, offsets, 0, offsets.length);
+        System.arraycopy(newLengths, 0, lengths, 0, lengths.length);
+        table = 0;
+        generation = newGeneration;
+    }
+
+    private static ByteBuffer table(int generation, long[] offsets, int[] lengths) {
+        ByteBuffer table = ByteBuffer.allocate(TABLE_SIZE);
+        table.putInt(generation);
+        for (int i = 0; i < 32 * 32; i++) {
+            table.putLong(lengths[i] == 0 ? 0 : offsets[i]);
+            table.putInt(lengths[i]);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(table.array(), 0, TABLE_SIZE - 4);
+        table.putInt((int) crc.getValue());
+        table.flip();
+        return table;
+    }
+
+    private static byte[] compress(byte[] record) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(record.length / 4);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DeflaterOutputStream out = new DeflaterOutputStream(bytes, deflater, 16384)) {
+            out.write(record);
+        } finally {
+            deflater.end(); // not ended by the stream since we passed it in
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException();
+            }
+            position += read;
+        }
+    }
+
+    static int index(int chunkX, int chunkZ) {
+        return chunkX << 5 | chunkZ;
+    }
+}
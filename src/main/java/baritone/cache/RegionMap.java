@@ -0,0 +1,140 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.cache;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongFunction;
+
+/**
+ * The regions of a {@link CachedWorld}, keyed by region id without boxing.
+ * <p>
+ * Lookups are far more common than regions being created or removed, so the map is split into stripes that are each
+ * copied on write. A lookup is a volatile read and a hash lookup, and never waits on anything. Writes to the same stripe
+ * take turns, and count how often they had to wait for one another in {@link #contended}.
+ */
+final class RegionMap {
+
+    private static final int STRIPES = 16;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+    /**
+     * Writes that found their stripe locked by another write
+     */
+    private final LongAdder contended = new LongAdder();
+
+    RegionMap() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    CachedRegion get(long id) {
+        reads.increment();
+        return stripe(id).regions.get(id);
+    }
+
+    /**
+     * @param id      The region id
+     * @param factory Creates the region if there isn't one yet, while holding the lock of its stripe
+     * @return The region, new or not
+     */
+    CachedRegion computeIfAbsent(long id, LongFunction<CachedRegion> factory) {
+        Stripe stripe = stripe(id);
+        CachedRegion region = stripe.regions.get(id);
+        reads.increment();
+        if (region != null) {
+            return region;
+        }
+        lock(stripe);
+        try {
+            region = stripe.regions.get(id);
+            if (region == null) {
+                region = factory.apply(id);
+                Long2ObjectOpenHashMap<CachedRegion> copy = new Long2ObjectOpenHashMap<>(stripe.regions);
+                copy.put(id, region);
+                stripe.regions = copy;
+            }
+            return region;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    void remove(long id) {
+        Stripe stripe = stripe(id);
+        lock(stripe);
+        try {
+            if (stripe.regions.containsKey(id)) {
+                Long2ObjectOpenHashMap<CachedRegion> copy = new Long2ObjectOpenHashMap<>(stripe.regions);
+                copy.remove(id);
+                stripe.regions = copy;
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * @return Every region, as of some point during the call
+     */
+    List<CachedRegion> values() {
+        List<CachedRegion> values = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            values.addAll(stripe.regions.values());
+        }
+        return values;
+    }
+
+    /**
+     * @return How often the map has been read and written, and how many of the writes had to wait
+     */
+    String stats() {
+        return "Region map: " + reads.sum() + " reads, " + writes.sum() + " writes, " + contended.sum() + " contended";
+    }
+
+    private void lock(Stripe stripe) {
+        writes.increment();
+        if (!stripe.lock.tryLock()) {
+            contended.increment();
+            stripe.lock.lock();
+        }
+    }
+
+    private Stripe stripe(long id) {
+        return stripes[(int) HashCommon.mix(id) & (STRIPES - 1)];
+    }
+
+    private static final class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        /**
+         * Never modified once published, replaced as a whole instead
+         */
+        private volatile Long2ObjectOpenHashMap<CachedRegion> regions = new Long2ObjectOpenHashMap<>();
+    }
+}
@@ -21,6 +21,7 @@ import baritone.Baritone;
 import baritone.api.cache.ICachedWorld;
 import baritone.api.cache.IWaypointCollection;
 import baritone.api.cache.IWorldData;
+import baritone.utils.TaskScheduler;
 import net.minecraft.world.level.dimension.DimensionType;
 
 import java.nio.file.Path;
@@ -46,7 +47,9 @@ public class WorldData implements IWorldData {
     }
 
     public void onClose() {
-        Baritone.getExecutor().execute(() -> {
+        cache.getCostCache().clear(); // costs from the loaded chunks we're leaving behind won't get invalidated anymore
+        cache.stopPacking();
+        Baritone.getScheduler().execute(TaskScheduler.Lane.DISK, TaskScheduler.Priority.LOW, () -> {
             System.out.println("Started saving the world in a new thread");
             cache.save();
         });
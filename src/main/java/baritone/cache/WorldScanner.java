@@ -17,6 +17,7 @@
 
 package baritone.cache;
 
+import baritone.Baritone;
 import baritone.api.cache.ICachedWorld;
 import baritone.api.cache.IWorldScanner;
 import baritone.api.utils.BetterBlockPos;
@@ -32,12 +33,19 @@ import net.minecraft.world.level.chunk.LevelChunkSection;
 import net.minecraft.world.level.chunk.PalettedContainer;
 
 import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 public enum WorldScanner implements IWorldScanner {
 
     INSTANCE;
 
+    /**
+     * Rings with fewer loaded chunks than this aren't worth handing to other threads
+     */
+    private static final int MIN_PARALLEL_RING = 4;
+
     @Override
     public List<BlockPos> scanChunkRadius(IPlayerContext ctx, BlockOptionalMetaLookup filter, int max, int yLevelThreshold, int maxSearchRadius) {
         ArrayList<BlockPos> res = new ArrayList<>();
@@ -55,11 +63,17 @@ public enum WorldScanner implements IWorldScanner {
         int playerYBlockStateContainerIndex = playerY >> 4;
         int[] coordinateIterationOrder = IntStream.range(0, ctx.world().dimensionType().height() / 16).boxed().sorted(Comparator.comparingInt(y -> Math.abs(y - playerYBlockStateContainerIndex))).mapToInt(x -> x).toArray();
 
+        int minY = ctx.world().dimensionType().minY();
+        boolean paletteFilter = Baritone.settings().worldScannerPaletteFilter.value;
+        boolean parallel = Baritone.settings().worldScannerParallel.value;
+
         int searchRadiusSq = 0;
         boolean foundWithinY = false;
+        List<LevelChunk> ring = new ArrayList<>();
         while (true) {
             boolean allUnloaded = true;
             boolean foundChunks = false;
+            ring.clear();
             for (int xoff = -searchRadiusSq; xoff <= searchRadiusSq; xoff++) {
                 for (int zoff = -searchRadiusSq; zoff <= searchRadiusSq; zoff++) {
                     int distance = xoff * xoff + zoff * zoff;
@@ -74,7 +88,25 @@ public enum WorldScanner implements IWorldScanner {
                         continue;
                     }
                     allUnloaded = false;
-                    if (scanChunkInto(chunkX << 4, chunkZ << 4, ctx.world().dimensionType().minY(), chunk, filter, res, max, yLevelThreshold, playerY, coordinateIterationOrder)) {
+                    ring.add(chunk);
+                }
+            }
+            if (parallel && ring.size() >= MIN_PARALLEL_RING) {
+                // scan every chunk of the ring for all its matches at once, then take them in the same order and
+                // with the same cutoffs as scanning one chunk after another would have
+                List<List<BlockPos>> matches = ring.parallelStream().map(chunk -> {
+                    List<BlockPos> found = new ArrayList<>();
+                    scanChunkInto(chunk.getPos().x << 4, chunk.getPos().z << 4, minY, chunk, filter, found, Integer.MAX_VALUE, yLevelThreshold, playerY, coordinateIterationOrder, paletteFilter);
+                    return found;
+                }).collect(Collectors.toList());
+                for (List<BlockPos> found : matches) {
+                    if (addMatchesInto(found, minY, res, max, yLevelThreshold, playerY)) {
+                        foundWithinY = true;
+                    }
+                }
+            } else {
+                for (LevelChunk chunk : ring) {
+                    if (scanChunkInto(chunk.getPos().x << 4, chunk.getPos().z << 4, minY, chunk, filter, res, max, yLevelThreshold, playerY, coordinateIterationOrder, paletteFilter)) {
                         foundWithinY = true;
                     }
                 }
@@ -104,7 +136,7 @@ public enum WorldScanner implements IWorldScanner {
         }
 
         ArrayList<BlockPos> res = new ArrayList<>();
-        scanChunkInto(pos.x << 4, pos.z << 4, ctx.world().dimensionType().minY(), chunk, filter, res, max, yLevelThreshold, playerY, IntStream.range(0, ctx.world().dimensionType().height() / 16).toArray());
+        scanChunkInto(pos.x << 4, pos.z << 4, ctx.world().dimensionType().minY(), chunk, filter, res, max, yLevelThreshold, playerY, IntStream.range(0, ctx.world().dimensionType().height() / 16).toArray(), Baritone.settings().worldScannerPaletteFilter.value);
         return res;
     }
 
@@ -143,14 +175,50 @@ public enum WorldScanner implements IWorldScanner {
         return queued;
     }
 
-    private boolean scanChunkInto(int chunkX, int chunkZ, int minY, LevelChunk chunk, BlockOptionalMetaLookup filter, Collection<BlockPos> result, int max, int yLevelThreshold, int playerY, int[] coordinateIterationOrder) {
-        LevelChunkSection[] chunkInternalStorageArray = chunk.getSections();
+    private static boolean scanChunkInto(int chunkX, int chunkZ, int minY, LevelChunk chunk, BlockOptionalMetaLookup filter, Collection<BlockPos> result, int max, int yLevelThreshold, int playerY, int[] coordinateIterationOrder, boolean paletteFilter) {
+        return scanSectionsInto(chunkX, chunkZ, minY, chunk.getSections(), filter, result, max, yLevelThreshold, playerY, coordinateIterationOrder, paletteFilter);
+    }
+
+    /**
+     * Adds the matches of one chunk, found without any limit, exactly like {@link #scanSectionsInto} would have if it
+     * had been given {@code result} and {@code max} to begin with
+     */
+    private static boolean addMatchesInto(List<BlockPos> matches, int minY, Collection<BlockPos> result, int max, int yLevelThreshold, int playerY) {
         boolean foundWithinY = false;
+        for (BlockPos pos : matches) {
+            if (result.size() >= max) {
+                if (Math.abs(pos.getY() - minY - playerY) < yLevelThreshold) {
+                    foundWithinY = true;
+                } else {
+                    if (foundWithinY) {
+                        return true;
+                    }
+                }
+            }
+            result.add(pos);
+        }
+        return foundWithinY;
+    }
+
+    /**
+     * The actual scan behind {@link #scanChunkInto}, split out so that it only needs the sections of a chunk and not
+     * the chunk (and therefore level) itself. The benchmarks call this directly on synthetic sections.
+     *
+     * @param paletteFilter Whether to skip sections whose palette has nothing matching, see
+     *                      {@link baritone.api.Settings#worldScannerPaletteFilter}. Sections with too many states for a
+     *                      palette of their own are always scanned.
+     */
+    static boolean scanSectionsInto(int chunkX, int chunkZ, int minY, LevelChunkSection[] chunkInternalStorageArray, BlockOptionalMetaLookup filter, Collection<BlockPos> result, int max, int yLevelThreshold, int playerY, int[] coordinateIterationOrder, boolean paletteFilter) {
+        boolean foundWithinY = false;
+        Predicate<BlockState> matches = filter::has;
         for (int y0 : coordinateIterationOrder) {
             LevelChunkSection section = chunkInternalStorageArray[y0];
             if (section == null || section.hasOnlyAir()) {
                 continue;
             }
+            if (paletteFilter && !section.maybeHas(matches)) {
+                continue; // nothing in the palette matches, so no block in the section can
+            }
             int yReal = y0 << 4;
             PalettedContainer<BlockState> bsc = section.getStates();
             for (int yy = 0; yy < 16; yy++) {
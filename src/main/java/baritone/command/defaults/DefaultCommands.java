@@ -39,6 +39,7 @@ public final class DefaultCommands {
                 new PathCommand(baritone),
                 new ProcCommand(baritone),
                 new ETACommand(baritone),
+                new StatsCommand(baritone),
                 new VersionCommand(baritone),
                 new RepackCommand(baritone),
                 new BuildCommand(baritone),
@@ -46,11 +46,12 @@ public class FindCommand extends Command {
         BetterBlockPos origin = ctx.playerFeet();
         toFind.stream()
                 .flatMap(block ->
-                        ctx.worldData().getCachedWorld().getLocationsOf(
+                        ctx.worldData().getCachedWorld().getNearestLocationsOf(
                                 Registry.BLOCK.getKey(block).getPath(),
                                 Integer.MAX_VALUE,
                                 origin.x,
                                 origin.y,
+                                origin.z,
                                 4
                         ).stream()
                 )
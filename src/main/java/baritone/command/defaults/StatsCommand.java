@@ -0,0 +1,189 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.command.defaults;
+
+import baritone.api.IBaritone;
+import baritone.api.cache.IWorldData;
+import baritone.api.command.Command;
+import baritone.api.command.argument.IArgConsumer;
+import baritone.api.command.exception.CommandException;
+import baritone.api.command.exception.CommandInvalidStateException;
+import baritone.api.command.exception.CommandInvalidTypeException;
+import baritone.api.command.helpers.TabCompleteHelper;
+import baritone.api.pathing.calc.IPathingMetrics;
+import baritone.cache.CachedWorld;
+import baritone.utils.PathingMetrics;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class StatsCommand extends Command {
+
+    public StatsCommand(IBaritone baritone) {
+        super(baritone, "stats");
+    }
+
+    @Override
+    public void execute(String label, IArgConsumer args) throws CommandException {
+        args.requireMax(1);
+        String action = args.hasAny() ? args.getString().toLowerCase(Locale.ROOT) : "show";
+        IPathingMetrics metrics = baritone.getPathingBehavior().getMetrics();
+        switch (action) {
+            case "show":
+                show(metrics);
+                break;
+            case "all":
+                metrics.getSamples().forEach((name, value) -> logDirect(name + " " + value));
+                break;
+            case "caches":
+                IWorldData world = baritone.getWorldProvider().getCurrentWorld();
+                if (world == null) {
+                    throw new CommandInvalidStateException("Not in a world");
+                }
+                for (String line : ((CachedWorld) world.getCachedWorld()).stats()) {
+                    logDirect(line);
+                }
+                break;
+            case "reset":
+                metrics.reset();
+                logDirect("Pathing stats reset");
+                break;
+            case "export":
+                Path file = PathingMetrics.exportFile();
+                try {
+                    metrics.writeTo(file);
+                } catch (IOException ex) {
+                    throw new CommandInvalidStateException("Couldn't write " + file + ": " + ex.getMessage());
+                }
+                logDirect("Pathing stats written to " + file);
+                break;
+            default:
+                throw new CommandInvalidTypeException(args.consumed(), "show, all, caches, reset or export");
+        }
+    }
+
+    private void show(IPathingMetrics metrics) {
+        Map<String, Double> samples = metrics.getSamples();
+        double searches = sum(samples, "baritone_searches_total");
+        if (searches == 0) {
+            logDirect("No searches yet");
+            return;
+        }
+        double seconds = samples.getOrDefault("baritone_search_duration_seconds_sum", 0D);
+        double nodes = sum(samples, "baritone_search_nodes_expanded_total");
+        logDirect(String.format("Searches: %.0f (%.0f to goal, %.0f segments, %.0f failed)",
+                searches,
+                samples.getOrDefault("baritone_searches_total{result=\"success_to_goal\"}", 0D),
+                samples.getOrDefault("baritone_searches_total{result=\"success_segment\"}", 0D),
+                samples.getOrDefault("baritone_searches_total{result=\"failure\"}", 0D)
+        ));
+        logDirect(String.format("Started: %.0f fresh, %.0f planning ahead, %.0f repairs",
+                samples.getOrDefault("baritone_searches_started_total{kind=\"fresh\"}", 0D),
+                samples.getOrDefault("baritone_searches_started_total{kind=\"plan_ahead\"}", 0D),
+                samples.getOrDefault("baritone_searches_started_total{kind=\"repair\"}", 0D)
+        ));
+        logDirect(String.format("Nodes: %.0f expanded, %.0f movements considered, %.0f nodes/s overall",
+                nodes,
+                sum(samples, "baritone_search_movements_considered_total"),
+                seconds > 0 ? nodes / seconds : 0
+        ));
+        logDirect(String.format("Last search: %.0f nodes/s, open set peak %.0f, node map size %.0f",
+                samples.getOrDefault("baritone_last_search_nodes_per_second", 0D),
+                samples.getOrDefault("baritone_last_search_open_set_peak", 0D),
+                samples.getOrDefault("baritone_last_search_node_map_size", 0D)
+        ));
+        double cost = samples.getOrDefault("baritone_search_time_seconds_total{phase=\"cost\"}", 0D);
+        double openSet = samples.getOrDefault("baritone_search_time_seconds_total{phase=\"open_set\"}", 0D);
+        double heuristic = samples.getOrDefault("baritone_search_time_seconds_total{phase=\"heuristic\"}", 0D);
+        if (cost + openSet + heuristic > 0) {
+            logDirect(String.format("Time: %.0f%% costs, %.0f%% open set, %.0f%% heuristic, of %.1fs searching",
+                    100 * cost / seconds,
+                    100 * openSet / seconds,
+                    100 * heuristic / seconds,
+                    seconds
+            ));
+        } else {
+            logDirect(String.format("Time: %.1fs searching, turn on pathingMetricsTiming to see where it goes", seconds));
+        }
+        logDirect(String.format("Block lookups: %s of chunks and %s of regions reused",
+                hitRate(samples, "chunk"),
+                hitRate(samples, "region")
+        ));
+        logDirect(String.format("Path changes: %.0f spliced, %.0f early, %.0f continued, %.0f improved, %.0f next discarded",
+                samples.getOrDefault("baritone_splices_total{outcome=\"spliced\"}", 0D),
+                samples.getOrDefault("baritone_splices_total{outcome=\"early\"}", 0D),
+                samples.getOrDefault("baritone_splices_total{outcome=\"continued\"}", 0D),
+                samples.getOrDefault("baritone_splices_total{outcome=\"improved\"}", 0D),
+                samples.getOrDefault("baritone_path_events_total{event=\"discard_next\"}", 0D)
+        ));
+    }
+
+    /**
+     * @return The sum of every sample of a metric, whatever its labels
+     */
+    private static double sum(Map<String, Double> samples, String name) {
+        return samples.entrySet().stream()
+                .filter(e -> e.getKey().equals(name) || e.getKey().startsWith(name + "{"))
+                .mapToDouble(Map.Entry::getValue)
+                .sum();
+    }
+
+    private static String hitRate(Map<String, Double> samples, String cache) {
+        double hits = samples.getOrDefault("baritone_block_lookups_total{cache=\"" + cache + "\",result=\"hit\"}", 0D);
+        double misses = samples.getOrDefault("baritone_block_lookups_total{cache=\"" + cache + "\",result=\"miss\"}", 0D);
+        if (hits + misses == 0) {
+            return "none";
+        }
+        return String.format("%.1f%%", 100 * hits / (hits + misses));
+    }
+
+    @Override
+    public Stream<String> tabComplete(String label, IArgConsumer args) throws CommandException {
+        if (args.hasExactlyOne()) {
+            return new TabCompleteHelper()
+                    .append("show", "all", "caches", "reset", "export")
+                    .filterPrefix(args.getString())
+                    .stream();
+        }
+        return Stream.empty();
+    }
+
+    @Override
+    public String getShortDesc() {
+        return "View pathing statistics";
+    }
+
+    @Override
+    public List<String> getLongDesc() {
+        return Arrays.asList(
+                "The stats command shows how path calculation has been going since the game started or the stats were last reset.",
+                "",
+                "Usage:",
+                "> stats - Show a summary",
+                "> stats all - Show every metric",
+                "> stats caches - Show how the world cache, chunk packer, cost cache and background threads are doing",
+                "> stats reset - Reset everything to zero",
+                "> stats export - Write every metric to baritone/metrics.prom, in the Prometheus text format"
+        );
+    }
+}
@@ -92,6 +92,13 @@ public final class GameEventHandler implements IEventBus, Helper {
                 && type == ChunkEvent.Type.UNLOAD
                 && world.getChunkSource().getChunk(event.getX(), event.getZ(), null, false) != null;
 
+        // whatever happened, the blocks pathing sees in and around this chunk are different now
+        baritone.getWorldProvider().ifWorldLoaded(worldData -> worldData.cache.onChunkChanged(event.getX(), event.getZ()));
+
+        if (isPostPopulate) {
+            baritone.getBuilderProcess().onChunkLoaded(event.getX(), event.getZ());
+        }
+
         if (isPostPopulate || isPreUnload) {
             baritone.getWorldProvider().ifWorldLoaded(worldData -> {
                 LevelChunk chunk = world.getChunk(event.getX(), event.getZ());
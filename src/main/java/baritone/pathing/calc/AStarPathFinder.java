@@ -22,14 +22,23 @@ import baritone.api.pathing.calc.IPath;
 import baritone.api.pathing.goals.Goal;
 import baritone.api.pathing.movement.ActionCosts;
 import baritone.api.utils.BetterBlockPos;
-import baritone.pathing.calc.openset.BinaryHeapOpenSet;
+import baritone.api.utils.Helper;
+import baritone.pathing.calc.openset.*;
 import baritone.pathing.movement.CalculationContext;
-import baritone.pathing.movement.Moves;
-import baritone.utils.pathing.BetterWorldBorder;
+import baritone.pathing.path.CutoffPath;
 import baritone.utils.pathing.Favoring;
-import baritone.utils.pathing.MutableMoveResult;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * The actual A* pathfinding
@@ -38,31 +47,140 @@ import java.util.Optional;
  */
 public final class AStarPathFinder extends AbstractNodeCostSearch {
 
+    /**
+     * How far sideways a movement can reach from where it starts, parkour being the furthest
+     */
+    private static final int MOVEMENT_REACH = 5;
+
     private final Favoring favoring;
     private final CalculationContext calcContext;
 
+    /**
+     * The search whose nodes this one repairs instead of starting from scratch, only until {@link #calculate0(long, long)}
+     * takes them over. Null for a normal search.
+     */
+    private AStarPathFinder repairing;
+
+    /**
+     * Whether another search has taken over the nodes of this one, after which they're no use to anyone else
+     */
+    private boolean repaired;
+
+    /**
+     * The chunk change counters as of when this search started, see {@link MovementCostCache#snapshot()}. Null if it
+     * didn't have a cost cache, or used a node store, either of which means it can't be repaired.
+     */
+    private int[] chunkEpochs;
+
+    /**
+     * The open set left over after an anytime search found its first path, see {@link #improve}. Null if there's
+     * nothing left to improve, or once improving is over.
+     */
+    private volatile IOpenSet anytimeOpenSet;
+
+    /**
+     * How much the heuristic is inflated by for the pass going on, or for the path found so far if none is, see
+     * {@link baritone.api.Settings#pathingAnytime}
+     */
+    private double anytimeWeight;
+
+    /**
+     * The goal node of the best path found so far by an anytime search
+     */
+    private PathNode incumbent;
+
+    private int anytimeNodes;
+
+    /**
+     * What {@link #improve} got up to, so that the next call can pick up from there. The context and published path
+     * are null before the first call, and the cost of the incumbent when the pass going on started is NaN between
+     * passes.
+     */
+    private CalculationContext anytimeContext;
+    private Published anytimePublished;
+    private double anytimePassStart = Double.NaN;
+    private int anytimeExpanded;
+
     public AStarPathFinder(int startX, int startY, int startZ, Goal goal, Favoring favoring, CalculationContext context) {
         super(startX, startY, startZ, goal, context);
         this.favoring = favoring;
         this.calcContext = context;
     }
 
+    /**
+     * Creates a search that picks up where {@code previous} left off instead of starting over, see
+     * {@link baritone.api.Settings#pathingIncrementalReplan}. Check {@link #canRepairFrom(int, int, int, CalculationContext)} first.
+     *
+     * @param previous The finished search to repair, which can't be repaired again afterwards
+     * @param startX   The x of the new start, somewhere the previous search got to
+     * @param startY   The y of the new start
+     * @param startZ   The z of the new start
+     * @param context  The context to calculate with, costing the same way as the previous one
+     */
+    public AStarPathFinder(AStarPathFinder previous, int startX, int startY, int startZ, CalculationContext context) {
+        super(previous, startX, startY, startZ, context);
+        // the costs in the nodes we're taking over were multiplied by this, so keep using it for consistency
+        this.favoring = previous.favoring;
+        this.calcContext = context;
+        this.repairing = previous;
+        previous.repaired = true;
+    }
+
+    /**
+     * @return Whether another search has taken over the nodes of this one
+     */
+    public boolean isRepaired() {
+        return repaired;
+    }
+
+    /**
+     * @return Whether this search is worth keeping around to be repaired later
+     */
+    public boolean isRepairable() {
+        return isFinished() && !repaired && anytimeOpenSet == null && chunkEpochs != null && mapSize() <= Baritone.settings().pathingIncrementalMaxNodes.value;
+    }
+
+    /**
+     * @param x       The x of the new start
+     * @param y       The y of the new start
+     * @param z       The z of the new start
+     * @param context The context the repaired search would calculate with
+     * @return Whether a new search from this position could take over and repair the nodes of this one
+     */
+    public boolean canRepairFrom(int x, int y, int z, CalculationContext context) {
+        if (!isRepairable() || context.costCache == null || context.costCache != calcContext.costCache || context.costCacheGeneration != calcContext.costCacheGeneration) {
+            return false; // costs would be calculated some other way now, so none of ours are any good
+        }
+        PathNode node = getExistingNode(BetterBlockPos.longHash(x, y, z));
+        return node != null && node.cost < ActionCosts.COST_INF;
+    }
+
     @Override
     protected Optional<IPath> calculate0(long primaryTimeout, long failureTimeout) {
-        int minY = calcContext.world.dimensionType().minY();
-        int height = calcContext.world.dimensionType().height();
-        startNode = getNodeAtPosition(startX, startY, startZ, BetterBlockPos.longHash(startX, startY, startZ));
-        startNode.cost = 0;
-        startNode.combinedCost = startNode.estimatedCostToGoal;
-        BinaryHeapOpenSet openSet = new BinaryHeapOpenSet();
-        openSet.insert(startNode);
+        if (nodeStore != null) {
+            return calculateWithNodeStore(primaryTimeout, failureTimeout);
+        }
+        if (calcContext.costCache != null) {
+            chunkEpochs = calcContext.costCache.snapshot();
+        }
+        IOpenSet openSet = createOpenSet(Baritone.settings().pathingOpenSet.value);
         double[] bestHeuristicSoFar = new double[COEFFICIENTS.length];//keep track of the best node by the metric of (estimatedCostToGoal + cost / COEFFICIENTS[i])
-        for (int i = 0; i < bestHeuristicSoFar.length; i++) {
-            bestHeuristicSoFar[i] = startNode.estimatedCostToGoal;
-            bestSoFar[i] = startNode;
+        // a repaired search keeps the costs of the old one, so it has to stay exact, and improve needs to be able to copy the context
+        boolean anytime = Baritone.settings().pathingAnytime.value && repairing == null && calcContext.getClass() == CalculationContext.class;
+        double weight = anytime ? Math.max(1, Baritone.settings().pathingAnytimeInitialWeight.value) : 1;
+        if (repairing != null) {
+            startNode = repair(openSet, bestHeuristicSoFar);
+        } else {
+            startNode = getNodeAtPosition(startX, startY, startZ, BetterBlockPos.longHash(startX, startY, startZ));
+            startNode.cost = 0;
+            startNode.combinedCost = weight * startNode.estimatedCostToGoal;
+            openSet.insert(startNode);
+            for (int i = 0; i < bestHeuristicSoFar.length; i++) {
+                bestHeuristicSoFar[i] = startNode.estimatedCostToGoal;
+                bestSoFar[i] = startNode;
+            }
         }
-        MutableMoveResult res = new MutableMoveResult();
-        BetterWorldBorder worldBorder = new BetterWorldBorder(calcContext.world.getWorldBorder());
+        Successors successors = new Successors();
         long startTime = System.currentTimeMillis();
         boolean slowPath = Baritone.settings().slowPath.value;
         if (slowPath) {
@@ -71,14 +189,19 @@ public final class AStarPathFinder extends AbstractNodeCostSearch {
         long primaryTimeoutTime = startTime + (slowPath ? Baritone.settings().slowPathTimeoutMS.value : primaryTimeout);
         long failureTimeoutTime = startTime + (slowPath ? Baritone.settings().slowPathTimeoutMS.value : failureTimeout);
         boolean failing = true;
+        for (PathNode best : bestSoFar) {
+            if (getDistFromStartSq(best) > MIN_DIST_PATH * MIN_DIST_PATH) {
+                failing = false; // only possible when repairing
+            }
+        }
         int numNodes = 0;
         int numMovementsConsidered = 0;
         int numEmptyChunk = 0;
-        boolean isFavoring = !favoring.isEmpty();
         int timeCheckInterval = 1 << 6;
         int pathingMaxChunkBorderFetch = Baritone.settings().pathingMaxChunkBorderFetch.value; // grab all settings beforehand so that changing settings during pathing doesn't cause a crash or unpredictable behavior
         double minimumImprovement = Baritone.settings().minimumImprovementRepropagation.value ? MIN_IMPROVEMENT : 0;
-        Moves[] allMoves = Moves.values();
+        boolean timing = this.timing;
+        int openSetPeak = 0;
         while (!openSet.isEmpty() && numEmptyChunk < pathingMaxChunkBorderFetch && !cancelRequested) {
             if ((numNodes & (timeCheckInterval - 1)) == 0) { // only call this once every 64 nodes (about half a millisecond)
                 long now = System.currentTimeMillis(); // since nanoTime is slow on windows (takes many microseconds)
@@ -92,89 +215,422 @@ public final class AStarPathFinder extends AbstractNodeCostSearch {
                 } catch (InterruptedException ignored) {
                 }
             }
+            if (openSet.size() > openSetPeak) {
+                openSetPeak = openSet.size();
+            }
+            long heapStart = timing ? System.nanoTime() : 0;
             PathNode currentNode = openSet.removeLowest();
+            if (timing) {
+                stats.openSetNanos += System.nanoTime() - heapStart;
+            }
             mostRecentConsidered = currentNode;
             numNodes++;
             if (goal.isInGoal(currentNode.x, currentNode.y, currentNode.z)) {
+                recordProgress(numNodes, numMovementsConsidered, openSetPeak);
                 logDebug("Took " + (System.currentTimeMillis() - startTime) + "ms, " + numMovementsConsidered + " movements considered");
+                if (weight > 1) {
+                    // found quickly thanks to the inflated heuristic, but there could be a better one, see improve
+                    anytimeOpenSet = openSet;
+                    anytimeWeight = weight;
+                    incumbent = currentNode;
+                    anytimeNodes = numNodes;
+                }
                 return Optional.of(new Path(startNode, currentNode, numNodes, goal, calcContext));
             }
-            for (Moves moves : allMoves) {
-                int newX = currentNode.x + moves.xOffset;
-                int newZ = currentNode.z + moves.zOffset;
-                if ((newX >> 4 != currentNode.x >> 4 || newZ >> 4 != currentNode.z >> 4) && !calcContext.isLoaded(newX, newZ)) {
-                    // only need to check if the destination is a loaded chunk if it's in a different chunk than the start of the movement
-                    if (!moves.dynamicXZ) { // only increment the counter if the movement would have gone out of bounds guaranteed
-                        numEmptyChunk++;
+            successors.generate(calcContext, currentNode.x, currentNode.y, currentNode.z, timing);
+            numEmptyChunk += successors.emptyChunks;
+            numMovementsConsidered += successors.movementsConsidered;
+            failing = relax(currentNode, successors, openSet, favoring, weight, minimumImprovement, bestHeuristicSoFar, failing);
+        }
+        recordProgress(numNodes, numMovementsConsidered, openSetPeak);
+        if (cancelRequested) {
+            return Optional.empty();
+        }
+        logDebug("Open set size " + openSet.size() + ", map size " + mapSize() + ", " + (int) (numNodes * 1.0 / ((System.currentTimeMillis() - startTime) / 1000F)) + " nodes per second");
+        Optional<IPath> result = bestSoFar(true, numNodes);
+        if (result.isPresent()) {
+            logDebug("Took " + (System.currentTimeMillis() - startTime) + "ms, " + numMovementsConsidered + " movements considered");
+        }
+        return result;
+    }
+
+    /**
+     * @return Whether this search found its path with an inflated heuristic, and can still look for a better one
+     */
+    public boolean canImprove() {
+        return anytimeOpenSet != null;
+    }
+
+    /**
+     * Keeps going after an anytime search (see {@link baritone.api.Settings#pathingAnytime}) returned its first path,
+     * in the spirit of ARA*. Each pass lowers the heuristic weight a step and reorders the nodes still open, then
+     * searches until nothing open could lead to a cheaper path than the best so far. By the time the weight is back
+     * down to 1, the best path is as good as a plain search would have found.
+     * <p>
+     * Every time a pass finds a cheaper path, the part of it that's still ahead of {@code position} is handed to
+     * {@code publish}, as long as that part is cheaper than what's ahead on the path published before (the first one
+     * being the path {@link #calculate} returned). Runs on the calling thread for at most {@code sliceMS} at a time,
+     * with its own copy of the context, since the paths already handed out create their movements from the original
+     * one. Calls have to follow one another, not overlap.
+     *
+     * @param deadline When to give up, in {@link System#currentTimeMillis()} time
+     * @param sliceMS  How long this call can go on for before returning to let others use the thread
+     * @param wanted   Whether anyone still cares, checked every so often
+     * @param position Where the player was along the published paths as of the latest tick, captured on the client
+     *                 thread since this runs on a pathing thread, or null if that's not known
+     * @param publish  Takes the better rest of the path
+     * @return Whether there's more to improve, in which case this should be called again to continue
+     */
+    public boolean improve(long deadline, long sliceMS, BooleanSupplier wanted, Supplier<BetterBlockPos> position, Consumer<IPath> publish) {
+        IOpenSet openSet = anytimeOpenSet;
+        if (openSet == null) {
+            return false;
+        }
+        long sliceEnd = Math.min(deadline, System.currentTimeMillis() + sliceMS);
+        boolean done = true;
+        if (anytimeContext == null) {
+            anytimeContext = new CalculationContext(calcContext);
+            anytimePublished = publishable(incumbent, anytimeContext);
+            anytimeExpanded = anytimeNodes;
+        }
+        int numNodes = anytimeExpanded;
+        int numMovementsConsidered = (int) stats.movementsConsidered;
+        int openSetPeak = stats.openSetPeak;
+        try {
+            CalculationContext context = anytimeContext;
+            double step = Math.max(0.05, Baritone.settings().pathingAnytimeWeightStep.value);
+            double minimumImprovement = Baritone.settings().minimumImprovementRepropagation.value ? MIN_IMPROVEMENT : 0;
+            Successors successors = new Successors();
+            boolean timing = this.timing;
+            while (!cancelRequested && wanted.getAsBoolean()) {
+                if (Double.isNaN(anytimePassStart)) {
+                    if (anytimeWeight <= 1) {
+                        break;
                     }
-                    continue;
-                }
-                if (!moves.dynamicXZ && !worldBorder.entirelyContains(newX, newZ)) {
-                    continue;
-                }
-                if (currentNode.y + moves.yOffset > height || currentNode.y + moves.yOffset < minY) {
-                    continue;
+                    anytimeWeight = Math.max(1, anytimeWeight - step);
+                    double newWeight = anytimeWeight;
+                    openSet.rekeyAll(node -> node.combinedCost = node.cost + newWeight * node.estimatedCostToGoal);
+                    anytimePassStart = incumbent.cost;
                 }
-                res.reset();
-                moves.apply(calcContext, currentNode.x, currentNode.y, currentNode.z, res);
-                numMovementsConsidered++;
-                double actionCost = res.cost;
-                if (actionCost >= ActionCosts.COST_INF) {
-                    continue;
-                }
-                if (actionCost <= 0 || Double.isNaN(actionCost)) {
-                    throw new IllegalStateException(moves + " calculated implausible cost " + actionCost);
+                double weight = anytimeWeight;
+                while (!openSet.isEmpty()) {
+                    if ((numNodes & 63) == 0) {
+                        long now = System.currentTimeMillis();
+                        if (now - deadline >= 0 || cancelRequested || !wanted.getAsBoolean()) {
+                            return false;
+                        }
+                        if (now - sliceEnd >= 0) {
+                            done = false;
+                            return true;
+                        }
+                    }
+                    if (openSet.size() > openSetPeak) {
+                        openSetPeak = openSet.size();
+                    }
+                    long heapStart = timing ? System.nanoTime() : 0;
+                    PathNode node = openSet.removeLowest();
+                    if (timing) {
+                        stats.openSetNanos += System.nanoTime() - heapStart;
+                    }
+                    if (node.combinedCost >= incumbent.cost) {
+                        openSet.insert(node); // nothing left in this pass can beat what we have
+                        break;
+                    }
+                    numNodes++;
+                    if (goal.isInGoal(node.x, node.y, node.z)) {
+                        if (node.cost < incumbent.cost) {
+                            incumbent = node;
+                        }
+                        continue;
+                    }
+                    // by now there's a complete path, so no need to keep track of the best partial ones
+                    successors.generate(context, node.x, node.y, node.z, timing);
+                    numMovementsConsidered += successors.movementsConsidered;
+                    relax(node, successors, openSet, favoring, weight, minimumImprovement, null, false);
                 }
-                // check destination after verifying it's not COST_INF -- some movements return a static IMPOSSIBLE object with COST_INF and destination being 0,0,0 to avoid allocating a new result for every failed calculation
-                if (moves.dynamicXZ && !worldBorder.entirelyContains(res.x, res.z)) { // see issue #218
-                    continue;
+                double before = anytimePassStart;
+                anytimePassStart = Double.NaN;
+                if (incumbent.cost < before - minimumImprovement) {
+                    logDebug("Anytime pass with weight " + weight + " improved the path cost from " + before + " to " + incumbent.cost);
+                    Published better = publishable(incumbent, context);
+                    BetterBlockPos at = position.get();
+                    if (better != null && anytimePublished != null && at != null && better.isBetterThan(anytimePublished, at)) {
+                        int index = better.path.positions().indexOf(at);
+                        publish.accept(new CutoffPath(better.path, index, better.path.length() - 1));
+                        anytimePublished = better;
+                    }
                 }
-                if (!moves.dynamicXZ && (res.x != newX || res.z != newZ)) {
-                    throw new IllegalStateException(moves + " " + res.x + " " + newX + " " + res.z + " " + newZ);
+            }
+            return false;
+        } finally {
+            recordProgress(numNodes, numMovementsConsidered, openSetPeak);
+            anytimeExpanded = numNodes;
+            if (done) {
+                anytimeOpenSet = null;
+                anytimeContext = null;
+                anytimePublished = null;
+            }
+        }
+    }
+
+    /**
+     * @return The path to the node, post processed and cut off the way {@link #calculate} does it, or null if none is left
+     */
+    private Published publishable(PathNode end, CalculationContext context) {
+        // a context of its own, since whoever gets the path creates its movements from it while we keep searching
+        Path path = new Path(startNode, end, anytimeNodes, goal, new CalculationContext(context));
+        IPath processed = path.postProcess().cutoffAtLoadedChunks(context.bsi).staticCutoff(goal);
+        if (processed.length() < 2) {
+            return null;
+        }
+        double[] costs = new double[processed.length()];
+        for (int i = 0; i < costs.length; i++) {
+            costs[i] = path.cost(i); // every cutoff keeps the start, so the indices still line up
+        }
+        return new Published(processed, costs, goal.heuristic(processed.getDest()));
+    }
+
+    /**
+     * A path handed out by {@link #improve}, along with what the search thought it costs
+     */
+    private static final class Published {
+
+        private final IPath path;
+        private final double[] costs;
+        private final double remainingHeuristic;
+
+        Published(IPath path, double[] costs, double remainingHeuristic) {
+            this.path = path;
+            this.costs = costs;
+            this.remainingHeuristic = remainingHeuristic;
+        }
+
+        /**
+         * @return The estimated cost to the goal from a position on the path, or infinity if it's not on it
+         */
+        double remaining(BetterBlockPos pos) {
+            int index = path.positions().indexOf(pos);
+            if (index < 0 || index >= path.length() - 1) {
+                return Double.POSITIVE_INFINITY;
+            }
+            return costs[costs.length - 1] - costs[index] + remainingHeuristic;
+        }
+
+        boolean isBetterThan(Published other, BetterBlockPos pos) {
+            double remaining = remaining(pos);
+            return remaining < Double.POSITIVE_INFINITY && remaining < other.remaining(pos);
+        }
+    }
+
+    /**
+     * Takes over the nodes of {@link #repairing} for a search from our start, in the spirit of LPA*: rather than
+     * starting over, keep every cost that can't have changed and only search again where one might have.
+     * <p>
+     * The previous search tree is re-rooted at the new start, so everything that isn't downstream of it is dropped,
+     * as is everything downstream of a movement that starts in a chunk that changed since (see
+     * {@link MovementCostCache#changedSince(int[], int, int)}). What remains has the same optimal costs as before,
+     * relative to the new start. The only nodes that need expanding again are the ones on the old frontier, the ones
+     * whose own movements might have changed, and the ones within a movement of something that was dropped, since
+     * those might have a new way there. Goal nodes go back in too, so that they're found again if still the best.
+     *
+     * @param openSet            The empty open set to fill
+     * @param bestHeuristicSoFar The best heuristics to fill, along with {@link #bestSoFar}
+     * @return The start node
+     */
+    private PathNode repair(IOpenSet openSet, double[] bestHeuristicSoFar) {
+        int[] epochs = repairing.chunkEpochs;
+        repairing = null;
+        MovementCostCache costCache = calcContext.costCache;
+        PathNode start = getExistingNode(BetterBlockPos.longHash(startX, startY, startZ));
+        double base = start.cost;
+        for (int i = 0; i < bestHeuristicSoFar.length; i++) {
+            bestHeuristicSoFar[i] = start.estimatedCostToGoal;
+            bestSoFar[i] = start;
+        }
+        PathNode[] nodes = nodes();
+        // every node costs strictly more than the one before it, so this way parents are always decided before their children
+        Arrays.sort(nodes, Comparator.comparingDouble(node -> node.cost));
+        List<PathNode> kept = new ArrayList<>();
+        LongOpenHashSet dropped = new LongOpenHashSet();
+        int valid = 0;
+        int reopened = 0;
+        for (PathNode node : nodes) {
+            boolean wasOpen = node.isOpen();
+            node.heapPosition = -1; // positions in the old open set mean nothing to the new one
+            if (node.cost >= ActionCosts.COST_INF) {
+                continue;
+            }
+            if (node == start) {
+                node.cost = 0;
+                node.previous = null;
+                node.previousMove = -1;
+            } else if (node.previous != null && node.previous.cost < ActionCosts.COST_INF && !costCache.changedSince(epochs, node.previous.x, node.previous.z)) {
+                node.cost -= base;
+            } else {
+                // either it's not downstream of the new start, or the movement here might cost something else now
+                node.cost = ActionCosts.COST_INF;
+                node.previous = null;
+                node.previousMove = -1;
+                dropped.add(column(node.x, node.z));
+                continue;
+            }
+            node.combinedCost = node.cost + node.estimatedCostToGoal;
+            valid++;
+            if (wasOpen || costCache.changedSince(epochs, node.x, node.z) || goal.isInGoal(node.x, node.y, node.z)) {
+                openSet.insert(node);
+                reopened++;
+            } else {
+                kept.add(node);
+            }
+            for (int i = 0; i < COEFFICIENTS.length; i++) {
+                double heuristic = node.estimatedCostToGoal + node.cost / COEFFICIENTS[i];
+                if (heuristic < bestHeuristicSoFar[i]) {
+                    bestHeuristicSoFar[i] = heuristic;
+                    bestSoFar[i] = node;
                 }
-                if (!moves.dynamicY && res.y != currentNode.y + moves.yOffset) {
-                    throw new IllegalStateException(moves + " " + res.y + " " + (currentNode.y + moves.yOffset));
+            }
+        }
+        LongOpenHashSet nearDropped = new LongOpenHashSet();
+        LongIterator it = dropped.iterator();
+        while (it.hasNext()) {
+            long column = it.nextLong();
+            int x = (int) (column >> 32);
+            int z = (int) column;
+            for (int dx = -MOVEMENT_REACH; dx <= MOVEMENT_REACH; dx++) {
+                for (int dz = -MOVEMENT_REACH; dz <= MOVEMENT_REACH; dz++) {
+                    nearDropped.add(column(x + dx, z + dz));
                 }
-                long hashCode = BetterBlockPos.longHash(res.x, res.y, res.z);
-                if (isFavoring) {
-                    // see issue #18
-                    actionCost *= favoring.calculate(hashCode);
+            }
+        }
+        for (PathNode node : kept) {
+            if (nearDropped.contains(column(node.x, node.z))) {
+                openSet.insert(node);
+                reopened++;
+            }
+        }
+        logDebug("Repairing previous search: kept " + valid + " of " + nodes.length + " nodes, expanding " + reopened + " again");
+        return start;
+    }
+
+    private static long column(int x, int z) {
+        return (long) x << 32 | (z & 0xFFFFFFFFL);
+    }
+
+    /**
+     * The exact same search as {@link #calculate0(long, long)}, except every node lives in the {@link #nodeStore}
+     * and is referred to by its int id, so nothing is allocated per node
+     */
+    private Optional<IPath> calculateWithNodeStore(long primaryTimeout, long failureTimeout) {
+        NodeStore store = nodeStore;
+        startNodeId = store.getOrCreate(startX, startY, startZ, BetterBlockPos.longHash(startX, startY, startZ));
+        store.setCost(startNodeId, 0);
+        store.setCombinedCost(startNodeId, store.estimatedCostToGoal(startNodeId));
+        IPrimitiveOpenSet openSet = createPrimitiveOpenSet(Baritone.settings().pathingOpenSet.value, store);
+        openSet.insert(startNodeId);
+        double[] bestHeuristicSoFar = new double[COEFFICIENTS.length];//keep track of the best node by the metric of (estimatedCostToGoal + cost / COEFFICIENTS[i])
+        for (int i = 0; i < bestHeuristicSoFar.length; i++) {
+            bestHeuristicSoFar[i] = store.estimatedCostToGoal(startNodeId);
+            bestSoFarIds[i] = startNodeId;
+        }
+        Successors successors = new Successors();
+        long startTime = System.currentTimeMillis();
+        boolean slowPath = Baritone.settings().slowPath.value;
+        if (slowPath) {
+            logDebug("slowPath is on, path timeout will be " + Baritone.settings().slowPathTimeoutMS.value + "ms instead of " + primaryTimeout + "ms");
+        }
+        long primaryTimeoutTime = startTime + (slowPath ? Baritone.settings().slowPathTimeoutMS.value : primaryTimeout);
+        long failureTimeoutTime = startTime + (slowPath ? Baritone.settings().slowPathTimeoutMS.value : failureTimeout);
+        boolean failing = true;
+        int numNodes = 0;
+        int numMovementsConsidered = 0;
+        int numEmptyChunk = 0;
+        int timeCheckInterval = 1 << 6;
+        int pathingMaxChunkBorderFetch = Baritone.settings().pathingMaxChunkBorderFetch.value; // grab all settings beforehand so that changing settings during pathing doesn't cause a crash or unpredictable behavior
+        double minimumImprovement = Baritone.settings().minimumImprovementRepropagation.value ? MIN_IMPROVEMENT : 0;
+        boolean timing = this.timing;
+        int openSetPeak = 0;
+        while (!openSet.isEmpty() && numEmptyChunk < pathingMaxChunkBorderFetch && !cancelRequested) {
+            if ((numNodes & (timeCheckInterval - 1)) == 0) { // only call this once every 64 nodes (about half a millisecond)
+                long now = System.currentTimeMillis(); // since nanoTime is slow on windows (takes many microseconds)
+                if (now - failureTimeoutTime >= 0 || (!failing && now - primaryTimeoutTime >= 0)) {
+                    break;
                 }
-                PathNode neighbor = getNodeAtPosition(res.x, res.y, res.z, hashCode);
-                double tentativeCost = currentNode.cost + actionCost;
-                if (neighbor.cost - tentativeCost > minimumImprovement) {
-                    neighbor.previous = currentNode;
-                    neighbor.cost = tentativeCost;
-                    neighbor.combinedCost = tentativeCost + neighbor.estimatedCostToGoal;
-                    if (neighbor.isOpen()) {
-                        openSet.update(neighbor);
-                    } else {
-                        openSet.insert(neighbor);//dont double count, dont insert into open set if it's already there
-                    }
-                    for (int i = 0; i < COEFFICIENTS.length; i++) {
-                        double heuristic = neighbor.estimatedCostToGoal + neighbor.cost / COEFFICIENTS[i];
-                        if (bestHeuristicSoFar[i] - heuristic > minimumImprovement) {
-                            bestHeuristicSoFar[i] = heuristic;
-                            bestSoFar[i] = neighbor;
-                            if (failing && getDistFromStartSq(neighbor) > MIN_DIST_PATH * MIN_DIST_PATH) {
-                                failing = false;
-                            }
-                        }
-                    }
+            }
+            if (slowPath) {
+                try {
+                    Thread.sleep(Baritone.settings().slowPathTimeDelayMS.value);
+                } catch (InterruptedException ignored) {
                 }
             }
+            if (openSet.size() > openSetPeak) {
+                openSetPeak = openSet.size();
+            }
+            long heapStart = timing ? System.nanoTime() : 0;
+            int currentNode = openSet.removeLowest();
+            if (timing) {
+                stats.openSetNanos += System.nanoTime() - heapStart;
+            }
+            mostRecentConsideredId = currentNode;
+            numNodes++;
+            int currentX = store.x(currentNode);
+            int currentY = store.y(currentNode);
+            int currentZ = store.z(currentNode);
+            if (goal.isInGoal(currentX, currentY, currentZ)) {
+                recordProgress(numNodes, numMovementsConsidered, openSetPeak);
+                logDebug("Took " + (System.currentTimeMillis() - startTime) + "ms, " + numMovementsConsidered + " movements considered");
+                return pathTo(currentNode, numNodes, calcContext);
+            }
+            successors.generate(calcContext, currentX, currentY, currentZ, timing);
+            numEmptyChunk += successors.emptyChunks;
+            numMovementsConsidered += successors.movementsConsidered;
+            failing = relax(currentNode, successors, openSet, favoring, minimumImprovement, bestHeuristicSoFar, failing);
         }
+        recordProgress(numNodes, numMovementsConsidered, openSetPeak);
         if (cancelRequested) {
             return Optional.empty();
         }
-        System.out.println(numMovementsConsidered + " movements considered");
-        System.out.println("Open set size: " + openSet.size());
-        System.out.println("PathNode map size: " + mapSize());
-        System.out.println((int) (numNodes * 1.0 / ((System.currentTimeMillis() - startTime) / 1000F)) + " nodes per second");
+        logDebug("Open set size " + openSet.size() + ", map size " + mapSize() + ", " + (int) (numNodes * 1.0 / ((System.currentTimeMillis() - startTime) / 1000F)) + " nodes per second");
         Optional<IPath> result = bestSoFar(true, numNodes);
         if (result.isPresent()) {
             logDebug("Took " + (System.currentTimeMillis() - startTime) + "ms, " + numMovementsConsidered + " movements considered");
         }
         return result;
     }
+
+    /**
+     * @param type The value of {@link baritone.api.Settings#pathingOpenSet}
+     * @return A new, empty open set of that type
+     */
+    static IOpenSet createOpenSet(String type) {
+        switch (type.toLowerCase(Locale.ROOT)) {
+            case "quaternary":
+                return new QuaternaryHeapOpenSet();
+            case "radix":
+                return new RadixHeapOpenSet();
+            case "binary":
+                return new BinaryHeapOpenSet();
+            default:
+                Helper.HELPER.logDebug("Unknown open set type " + type + ", using binary");
+                return new BinaryHeapOpenSet();
+        }
+    }
+
+    /**
+     * @param type  The value of {@link baritone.api.Settings#pathingOpenSet}
+     * @param store The node store the open set should order
+     * @return A new, empty open set of that type
+     */
+    private IPrimitiveOpenSet createPrimitiveOpenSet(String type, NodeStore store) {
+        switch (type.toLowerCase(Locale.ROOT)) {
+            case "quaternary":
+                return new PrimitiveQuaternaryHeapOpenSet(store);
+            case "radix":
+                return new PrimitiveRadixHeapOpenSet(store);
+            case "binary":
+                return new PrimitiveBinaryHeapOpenSet(store);
+            default:
+                logDebug("Unknown open set type " + type + ", using binary");
+                return new PrimitiveBinaryHeapOpenSet(store);
+        }
+    }
 }
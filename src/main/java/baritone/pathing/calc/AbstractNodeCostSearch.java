@@ -24,9 +24,14 @@ import baritone.api.pathing.goals.Goal;
 import baritone.api.utils.BetterBlockPos;
 import baritone.api.utils.Helper;
 import baritone.api.utils.PathCalculationResult;
+import baritone.pathing.calc.openset.IOpenSet;
+import baritone.pathing.calc.openset.IPrimitiveOpenSet;
 import baritone.pathing.movement.CalculationContext;
+import baritone.utils.pathing.Favoring;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 
+import java.util.Arrays;
 import java.util.Optional;
 
 /**
@@ -47,11 +52,27 @@ public abstract class AbstractNodeCostSearch implements IPathFinder, Helper {
      * @see <a href="https://github.com/cabaletta/baritone/issues/107">Issue #107</a>
      */
     private final Long2ObjectOpenHashMap<PathNode> map;
+    /**
+     * Only present when {@link baritone.api.Settings#pathingPrimitiveNodeStore} was on when this search was created
+     * and the search supports it, in which case {@link #map}, {@link #startNode}, {@link #mostRecentConsidered} and
+     * {@link #bestSoFar} go unused in favor of their int id counterparts
+     */
+    protected final NodeStore nodeStore;
+    protected final int[] bestSoFarIds = new int[COEFFICIENTS.length];
     protected PathNode startNode;
     protected PathNode mostRecentConsidered;
-    protected boolean cancelRequested;
+    protected int startNodeId = NodeStore.NONE;
+    protected int mostRecentConsideredId = NodeStore.NONE;
+    protected volatile boolean cancelRequested; // volatile since ParallelAStarPathFinder helpers poll it while waiting
     private volatile boolean isFinished;
 
+    protected final SearchStats stats = new SearchStats();
+
+    /**
+     * Whether to measure where the time goes, see {@link baritone.api.Settings#pathingMetricsTiming}
+     */
+    protected boolean timing;
+
     /**
      * This is really complicated and hard to explain. I wrote a comment in the old version of MineBot but it was so
      * long it was easier as a Google Doc (because I could insert charts).
@@ -75,12 +96,59 @@ public abstract class AbstractNodeCostSearch implements IPathFinder, Helper {
     protected static final double MIN_IMPROVEMENT = 0.01;
 
     AbstractNodeCostSearch(int startX, int startY, int startZ, Goal goal, CalculationContext context) {
+        this(startX, startY, startZ, goal, context, Baritone.settings().pathingPrimitiveNodeStore.value);
+    }
+
+    AbstractNodeCostSearch(int startX, int startY, int startZ, Goal goal, CalculationContext context, boolean primitiveNodeStore) {
         this.startX = startX;
         this.startY = startY;
         this.startZ = startZ;
         this.goal = goal;
         this.context = context;
-        this.map = new Long2ObjectOpenHashMap<>(Baritone.settings().pathingMapDefaultSize.value, Baritone.settings().pathingMapLoadFactor.value);
+        if (primitiveNodeStore) {
+            this.map = null;
+            this.nodeStore = new NodeStore(goal, Baritone.settings().pathingMapDefaultSize.value, Baritone.settings().pathingMapLoadFactor.value);
+        } else {
+            this.map = new Long2ObjectOpenHashMap<>(Baritone.settings().pathingMapDefaultSize.value, Baritone.settings().pathingMapLoadFactor.value);
+            this.nodeStore = null;
+        }
+        Arrays.fill(bestSoFarIds, NodeStore.NONE);
+    }
+
+    /**
+     * Creates a search that takes over the nodes of a finished one, towards the same goal but from a new start
+     *
+     * @param previous The finished search, which mustn't be used again afterwards
+     * @param startX   The x of the new start
+     * @param startY   The y of the new start
+     * @param startZ   The z of the new start
+     * @param context  The context to calculate with
+     */
+    AbstractNodeCostSearch(AbstractNodeCostSearch previous, int startX, int startY, int startZ, CalculationContext context) {
+        if (previous.map == null) {
+            throw new IllegalStateException("Can only take over the nodes of a search without a node store");
+        }
+        this.startX = startX;
+        this.startY = startY;
+        this.startZ = startZ;
+        this.goal = previous.goal;
+        this.context = context;
+        this.map = previous.map;
+        this.nodeStore = null;
+        Arrays.fill(bestSoFarIds, NodeStore.NONE);
+    }
+
+    /**
+     * @return What this search got up to, only complete once it's finished
+     */
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    protected void recordProgress(int numNodes, int numMovementsConsidered, int openSetPeak) {
+        stats.nodesExpanded = numNodes;
+        stats.movementsConsidered = numMovementsConsidered;
+        stats.openSetPeak = openSetPeak;
     }
 
     public void cancel() {
@@ -93,6 +161,9 @@ public abstract class AbstractNodeCostSearch implements IPathFinder, Helper {
             throw new IllegalStateException("Path finder cannot be reused!");
         }
         cancelRequested = false;
+        timing = Baritone.settings().pathingMetricsTiming.value;
+        long startTime = System.currentTimeMillis();
+        long[] cacheStatsBefore = context.bsi.getCacheStats();
         try {
             IPath path = calculate0(primaryTimeout, failureTimeout).map(IPath::postProcess).orElse(null);
             if (cancelRequested) {
@@ -125,6 +196,13 @@ public abstract class AbstractNodeCostSearch implements IPathFinder, Helper {
             return new PathCalculationResult(PathCalculationResult.Type.EXCEPTION);
         } finally {
             // this is run regardless of what exception may or may not be raised by calculate0
+            stats.durationMillis = System.currentTimeMillis() - startTime;
+            stats.nodeMapSize = mapSize();
+            long[] cacheStats = context.bsi.getCacheStats();
+            stats.chunkCacheHits = cacheStats[0] - cacheStatsBefore[0];
+            stats.chunkCacheMisses = cacheStats[1] - cacheStatsBefore[1];
+            stats.regionCacheHits = cacheStats[2] - cacheStatsBefore[2];
+            stats.regionCacheMisses = cacheStats[3] - cacheStatsBefore[3];
             isFinished = true;
         }
     }
@@ -146,6 +224,19 @@ public abstract class AbstractNodeCostSearch implements IPathFinder, Helper {
         return xDiff * xDiff + yDiff * yDiff + zDiff * zDiff;
     }
 
+    /**
+     * Same as {@link #getDistFromStartSq(PathNode)}, but for a node in the {@link #nodeStore}
+     *
+     * @param node A node id
+     * @return The distance, squared
+     */
+    protected double getDistFromStartSq(int node) {
+        int xDiff = nodeStore.x(node) - startX;
+        int yDiff = nodeStore.y(node) - startY;
+        int zDiff = nodeStore.z(node) - startZ;
+        return xDiff * xDiff + yDiff * yDiff + zDiff * zDiff;
+    }
+
     /**
      * Attempts to search the block position hashCode long to {@link PathNode} map
      * for the node mapped to the specified pos. If no node is found,
@@ -162,45 +253,201 @@ public abstract class AbstractNodeCostSearch implements IPathFinder, Helper {
     protected PathNode getNodeAtPosition(int x, int y, int z, long hashCode) {
         PathNode node = map.get(hashCode);
         if (node == null) {
-            node = new PathNode(x, y, z, goal);
+            if (timing) {
+                long start = System.nanoTime();
+                node = new PathNode(x, y, z, goal);
+                stats.heuristicNanos += System.nanoTime() - start;
+            } else {
+                node = new PathNode(x, y, z, goal);
+            }
             map.put(hashCode, node);
         }
         return node;
     }
 
+    /**
+     * @param hashCode The hash code of the position, see {@link BetterBlockPos#longHash(int, int, int)}
+     * @return The node at that position, or null if the search never got to it
+     */
+    protected PathNode getExistingNode(long hashCode) {
+        return map.get(hashCode);
+    }
+
+    /**
+     * The rest of expanding a node once its {@link Successors} are calculated: every neighbor that's now cheaper to get
+     * to goes (back) into the open set, and the best partial paths are kept track of.
+     *
+     * @param current            The node that was expanded
+     * @param successors         The movements out of it
+     * @param openSet            The open set
+     * @param favoring           The favoring to multiply costs by
+     * @param weight             What to multiply the heuristic by in the combined cost, 1 for plain A*
+     * @param minimumImprovement How much cheaper a new way to a node has to be to count
+     * @param bestHeuristicSoFar The best heuristics per coefficient so far, along with {@link #bestSoFar}, or null to
+     *                           not keep track of them
+     * @param failing            Whether none of the best partial paths goes far enough from the start to be used yet
+     * @return Whether that is still the case
+     */
+    protected final boolean relax(PathNode current, Successors successors, IOpenSet openSet, Favoring favoring, double weight, double minimumImprovement, double[] bestHeuristicSoFar, boolean failing) {
+        boolean isFavoring = !favoring.isEmpty();
+        for (int s = 0; s < successors.size; s++) {
+            int x = successors.x[s];
+            int y = successors.y[s];
+            int z = successors.z[s];
+            double actionCost = successors.cost[s];
+            long hashCode = BetterBlockPos.longHash(x, y, z);
+            if (isFavoring) {
+                // see issue #18
+                actionCost *= favoring.calculate(x, y, z, hashCode);
+            }
+            PathNode neighbor = getNodeAtPosition(x, y, z, hashCode);
+            double tentativeCost = current.cost + actionCost;
+            if (neighbor.cost - tentativeCost > minimumImprovement) {
+                neighbor.previous = current;
+                neighbor.previousMove = successors.move[s];
+                neighbor.cost = tentativeCost;
+                neighbor.combinedCost = tentativeCost + weight * neighbor.estimatedCostToGoal;
+                long heapStart = timing ? System.nanoTime() : 0;
+                if (neighbor.isOpen()) {
+                    openSet.update(neighbor);
+                } else {
+                    openSet.insert(neighbor);//dont double count, dont insert into open set if it's already there
+                }
+                if (timing) {
+                    stats.openSetNanos += System.nanoTime() - heapStart;
+                }
+                if (bestHeuristicSoFar == null) {
+                    continue;
+                }
+                for (int i = 0; i < COEFFICIENTS.length; i++) {
+                    double heuristic = neighbor.estimatedCostToGoal + neighbor.cost / COEFFICIENTS[i];
+                    if (bestHeuristicSoFar[i] - heuristic > minimumImprovement) {
+                        bestHeuristicSoFar[i] = heuristic;
+                        bestSoFar[i] = neighbor;
+                        if (failing && getDistFromStartSq(neighbor) > MIN_DIST_PATH * MIN_DIST_PATH) {
+                            failing = false;
+                        }
+                    }
+                }
+            }
+        }
+        stats.costNanos += successors.costNanos;
+        return failing;
+    }
+
+    /**
+     * The same as {@link #relax(PathNode, Successors, IOpenSet, Favoring, double, double, double[], boolean)}, for a node
+     * in the {@link #nodeStore}
+     */
+    protected final boolean relax(int current, Successors successors, IPrimitiveOpenSet openSet, Favoring favoring, double minimumImprovement, double[] bestHeuristicSoFar, boolean failing) {
+        NodeStore store = nodeStore;
+        boolean isFavoring = !favoring.isEmpty();
+        double currentCost = store.cost(current);
+        for (int s = 0; s < successors.size; s++) {
+            int x = successors.x[s];
+            int y = successors.y[s];
+            int z = successors.z[s];
+            double actionCost = successors.cost[s];
+            long hashCode = BetterBlockPos.longHash(x, y, z);
+            if (isFavoring) {
+                // see issue #18
+                actionCost *= favoring.calculate(x, y, z, hashCode);
+            }
+            int neighbor = store.getOrCreate(x, y, z, hashCode);
+            double tentativeCost = currentCost + actionCost;
+            if (store.cost(neighbor) - tentativeCost > minimumImprovement) {
+                store.setPrevious(neighbor, current);
+                store.setPreviousMove(neighbor, successors.move[s]);
+                store.setCost(neighbor, tentativeCost);
+                double estimatedCostToGoal = store.estimatedCostToGoal(neighbor);
+                store.setCombinedCost(neighbor, tentativeCost + estimatedCostToGoal);
+                long heapStart = timing ? System.nanoTime() : 0;
+                if (store.isOpen(neighbor)) {
+                    openSet.update(neighbor);
+                } else {
+                    openSet.insert(neighbor);//dont double count, dont insert into open set if it's already there
+                }
+                if (timing) {
+                    stats.openSetNanos += System.nanoTime() - heapStart;
+                }
+                for (int i = 0; i < COEFFICIENTS.length; i++) {
+                    double heuristic = estimatedCostToGoal + tentativeCost / COEFFICIENTS[i];
+                    if (bestHeuristicSoFar[i] - heuristic > minimumImprovement) {
+                        bestHeuristicSoFar[i] = heuristic;
+                        bestSoFarIds[i] = neighbor;
+                        if (failing && getDistFromStartSq(neighbor) > MIN_DIST_PATH * MIN_DIST_PATH) {
+                            failing = false;
+                        }
+                    }
+                }
+            }
+        }
+        stats.costNanos += successors.costNanos;
+        return failing;
+    }
+
+    /**
+     * @return Every node this search has created so far
+     */
+    protected PathNode[] nodes() {
+        return map.values().toArray(new PathNode[0]);
+    }
+
     @Override
     public Optional<IPath> pathToMostRecentNodeConsidered() {
+        if (nodeStore != null) {
+            int node = mostRecentConsideredId;
+            if (node == NodeStore.NONE) {
+                return Optional.empty();
+            }
+            return pathTo(node, 0, context);
+        }
         return Optional.ofNullable(mostRecentConsidered).map(node -> new Path(startNode, node, 0, goal, context));
     }
 
+    /**
+     * @return The path to a node in the {@link #nodeStore}, or empty if this isn't the search thread and it has
+     * changed the store in a way that can't be followed yet
+     */
+    protected final Optional<IPath> pathTo(int node, int numNodes, CalculationContext context) {
+        NodeStore.Columns nodes = nodeStore.published(); // read once, so that it doesn't change part way through
+        IntArrayList chain = nodes.chain(node);
+        if (chain == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new Path(nodes, chain, numNodes, goal, context));
+    }
+
     @Override
     public Optional<IPath> bestPathSoFar() {
         return bestSoFar(false, 0);
     }
 
     protected Optional<IPath> bestSoFar(boolean logInfo, int numNodes) {
-        if (startNode == null) {
+        if (nodeStore == null ? startNode == null : startNodeId == NodeStore.NONE) {
             return Optional.empty();
         }
         double bestDist = 0;
         for (int i = 0; i < COEFFICIENTS.length; i++) {
-            if (bestSoFar[i] == null) {
+            int bestId = bestSoFarIds[i];
+            if (nodeStore == null ? bestSoFar[i] == null : bestId == NodeStore.NONE) {
                 continue;
             }
-            double dist = getDistFromStartSq(bestSoFar[i]);
+            double dist = nodeStore == null ? getDistFromStartSq(bestSoFar[i]) : getDistFromStartSq(bestId);
             if (dist > bestDist) {
                 bestDist = dist;
             }
             if (dist > MIN_DIST_PATH * MIN_DIST_PATH) { // square the comparison since distFromStartSq is squared
                 if (logInfo) {
                     if (COEFFICIENTS[i] >= 3) {
-                        System.out.println("Warning: cost coefficient is greater than three! Probably means that");
-                        System.out.println("the path I found is pretty terrible (like sneak-bridging for dozens of blocks)");
-                        System.out.println("But I'm going to do it anyway, because yolo");
+                        logDebug("Warning: cost coefficient is greater than three! Probably means that the path I found is pretty terrible (like sneak-bridging for dozens of blocks), but I'm going to do it anyway");
                     }
-                    System.out.println("Path goes for " + Math.sqrt(dist) + " blocks");
+                    logDebug("Path goes for " + Math.sqrt(dist) + " blocks");
                     logDebug("A* cost coefficient " + COEFFICIENTS[i]);
                 }
+                if (nodeStore != null) {
+                    return pathTo(bestId, numNodes, context);
+                }
                 return Optional.of(new Path(startNode, bestSoFar[i], numNodes, goal, context));
             }
         }
@@ -229,6 +476,6 @@ public abstract class AbstractNodeCostSearch implements IPathFinder, Helper {
     }
 
     protected int mapSize() {
-        return map.size();
+        return nodeStore == null ? map.size() : nodeStore.size();
     }
 }
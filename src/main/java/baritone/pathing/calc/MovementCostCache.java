@@ -0,0 +1,238 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc;
+
+import baritone.api.pathing.movement.ActionCosts;
+import baritone.pathing.movement.CalculationContext;
+import baritone.pathing.movement.Moves;
+import baritone.utils.pathing.MutableMoveResult;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers the result of {@link Moves#apply(CalculationContext, int, int, int, MutableMoveResult)} across
+ * calculations, so that the next segment, the plan ahead and recalculations don't cost the same blocks all over again.
+ * <p>
+ * It's a fixed size, direct mapped table keyed by the exact source position and move, where a newer entry simply
+ * replaces whatever was in its slot. An entry only counts if it was stored under the same generation, i.e. a context
+ * with the same settings, inventory and AltoClef rules (see {@link #generation(long)}), and if nothing in or next to
+ * its chunk has changed since it was calculated (see {@link #invalidateChunk(int, int)}).
+ */
+public final class MovementCostCache {
+
+    /**
+     * How many chunk change counters there are, chunks share them modulo this, which only ever invalidates too much
+     */
+    private static final int EPOCH_BITS = 12;
+    private static final int EPOCHS = 1 << EPOCH_BITS;
+
+    private static final int LOCKS = 64;
+
+    private final int mask;
+    private final long[] keys;
+    private final byte[] moves;
+    private final int[] generations;
+    private final int[] epochs;
+    private final double[] costs;
+
+    /**
+     * Destination relative to the source, see {@link #packDestination(int, int, int)}
+     */
+    private final int[] destinations;
+
+    private final Object[] locks = new Object[LOCKS];
+
+    private final AtomicIntegerArray chunkEpochs = new AtomicIntegerArray(EPOCHS);
+
+    private long fingerprint;
+    private int generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * @param size The number of entries, rounded up to a power of two
+     */
+    public MovementCostCache(int size) {
+        int capacity = Integer.highestOneBit(Math.max(size, LOCKS) - 1) << 1;
+        this.mask = capacity - 1;
+        this.keys = new long[capacity];
+        this.moves = new byte[capacity];
+        this.generations = new int[capacity];
+        this.epochs = new int[capacity];
+        this.costs = new double[capacity];
+        this.destinations = new int[capacity];
+        for (int i = 0; i < LOCKS; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * @param fingerprint Everything that the costs depend on besides the blocks, hashed together
+     * @return The generation to store and look up costs under, the same one as last time if the fingerprint matches
+     */
+    public synchronized int generation(long fingerprint) {
+        if (generation == 0 || fingerprint != this.fingerprint) {
+            generation++; // 0 is what every empty slot has, never hand it out
+            this.fingerprint = fingerprint;
+        }
+        return generation;
+    }
+
+    /**
+     * Forgets everything, e.g. when the player has been moved to another world
+     */
+    public synchronized void clear() {
+        generation++;
+    }
+
+    /**
+     * Equivalent to {@link Moves#apply(CalculationContext, int, int, int, MutableMoveResult)}, except it's answered
+     * from the table if possible, and the result is stored if it had to be calculated
+     *
+     * @param context The context to calculate with, its {@link CalculationContext#costCacheGeneration} is used
+     * @param move    The move to apply
+     * @param x       The x of the source
+     * @param y       The y of the source
+     * @param z       The z of the source
+     * @param result  Where to put the result, already {@link MutableMoveResult#reset()}
+     */
+    public void apply(CalculationContext context, Moves move, int x, int y, int z, MutableMoveResult result) {
+        int generation = context.costCacheGeneration;
+        long key = packPosition(x, y, z);
+        int ordinal = move.ordinal();
+        int slot = slot(key, ordinal);
+        // read before calculating, so that a change while we're calculating leaves the entry stale
+        int epoch = chunkEpochs.get(epochIndex(x >> 4, z >> 4));
+        synchronized (locks[slot & (LOCKS - 1)]) {
+            if (keys[slot] == key && moves[slot] == ordinal && generations[slot] == generation && epochs[slot] == epoch) {
+                double cost = costs[slot];
+                if (cost < ActionCosts.COST_INF) {
+                    int destination = destinations[slot];
+                    result.x = x + ((destination << 27) >> 27);
+                    result.z = z + ((destination << 22) >> 27);
+                    result.y = y + (destination >> 10);
+                }
+                result.cost = cost;
+                hits.increment();
+                return;
+            }
+        }
+        misses.increment();
+        move.apply(context, x, y, z, result);
+        int destination = 0;
+        if (result.cost < ActionCosts.COST_INF) {
+            int dx = result.x - x;
+            int dy = result.y - y;
+            int dz = result.z - z;
+            if (dx < -16 || dx > 15 || dz < -16 || dz > 15 || dy < -(1 << 21) || dy >= 1 << 21) {
+                return; // doesn't fit, no move goes that far anyway
+            }
+            destination = packDestination(dx, dy, dz);
+        }
+        synchronized (locks[slot & (LOCKS - 1)]) {
+            keys[slot] = key;
+            moves[slot] = (byte) ordinal;
+            generations[slot] = generation;
+            epochs[slot] = epoch;
+            costs[slot] = result.cost;
+            destinations[slot] = destination;
+        }
+    }
+
+    /**
+     * Makes every cost calculated from a position in or next to this chunk stale. Movements look at most a few blocks
+     * sideways from where they start, so the neighbours cover everything that could have read a block in this chunk.
+     *
+     * @param chunkX The chunk x
+     * @param chunkZ The chunk z
+     */
+    public void invalidateChunk(int chunkX, int chunkZ) {
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dz = -1; dz <= 1; dz++) {
+                chunkEpochs.incrementAndGet(epochIndex(chunkX + dx, chunkZ + dz));
+            }
+        }
+        invalidations.increment();
+    }
+
+    /**
+     * @return The current change counter of every chunk, to compare against later with {@link #changedSince(int[], int, int)}
+     */
+    public int[] snapshot() {
+        int[] snapshot = new int[EPOCHS];
+        for (int i = 0; i < EPOCHS; i++) {
+            snapshot[i] = chunkEpochs.get(i);
+        }
+        return snapshot;
+    }
+
+    /**
+     * @param snapshot A {@link #snapshot()}
+     * @param x        The block x
+     * @param z        The block z
+     * @return Whether anything in or next to the chunk at this position might have changed since the snapshot
+     */
+    public boolean changedSince(int[] snapshot, int x, int z) {
+        int index = epochIndex(x >> 4, z >> 4);
+        return chunkEpochs.get(index) != snapshot[index];
+    }
+
+    /**
+     * @return The fraction of lookups that were answered from the table, since it was created
+     */
+    public double hitRate() {
+        long hits = this.hits.sum();
+        long total = hits + misses.sum();
+        return total == 0 ? 0 : hits / (double) total;
+    }
+
+    public String stats() {
+        long hits = this.hits.sum();
+        long misses = this.misses.sum();
+        return String.format("Movement cost cache: %d hits, %d misses (%.1f%% hit rate), %d chunk invalidations, %d entries, generation %d",
+                hits, misses, hitRate() * 100, invalidations.sum(), keys.length, generation);
+    }
+
+    private int slot(long key, int ordinal) {
+        long hash = (key ^ ordinal * 0x9E3779B97F4A7C15L) * 0xC2B2AE3D27D4EB4FL;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static int epochIndex(int chunkX, int chunkZ) {
+        // the top bits of a multiplicative hash depend on every bit of both coordinates
+        long hash = ((long) chunkX << 32 | chunkZ & 0xFFFFFFFFL) * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> (64 - EPOCH_BITS));
+    }
+
+    /**
+     * Exact for anything inside the world border and the build height
+     */
+    private static long packPosition(int x, int y, int z) {
+        return (x & 0x3FFFFFFL) | (z & 0x3FFFFFFL) << 26 | (y & 0xFFFL) << 52;
+    }
+
+    /**
+     * 5 bits each for x and z, the remaining 22 for y, which is the only one that can go far (falling)
+     */
+    private static int packDestination(int dx, int dy, int dz) {
+        return (dx & 31) | (dz & 31) << 5 | dy << 10;
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc;
+
+import baritone.altoclef.AltoClefSettings;
+import baritone.api.pathing.goals.Goal;
+import baritone.api.pathing.movement.ActionCosts;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+
+import java.util.Arrays;
+
+/**
+ * Struct-of-arrays replacement for a graph of {@link PathNode} objects. Every node is identified by an int id, and
+ * all of its fields live in parallel primitive arrays indexed by that id, so a search doesn't allocate anything per
+ * node (other than the occasional array doubling).
+ * <p>
+ * Ids are handed out sequentially starting at zero, and {@link #NONE} is used wherever a {@link PathNode} reference
+ * would have been null.
+ */
+public final class NodeStore {
+
+    /**
+     * The id that stands in for "no node", like a null {@link PathNode#previous}
+     */
+    public static final int NONE = -1;
+
+    private final Goal goal;
+
+    /**
+     * Block position hashCode long to node id, see {@link baritone.api.utils.BetterBlockPos#longHash(int, int, int)}
+     */
+    private final Long2IntOpenHashMap index;
+
+    private int size;
+
+    /**
+     * The node fields, swapped for bigger copies when they fill up. Only the search thread writes to them.
+     */
+    private Columns columns;
+
+    /**
+     * The same as {@link #columns}, for other threads, e.g. rendering the most recent node considered. There's no
+     * happens-before between the search writing a node and another thread reading it, but reading this once and only
+     * using what it points at means every array has the same length, however the search grows them in the meantime.
+     */
+    private volatile Columns published;
+
+    public NodeStore(Goal goal, int expectedSize, float loadFactor) {
+        this.goal = goal;
+        this.index = new Long2IntOpenHashMap(expectedSize, loadFactor);
+        this.index.defaultReturnValue(NONE);
+        this.columns = new Columns(Math.max(expectedSize, 16));
+        this.published = columns;
+    }
+
+    /**
+     * Equivalent of {@link AbstractNodeCostSearch#getNodeAtPosition(int, int, int, long)}, returns the id of the node
+     * at the specified position, creating it if it doesn't exist yet.
+     *
+     * @param x        The x position of the node
+     * @param y        The y position of the node
+     * @param z        The z position of the node
+     * @param hashCode The hash code of the node, provided by {@link baritone.api.utils.BetterBlockPos#longHash(int, int, int)}
+     * @return The id of the associated node
+     */
+    public int getOrCreate(int x, int y, int z, long hashCode) {
+        int id = index.get(hashCode);
+        if (id == NONE) {
+            id = create(x, y, z);
+            index.put(hashCode, id);
+        }
+        return id;
+    }
+
+    private int create(int x, int y, int z) {
+        double originalCost = goal.heuristic(x, y, z);
+        if (Double.isNaN(originalCost)) {
+            throw new IllegalStateException(goal + " calculated implausible heuristic");
+        }
+        double estimate = AltoClefSettings.getInstance().applyGlobalHeuristic(originalCost, x, y, z);
+        if (Double.isNaN(estimate)) {
+            throw new IllegalStateException(goal + " calculated implausible heuristic");
+        }
+        Columns columns = this.columns;
+        if (size == columns.x.length) {
+            columns = grow();
+        }
+        int id = size;
+        columns.x[id] = x;
+        columns.y[id] = y;
+        columns.z[id] = z;
+        columns.estimatedCostToGoal[id] = estimate;
+        columns.cost[id] = ActionCosts.COST_INF;
+        columns.combinedCost[id] = 0;
+        columns.previous[id] = NONE;
+        columns.previousMove[id] = -1;
+        columns.heapPosition[id] = -1;
+        size++;
+        return id;
+    }
+
+    private Columns grow() {
+        columns = new Columns(columns, columns.x.length << 1);
+        published = columns;
+        return columns;
+    }
+
+    /**
+     * @return The node fields as they are now, for reading from a thread other than the one searching, see
+     * {@link #published}
+     */
+    Columns published() {
+        return published;
+    }
+
+    /**
+     * @return The number of nodes created so far, i.e. the equivalent of the PathNode map size
+     */
+    public int size() {
+        return size;
+    }
+
+    public int x(int node) {
+        return columns.x[node];
+    }
+
+    public int y(int node) {
+        return columns.y[node];
+    }
+
+    public int z(int node) {
+        return columns.z[node];
+    }
+
+    /**
+     * @see PathNode#estimatedCostToGoal
+     */
+    public double estimatedCostToGoal(int node) {
+        return columns.estimatedCostToGoal[node];
+    }
+
+    /**
+     * @see PathNode#cost
+     */
+    public double cost(int node) {
+        return columns.cost[node];
+    }
+
+    public void setCost(int node, double cost) {
+        columns.cost[node] = cost;
+    }
+
+    /**
+     * @see PathNode#combinedCost
+     */
+    public double combinedCost(int node) {
+        return columns.combinedCost[node];
+    }
+
+    public void setCombinedCost(int node, double combinedCost) {
+        columns.combinedCost[node] = combinedCost;
+    }
+
+    /**
+     * @see PathNode#previous
+     */
+    public int previous(int node) {
+        return columns.previous[node];
+    }
+
+    public void setPrevious(int node, int previous) {
+        columns.previous[node] = previous;
+    }
+
+    /**
+     * @see PathNode#previousMove
+     */
+    public byte previousMove(int node) {
+        return columns.previousMove[node];
+    }
+
+    public void setPreviousMove(int node, byte previousMove) {
+        columns.previousMove[node] = previousMove;
+    }
+
+    /**
+     * @see PathNode#heapPosition
+     */
+    public int heapPosition(int node) {
+        return columns.heapPosition[node];
+    }
+
+    public void setHeapPosition(int node, int heapPosition) {
+        columns.heapPosition[node] = heapPosition;
+    }
+
+    /**
+     * @see PathNode#isOpen()
+     */
+    public boolean isOpen(int node) {
+        return columns.heapPosition[node] != -1;
+    }
+
+    /**
+     * All of the node fields, in parallel arrays of the same length
+     */
+    static final class Columns {
+
+        final int[] x;
+        final int[] y;
+        final int[] z;
+        final double[] estimatedCostToGoal;
+        final double[] cost;
+        final double[] combinedCost;
+        final int[] previous;
+        final byte[] previousMove;
+        final int[] heapPosition;
+
+        private Columns(int capacity) {
+            this.x = new int[capacity];
+            this.y = new int[capacity];
+            this.z = new int[capacity];
+            this.estimatedCostToGoal = new double[capacity];
+            this.cost = new double[capacity];
+            this.combinedCost = new double[capacity];
+            this.previous = new int[capacity];
+            this.previousMove = new byte[capacity];
+            this.heapPosition = new int[capacity];
+        }
+
+        private Columns(Columns from, int capacity) {
+            this.x = Arrays.copyOf(from.x, capacity);
+            this.y = Arrays.copyOf(from.y, capacity);
+            this.z = Arrays.copyOf(from.z, capacity);
+            this.estimatedCostToGoal = Arrays.copyOf(from.estimatedCostToGoal, capacity);
+            this.cost = Arrays.copyOf(from.cost, capacity);
+            this.combinedCost = Arrays.copyOf(from.combinedCost, capacity);
+            this.previous = Arrays.copyOf(from.previous, capacity);
+            this.previousMove = Arrays.copyOf(from.previousMove, capacity);
+            this.heapPosition = Arrays.copyOf(from.heapPosition, capacity);
+        }
+
+        /**
+         * @param end The id of the last node
+         * @return The ids from {@code end} back to the start, following {@link #previous}, or null if they don't form a
+         * chain in these arrays, which can happen when another thread is still searching
+         */
+        IntArrayList chain(int end) {
+            IntArrayList chain = new IntArrayList();
+            for (int current = end; current != NONE; current = previous[current]) {
+                if (current < 0 || current >= previous.length || chain.size() == previous.length) {
+                    return null;
+                }
+                chain.add(current);
+            }
+            return chain;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc;
+
+import baritone.Baritone;
+import baritone.api.pathing.calc.IPath;
+import baritone.api.pathing.goals.Goal;
+import baritone.api.utils.BetterBlockPos;
+import baritone.pathing.calc.openset.IOpenSet;
+import baritone.pathing.movement.CalculationContext;
+import baritone.utils.TaskScheduler;
+import baritone.utils.pathing.Favoring;
+
+import java.util.Optional;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A* that expands several nodes at once, spread over multiple threads.
+ * <p>
+ * Almost all of the time in {@link AStarPathFinder} goes into calculating movement costs, which only depends on the
+ * world and not on the rest of the search. So each round, this takes the {@link #BATCH_PER_THREAD} best nodes per
+ * thread off the open set, has every thread calculate the movements out of its share of them with its own
+ * {@link CalculationContext}, then goes through the results on the calling thread in the same way
+ * {@link AStarPathFinder} would have. Node map, open set and best so far are only ever touched by the calling thread.
+ * <p>
+ * Since nodes are expanded a few at a time instead of strictly one by one, some of them get expanded before their
+ * best cost is known and are expanded again later. That's wasted work, but the result is still a valid path, and the
+ * costs are always correct.
+ */
+public final class ParallelAStarPathFinder extends AbstractNodeCostSearch {
+
+    /**
+     * How many nodes each thread gets per round. Fewer means less wasted work, more means less waiting on each other
+     */
+    private static final int BATCH_PER_THREAD = 8;
+
+    private final Favoring favoring;
+    private final CalculationContext calcContext;
+    private final CalculationContext[] contexts;
+    private final int threads;
+
+    private final PathNode[] batch;
+    private int batchSize;
+
+    /**
+     * The movements out of every node in the batch, at the same index
+     */
+    private final Successors[] successors;
+
+    /**
+     * How long a thread waits at the barrier before checking whether the search was canceled or is out of time
+     */
+    private static final long AWAIT_SLICE_MS = 50;
+
+    /**
+     * How much longer than the failure timeout a thread waits for the others before giving up on them, a round takes
+     * far less than this
+     */
+    private static final long AWAIT_GRACE_MS = 1000;
+
+    /**
+     * Every round, the threads meet here once the batch is ready and once it's expanded. Terminated once the search is
+     * over, or as soon as any thread fails, so that nobody is left waiting on a thread that's gone.
+     */
+    private final Phaser phaser;
+    private volatile long deadline;
+    private volatile Throwable workerFailure;
+
+    public ParallelAStarPathFinder(int startX, int startY, int startZ, Goal goal, Favoring favoring, CalculationContext context, int threads) {
+        super(startX, startY, startZ, goal, context, false);
+        this.favoring = favoring;
+        this.calcContext = context;
+        this.threads = threads;
+        this.contexts = new CalculationContext[threads];
+        this.contexts[0] = context;
+        for (int i = 1; i < threads; i++) {
+            this.contexts[i] = new CalculationContext(context);
+        }
+        int size = threads * BATCH_PER_THREAD;
+        this.batch = new PathNode[size];
+        this.successors = new Successors[size];
+        for (int i = 0; i < size; i++) {
+            this.successors[i] = new Successors();
+        }
+        this.phaser = new Phaser(threads);
+    }
+
+    @Override
+    protected Optional<IPath> calculate0(long primaryTimeout, long failureTimeout) {
+        deadline = System.currentTimeMillis() + (Baritone.settings().slowPath.value ? Baritone.settings().slowPathTimeoutMS.value : failureTimeout) + AWAIT_GRACE_MS;
+        try {
+            for (int i = 1; i < threads; i++) {
+                int thread = i;
+                // the workers wait on each other, so they can't be queued behind anything
+                Baritone.getScheduler().execute(TaskScheduler.Lane.BACKGROUND, () -> work(thread));
+            }
+            return search(primaryTimeout, failureTimeout);
+        } finally {
+            phaser.forceTermination(); // lets the workers return, wherever they are
+        }
+    }
+
+    private void work(int thread) {
+        try {
+            while (await()) {
+                expand(thread);
+                if (!await()) {
+                    return;
+                }
+            }
+        } catch (Throwable t) {
+            workerFailure = t;
+            phaser.forceTermination(); // don't leave the others waiting for this thread
+        }
+    }
+
+    private Optional<IPath> search(long primaryTimeout, long failureTimeout) {
+        startNode = getNodeAtPosition(startX, startY, startZ, BetterBlockPos.longHash(startX, startY, startZ));
+        startNode.cost = 0;
+        startNode.combinedCost = startNode.estimatedCostToGoal;
+        IOpenSet openSet = AStarPathFinder.createOpenSet(Baritone.settings().pathingOpenSet.value);
+        openSet.insert(startNode);
+        double[] bestHeuristicSoFar = new double[COEFFICIENTS.length];//keep track of the best node by the metric of (estimatedCostToGoal + cost / COEFFICIENTS[i])
+        for (int i = 0; i < bestHeuristicSoFar.length; i++) {
+            bestHeuristicSoFar[i] = startNode.estimatedCostToGoal;
+            bestSoFar[i] = startNode;
+        }
+        long startTime = System.currentTimeMillis();
+        boolean slowPath = Baritone.settings().slowPath.value;
+        if (slowPath) {
+            logDebug("slowPath is on, path timeout will be " + Baritone.settings().slowPathTimeoutMS.value + "ms instead of " + primaryTimeout + "ms");
+        }
+        long primaryTimeoutTime = startTime + (slowPath ? Baritone.settings().slowPathTimeoutMS.value : primaryTimeout);
+        long failureTimeoutTime = startTime + (slowPath ? Baritone.settings().slowPathTimeoutMS.value : failureTimeout);
+        boolean failing = true;
+        int numNodes = 0;
+        int numMovementsConsidered = 0;
+        int numEmptyChunk = 0;
+        int pathingMaxChunkBorderFetch = Baritone.settings().pathingMaxChunkBorderFetch.value; // grab all settings beforehand so that changing settings during pathing doesn't cause a crash or unpredictable behavior
+        double minimumImprovement = Baritone.settings().minimumImprovementRepropagation.value ? MIN_IMPROVEMENT : 0;
+        boolean timing = this.timing;
+        int openSetPeak = 0;
+        while (!openSet.isEmpty() && numEmptyChunk < pathingMaxChunkBorderFetch && !cancelRequested) {
+            // a round takes about as long as 64 nodes in AStarPathFinder, so check every time
+            long now = System.currentTimeMillis();
+            if (now - failureTimeoutTime >= 0 || (!failing && now - primaryTimeoutTime >= 0)) {
+                break;
+            }
+            if (slowPath) {
+                try {
+                    Thread.sleep(Baritone.settings().slowPathTimeDelayMS.value);
+                } catch (InterruptedException ignored) {
+                }
+            }
+            if (openSet.size() > openSetPeak) {
+                openSetPeak = openSet.size();
+            }
+            batchSize = 0;
+            while (batchSize < batch.length && !openSet.isEmpty()) {
+                long heapStart = timing ? System.nanoTime() : 0;
+                PathNode currentNode = openSet.removeLowest();
+                if (timing) {
+                    stats.openSetNanos += System.nanoTime() - heapStart;
+                }
+                mostRecentConsidered = currentNode;
+                numNodes++;
+                if (goal.isInGoal(currentNode.x, currentNode.y, currentNode.z)) {
+                    recordProgress(numNodes, numMovementsConsidered, openSetPeak);
+                    logDebug("Took " + (System.currentTimeMillis() - startTime) + "ms, " + numMovementsConsidered + " movements considered");
+                    return Optional.of(new Path(startNode, currentNode, numNodes, goal, calcContext));
+                }
+                batch[batchSize++] = currentNode;
+            }
+            boolean expanded = await();
+            if (expanded) {
+                expand(0);
+                expanded = await();
+            }
+            Throwable failure = workerFailure;
+            if (failure != null) {
+                throw new IllegalStateException("Parallel path calculation thread failed", failure);
+            }
+            if (!expanded) {
+                break; // canceled, or a thread never showed up
+            }
+            for (int b = 0; b < batchSize; b++) {
+                PathNode currentNode = batch[b];
+                batch[b] = null;
+                numEmptyChunk += successors[b].emptyChunks;
+                numMovementsConsidered += successors[b].movementsConsidered;
+                // currentNode.cost might have gone down since it was taken off the open set, if an earlier node of
+                // this batch found a better way to it. It's back in the open set then, but the costs calculated
+                // from here still hold, so may as well use them with the better cost.
+                failing = relax(currentNode, successors[b], openSet, favoring, 1, minimumImprovement, bestHeuristicSoFar, failing);
+            }
+        }
+        recordProgress(numNodes, numMovementsConsidered, openSetPeak);
+        if (cancelRequested) {
+            return Optional.empty();
+        }
+        logDebug("Open set size " + openSet.size() + ", map size " + mapSize() + ", " + (int) (numNodes * 1.0 / ((System.currentTimeMillis() - startTime) / 1000F)) + " nodes per second on " + threads + " threads");
+        Optional<IPath> result = bestSoFar(true, numNodes);
+        if (result.isPresent()) {
+            logDebug("Took " + (System.currentTimeMillis() - startTime) + "ms, " + numMovementsConsidered + " movements considered");
+        }
+        return result;
+    }
+
+    /**
+     * Calculates every movement out of this thread's share of the batch, up to the point where the node map would be
+     * needed
+     *
+     * @param thread Which thread this is, 0 being the calling one
+     */
+    private void expand(int thread) {
+        CalculationContext context = contexts[thread];
+        boolean timing = this.timing; // seen by the other threads since it was set before they were started
+        for (int b = thread; b < batchSize; b += threads) {
+            PathNode currentNode = batch[b];
+            successors[b].generate(context, currentNode.x, currentNode.y, currentNode.z, timing);
+        }
+    }
+
+    /**
+     * Waits for every other thread to get here too
+     *
+     * @return False if the search is over instead, because it's done, was canceled, ran out of time, or a thread failed
+     */
+    private boolean await() {
+        int phase = phaser.arrive();
+        if (phase < 0) {
+            return false;
+        }
+        while (true) {
+            try {
+                return phaser.awaitAdvanceInterruptibly(phase, AWAIT_SLICE_MS, TimeUnit.MILLISECONDS) >= 0;
+            } catch (TimeoutException ex) {
+                if (cancelRequested || System.currentTimeMillis() - deadline >= 0) {
+                    phaser.forceTermination();
+                    return false;
+                }
+            } catch (InterruptedException ex) {
+                phaser.forceTermination();
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+}
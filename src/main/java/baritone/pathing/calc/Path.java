@@ -17,6 +17,7 @@
 
 package baritone.pathing.calc;
 
+import baritone.Baritone;
 import baritone.api.pathing.calc.IPath;
 import baritone.api.pathing.goals.Goal;
 import baritone.api.pathing.movement.IMovement;
@@ -27,19 +28,25 @@ import baritone.pathing.movement.Movement;
 import baritone.pathing.movement.Moves;
 import baritone.pathing.path.CutoffPath;
 import baritone.utils.pathing.PathBase;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 
 /**
  * A node based implementation of IPath
+ * <p>
+ * The search records which move reached each node, so the movements are created straight from those, one at a time
+ * as they're first asked for, instead of all of them being worked out again before the path can start.
  *
  * @author leijurv
  */
 class Path extends PathBase {
 
+    private static final Moves[] ALL_MOVES = Moves.values();
+
     /**
      * The start position of this path
      */
@@ -56,9 +63,32 @@ class Path extends PathBase {
      */
     private final List<BetterBlockPos> path;
 
-    private final List<Movement> movements;
+    /**
+     * The ordinal of the move from each position in {@link #path} to the next, or -1 if the search didn't say
+     */
+    private final byte[] steps;
+
+    /**
+     * The movements created so far, see {@link #movement(int)}
+     */
+    private final Movement[] movements;
+
+    private final List<IMovement> movementList = new AbstractList<IMovement>() {
+        @Override
+        public IMovement get(int index) {
+            return movement(index);
+        }
 
-    private final List<PathNode> nodes;
+        @Override
+        public int size() {
+            return steps.length;
+        }
+    };
+
+    /**
+     * The cost to get to each position in {@link #path} from the start, as recorded by the search
+     */
+    private final double[] costs;
 
     private final Goal goal;
 
@@ -69,27 +99,53 @@ class Path extends PathBase {
     private volatile boolean verified;
 
     Path(PathNode start, PathNode end, int numNodes, Goal goal, CalculationContext context) {
-        this.start = new BetterBlockPos(start.x, start.y, start.z);
-        this.end = new BetterBlockPos(end.x, end.y, end.z);
         this.numNodes = numNodes;
-        this.movements = new ArrayList<>();
         this.goal = goal;
         this.context = context;
-        PathNode current = end;
-        LinkedList<BetterBlockPos> tempPath = new LinkedList<>();
-        LinkedList<PathNode> tempNodes = new LinkedList<>();
-        // Repeatedly inserting to the beginning of an arraylist is O(n^2)
-        // Instead, do it into a linked list, then convert at the end
-        while (current != null) {
-            tempNodes.addFirst(current);
-            tempPath.addFirst(new BetterBlockPos(current.x, current.y, current.z));
-            current = current.previous;
+        int length = 0;
+        for (PathNode current = end; current != null; current = current.previous) {
+            length++;
+        }
+        BetterBlockPos[] positions = new BetterBlockPos[length];
+        this.costs = new double[length];
+        this.steps = new byte[length - 1];
+        int i = length;
+        for (PathNode current = end; current != null; current = current.previous) {
+            positions[--i] = new BetterBlockPos(current.x, current.y, current.z);
+            costs[i] = current.cost;
+            if (i > 0) {
+                steps[i - 1] = current.previousMove;
+            }
+        }
+        this.movements = new Movement[steps.length];
+        this.path = Arrays.asList(positions);
+        this.start = positions[0];
+        this.end = positions[length - 1];
+    }
+
+    /**
+     * @param chain The ids of the nodes on the path, from the end back, see {@link NodeStore.Columns#chain(int)}
+     */
+    Path(NodeStore.Columns nodes, IntArrayList chain, int numNodes, Goal goal, CalculationContext context) {
+        this.numNodes = numNodes;
+        this.goal = goal;
+        this.context = context;
+        int length = chain.size();
+        BetterBlockPos[] positions = new BetterBlockPos[length];
+        this.costs = new double[length];
+        this.steps = new byte[length - 1];
+        for (int i = 0; i < length; i++) {
+            int node = chain.getInt(length - 1 - i);
+            positions[i] = new BetterBlockPos(nodes.x[node], nodes.y[node], nodes.z[node]);
+            costs[i] = nodes.cost[node];
+            if (i > 0) {
+                steps[i - 1] = nodes.previousMove[node];
+            }
         }
-        // Can't directly convert from the PathNode pseudo linked list to an array because we don't know how long it is
-        // inserting into a LinkedList<E> keeps track of length, then when we addall (which calls .toArray) it's able
-        // to performantly do that conversion since it knows the length.
-        this.path = new ArrayList<>(tempPath);
-        this.nodes = new ArrayList<>(tempNodes);
+        this.movements = new Movement[steps.length];
+        this.path = Arrays.asList(positions);
+        this.start = positions[0];
+        this.end = positions[length - 1];
     }
 
     @Override
@@ -97,50 +153,110 @@ class Path extends PathBase {
         return goal;
     }
 
-    private boolean assembleMovements() {
-        if (path.isEmpty() || !movements.isEmpty()) {
-            throw new IllegalStateException();
+    /**
+     * Creates the movement from position {@code i} to the next one, if that hasn't happened yet. Anything executing
+     * the path should use {@link #tryMovement(int)} instead, which doesn't throw if that's no longer possible.
+     */
+    private synchronized Movement movement(int i) {
+        Movement move = tryMovement(i);
+        if (move == null) { // postProcess already cut the path before any step this could happen for
+            throw new IllegalStateException("No movement from " + path.get(i) + " to " + path.get(i + 1));
+        }
+        return move;
+    }
+
+    @Override
+    public synchronized Movement tryMovement(int i) {
+        Movement move = movements[i];
+        if (move != null) {
+            return move;
+        }
+        BetterBlockPos src = path.get(i);
+        BetterBlockPos dest = path.get(i + 1);
+        if (steps[i] >= 0) {
+            move = ALL_MOVES[steps[i]].apply0(context, src);
+            if (!move.getDest().equals(dest)) {
+                move = null; // a dynamic destination that comes out differently now, look for another move the slow way
+            }
         }
-        for (int i = 0; i < path.size() - 1; i++) {
-            double cost = nodes.get(i + 1).cost - nodes.get(i).cost;
-            Movement move = runBackwards(path.get(i), path.get(i + 1), cost);
+        if (move == null) {
+            move = runBackwards(src, dest);
             if (move == null) {
-                return true;
-            } else {
-                movements.add(move);
+                // this is no longer called from bestPathSoFar, now it's in postprocessing
+                Helper.HELPER.logDebug("Movement became impossible during calculation " + src + " " + dest + " " + dest.subtract(src));
+                return null;
             }
         }
-        return false;
+        // a movement created lazily is costed now, when execution gets near it, rather than when the path was calculated
+        // the node cost difference is what the search saw, so taking the minimum of the two keeps the stricter limit
+        // and PathExecutor can still tell whether the cost went up since the calculation (see maxCostIncrease)
+        move.override(Math.min(move.calculateCost(context), costs[i + 1] - costs[i]));
+        move.checkLoadedChunk(context);
+        movements[i] = move;
+        return move;
     }
 
-    private Movement runBackwards(BetterBlockPos src, BetterBlockPos dest, double cost) {
-        for (Moves moves : Moves.values()) {
+    private Movement runBackwards(BetterBlockPos src, BetterBlockPos dest) {
+        for (Moves moves : ALL_MOVES) {
             Movement move = moves.apply0(context, src);
             if (move.getDest().equals(dest)) {
-                // have to calculate the cost at calculation time so we can accurately judge whether a cost increase happened between cached calculation and real execution
-                // however, taking into account possible favoring that could skew the node cost, we really want the stricter limit of the two
-                // so we take the minimum of the path node cost difference, and the calculated cost
-                move.override(Math.min(move.calculateCost(context), cost));
                 return move;
             }
         }
-        // this is no longer called from bestPathSoFar, now it's in postprocessing
-        Helper.HELPER.logDebug("Movement became impossible during calculation " + src + " " + dest + " " + dest.subtract(src));
         return null;
     }
 
+    /**
+     * Creates the movements that could come out differently than the search saw them, which is any with a
+     * destination that depends on the world, and the first few that are about to be executed.
+     *
+     * @return The number of movements from the start that can still be created
+     */
+    private int assembleMovements() {
+        int lookahead = Math.max(1, Baritone.settings().costVerificationLookahead.value);
+        for (int i = 0; i < steps.length; i++) {
+            if (i >= lookahead && steps[i] >= 0 && !ALL_MOVES[steps[i]].dynamicXZ && !ALL_MOVES[steps[i]].dynamicY) {
+                continue;
+            }
+            if (tryMovement(i) == null) {
+                return i;
+            }
+        }
+        return steps.length;
+    }
+
+    @Override
+    public synchronized Movement createdMovement(int i) {
+        return movements[i];
+    }
+
+    /**
+     * Estimated from the costs the search recorded, so that no movement has to be created for it
+     */
+    @Override
+    public double ticksRemainingFrom(int pathPosition) {
+        return costs[costs.length - 1] - costs[pathPosition];
+    }
+
+    /**
+     * @param index The index of a position in {@link #positions()}
+     * @return The cost to get there from the start, as recorded by the search
+     */
+    double cost(int index) {
+        return costs[index];
+    }
+
     @Override
     public IPath postProcess() {
         if (verified) {
             throw new IllegalStateException();
         }
         verified = true;
-        boolean failed = assembleMovements();
-        movements.forEach(m -> m.checkLoadedChunk(context));
+        int possible = assembleMovements();
 
-        if (failed) { // at least one movement became impossible during calculation
-            CutoffPath res = new CutoffPath(this, movements().size());
-            if (res.movements().size() != movements.size()) {
+        if (possible < steps.length) { // at least one movement became impossible during calculation
+            CutoffPath res = new CutoffPath(this, possible);
+            if (res.movements().size() != possible) {
                 throw new IllegalStateException();
             }
             return res;
@@ -150,12 +266,20 @@ class Path extends PathBase {
         return this;
     }
 
+    /**
+     * Each movement is checked to go between the right positions when it's created, see {@link #tryMovement(int)}
+     */
+    @Override
+    public boolean createsMovementsLazily() {
+        return true;
+    }
+
     @Override
     public List<IMovement> movements() {
         if (!verified) {
             throw new IllegalStateException();
         }
-        return Collections.unmodifiableList(movements);
+        return movementList;
     }
 
     @Override
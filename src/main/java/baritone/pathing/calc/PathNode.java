@@ -59,6 +59,13 @@ public final class PathNode {
      */
     public PathNode previous;
 
+    /**
+     * The ordinal of the {@link baritone.pathing.movement.Moves} that got here from {@link #previous}, or -1 if there
+     * isn't one, so that the path can be put back together without trying every move.
+     * Mutable and changed by PathFinder
+     */
+    public byte previousMove;
+
     /**
      * Where is this node in the array flattenization of the binary heap? Needed for decrease-key operations.
      */
@@ -66,6 +73,7 @@ public final class PathNode {
 
     public PathNode(int x, int y, int z, Goal goal) {
         this.previous = null;
+        this.previousMove = -1;
         this.cost = ActionCosts.COST_INF;
         double originalCost = goal.heuristic(x, y, z);
         if (Double.isNaN(originalCost)) {
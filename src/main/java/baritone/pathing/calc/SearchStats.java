@@ -0,0 +1,64 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc;
+
+/**
+ * What a single search got up to, filled in as it goes and read by {@link baritone.utils.PathingMetrics} once it's
+ * finished. The timings are only measured when {@link baritone.api.Settings#pathingMetricsTiming} is on, since asking
+ * for the time around every movement isn't free.
+ */
+public final class SearchStats {
+
+    public long nodesExpanded;
+    public long movementsConsidered;
+    public int openSetPeak;
+    public int nodeMapSize;
+    public long durationMillis;
+
+    /**
+     * Time spent calculating movement costs, including looking them up in the movement cost cache, added up over every
+     * thread of a parallel search
+     */
+    public long costNanos;
+
+    /**
+     * Time spent inserting into, updating and removing from the open set
+     */
+    public long openSetNanos;
+
+    /**
+     * Time spent calculating the heuristic of newly created nodes
+     */
+    public long heuristicNanos;
+
+    /**
+     * Block lookups that were answered by the chunk or region the previous lookup used, and ones that weren't, see
+     * {@link baritone.utils.BlockStateInterface}
+     */
+    public long chunkCacheHits;
+    public long chunkCacheMisses;
+    public long regionCacheHits;
+    public long regionCacheMisses;
+
+    /**
+     * @return Nodes expanded per second over the whole search, or 0 if it took no measurable time
+     */
+    public double nodesPerSecond() {
+        return durationMillis <= 0 ? 0 : nodesExpanded * 1000D / durationMillis;
+    }
+}
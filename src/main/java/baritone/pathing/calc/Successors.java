@@ -0,0 +1,124 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc;
+
+import baritone.api.pathing.movement.ActionCosts;
+import baritone.pathing.movement.CalculationContext;
+import baritone.pathing.movement.Moves;
+import baritone.utils.pathing.BetterWorldBorder;
+import baritone.utils.pathing.MutableMoveResult;
+
+/**
+ * The possible movements out of a position, where they end up and what they cost. Calculating these is the part of
+ * expanding a node that takes almost all of the time, and doesn't depend on the rest of the search, see
+ * {@link AbstractNodeCostSearch#relax} for the part that does. Reused from one node to the next, one per thread.
+ */
+final class Successors {
+
+    private static final Moves[] ALL_MOVES = Moves.values();
+
+    final int[] x = new int[ALL_MOVES.length];
+    final int[] y = new int[ALL_MOVES.length];
+    final int[] z = new int[ALL_MOVES.length];
+    final double[] cost = new double[ALL_MOVES.length];
+    final byte[] move = new byte[ALL_MOVES.length];
+    int size;
+
+    /**
+     * How many movements were calculated for the most recent position, possible or not
+     */
+    int movementsConsidered;
+
+    /**
+     * How many movements from the most recent position would certainly have gone into a chunk that isn't loaded
+     */
+    int emptyChunks;
+
+    /**
+     * How long calculating the most recent position took, only measured when asked to
+     */
+    long costNanos;
+
+    private final MutableMoveResult res = new MutableMoveResult();
+
+    /**
+     * Calculates every movement out of a position, replacing whatever was here before
+     *
+     * @param context The context to calculate with, only ever used by one thread at a time
+     * @param fromX   The x of the position
+     * @param fromY   The y of the position
+     * @param fromZ   The z of the position
+     * @param timing  Whether to measure {@link #costNanos}
+     */
+    void generate(CalculationContext context, int fromX, int fromY, int fromZ, boolean timing) {
+        long start = timing ? System.nanoTime() : 0;
+        BetterWorldBorder worldBorder = context.worldBorder;
+        MovementCostCache costCache = context.costCache;
+        size = 0;
+        movementsConsidered = 0;
+        emptyChunks = 0;
+        for (Moves moves : ALL_MOVES) {
+            int newX = fromX + moves.xOffset;
+            int newZ = fromZ + moves.zOffset;
+            if ((newX >> 4 != fromX >> 4 || newZ >> 4 != fromZ >> 4) && !context.isLoaded(newX, newZ)) {
+                // only need to check if the destination is a loaded chunk if it's in a different chunk than the start of the movement
+                if (!moves.dynamicXZ) { // only increment the counter if the movement would have gone out of bounds guaranteed
+                    emptyChunks++;
+                }
+                continue;
+            }
+            if (!moves.dynamicXZ && !worldBorder.entirelyContains(newX, newZ)) {
+                continue;
+            }
+            if (fromY + moves.yOffset > context.height || fromY + moves.yOffset < context.minY) {
+                continue;
+            }
+            res.reset();
+            if (costCache != null) {
+                costCache.apply(context, moves, fromX, fromY, fromZ, res);
+            } else {
+                moves.apply(context, fromX, fromY, fromZ, res);
+            }
+            movementsConsidered++;
+            double actionCost = res.cost;
+            if (actionCost >= ActionCosts.COST_INF) {
+                continue;
+            }
+            if (actionCost <= 0 || Double.isNaN(actionCost)) {
+                throw new IllegalStateException(moves + " calculated implausible cost " + actionCost);
+            }
+            // check destination after verifying it's not COST_INF -- some movements return a static IMPOSSIBLE object with COST_INF and destination being 0,0,0 to avoid allocating a new result for every failed calculation
+            if (moves.dynamicXZ && !worldBorder.entirelyContains(res.x, res.z)) { // see issue #218
+                continue;
+            }
+            if (!moves.dynamicXZ && (res.x != newX || res.z != newZ)) {
+                throw new IllegalStateException(moves + " " + res.x + " " + newX + " " + res.z + " " + newZ);
+            }
+            if (!moves.dynamicY && res.y != fromY + moves.yOffset) {
+                throw new IllegalStateException(moves + " " + res.y + " " + (fromY + moves.yOffset));
+            }
+            x[size] = res.x;
+            y[size] = res.y;
+            z[size] = res.z;
+            cost[size] = actionCost;
+            move[size] = (byte) moves.ordinal();
+            size++;
+        }
+        costNanos = timing ? System.nanoTime() - start : 0;
+    }
+}
@@ -20,6 +20,7 @@ package baritone.pathing.calc.openset;
 import baritone.pathing.calc.PathNode;
 
 import java.util.Arrays;
+import java.util.function.Consumer;
 
 /**
  * A binary heap implementation of an open set. This is the one used in the AStarPathFinder.
@@ -52,6 +53,7 @@ public final class BinaryHeapOpenSet implements IOpenSet {
         this.array = new PathNode[size];
     }
 
+    @Override
     public int size() {
         return size;
     }
@@ -84,6 +86,40 @@ public final class BinaryHeapOpenSet implements IOpenSet {
         }
     }
 
+    /**
+     * Rekeys in place and then restores the heap order bottom up, which is linear rather than n log n
+     */
+    @Override
+    public void rekeyAll(Consumer<PathNode> rekey) {
+        for (int i = 1; i <= size; i++) {
+            rekey.accept(array[i]);
+        }
+        for (int i = size >>> 1; i >= 1; i--) {
+            siftDown(i);
+        }
+    }
+
+    private void siftDown(int index) {
+        PathNode val = array[index];
+        double cost = val.combinedCost;
+        int smallerChild;
+        while ((smallerChild = index << 1) <= size) {
+            PathNode smallerChildNode = array[smallerChild];
+            if (smallerChild < size && array[smallerChild + 1].combinedCost < smallerChildNode.combinedCost) {
+                smallerChild++;
+                smallerChildNode = array[smallerChild];
+            }
+            if (cost <= smallerChildNode.combinedCost) {
+                break;
+            }
+            array[index] = smallerChildNode;
+            smallerChildNode.heapPosition = index;
+            index = smallerChild;
+        }
+        array[index] = val;
+        val.heapPosition = index;
+    }
+
     @Override
     public final boolean isEmpty() {
         return size == 0;
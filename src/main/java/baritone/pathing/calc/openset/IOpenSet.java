@@ -19,6 +19,10 @@ package baritone.pathing.calc.openset;
 
 import baritone.pathing.calc.PathNode;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
 /**
  * An open set for A* or similar graph search algorithm
  *
@@ -51,4 +55,26 @@ public interface IOpenSet {
      * @param node The node
      */
     void update(PathNode node);
+
+    /**
+     * @return The number of nodes currently in the heap
+     */
+    int size();
+
+    /**
+     * Changes the combined cost of every node in the heap, and puts them back in order. Unlike
+     * {@link #update(PathNode)}, costs are allowed to go up.
+     *
+     * @param rekey Sets the new combined cost of the node it's given
+     */
+    default void rekeyAll(Consumer<PathNode> rekey) {
+        List<PathNode> all = new ArrayList<>(size());
+        while (!isEmpty()) {
+            all.add(removeLowest());
+        }
+        for (PathNode node : all) {
+            rekey.accept(node);
+            insert(node);
+        }
+    }
 }
@@ -0,0 +1,135 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc.openset;
+
+import baritone.pathing.calc.NodeStore;
+
+import java.util.Arrays;
+
+/**
+ * {@link BinaryHeapOpenSet}, but over the int node ids of a {@link NodeStore} instead of PathNode objects.
+ * The heap position of each node is written back into the store, exactly like {@code PathNode.heapPosition}.
+ */
+public final class PrimitiveBinaryHeapOpenSet implements IPrimitiveOpenSet {
+
+    /**
+     * The initial capacity of the heap (2^10)
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final NodeStore store;
+
+    /**
+     * The array backing the heap
+     */
+    private int[] array;
+
+    /**
+     * The size of the heap
+     */
+    private int size;
+
+    public PrimitiveBinaryHeapOpenSet(NodeStore store) {
+        this(store, INITIAL_CAPACITY);
+    }
+
+    public PrimitiveBinaryHeapOpenSet(NodeStore store, int size) {
+        this.store = store;
+        this.size = 0;
+        this.array = new int[size];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void insert(int value) {
+        if (size >= array.length - 1) {
+            array = Arrays.copyOf(array, array.length << 1);
+        }
+        size++;
+        store.setHeapPosition(value, size);
+        array[size] = value;
+        update(value);
+    }
+
+    @Override
+    public void update(int val) {
+        int index = store.heapPosition(val);
+        int parentInd = index >>> 1;
+        double cost = store.combinedCost(val);
+        int parentNode = array[parentInd];
+        while (index > 1 && store.combinedCost(parentNode) > cost) {
+            array[index] = parentNode;
+            array[parentInd] = val;
+            store.setHeapPosition(val, parentInd);
+            store.setHeapPosition(parentNode, index);
+            index = parentInd;
+            parentInd = index >>> 1;
+            parentNode = array[parentInd];
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int removeLowest() {
+        if (size == 0) {
+            throw new IllegalStateException();
+        }
+        int result = array[1];
+        int val = array[size];
+        array[1] = val;
+        store.setHeapPosition(val, 1);
+        size--;
+        store.setHeapPosition(result, -1);
+        if (size < 2) {
+            return result;
+        }
+        int index = 1;
+        int smallerChild = 2;
+        double cost = store.combinedCost(val);
+        do {
+            int smallerChildNode = array[smallerChild];
+            double smallerChildCost = store.combinedCost(smallerChildNode);
+            if (smallerChild < size) {
+                int rightChildNode = array[smallerChild + 1];
+                double rightChildCost = store.combinedCost(rightChildNode);
+                if (smallerChildCost > rightChildCost) {
+                    smallerChild++;
+                    smallerChildCost = rightChildCost;
+                    smallerChildNode = rightChildNode;
+                }
+            }
+            if (cost <= smallerChildCost) {
+                break;
+            }
+            array[index] = smallerChildNode;
+            array[smallerChild] = val;
+            store.setHeapPosition(val, smallerChild);
+            store.setHeapPosition(smallerChildNode, index);
+            index = smallerChild;
+        } while ((smallerChild <<= 1) <= size);
+        return result;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc.openset;
+
+import baritone.pathing.calc.NodeStore;
+
+import java.util.Arrays;
+
+/**
+ * A 4-ary heap over the int node ids of a {@link NodeStore}.
+ * <p>
+ * The combinedCost of every node in the heap is copied into {@link #keys}, parallel to {@link #nodes}, so sifting
+ * only ever compares doubles that sit next to each other in memory instead of chasing into the store. Having four
+ * children per node also halves the depth of the heap compared to {@link PrimitiveBinaryHeapOpenSet}, and all four
+ * children of a node share a cache line or two.
+ */
+public final class PrimitiveQuaternaryHeapOpenSet implements IPrimitiveOpenSet {
+
+    /**
+     * The initial capacity of the heap (2^10)
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final NodeStore store;
+
+    /**
+     * The node ids in heap order, the root is at index 0 and the children of i are 4i+1 through 4i+4
+     */
+    private int[] nodes;
+
+    /**
+     * The combinedCost of the node at the same index of {@link #nodes}
+     */
+    private double[] keys;
+
+    /**
+     * The size of the heap
+     */
+    private int size;
+
+    public PrimitiveQuaternaryHeapOpenSet(NodeStore store) {
+        this(store, INITIAL_CAPACITY);
+    }
+
+    public PrimitiveQuaternaryHeapOpenSet(NodeStore store, int size) {
+        this.store = store;
+        this.size = 0;
+        this.nodes = new int[size];
+        this.keys = new double[size];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void insert(int node) {
+        if (size == nodes.length) {
+            nodes = Arrays.copyOf(nodes, nodes.length << 1);
+            keys = Arrays.copyOf(keys, keys.length << 1);
+        }
+        siftUp(size++, node, store.combinedCost(node));
+    }
+
+    @Override
+    public void update(int node) {
+        siftUp(store.heapPosition(node), node, store.combinedCost(node));
+    }
+
+    @Override
+    public int removeLowest() {
+        if (size == 0) {
+            throw new IllegalStateException();
+        }
+        int result = nodes[0];
+        store.setHeapPosition(result, -1);
+        size--;
+        if (size > 0) {
+            siftDown(nodes[size], keys[size]);
+        }
+        return result;
+    }
+
+    private void siftUp(int index, int node, double key) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 2;
+            double parentKey = keys[parent];
+            if (parentKey <= key) {
+                break;
+            }
+            int parentNode = nodes[parent];
+            nodes[index] = parentNode;
+            keys[index] = parentKey;
+            store.setHeapPosition(parentNode, index);
+            index = parent;
+        }
+        nodes[index] = node;
+        keys[index] = key;
+        store.setHeapPosition(node, index);
+    }
+
+    private void siftDown(int node, double key) {
+        int index = 0;
+        int firstChild;
+        while ((firstChild = (index << 2) + 1) < size) {
+            int smallest = firstChild;
+            double smallestKey = keys[firstChild];
+            int lastChild = Math.min(firstChild + 4, size);
+            for (int child = firstChild + 1; child < lastChild; child++) {
+                double childKey = keys[child];
+                if (childKey < smallestKey) {
+                    smallest = child;
+                    smallestKey = childKey;
+                }
+            }
+            if (key <= smallestKey) {
+                break;
+            }
+            int smallestNode = nodes[smallest];
+            nodes[index] = smallestNode;
+            keys[index] = smallestKey;
+            store.setHeapPosition(smallestNode, index);
+            index = smallest;
+        }
+        nodes[index] = node;
+        keys[index] = key;
+        store.setHeapPosition(node, index);
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc.openset;
+
+import baritone.pathing.calc.NodeStore;
+
+import java.util.Arrays;
+
+/**
+ * A radix heap over the int node ids of a {@link NodeStore}.
+ * <p>
+ * Node costs only ever go up as the search moves outwards, so almost every key that gets inserted is at least the
+ * last key that was removed. A radix heap takes advantage of that by filing each entry into one of 65 buckets by the
+ * highest bit in which its key differs from the last removed key, and only redistributing a bucket when it becomes
+ * the lowest one. Inserts are O(1) and removals are amortized O(log C) bit operations, with no comparisons at all in
+ * the common case.
+ * <p>
+ * Decrease-key is done lazily: {@link #update(int)} files a second entry with the new key and the stale one is
+ * skipped once it's removed. This makes the repropagation-heavy searches over flat terrain (lots of tiny
+ * improvements, see {@code AbstractNodeCostSearch.MIN_IMPROVEMENT}) very cheap.
+ * <p>
+ * Favoring and inconsistent heuristics mean a key can still drop below the last removed one. Those go into a small
+ * binary heap that is always drained first, since anything in it is by definition lower than everything in the
+ * buckets.
+ */
+public final class PrimitiveRadixHeapOpenSet implements IPrimitiveOpenSet {
+
+    private static final int BUCKETS = 65;
+
+    private static final int INITIAL_BUCKET_CAPACITY = 64;
+
+    private final NodeStore store;
+
+    private final int[][] bucketNodes = new int[BUCKETS][];
+    private final long[][] bucketKeys = new long[BUCKETS][];
+    private final int[] bucketSizes = new int[BUCKETS];
+
+    /**
+     * The key of the most recently removed entry from the buckets, as sortable bits
+     */
+    private long last;
+
+    /**
+     * Binary heap (1-indexed) of the entries whose keys are below {@link #last}
+     */
+    private int[] underflowNodes = new int[INITIAL_BUCKET_CAPACITY];
+    private long[] underflowKeys = new long[INITIAL_BUCKET_CAPACITY];
+    private int underflowSize;
+
+    /**
+     * The number of distinct open nodes, not counting stale entries
+     */
+    private int size;
+
+    public PrimitiveRadixHeapOpenSet(NodeStore store) {
+        this.store = store;
+        for (int i = 0; i < BUCKETS; i++) {
+            bucketNodes[i] = new int[INITIAL_BUCKET_CAPACITY];
+            bucketKeys[i] = new long[INITIAL_BUCKET_CAPACITY];
+        }
+    }
+
+    /**
+     * Maps a double to a long such that comparing the longs as unsigned gives the same order as comparing the doubles
+     *
+     * @param value The double
+     * @return The sortable bits
+     */
+    static long sortableBits(double value) {
+        long bits = Double.doubleToRawLongBits(value + 0.0); // + 0.0 turns -0.0 into 0.0
+        return bits < 0 ? ~bits : bits ^ Long.MIN_VALUE;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void insert(int node) {
+        size++;
+        store.setHeapPosition(node, 0);
+        push(node, sortableBits(store.combinedCost(node)));
+    }
+
+    @Override
+    public void update(int node) {
+        push(node, sortableBits(store.combinedCost(node)));
+    }
+
+    @Override
+    public int removeLowest() {
+        if (size == 0) {
+            throw new IllegalStateException();
+        }
+        while (true) {
+            int node;
+            long key;
+            if (underflowSize > 0) {
+                node = underflowNodes[1];
+                key = underflowKeys[1];
+                popUnderflow();
+            } else {
+                if (bucketSizes[0] == 0) {
+                    refill();
+                }
+                int index = --bucketSizes[0];
+                node = bucketNodes[0][index];
+                key = bucketKeys[0][index];
+            }
+            // skip entries for nodes that were already removed, or that have since been updated to a lower key
+            if (store.isOpen(node) && key == sortableBits(store.combinedCost(node))) {
+                store.setHeapPosition(node, -1);
+                size--;
+                return node;
+            }
+        }
+    }
+
+    private void push(int node, long key) {
+        if (Long.compareUnsigned(key, last) < 0) {
+            pushUnderflow(node, key);
+        } else {
+            append(bucketOf(key), node, key);
+        }
+    }
+
+    private int bucketOf(long key) {
+        return 64 - Long.numberOfLeadingZeros(key ^ last);
+    }
+
+    private void append(int bucket, int node, long key) {
+        int index = bucketSizes[bucket]++;
+        if (index == bucketNodes[bucket].length) {
+            bucketNodes[bucket] = Arrays.copyOf(bucketNodes[bucket], index << 1);
+            bucketKeys[bucket] = Arrays.copyOf(bucketKeys[bucket], index << 1);
+        }
+        bucketNodes[bucket][index] = node;
+        bucketKeys[bucket][index] = key;
+    }
+
+    /**
+     * Bucket 0 is empty, so find the lowest nonempty bucket, make its minimum the new {@link #last}, and redistribute
+     * it. Every entry in it moves to a strictly lower bucket, and the minimum itself lands in bucket 0.
+     */
+    private void refill() {
+        int bucket = 1;
+        while (bucketSizes[bucket] == 0) {
+            bucket++; // size > 0 guarantees there's at least one entry somewhere
+        }
+        int count = bucketSizes[bucket];
+        int[] nodes = bucketNodes[bucket];
+        long[] keys = bucketKeys[bucket];
+        long min = keys[0];
+        for (int i = 1; i < count; i++) {
+            if (Long.compareUnsigned(keys[i], min) < 0) {
+                min = keys[i];
+            }
+        }
+        last = min;
+        bucketSizes[bucket] = 0;
+        for (int i = 0; i < count; i++) {
+            append(bucketOf(keys[i]), nodes[i], keys[i]);
+        }
+    }
+
+    private void pushUnderflow(int node, long key) {
+        int index = ++underflowSize;
+        if (index == underflowNodes.length) {
+            underflowNodes = Arrays.copyOf(underflowNodes, index << 1);
+            underflowKeys = Arrays.copyOf(underflowKeys, index << 1);
+        }
+        while (index > 1) {
+            int parent = index >>> 1;
+            if (Long.compareUnsigned(underflowKeys[parent], key) <= 0) {
+                break;
+            }
+            underflowNodes[index] = underflowNodes[parent];
+            underflowKeys[index] = underflowKeys[parent];
+            index = parent;
+        }
+        underflowNodes[index] = node;
+        underflowKeys[index] = key;
+    }
+
+    private void popUnderflow() {
+        int node = underflowNodes[underflowSize];
+        long key = underflowKeys[underflowSize];
+        underflowSize--;
+        int index = 1;
+        int child;
+        while ((child = index << 1) <= underflowSize) {
+            if (child < underflowSize && Long.compareUnsigned(underflowKeys[child + 1], underflowKeys[child]) < 0) {
+                child++;
+            }
+            if (Long.compareUnsigned(key, underflowKeys[child]) <= 0) {
+                break;
+            }
+            underflowNodes[index] = underflowNodes[child];
+            underflowKeys[index] = underflowKeys[child];
+            index = child;
+        }
+        underflowNodes[index] = node;
+        underflowKeys[index] = key;
+    }
+}
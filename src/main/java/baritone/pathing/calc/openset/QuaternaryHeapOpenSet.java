@@ -0,0 +1,161 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc.openset;
+
+import baritone.pathing.calc.PathNode;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * A 4-ary heap implementation of an open set.
+ * <p>
+ * The combinedCost of every node in the heap is copied into {@link #keys}, parallel to {@link #nodes}, so sifting
+ * only ever compares doubles that sit next to each other in memory instead of dereferencing every PathNode. Having
+ * four children per node also halves the depth of the heap compared to {@link BinaryHeapOpenSet}.
+ */
+public final class QuaternaryHeapOpenSet implements IOpenSet {
+
+    /**
+     * The initial capacity of the heap (2^10)
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * The nodes in heap order, the root is at index 0 and the children of i are 4i+1 through 4i+4
+     */
+    private PathNode[] nodes;
+
+    /**
+     * The combinedCost of the node at the same index of {@link #nodes}
+     */
+    private double[] keys;
+
+    /**
+     * The size of the heap
+     */
+    private int size;
+
+    public QuaternaryHeapOpenSet() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public QuaternaryHeapOpenSet(int size) {
+        this.size = 0;
+        this.nodes = new PathNode[size];
+        this.keys = new double[size];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void insert(PathNode node) {
+        if (size == nodes.length) {
+            nodes = Arrays.copyOf(nodes, nodes.length << 1);
+            keys = Arrays.copyOf(keys, keys.length << 1);
+        }
+        siftUp(size++, node, node.combinedCost);
+    }
+
+    @Override
+    public void update(PathNode node) {
+        siftUp(node.heapPosition, node, node.combinedCost);
+    }
+
+    @Override
+    public PathNode removeLowest() {
+        if (size == 0) {
+            throw new IllegalStateException();
+        }
+        PathNode result = nodes[0];
+        result.heapPosition = -1;
+        size--;
+        if (size > 0) {
+            siftDown(0, nodes[size], keys[size]);
+        }
+        nodes[size] = null;
+        return result;
+    }
+
+    /**
+     * Rekeys in place and then restores the heap order bottom up, which is linear rather than n log n
+     */
+    @Override
+    public void rekeyAll(Consumer<PathNode> rekey) {
+        for (int i = 0; i < size; i++) {
+            rekey.accept(nodes[i]);
+            keys[i] = nodes[i].combinedCost;
+        }
+        for (int i = (size - 2) >>> 2; size > 1 && i >= 0; i--) {
+            siftDown(i, nodes[i], keys[i]);
+        }
+    }
+
+    private void siftUp(int index, PathNode node, double key) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 2;
+            double parentKey = keys[parent];
+            if (parentKey <= key) {
+                break;
+            }
+            PathNode parentNode = nodes[parent];
+            nodes[index] = parentNode;
+            keys[index] = parentKey;
+            parentNode.heapPosition = index;
+            index = parent;
+        }
+        nodes[index] = node;
+        keys[index] = key;
+        node.heapPosition = index;
+    }
+
+    private void siftDown(int index, PathNode node, double key) {
+        int firstChild;
+        while ((firstChild = (index << 2) + 1) < size) {
+            int smallest = firstChild;
+            double smallestKey = keys[firstChild];
+            int lastChild = Math.min(firstChild + 4, size);
+            for (int child = firstChild + 1; child < lastChild; child++) {
+                double childKey = keys[child];
+                if (childKey < smallestKey) {
+                    smallest = child;
+                    smallestKey = childKey;
+                }
+            }
+            if (key <= smallestKey) {
+                break;
+            }
+            PathNode smallestNode = nodes[smallest];
+            nodes[index] = smallestNode;
+            keys[index] = smallestKey;
+            smallestNode.heapPosition = index;
+            index = smallest;
+        }
+        nodes[index] = node;
+        keys[index] = key;
+        node.heapPosition = index;
+    }
+}
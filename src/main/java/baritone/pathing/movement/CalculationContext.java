@@ -20,14 +20,20 @@ package baritone.pathing.movement;
 import baritone.Baritone;
 import baritone.altoclef.AltoClefSettings;
 import baritone.api.IBaritone;
+import baritone.api.Settings;
 import baritone.api.pathing.movement.ActionCosts;
 import baritone.cache.WorldData;
+import baritone.pathing.calc.MovementCostCache;
+import baritone.pathing.precompute.PrecomputedData;
 import baritone.utils.BlockStateInterface;
 import baritone.utils.ToolSet;
 import baritone.utils.pathing.BetterWorldBorder;
 import net.minecraft.client.player.LocalPlayer;
 import net.minecraft.core.BlockPos;
+import net.minecraft.world.effect.MobEffectInstance;
+import net.minecraft.world.effect.MobEffects;
 import net.minecraft.world.entity.player.Inventory;
+import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.Items;
 import net.minecraft.world.item.enchantment.EnchantmentHelper;
@@ -37,6 +43,7 @@ import net.minecraft.world.level.block.state.BlockState;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 import static baritone.api.pathing.movement.ActionCosts.COST_INF;
 
@@ -73,15 +80,28 @@ public class CalculationContext {
     public final double breakBlockAdditionalCost;
     public final double walkOnWaterOnePenalty;
     public final BetterWorldBorder worldBorder;
+    public final int minY;
+    public final int height;
     protected final double placeBlockCost; // protected because you should call the function instead
     public double backtrackCostFavoringCoefficient;
     public double jumpPenalty;
 
+    /**
+     * Where movement costs are remembered between calculations, null if they aren't, see {@link Settings#pathingCostCache}
+     */
+    public final MovementCostCache costCache;
+
+    /**
+     * What this context looks up and stores costs in {@link #costCache} under, see {@link MovementCostCache#generation(long)}
+     */
+    public final int costCacheGeneration;
+
     public CalculationContext(IBaritone baritone) {
         this(baritone, false);
     }
 
     public CalculationContext(IBaritone baritone, boolean forUseOnAnotherThread) {
+        PrecomputedData.refresh(); // in case the settings it depends on changed since the last calculation
         this.safeForThreadedUse = forUseOnAnotherThread;
         this.baritone = baritone;
         LocalPlayer player = baritone.getPlayerContext().player();
@@ -119,6 +139,181 @@ public class CalculationContext {
         // because if some movements are calculated one way and others are calculated another way,
         // then you get a wildly inconsistent path that isn't optimal for either scenario.
         this.worldBorder = new BetterWorldBorder(world.getWorldBorder());
+        this.minY = world.dimensionType().minY();
+        this.height = world.dimensionType().height();
+        // subclasses have costs of their own that the cache doesn't know about
+        if (getClass() == CalculationContext.class && Baritone.settings().pathingCostCache.value && worldData != null) {
+            this.costCache = worldData.cache.getCostCache();
+            this.costCacheGeneration = costCache.generation(costFingerprint(player));
+        } else {
+            this.costCache = null;
+            this.costCacheGeneration = 0;
+        }
+    }
+
+    /**
+     * Creates a context with no player and no {@link Level} behind it, for pathing through whatever the given
+     * {@link BlockStateInterface} returns (the benchmarks use this for their synthetic worlds). Everything that would
+     * normally be read from the player's inventory or hunger is assumed absent, the rest comes from the settings as usual.
+     *
+     * @param bsi     The block lookup to path through
+     * @param toolSet The tools to consider when breaking blocks
+     * @param minY    The lowest y level of the dimension
+     * @param height  The height of the dimension
+     */
+    public CalculationContext(BlockStateInterface bsi, ToolSet toolSet, int minY, int height) {
+        PrecomputedData.refresh();
+        this.safeForThreadedUse = true;
+        this.baritone = null;
+        this.world = null;
+        this.worldData = null;
+        this.bsi = bsi;
+        this.toolSet = toolSet;
+        this.hasThrowaway = Baritone.settings().allowPlace.value;
+        this.hasWaterBucket = false;
+        this.canSprint = Baritone.settings().allowSprint.value;
+        this.placeBlockCost = Baritone.settings().blockPlacementPenalty.value;
+        this.allowBreak = Baritone.settings().allowBreak.value;
+        this.allowBreakAnyway = new ArrayList<>(Baritone.settings().allowBreakAnyway.value);
+        this.allowParkour = Baritone.settings().allowParkour.value;
+        this.allowParkourPlace = Baritone.settings().allowParkourPlace.value;
+        this.allowJumpAt256 = Baritone.settings().allowJumpAt256.value;
+        this.allowParkourAscend = Baritone.settings().allowParkourAscend.value;
+        this.assumeWalkOnWater = Baritone.settings().assumeWalkOnWater.value;
+        this.allowDiagonalDescend = Baritone.settings().allowDiagonalDescend.value;
+        this.allowDiagonalAscend = Baritone.settings().allowDiagonalAscend.value;
+        this.allowDownward = Baritone.settings().allowDownward.value;
+        this.maxFallHeightNoWater = Baritone.settings().maxFallHeightNoWater.value;
+        this.maxFallHeightBucket = Baritone.settings().maxFallHeightBucket.value;
+        this.waterWalkSpeed = ActionCosts.WALK_ONE_IN_WATER_COST;
+        this.breakBlockAdditionalCost = Baritone.settings().blockBreakAdditionalPenalty.value;
+        this.backtrackCostFavoringCoefficient = Baritone.settings().backtrackCostFavoringCoefficient.value;
+        this.jumpPenalty = Baritone.settings().jumpPenalty.value;
+        this.walkOnWaterOnePenalty = Baritone.settings().walkOnWaterOnePenalty.value;
+        this.worldBorder = bsi.worldBorder;
+        this.minY = minY;
+        this.height = height;
+        this.costCache = null;
+        this.costCacheGeneration = 0;
+    }
+
+    /**
+     * Creates a copy of {@code other} for another thread of the same calculation. Every setting is the same, but the
+     * block lookups and tool caches aren't shared, since those aren't safe to use from several threads at once.
+     * Subclasses that override costs aren't copied, so only use this on plain instances.
+     *
+     * @param other The context to copy
+     */
+    public CalculationContext(CalculationContext other) {
+        this.safeForThreadedUse = other.safeForThreadedUse;
+        this.baritone = other.baritone;
+        this.world = other.world;
+        this.worldData = other.worldData;
+        this.bsi = new BlockStateInterface(other.bsi);
+        this.toolSet = new ToolSet(other.toolSet);
+        this.hasThrowaway = other.hasThrowaway;
+        this.hasWaterBucket = other.hasWaterBucket;
+        this.canSprint = other.canSprint;
+        this.placeBlockCost = other.placeBlockCost;
+        this.allowBreak = other.allowBreak;
+        this.allowBreakAnyway = other.allowBreakAnyway;
+        this.allowParkour = other.allowParkour;
+        this.allowParkourPlace = other.allowParkourPlace;
+        this.allowJumpAt256 = other.allowJumpAt256;
+        this.allowParkourAscend = other.allowParkourAscend;
+        this.assumeWalkOnWater = other.assumeWalkOnWater;
+        this.allowDiagonalDescend = other.allowDiagonalDescend;
+        this.allowDiagonalAscend = other.allowDiagonalAscend;
+        this.allowDownward = other.allowDownward;
+        this.maxFallHeightNoWater = other.maxFallHeightNoWater;
+        this.maxFallHeightBucket = other.maxFallHeightBucket;
+        this.waterWalkSpeed = other.waterWalkSpeed;
+        this.breakBlockAdditionalCost = other.breakBlockAdditionalCost;
+        this.backtrackCostFavoringCoefficient = other.backtrackCostFavoringCoefficient;
+        this.jumpPenalty = other.jumpPenalty;
+        this.walkOnWaterOnePenalty = other.walkOnWaterOnePenalty;
+        this.worldBorder = other.worldBorder;
+        this.minY = other.minY;
+        this.height = other.height;
+        this.costCache = other.costCache;
+        this.costCacheGeneration = other.costCacheGeneration;
+    }
+
+    /**
+     * Hashes together everything besides the blocks themselves that the costs calculated with this context depend on.
+     * Durability is left out on purpose, it changes with every block broken, but whether {@link Settings#itemSaver}
+     * has given up on a tool isn't.
+     */
+    private long costFingerprint(LocalPlayer player) {
+        long hash = 0;
+        for (Settings.Setting<?> setting : costSettings()) {
+            hash = hash * 31 + Objects.hashCode(setting.value);
+        }
+        hash = hash * 31 + AltoClefSettings.getInstance().costFingerprint();
+        Inventory inventory = player.getInventory();
+        for (int i = 0; i < 9; i++) {
+            ItemStack stack = inventory.getItem(i);
+            hash = hash * 31 + Item.getId(stack.getItem());
+            hash = hash * 31 + stack.getEnchantmentTags().hashCode();
+            hash = hash * 31 + (stack.getMaxDamage() > 1 && stack.getDamageValue() + Baritone.settings().itemSaverThreshold.value >= stack.getMaxDamage() ? 1 : 0);
+        }
+        MobEffectInstance haste = player.getEffect(MobEffects.DIG_SPEED);
+        MobEffectInstance fatigue = player.getEffect(MobEffects.DIG_SLOWDOWN);
+        hash = hash * 31 + (haste == null ? -1 : haste.getAmplifier());
+        hash = hash * 31 + (fatigue == null ? -1 : fatigue.getAmplifier());
+        hash = hash * 31 + (hasThrowaway ? 1 : 0);
+        hash = hash * 31 + (hasWaterBucket ? 1 : 0);
+        hash = hash * 31 + (canSprint ? 1 : 0);
+        hash = hash * 31 + (allowBreak ? 1 : 0);
+        hash = hash * 31 + Double.hashCode(waterWalkSpeed);
+        hash = hash * 31 + Double.hashCode(world.getWorldBorder().getSize());
+        hash = hash * 31 + Double.hashCode(world.getWorldBorder().getCenterX());
+        hash = hash * 31 + Double.hashCode(world.getWorldBorder().getCenterZ());
+        return hash;
+    }
+
+    /**
+     * @return The settings that the movement cost functions (and {@link ToolSet} and {@link PrecomputedData} on their
+     * behalf) read, as opposed to the ones only used while executing a movement. Has to be kept up to date with them.
+     */
+    private static Settings.Setting<?>[] costSettings() {
+        Settings settings = Baritone.settings();
+        return new Settings.Setting<?>[]{
+                settings.allowBreak,
+                settings.allowBreakAnyway,
+                settings.allowDiagonalAscend,
+                settings.allowDiagonalDescend,
+                settings.allowDownward,
+                settings.allowJumpAt256,
+                settings.allowParkour,
+                settings.allowParkourAscend,
+                settings.allowParkourPlace,
+                settings.allowPlace,
+                settings.allowSprint,
+                settings.allowVines,
+                settings.allowWalkOnBottomSlab,
+                settings.allowWaterBucketFall,
+                settings.assumeExternalAutoTool,
+                settings.assumeWalkOnLava,
+                settings.assumeWalkOnWater,
+                settings.autoTool,
+                settings.avoidBreakingMultiplier,
+                settings.avoidUpdatingFallingBlocks,
+                settings.blockBreakAdditionalPenalty,
+                settings.blockPlacementPenalty,
+                settings.blocksToAvoid,
+                settings.blocksToAvoidBreaking,
+                settings.blocksToDisallowBreaking,
+                settings.considerPotionEffects,
+                settings.itemSaver,
+                settings.itemSaverThreshold,
+                settings.jumpPenalty,
+                settings.maxFallHeightBucket,
+                settings.maxFallHeightNoWater,
+                settings.pathThroughCachedOnly,
+                settings.useSwordToMine,
+                settings.walkOnWaterOnePenalty
+        };
     }
 
     public final IBaritone getBaritone() {
@@ -164,7 +359,7 @@ public class CalculationContext {
         if (isPossiblyProtected(x, y, z)) {
             return COST_INF;
         }
-        if (AltoClefSettings.getInstance().shouldAvoidBreaking(new BlockPos(x, y, z))) {
+        if (AltoClefSettings.getInstance().shouldAvoidBreaking(x, y, z)) {
             return COST_INF;
         }
         return 1;
@@ -27,11 +27,14 @@ import baritone.api.utils.Rotation;
 import baritone.api.utils.*;
 import baritone.api.utils.input.Input;
 import baritone.pathing.movement.MovementState.MovementTarget;
+import baritone.pathing.precompute.PrecomputedData;
+import baritone.pathing.precompute.Ternary;
 import baritone.utils.BlockStateInterface;
 import baritone.utils.ToolSet;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.world.level.BlockGetter;
+import net.minecraft.world.level.EmptyBlockGetter;
 import net.minecraft.world.level.block.*;
 import net.minecraft.world.level.block.piston.MovingPistonBlock;
 import net.minecraft.world.level.block.state.BlockState;
@@ -46,6 +49,7 @@ import net.minecraft.world.phys.Vec3;
 import java.util.Optional;
 
 import static baritone.pathing.movement.Movement.HORIZONTALS_BUT_ALSO_DOWN_____SO_EVERY_DIRECTION_EXCEPT_UP;
+import static baritone.pathing.precompute.Ternary.*;
 
 /**
  * Static helpers for cost calculation
@@ -55,7 +59,7 @@ import static baritone.pathing.movement.Movement.HORIZONTALS_BUT_ALSO_DOWN_____S
 public interface MovementHelper extends ActionCosts, Helper {
 
     static boolean avoidBreaking(BlockStateInterface bsi, int x, int y, int z, BlockState state) {
-        if (AltoClefSettings.getInstance().shouldAvoidBreaking(new BlockPos(x, y, z))) return true;
+        if (AltoClefSettings.getInstance().shouldAvoidBreaking(x, y, z)) return true;
         if (!bsi.worldBorder.canPlaceAt(x, y)) {
             return true;
         }
@@ -96,6 +100,44 @@ public interface MovementHelper extends ActionCosts, Helper {
     }
 
     static boolean canWalkThrough(BlockStateInterface bsi, int x, int y, int z, BlockState state) {
+        return PrecomputedData.get().canWalkThrough(bsi, x, y, z, state);
+    }
+
+    /**
+     * The part of {@link #canWalkThrough(BlockStateInterface, int, int, int, BlockState)} that only depends on the
+     * state, for {@link PrecomputedData}. Has to agree with {@link #canWalkThroughPosition} wherever it doesn't say
+     * {@link Ternary#MAYBE}, apart from the AltoClef override, which is checked separately.
+     */
+    static Ternary canWalkThroughBlockState(BlockState state) {
+        Block block = state.getBlock();
+        if (block instanceof AirBlock) {
+            return YES;
+        }
+        if (block instanceof BaseFireBlock || block == Blocks.TRIPWIRE || block == Blocks.COBWEB || block == Blocks.END_PORTAL || block == Blocks.COCOA || block instanceof AbstractSkullBlock || block == Blocks.BUBBLE_COLUMN || block instanceof ShulkerBoxBlock || block instanceof SlabBlock || block instanceof TrapDoorBlock || block == Blocks.HONEY_BLOCK || block == Blocks.END_ROD || block == Blocks.SWEET_BERRY_BUSH || block == Blocks.POINTED_DRIPSTONE || block instanceof AmethystClusterBlock || block instanceof AzaleaBlock) {
+            return NO;
+        }
+        if (!state.getFluidState().isEmpty()) {
+            return MAYBE; // flowing depends on the neighbours, still water on what's above, and lava on AltoClef
+        }
+        if (block == Blocks.BIG_DRIPLEAF || block == Blocks.POWDER_SNOW) {
+            return NO;
+        }
+        if (Baritone.settings().blocksToAvoid.value.contains(block)) {
+            return NO;
+        }
+        if (block instanceof DoorBlock || block instanceof FenceGateBlock) {
+            return block != Blocks.IRON_DOOR ? YES : NO;
+        }
+        if (block instanceof WoolCarpetBlock || block instanceof SnowLayerBlock) {
+            return MAYBE;
+        }
+        if (block instanceof CauldronBlock) {
+            return NO;
+        }
+        return state.isPathfindable(EmptyBlockGetter.INSTANCE, BlockPos.ZERO, PathComputationType.LAND) ? YES : NO;
+    }
+
+    static boolean canWalkThroughPosition(BlockStateInterface bsi, int x, int y, int z, BlockState state) {
         Block block = state.getBlock();
         if (block instanceof AirBlock) { // early return for most common case
             return true;
@@ -191,6 +233,15 @@ public interface MovementHelper extends ActionCosts, Helper {
     }
 
     static boolean fullyPassable(BlockGetter access, BlockPos pos, BlockState state) {
+        // the state alone decides, see fullyPassableBlockState
+        return PrecomputedData.get().fullyPassable(pos, state);
+    }
+
+    /**
+     * The part of {@link #fullyPassable(BlockGetter, BlockPos, BlockState)} that only depends on the state, which is
+     * all of it apart from the AltoClef override
+     */
+    static boolean fullyPassableBlockState(BlockState state) {
         Block block = state.getBlock();
         if (block instanceof AirBlock) { // early return for most common case
             return true;
@@ -213,14 +264,30 @@ public interface MovementHelper extends ActionCosts, Helper {
                 || block instanceof ShulkerBoxBlock) {
             return false;
         }
-        if (AltoClefSettings.getInstance().shouldAvoidWalkThroughForce(pos)) {
-            return false;
-        }
         // door, fence gate, liquid, trapdoor have been accounted for, nothing else uses the world or pos parameters
-        return state.isPathfindable(access, pos, PathComputationType.LAND);
+        return state.isPathfindable(EmptyBlockGetter.INSTANCE, BlockPos.ZERO, PathComputationType.LAND);
     }
 
     static boolean isReplaceable(int x, int y, int z, BlockState state, BlockStateInterface bsi) {
+        return PrecomputedData.get().isReplaceable(bsi, x, y, z, state);
+    }
+
+    /**
+     * The part of {@link #isReplaceable(int, int, int, BlockState, BlockStateInterface)} that only depends on the
+     * state, for {@link PrecomputedData}
+     */
+    static Ternary isReplaceableBlockState(BlockState state) {
+        Block block = state.getBlock();
+        if (block instanceof AirBlock || block == Blocks.LARGE_FERN || block == Blocks.TALL_GRASS) {
+            return YES;
+        }
+        if (block instanceof SnowLayerBlock) {
+            return MAYBE;
+        }
+        return state.getMaterial().isReplaceable() ? YES : NO;
+    }
+
+    static boolean isReplaceablePosition(BlockStateInterface bsi, int x, int y, int z, BlockState state) {
         // for MovementTraverse and MovementAscend
         // block double plant defaults to true when the block doesn't match, so don't need to check that case
         // all other overrides just return true or false
@@ -301,6 +368,10 @@ public interface MovementHelper extends ActionCosts, Helper {
     }
 
     static boolean avoidWalkingInto(BlockState state) {
+        return PrecomputedData.get().avoidWalkingInto(state);
+    }
+
+    static boolean avoidWalkingIntoBlockState(BlockState state) {
         Block block = state.getBlock();
         return !state.getFluidState().isEmpty()
                 || block == Blocks.MAGMA_BLOCK
@@ -325,9 +396,47 @@ public interface MovementHelper extends ActionCosts, Helper {
      * @return Whether or not the specified block can be walked on
      */
     static boolean canWalkOn(BlockStateInterface bsi, int x, int y, int z, BlockState state) {
-        Block block = state.getBlock();
         if (AltoClefSettings.getInstance().canWalkOnForce(x, y, z)) return true;
         if (AltoClefSettings.getInstance().shouldAvoidWalkThroughForce(x, y + 1, z)) return false;
+        return PrecomputedData.get().canWalkOn(bsi, x, y, z, state);
+    }
+
+    /**
+     * The part of {@link #canWalkOn(BlockStateInterface, int, int, int, BlockState)} that only depends on the state,
+     * for {@link PrecomputedData}. Has to agree with {@link #canWalkOnPosition} wherever it doesn't say
+     * {@link Ternary#MAYBE}.
+     */
+    static Ternary canWalkOnBlockState(BlockState state) {
+        Block block = state.getBlock();
+        if (block instanceof AirBlock || block == Blocks.MAGMA_BLOCK || block == Blocks.BUBBLE_COLUMN || block == Blocks.HONEY_BLOCK) {
+            return NO;
+        }
+        if (isBlockNormalCube(state) || block instanceof AzaleaBlock || block == Blocks.LADDER) {
+            return YES;
+        }
+        if (block == Blocks.VINE) {
+            return Baritone.settings().allowVines.value ? YES : NO;
+        }
+        if (block == Blocks.FARMLAND || block == Blocks.DIRT_PATH || block == Blocks.ENDER_CHEST || block == Blocks.CHEST || block == Blocks.TRAPPED_CHEST) {
+            return YES;
+        }
+        if (!state.getFluidState().isEmpty()) {
+            return MAYBE; // water depends on what's above it, and lava on assumeWalkOnLava and the neighbours
+        }
+        if (block == Blocks.GLASS || block instanceof StainedGlassBlock || block instanceof StairBlock) {
+            return YES;
+        }
+        if (block instanceof SlabBlock) {
+            return Baritone.settings().allowWalkOnBottomSlab.value || state.getValue(SlabBlock.TYPE) != SlabType.BOTTOM ? YES : NO;
+        }
+        return NO;
+    }
+
+    /**
+     * {@link #canWalkOn(BlockStateInterface, int, int, int, BlockState)} without the AltoClef overrides
+     */
+    static boolean canWalkOnPosition(BlockStateInterface bsi, int x, int y, int z, BlockState state) {
+        Block block = state.getBlock();
         if (block instanceof AirBlock || block == Blocks.MAGMA_BLOCK || block == Blocks.BUBBLE_COLUMN || block == Blocks.HONEY_BLOCK) {
             // early return for most common case (air)
             // plus magma, which is a normal cube but it hurts you
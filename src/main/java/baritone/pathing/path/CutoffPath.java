@@ -36,11 +36,27 @@ public class CutoffPath extends PathBase {
 
     private final Goal goal;
 
+    /**
+     * Whether the movements are a view of a path that only creates them when they're asked for
+     */
+    private final boolean lazy;
+
+    /**
+     * The path this was cut from, and where in it, to ask it about movements without creating them
+     */
+    private final IPath prev;
+    private final int first;
+    private final int last;
+
     public CutoffPath(IPath prev, int firstPositionToInclude, int lastPositionToInclude) {
         path = prev.positions().subList(firstPositionToInclude, lastPositionToInclude + 1);
         movements = prev.movements().subList(firstPositionToInclude, lastPositionToInclude);
         numNodes = prev.getNumNodesConsidered();
         goal = prev.getGoal();
+        lazy = prev instanceof PathBase && ((PathBase) prev).createsMovementsLazily();
+        this.prev = prev;
+        this.first = firstPositionToInclude;
+        this.last = lastPositionToInclude;
         sanityCheck();
     }
 
@@ -48,6 +64,29 @@ public class CutoffPath extends PathBase {
         this(prev, 0, lastPositionToInclude);
     }
 
+    @Override
+    public boolean createsMovementsLazily() {
+        return lazy;
+    }
+
+    @Override
+    public IMovement tryMovement(int index) {
+        return lazy ? tryMovementOf(prev, first + index) : movements.get(index);
+    }
+
+    @Override
+    public IMovement createdMovement(int index) {
+        return lazy ? createdMovementOf(prev, first + index) : movements.get(index);
+    }
+
+    @Override
+    public double ticksRemainingFrom(int pathPosition) {
+        if (!lazy) {
+            return super.ticksRemainingFrom(pathPosition);
+        }
+        return prev.ticksRemainingFrom(first + pathPosition) - prev.ticksRemainingFrom(last);
+    }
+
     @Override
     public Goal getGoal() {
         return goal;
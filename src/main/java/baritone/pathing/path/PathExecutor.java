@@ -27,12 +27,14 @@ import baritone.api.pathing.path.IPathExecutor;
 import baritone.api.utils.*;
 import baritone.api.utils.input.Input;
 import baritone.behavior.PathingBehavior;
+import baritone.pathing.calc.AStarPathFinder;
 import baritone.pathing.calc.AbstractNodeCostSearch;
 import baritone.pathing.movement.CalculationContext;
 import baritone.pathing.movement.Movement;
 import baritone.pathing.movement.MovementHelper;
 import baritone.pathing.movement.movements.*;
 import baritone.utils.BlockStateInterface;
+import baritone.utils.pathing.PathBase;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Vec3i;
 import net.minecraft.util.Tuple;
@@ -78,11 +80,23 @@ public class PathExecutor implements IPathExecutor, Helper {
 
     private boolean sprintNextTick;
 
+    /**
+     * Where the player was on the most recent tick, for threads that can't ask {@link #ctx}
+     */
+    private volatile BetterBlockPos lastFeet;
+
+    /**
+     * The search this path came from, kept so that it can be repaired if this path fails, see
+     * {@link baritone.api.Settings#pathingIncrementalReplan}. Null if it isn't worth keeping.
+     */
+    private AStarPathFinder search;
+
     public PathExecutor(PathingBehavior behavior, IPath path) {
         this.behavior = behavior;
         this.ctx = behavior.ctx;
         this.path = path;
         this.pathPosition = 0;
+        this.lastFeet = path.getSrc();
     }
 
     private static boolean skipNow(IPlayerContext ctx, IMovement current) {
@@ -156,7 +170,19 @@ public class PathExecutor implements IPathExecutor, Helper {
     private Tuple<Double, BlockPos> closestPathPos(IPath path) {
         double best = -1;
         BlockPos bestPos = null;
-        for (IMovement movement : path.movements()) {
+        for (BlockPos pos : path.positions()) {
+            double dist = VecUtils.entityDistanceToCenter(ctx.player(), pos);
+            if (dist < best || best == -1) {
+                best = dist;
+                bestPos = pos;
+            }
+        }
+        // only look at the movements that exist, the positions already cover the ones that haven't been created
+        for (int i = 0; i < path.length() - 1; i++) {
+            IMovement movement = PathBase.createdMovementOf(path, i);
+            if (movement == null) {
+                continue;
+            }
             for (BlockPos pos : ((Movement) movement).getValidPositions()) {
                 double dist = VecUtils.entityDistanceToCenter(ctx.player(), pos);
                 if (dist < best || best == -1) {
@@ -168,6 +194,18 @@ public class PathExecutor implements IPathExecutor, Helper {
         return new Tuple<>(best, bestPos);
     }
 
+    /**
+     * Whether the player standing at {@code pos} is on the movement from position {@code i}, without creating the
+     * movement just to find out
+     */
+    private boolean isOnMovement(int i, BetterBlockPos pos) {
+        IMovement movement = PathBase.createdMovementOf(path, i);
+        if (movement == null) {
+            return path.positions().get(i).equals(pos) || path.positions().get(i + 1).equals(pos);
+        }
+        return ((Movement) movement).getValidPositions().contains(pos);
+    }
+
     /**
      * Tick this executor
      *
@@ -181,15 +219,27 @@ public class PathExecutor implements IPathExecutor, Helper {
         if (pathPosition >= path.length()) {
             return true; // stop bugging me, I'm done
         }
+        // the current movement and the two after it are looked at every tick (sprinting, falls), so they have to exist
+        for (int i = pathPosition; i < path.length() - 1 && i <= pathPosition + 2; i++) {
+            if (PathBase.tryMovementOf(path, i) == null) {
+                logDebug("Something has changed in the world and a movement ahead can no longer be created. Cancelling.");
+                cancel();
+                return true;
+            }
+        }
         Movement movement = (Movement) path.movements().get(pathPosition);
         BetterBlockPos whereAmI = ctx.playerFeet();
+        lastFeet = whereAmI;
         if (!movement.getValidPositions().contains(whereAmI)) {
             for (int i = 0; i < pathPosition && i < path.length(); i++) {//this happens for example when you lag out and get teleported back a couple blocks
-                if (((Movement) path.movements().get(i)).getValidPositions().contains(whereAmI)) {
+                if (isOnMovement(i, whereAmI)) {
                     int previousPos = pathPosition;
                     pathPosition = i;
                     for (int j = pathPosition; j <= previousPos; j++) {
-                        path.movements().get(j).reset();
+                        IMovement created = PathBase.createdMovementOf(path, j);
+                        if (created != null) {
+                            created.reset();
+                        }
                     }
                     onChangeInPathPosition();
                     onTick();
@@ -198,7 +248,7 @@ public class PathExecutor implements IPathExecutor, Helper {
             }
             for (int i = pathPosition + 3; i < path.length() - 1; i++) { //dont check pathPosition+1. the movement tells us when it's done (e.g. sneak placing)
                 // also don't check pathPosition+2 because reasons
-                if (((Movement) path.movements().get(i)).getValidPositions().contains(whereAmI)) {
+                if (isOnMovement(i, whereAmI)) {
                     if (i - pathPosition > 2) {
                         logDebug("Skipping forward " + (i - pathPosition) + " steps, to " + i);
                     }
@@ -233,7 +283,13 @@ public class PathExecutor implements IPathExecutor, Helper {
             if (i < 0 || i >= path.movements().size()) {
                 continue;
             }
-            Movement m = (Movement) path.movements().get(i);
+            if (PathBase.createdMovementOf(path, i) == null) {
+                recalcBP = true; // about to be created, so its blocks aren't in toBreak / toPlace / toWalkInto yet
+            }
+            Movement m = (Movement) PathBase.tryMovementOf(path, i);
+            if (m == null) {
+                continue; // cancelled once execution gets to it
+            }
             List<BlockPos> prevBreak = m.toBreak(bsi);
             List<BlockPos> prevPlace = m.toPlace(bsi);
             List<BlockPos> prevWalkInto = m.toWalkInto(bsi);
@@ -253,7 +309,10 @@ public class PathExecutor implements IPathExecutor, Helper {
             HashSet<BlockPos> newPlace = new HashSet<>();
             HashSet<BlockPos> newWalkInto = new HashSet<>();
             for (int i = pathPosition; i < path.movements().size(); i++) {
-                Movement m = (Movement) path.movements().get(i);
+                Movement m = (Movement) PathBase.createdMovementOf(path, i);
+                if (m == null) {
+                    continue;
+                }
                 newBreak.addAll(m.toBreak(bsi));
                 newPlace.addAll(m.toPlace(bsi));
                 newWalkInto.addAll(m.toWalkInto(bsi));
@@ -281,7 +340,8 @@ public class PathExecutor implements IPathExecutor, Helper {
             // do this only once, when the movement starts, and deliberately get the cost as cached when this path was calculated, not the cost as it is right now
             currentMovementOriginalCostEstimate = movement.getCost();
             for (int i = 1; i < Baritone.settings().costVerificationLookahead.value && pathPosition + i < path.length() - 1; i++) {
-                if (((Movement) path.movements().get(pathPosition + i)).calculateCost(behavior.secretInternalGetCalculationContext()) >= ActionCosts.COST_INF && canCancel) {
+                Movement ahead = (Movement) PathBase.tryMovementOf(path, pathPosition + i);
+                if ((ahead == null || ahead.calculateCost(behavior.secretInternalGetCalculationContext()) >= ActionCosts.COST_INF) && canCancel) {
                     logDebug("Something has changed in the world and a future movement has become impossible. Cancelling.");
                     cancel();
                     return true;
@@ -583,6 +643,7 @@ public class PathExecutor implements IPathExecutor, Helper {
                 throw new IllegalStateException();
             }
             PathExecutor ret = new PathExecutor(behavior, path);
+            ret.search = search; // still covers everything up to where we are
             ret.pathPosition = pathPosition;
             ret.currentMovementOriginalCostEstimate = currentMovementOriginalCostEstimate;
             ret.costEstimateIndex = costEstimateIndex;
@@ -600,6 +661,7 @@ public class PathExecutor implements IPathExecutor, Helper {
             }
             logDebug("Discarding earliest segment movements, length cut from " + path.length() + " to " + newPath.length());
             PathExecutor ret = new PathExecutor(behavior, newPath);
+            ret.search = search;
             ret.pathPosition = pathPosition - cutoffAmt;
             ret.currentMovementOriginalCostEstimate = currentMovementOriginalCostEstimate;
             if (costEstimateIndex != null) {
@@ -620,6 +682,21 @@ public class PathExecutor implements IPathExecutor, Helper {
         return failed;
     }
 
+    /**
+     * @return Where the player was as of the most recent tick of this executor, safe to call from any thread
+     */
+    public BetterBlockPos getLastFeet() {
+        return lastFeet;
+    }
+
+    public AStarPathFinder getSearch() {
+        return search;
+    }
+
+    public void setSearch(AStarPathFinder search) {
+        this.search = search;
+    }
+
     public boolean finished() {
         return pathPosition >= path.length();
     }
@@ -35,14 +35,49 @@ public class SplicedPath extends PathBase {
 
     private final Goal goal;
 
-    private SplicedPath(List<BetterBlockPos> path, List<IMovement> movements, int numNodesConsidered, Goal goal) {
+    /**
+     * The paths this was spliced from: the first {@link #firstLength} movements are the start of {@link #first}, the
+     * rest come from {@link #second} starting at {@link #secondOffset}. Only kept when either of them creates its
+     * movements lazily, so that splicing doesn't create them all.
+     */
+    private final IPath first;
+    private final int firstLength;
+    private final IPath second;
+    private final int secondOffset;
+
+    private SplicedPath(List<BetterBlockPos> path, IPath first, int firstLength, IPath second, int secondOffset, int numNodesConsidered, Goal goal) {
         this.path = path;
-        this.movements = movements;
+        boolean lazy = lazy(first) || lazy(second);
+        this.first = lazy ? first : null;
+        this.firstLength = firstLength;
+        this.second = lazy ? second : null;
+        this.secondOffset = secondOffset;
+        if (lazy) {
+            this.movements = new AbstractList<IMovement>() {
+                @Override
+                public IMovement get(int index) {
+                    return index < firstLength ? first.movements().get(index) : second.movements().get(secondOffset + index - firstLength);
+                }
+
+                @Override
+                public int size() {
+                    return path.size() - 1;
+                }
+            };
+        } else {
+            this.movements = new ArrayList<>();
+            this.movements.addAll(first.movements().subList(0, firstLength));
+            this.movements.addAll(second.movements().subList(secondOffset, second.length() - 1));
+        }
         this.numNodes = numNodesConsidered;
         this.goal = goal;
         sanityCheck();
     }
 
+    private static boolean lazy(IPath path) {
+        return path instanceof PathBase && ((PathBase) path).createsMovementsLazily();
+    }
+
     @Override
     public Goal getGoal() {
         return goal;
@@ -68,6 +103,38 @@ public class SplicedPath extends PathBase {
         return path.size();
     }
 
+    @Override
+    public boolean createsMovementsLazily() {
+        return first != null;
+    }
+
+    @Override
+    public IMovement tryMovement(int index) {
+        if (first == null) {
+            return movements.get(index);
+        }
+        return index < firstLength ? tryMovementOf(first, index) : tryMovementOf(second, secondOffset + index - firstLength);
+    }
+
+    @Override
+    public IMovement createdMovement(int index) {
+        if (first == null) {
+            return movements.get(index);
+        }
+        return index < firstLength ? createdMovementOf(first, index) : createdMovementOf(second, secondOffset + index - firstLength);
+    }
+
+    @Override
+    public double ticksRemainingFrom(int pathPosition) {
+        if (first == null) {
+            return super.ticksRemainingFrom(pathPosition);
+        }
+        if (pathPosition < firstLength) {
+            return first.ticksRemainingFrom(pathPosition) - first.ticksRemainingFrom(firstLength) + second.ticksRemainingFrom(secondOffset);
+        }
+        return second.ticksRemainingFrom(secondOffset + pathPosition - firstLength);
+    }
+
     public static Optional<SplicedPath> trySplice(IPath first, IPath second, boolean allowOverlapCutoff) {
         if (second == null || first == null) {
             return Optional.empty();
@@ -95,12 +162,8 @@ public class SplicedPath extends PathBase {
             throw new IllegalStateException();
         }
         List<BetterBlockPos> positions = new ArrayList<>();
-        List<IMovement> movements = new ArrayList<>();
         positions.addAll(first.positions().subList(0, firstPositionInSecond + 1));
-        movements.addAll(first.movements().subList(0, firstPositionInSecond));
-
         positions.addAll(second.positions().subList(positionInSecond + 1, second.length()));
-        movements.addAll(second.movements().subList(positionInSecond, second.length() - 1));
-        return Optional.of(new SplicedPath(positions, movements, first.getNumNodesConsidered() + second.getNumNodesConsidered(), first.getGoal()));
+        return Optional.of(new SplicedPath(positions, first, firstPositionInSecond, second, positionInSecond, first.getNumNodesConsidered() + second.getNumNodesConsidered(), first.getGoal()));
     }
 }
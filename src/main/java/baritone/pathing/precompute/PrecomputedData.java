@@ -0,0 +1,199 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.precompute;
+
+import baritone.Baritone;
+import baritone.api.Settings;
+import baritone.altoclef.AltoClefSettings;
+import baritone.pathing.movement.MovementHelper;
+import baritone.utils.BlockStateInterface;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.block.AirBlock;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The parts of {@link MovementHelper#canWalkThrough}, {@link MovementHelper#canWalkOn},
+ * {@link MovementHelper#fullyPassable}, {@link MovementHelper#avoidWalkingInto} and
+ * {@link MovementHelper#isReplaceable} that only depend on the block state, as bit flags in a table indexed by block
+ * state id. Each entry is filled in the first time its state is looked up. Where the answer depends on the position
+ * (water, snow layers, carpet and so on), the entry says so, and the full check runs instead.
+ * <p>
+ * A few answers also depend on settings, so the table is thrown away and started over whenever those change, which
+ * every {@link #get()} checks for.
+ */
+public final class PrecomputedData {
+
+    private static final int COMPLETED = 1;
+    private static final int AIR = 1 << 1;
+    private static final int CAN_WALK_THROUGH = 1 << 2;
+    private static final int CAN_WALK_THROUGH_MAYBE = 1 << 3;
+    private static final int CAN_WALK_ON = 1 << 4;
+    private static final int CAN_WALK_ON_MAYBE = 1 << 5;
+    private static final int FULLY_PASSABLE = 1 << 6;
+    private static final int AVOID_WALKING_INTO = 1 << 7;
+    private static final int REPLACEABLE = 1 << 8;
+    private static final int REPLACEABLE_MAYBE = 1 << 9;
+
+    private static volatile PrecomputedData instance;
+
+    private final int[] data = new int[Block.BLOCK_STATE_REGISTRY.size()];
+
+    // the settings that went into the table
+    private final List<Block> blocksToAvoid;
+    private final List<Block> blocksToAvoidSetting; // the list itself, to notice it being swapped for another one
+    private final boolean allowVines;
+    private final boolean allowWalkOnBottomSlab;
+
+    private PrecomputedData() {
+        this.blocksToAvoidSetting = Baritone.settings().blocksToAvoid.value;
+        this.blocksToAvoid = new ArrayList<>(blocksToAvoidSetting);
+        this.allowVines = Baritone.settings().allowVines.value;
+        this.allowWalkOnBottomSlab = Baritone.settings().allowWalkOnBottomSlab.value;
+    }
+
+    /**
+     * Settings are plain fields that can be assigned from anywhere (commands, the settings file, other mods), so
+     * there's no change to be told about. Instead every lookup makes sure they're still what the table was made with.
+     *
+     * @return The table for the current settings
+     */
+    public static PrecomputedData get() {
+        PrecomputedData data = instance;
+        if (data == null || data.isStale()) {
+            return refresh();
+        }
+        return data;
+    }
+
+    /**
+     * Only compares what can be compared without going through {@link #blocksToAvoid}, so it's cheap enough for every
+     * lookup. That catches any setting being assigned, and blocks being added to or removed from the list in place.
+     */
+    private boolean isStale() {
+        Settings settings = Baritone.settings();
+        return allowVines != settings.allowVines.value
+                || allowWalkOnBottomSlab != settings.allowWalkOnBottomSlab.value
+                || blocksToAvoidSetting != settings.blocksToAvoid.value
+                || blocksToAvoid.size() != blocksToAvoidSetting.size();
+    }
+
+    /**
+     * Starts a new table if any of the settings it depends on have changed since the current one was started,
+     * comparing all of {@code blocksToAvoid}, which {@link #get()} doesn't. Called before every path calculation by
+     * {@link baritone.pathing.movement.CalculationContext}.
+     *
+     * @return The table for the current settings
+     */
+    public static PrecomputedData refresh() {
+        PrecomputedData data = instance;
+        if (data == null || data.isStale() || !data.blocksToAvoid.equals(Baritone.settings().blocksToAvoid.value)) {
+            data = new PrecomputedData();
+            instance = data;
+        }
+        return data;
+    }
+
+    private int lookup(BlockState state) {
+        int id = Block.BLOCK_STATE_REGISTRY.getId(state);
+        if (id < 0 || id >= data.length) {
+            return compute(state); // registered after we were made, don't bother caching it
+        }
+        int flags = data[id];
+        if ((flags & COMPLETED) == 0) {
+            // another thread might be doing the same thing, but it'll get the same answer
+            flags = compute(state);
+            data[id] = flags;
+        }
+        return flags;
+    }
+
+    private static int compute(BlockState state) {
+        int flags = COMPLETED;
+        if (state.getBlock() instanceof AirBlock) {
+            flags |= AIR;
+        }
+        flags |= flags(MovementHelper.canWalkThroughBlockState(state), CAN_WALK_THROUGH, CAN_WALK_THROUGH_MAYBE);
+        flags |= flags(MovementHelper.canWalkOnBlockState(state), CAN_WALK_ON, CAN_WALK_ON_MAYBE);
+        flags |= flags(MovementHelper.isReplaceableBlockState(state), REPLACEABLE, REPLACEABLE_MAYBE);
+        if (MovementHelper.fullyPassableBlockState(state)) {
+            flags |= FULLY_PASSABLE;
+        }
+        if (MovementHelper.avoidWalkingIntoBlockState(state)) {
+            flags |= AVOID_WALKING_INTO;
+        }
+        return flags;
+    }
+
+    private static int flags(Ternary answer, int yes, int maybe) {
+        switch (answer) {
+            case YES:
+                return yes;
+            case MAYBE:
+                return maybe;
+            default:
+                return 0;
+        }
+    }
+
+    public boolean canWalkThrough(BlockStateInterface bsi, int x, int y, int z, BlockState state) {
+        int flags = lookup(state);
+        if ((flags & CAN_WALK_THROUGH_MAYBE) != 0) {
+            return MovementHelper.canWalkThroughPosition(bsi, x, y, z, state);
+        }
+        if ((flags & CAN_WALK_THROUGH) == 0) {
+            return false;
+        }
+        // the only position dependent part left can only ever say no, and doesn't apply to air
+        return (flags & AIR) != 0 || !AltoClefSettings.getInstance().shouldAvoidWalkThroughForce(x, y, z);
+    }
+
+    /**
+     * Doesn't include the position overrides that {@link MovementHelper#canWalkOn} checks first
+     */
+    public boolean canWalkOn(BlockStateInterface bsi, int x, int y, int z, BlockState state) {
+        int flags = lookup(state);
+        if ((flags & CAN_WALK_ON_MAYBE) != 0) {
+            return MovementHelper.canWalkOnPosition(bsi, x, y, z, state);
+        }
+        return (flags & CAN_WALK_ON) != 0;
+    }
+
+    public boolean fullyPassable(BlockPos pos, BlockState state) {
+        int flags = lookup(state);
+        if ((flags & FULLY_PASSABLE) == 0) {
+            return false;
+        }
+        return (flags & AIR) != 0 || !AltoClefSettings.getInstance().shouldAvoidWalkThroughForce(pos);
+    }
+
+    public boolean avoidWalkingInto(BlockState state) {
+        return (lookup(state) & AVOID_WALKING_INTO) != 0;
+    }
+
+    public boolean isReplaceable(BlockStateInterface bsi, int x, int y, int z, BlockState state) {
+        int flags = lookup(state);
+        if ((flags & REPLACEABLE_MAYBE) != 0) {
+            return MovementHelper.isReplaceablePosition(bsi, x, y, z, state);
+        }
+        return (flags & REPLACEABLE) != 0;
+    }
+}
@@ -60,6 +60,7 @@ import net.minecraft.world.item.BlockItem;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.context.BlockPlaceContext;
 import net.minecraft.world.item.context.UseOnContext;
+import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.block.*;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.block.state.properties.Property;
@@ -73,13 +74,20 @@ import org.jetbrains.annotations.Nullable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static baritone.api.pathing.movement.ActionCosts.COST_INF;
 
 public final class BuilderProcess extends BaritoneProcessHelper implements IBuilderProcess {
-    private HashSet<BetterBlockPos> incorrectPositions;
+
+    /**
+     * How many of the incorrect positions nearest to the player a goal is made out of, see {@link #assemble}
+     */
+    private static final int GOAL_NEAREST_POSITIONS = 256;
+
+    private IncorrectPositionIndex incorrectPositions;
     private LongOpenHashSet observedCompleted; // positions that are completed even if they're out of render distance and we can't make sure right now
     private String name;
     private ISchematic realSchematic;
@@ -236,7 +244,7 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
         this.realSchematic = (ISchematic) stateStack.pop();
         this.schematic = (ISchematic) stateStack.pop();
         this.name = (String) stateStack.pop();
-        this.incorrectPositions = (HashSet<BetterBlockPos>) stateStack.pop();
+        this.incorrectPositions = (IncorrectPositionIndex) stateStack.pop();
         this.ticks = (int) stateStack.pop();
         this.approxPlaceable = (List<BlockState>) stateStack.pop();
 
@@ -841,13 +849,17 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
 
     private boolean recalc(BuilderCalculationContext bcc) {
         if (incorrectPositions == null) {
-            incorrectPositions = new HashSet<>();
+            incorrectPositions = new IncorrectPositionIndex();
             fullRecalc(bcc);
             if (incorrectPositions.isEmpty()) {
                 return false;
             }
         }
-        recalcNearby(bcc);
+        if (Baritone.settings().builderIncrementalTracking.value) {
+            recalcChanged(bcc);
+        } else {
+            recalcNearby(bcc);
+        }
         if (incorrectPositions.isEmpty()) {
             fullRecalc(bcc);
         }
@@ -862,68 +874,141 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
         }
     }*/
 
+    /**
+     * Called for every block the server changes, see {@link #recalcChanged(BuilderCalculationContext)}
+     */
+    public void onBlockChanged(int x, int y, int z) {
+        if (incorrectPositions == null || schematic == null || !Baritone.settings().builderIncrementalTracking.value) {
+            return;
+        }
+        int relX = x - origin.getX();
+        int relY = y - origin.getY();
+        int relZ = z - origin.getZ();
+        if (relX >= 0 && relY >= 0 && relZ >= 0 && relX < schematic.widthX() && relY < schematic.heightY() && relZ < schematic.lengthZ()) {
+            incorrectPositions.markDirty(x, y, z);
+        }
+    }
+
+    /**
+     * Called for every chunk that is loaded, see {@link #recalcChanged(BuilderCalculationContext)}
+     */
+    public void onChunkLoaded(int chunkX, int chunkZ) {
+        if (incorrectPositions == null || schematic == null || !Baritone.settings().builderIncrementalTracking.value) {
+            return;
+        }
+        if ((chunkX << 4) + 15 >= origin.getX() && (chunkX << 4) < origin.getX() + schematic.widthX()
+                && (chunkZ << 4) + 15 >= origin.getZ() && (chunkZ << 4) < origin.getZ() + schematic.lengthZ()) {
+            incorrectPositions.markChunkDirty(chunkX, chunkZ);
+        }
+    }
+
+    /**
+     * Instead of {@link #recalcNearby(BuilderCalculationContext)}, only check the blocks that changed, the incorrect
+     * blocks in chunks that were loaded (they were assumed incorrect while they couldn't be seen), and the incorrect
+     * blocks nearby. Anything that changes without the client being told (while out of render distance) is still
+     * noticed by {@link #fullRecalc(BuilderCalculationContext)} before the build is considered done.
+     * <p>
+     * If that scan stopped at {@link baritone.api.Settings#incorrectSize}, the index doesn't have every incorrect
+     * block, so the whole cube nearby is checked like {@link #recalcNearby(BuilderCalculationContext)} does, to find
+     * the ones the scan didn't get to.
+     */
+    private void recalcChanged(BuilderCalculationContext bcc) {
+        for (long pos : incorrectPositions.takeDirtyBlocks()) {
+            recheck(bcc, BlockPos.getX(pos), BlockPos.getY(pos), BlockPos.getZ(pos));
+        }
+        for (long chunk : incorrectPositions.takeDirtyChunks()) {
+            for (long pos : incorrectPositions.inChunk(ChunkPos.getX(chunk), ChunkPos.getZ(chunk))) {
+                recheck(bcc, BlockPos.getX(pos), BlockPos.getY(pos), BlockPos.getZ(pos));
+            }
+        }
+        if (incorrectPositions.capped) {
+            recalcNearby(bcc);
+            return;
+        }
+        BetterBlockPos center = ctx.playerFeet();
+        for (long pos : incorrectPositions.within(center.x, center.y, center.z, Baritone.settings().builderTickScanRadius.value)) {
+            recheck(bcc, BlockPos.getX(pos), BlockPos.getY(pos), BlockPos.getZ(pos));
+        }
+    }
+
     private void recalcNearby(BuilderCalculationContext bcc) {
         BetterBlockPos center = ctx.playerFeet();
         int radius = Baritone.settings().builderTickScanRadius.value;
         for (int dx = -radius; dx <= radius; dx++) {
             for (int dy = -radius; dy <= radius; dy++) {
                 for (int dz = -radius; dz <= radius; dz++) {
-                    int x = center.x + dx;
-                    int y = center.y + dy;
-                    int z = center.z + dz;
-                    BlockState desired = bcc.getSchematic(x, y, z, bcc.bsi.get0(x, y, z));
-                    if (desired != null) {
-                        // we care about this position
-                        BetterBlockPos pos = new BetterBlockPos(x, y, z);
-                        if (valid(bcc.bsi.get0(x, y, z), desired, false) || breakLimitExceeded(new BlockPos(x, y, z))) {
-                            incorrectPositions.remove(pos);
-                            observedCompleted.add(BetterBlockPos.longHash(pos));
-                        } else {
-                            incorrectPositions.add(pos);
-                            observedCompleted.remove(BetterBlockPos.longHash(pos));
-                        }
-                    }
+                    recheck(bcc, center.x + dx, center.y + dy, center.z + dz);
                 }
             }
         }
     }
 
+    private void recheck(BuilderCalculationContext bcc, int x, int y, int z) {
+        BlockState desired = bcc.getSchematic(x, y, z, bcc.bsi.get0(x, y, z));
+        if (desired != null) {
+            // we care about this position
+            if (valid(bcc.bsi.get0(x, y, z), desired, false) || breakLimitExceeded(new BlockPos(x, y, z))) {
+                incorrectPositions.remove(x, y, z);
+                observedCompleted.add(BetterBlockPos.longHash(x, y, z));
+            } else {
+                incorrectPositions.add(x, y, z);
+                observedCompleted.remove(BetterBlockPos.longHash(x, y, z));
+            }
+        }
+    }
+
+    /**
+     * Goes through the schematic until it has found {@link baritone.api.Settings#incorrectSize} incorrect blocks. With
+     * {@link baritone.api.Settings#builderIncrementalTracking}, it carries on from where it stopped last time and wraps around,
+     * instead of starting over from the bottom.
+     */
     private void fullRecalc(BuilderCalculationContext bcc) {
-        incorrectPositions = new HashSet<>();
-        for (int y = 0; y < schematic.heightY(); y++) {
-            for (int z = 0; z < schematic.lengthZ(); z++) {
-                for (int x = 0; x < schematic.widthX(); x++) {
-                    int blockX = x + origin.getX();
-                    int blockY = y + origin.getY();
-                    int blockZ = z + origin.getZ();
-                    BlockState current = bcc.bsi.get0(blockX, blockY, blockZ);
-                    if (!schematic.inSchematic(x, y, z, current)) {
-                        continue;
-                    }
-                    if (bcc.bsi.worldContainsLoadedChunk(blockX, blockZ)) { // check if its in render distance, not if its in cache
-                        // we can directly observe this block, it is in render distance
-                        if (valid(bcc.bsi.get0(blockX, blockY, blockZ), schematic.desiredState(x, y, z, current, this.approxPlaceable), false) || breakLimitExceeded(new BlockPos(x, y, z))) {
-                            observedCompleted.add(BetterBlockPos.longHash(blockX, blockY, blockZ));
-                        } else {
-                            incorrectPositions.add(new BetterBlockPos(blockX, blockY, blockZ));
-                            observedCompleted.remove(BetterBlockPos.longHash(blockX, blockY, blockZ));
-                            if (incorrectPositions.size() > Baritone.settings().incorrectSize.value) {
-                                return;
-                            }
-                        }
-                        continue;
-                    }
-                    // this is not in render distance
-                    if (!observedCompleted.contains(BetterBlockPos.longHash(blockX, blockY, blockZ))
-                            && !Baritone.settings().buildSkipBlocks.value.contains(schematic.desiredState(x, y, z, current, this.approxPlaceable).getBlock())) {
-                        // and we've never seen this position be correct
-                        // therefore mark as incorrect
-                        incorrectPositions.add(new BetterBlockPos(blockX, blockY, blockZ));
-                        if (incorrectPositions.size() > Baritone.settings().incorrectSize.value) {
-                            return;
-                        }
+        incorrectPositions.clear();
+        incorrectPositions.capped = false;
+        int widthX = schematic.widthX();
+        int lengthZ = schematic.lengthZ();
+        long volume = (long) widthX * lengthZ * schematic.heightY();
+        if (!Baritone.settings().builderIncrementalTracking.value || incorrectPositions.scanCursor >= volume) {
+            incorrectPositions.scanCursor = 0;
+        }
+        for (long scanned = 0; scanned < volume; scanned++) {
+            long i = incorrectPositions.scanCursor;
+            incorrectPositions.scanCursor = i + 1 == volume ? 0 : i + 1;
+            // same y, z, x order as a nested loop
+            int x = (int) (i % widthX);
+            int z = (int) (i / widthX % lengthZ);
+            int y = (int) (i / widthX / lengthZ);
+            int blockX = x + origin.getX();
+            int blockY = y + origin.getY();
+            int blockZ = z + origin.getZ();
+            BlockState current = bcc.bsi.get0(blockX, blockY, blockZ);
+            if (!schematic.inSchematic(x, y, z, current)) {
+                continue;
+            }
+            if (bcc.bsi.worldContainsLoadedChunk(blockX, blockZ)) { // check if its in render distance, not if its in cache
+                // we can directly observe this block, it is in render distance
+                if (valid(bcc.bsi.get0(blockX, blockY, blockZ), schematic.desiredState(x, y, z, current, this.approxPlaceable), false) || breakLimitExceeded(new BlockPos(x, y, z))) {
+                    observedCompleted.add(BetterBlockPos.longHash(blockX, blockY, blockZ));
+                } else {
+                    incorrectPositions.add(blockX, blockY, blockZ);
+                    observedCompleted.remove(BetterBlockPos.longHash(blockX, blockY, blockZ));
+                    if (incorrectPositions.size() > Baritone.settings().incorrectSize.value) {
+                        incorrectPositions.capped = true;
+                        return;
                     }
                 }
+                continue;
+            }
+            // this is not in render distance
+            if (!observedCompleted.contains(BetterBlockPos.longHash(blockX, blockY, blockZ))
+                    && !Baritone.settings().buildSkipBlocks.value.contains(schematic.desiredState(x, y, z, current, this.approxPlaceable).getBlock())) {
+                // and we've never seen this position be correct
+                // therefore mark as incorrect
+                incorrectPositions.add(blockX, blockY, blockZ);
+                if (incorrectPositions.size() > Baritone.settings().incorrectSize.value) {
+                    incorrectPositions.capped = true;
+                    return;
+                }
             }
         }
     }
@@ -985,13 +1070,28 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
     }*/
 
     private Goal assemble(BuilderCalculationContext bcc, List<BlockState> approxPlaceable, boolean logMissing) {
+        if (incorrectPositions.size() > GOAL_NEAREST_POSITIONS) {
+            // the nearest ones are almost always enough for a goal, only go through all of them if they weren't
+            BetterBlockPos feet = ctx.playerFeet();
+            Goal goal = assemble(bcc, approxPlaceable, false, consumer -> incorrectPositions.forEachNear(feet.x, feet.y, feet.z, GOAL_NEAREST_POSITIONS, consumer));
+            if (goal != null) {
+                return goal;
+            }
+        }
+        return assemble(bcc, approxPlaceable, logMissing, incorrectPositions::forEach);
+    }
+
+    /**
+     * @param positions Goes through the incorrect positions to make the goal out of
+     */
+    private Goal assemble(BuilderCalculationContext bcc, List<BlockState> approxPlaceable, boolean logMissing, Consumer<Consumer<BetterBlockPos>> positions) {
         List<BetterBlockPos> placeable = new ArrayList<>();
         List<BetterBlockPos> breakable = new ArrayList<>();
         List<BetterBlockPos> sourceLiquids = new ArrayList<>();
         List<BetterBlockPos> flowingLiquids = new ArrayList<>();
         //stopProtectItemOfMissing();
         missing.clear();
-        incorrectPositions.forEach(pos -> {
+        positions.accept(pos -> {
             BlockState state = bcc.bsi.get0(pos);
             if (state.getBlock() instanceof AirBlock) {
                 final BlockState bsSchematic = bcc.getSchematic(pos.x, pos.y, pos.z, state);
@@ -1182,6 +1282,11 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
             // prioritize lower y coordinates
             return this.y * 100 + super.heuristic(x, y, z);
         }
+
+        @Override
+        public boolean bounds(int[] box) {
+            return false; // the heuristic isn't a distance any more
+        }
     }
 
     @Override
@@ -1216,6 +1321,11 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
             // prioritize lower y coordinates
             return this.y * 100 + super.heuristic(x, y, z);
         }
+
+        @Override
+        public boolean bounds(int[] box) {
+            return false; // the heuristic isn't a distance any more
+        }
     }
 
     private List<BlockState> approxPlaceable(int size) {
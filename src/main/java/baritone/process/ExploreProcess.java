@@ -23,12 +23,14 @@ import baritone.api.pathing.goals.Goal;
 import baritone.api.pathing.goals.GoalComposite;
 import baritone.api.pathing.goals.GoalXZ;
 import baritone.api.pathing.goals.GoalYLevel;
+import baritone.api.pathing.goals.IndexedGoalComposite;
 import baritone.api.process.IExploreProcess;
 import baritone.api.process.PathingCommand;
 import baritone.api.process.PathingCommandType;
 import baritone.api.utils.MyChunkPos;
 import baritone.cache.CachedWorld;
 import baritone.utils.BaritoneProcessHelper;
+import baritone.utils.TaskScheduler;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
@@ -103,7 +105,7 @@ public final class ExploreProcess extends BaritoneProcessHelper implements IExpl
             logDebug("awaiting region load from disk");
             return new PathingCommand(null, PathingCommandType.REQUEST_PAUSE);
         }
-        return new PathingCommand(new GoalComposite(closestUncached), PathingCommandType.FORCE_REVALIDATE_GOAL_AND_PATH);
+        return new PathingCommand(new IndexedGoalComposite(closestUncached), PathingCommandType.FORCE_REVALIDATE_GOAL_AND_PATH);
     }
 
     private Goal[] closestUncachedChunks(BlockPos center, IChunkFilter filter) {
@@ -197,11 +199,14 @@ public final class ExploreProcess extends BaritoneProcessHelper implements IExpl
                 return Status.EXPLORED;
             }
             if (!((CachedWorld) cache).regionLoaded(centerX, centerZ)) {
-                Baritone.getExecutor().execute(() -> {
+                Baritone.getScheduler().execute(TaskScheduler.Lane.DISK, TaskScheduler.Priority.LOW, () -> {
                     ((CachedWorld) cache).tryLoadFromDisk(centerX >> 9, centerZ >> 9);
                 });
                 return Status.UNKNOWN; // we still need to load regions from disk in order to decide properly
             }
+            if (!((CachedWorld) cache).isSettled(centerX, centerZ)) {
+                return Status.UNKNOWN; // isCached asked for it, but it hasn't been read from disk yet
+            }
             return Status.NOT_EXPLORED;
         }
 
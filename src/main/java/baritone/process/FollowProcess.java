@@ -19,9 +19,9 @@ package baritone.process;
 
 import baritone.Baritone;
 import baritone.api.pathing.goals.Goal;
-import baritone.api.pathing.goals.GoalComposite;
 import baritone.api.pathing.goals.GoalNear;
 import baritone.api.pathing.goals.GoalXZ;
+import baritone.api.pathing.goals.IndexedGoalComposite;
 import baritone.api.process.IFollowProcess;
 import baritone.api.process.PathingCommand;
 import baritone.api.process.PathingCommandType;
@@ -50,7 +50,7 @@ public final class FollowProcess extends BaritoneProcessHelper implements IFollo
     @Override
     public PathingCommand onTick(boolean calcFailed, boolean isSafeToCancel) {
         scanWorld();
-        Goal goal = new GoalComposite(cache.stream().map(this::towards).toArray(Goal[]::new));
+        Goal goal = new IndexedGoalComposite(cache.stream().map(this::towards).toArray(Goal[]::new));
         return new PathingCommand(goal, PathingCommandType.REVALIDATE_GOAL_AND_PATH);
     }
 
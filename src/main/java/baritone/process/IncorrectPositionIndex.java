@@ -0,0 +1,213 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.process;
+
+import baritone.api.utils.BetterBlockPos;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.ChunkPos;
+
+import java.util.function.Consumer;
+
+/**
+ * The incorrect positions of a build, bucketed by chunk column so that the ones near a position can be found without
+ * going through all of them, along with what changed in the world since the builder last looked.
+ * <p>
+ * Positions are stored as {@link BlockPos#asLong()} and chunks as {@link ChunkPos#asLong(int, int)}. Only meant to be
+ * used from the client thread.
+ */
+final class IncorrectPositionIndex {
+
+    private final Long2ObjectOpenHashMap<LongOpenHashSet> byChunk = new Long2ObjectOpenHashMap<>();
+    private int size;
+
+    private final LongOpenHashSet dirtyBlocks = new LongOpenHashSet();
+    private final LongOpenHashSet dirtyChunks = new LongOpenHashSet();
+
+    /**
+     * Where the next scan through the whole schematic starts, so that it carries on from where the previous one had
+     * to stop instead of going through the same blocks again
+     */
+    long scanCursor;
+
+    /**
+     * Whether the most recent scan through the whole schematic stopped at {@link baritone.api.Settings#incorrectSize},
+     * so that there can be incorrect positions that aren't in here
+     */
+    boolean capped;
+
+    boolean add(int x, int y, int z) {
+        long chunk = ChunkPos.asLong(x >> 4, z >> 4);
+        LongOpenHashSet positions = byChunk.get(chunk);
+        if (positions == null) {
+            positions = new LongOpenHashSet();
+            byChunk.put(chunk, positions);
+        }
+        if (positions.add(BlockPos.asLong(x, y, z))) {
+            size++;
+            return true;
+        }
+        return false;
+    }
+
+    boolean remove(int x, int y, int z) {
+        long chunk = ChunkPos.asLong(x >> 4, z >> 4);
+        LongOpenHashSet positions = byChunk.get(chunk);
+        if (positions == null || !positions.remove(BlockPos.asLong(x, y, z))) {
+            return false;
+        }
+        if (positions.isEmpty()) {
+            byChunk.remove(chunk);
+        }
+        size--;
+        return true;
+    }
+
+    boolean contains(int x, int y, int z) {
+        LongOpenHashSet positions = byChunk.get(ChunkPos.asLong(x >> 4, z >> 4));
+        return positions != null && positions.contains(BlockPos.asLong(x, y, z));
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void forEach(Consumer<BetterBlockPos> consumer) {
+        for (LongOpenHashSet positions : byChunk.values()) {
+            LongIterator it = positions.iterator();
+            while (it.hasNext()) {
+                long pos = it.nextLong();
+                consumer.accept(new BetterBlockPos(BlockPos.getX(pos), BlockPos.getY(pos), BlockPos.getZ(pos)));
+            }
+        }
+    }
+
+    /**
+     * Goes through the positions nearest to the given one first, in growing cubes around it, and stops once at least
+     * {@code minimum} have been found (or all of them, if there aren't that many)
+     */
+    void forEachNear(int x, int y, int z, int minimum, Consumer<BetterBlockPos> consumer) {
+        if (size <= minimum) {
+            forEach(consumer);
+            return;
+        }
+        long[] found;
+        int radius = 16;
+        while ((found = within(x, y, z, radius)).length < minimum) {
+            radius <<= 1; // within is bounded by the number of positions, so this can't get out of hand
+        }
+        for (long pos : found) {
+            consumer.accept(new BetterBlockPos(BlockPos.getX(pos), BlockPos.getY(pos), BlockPos.getZ(pos)));
+        }
+    }
+
+    /**
+     * @return The positions within {@code radius} of the given one on every axis, copied so that they can be
+     * removed while going through them
+     */
+    long[] within(int x, int y, int z, int radius) {
+        LongArrayList result = new LongArrayList();
+        if (size == 0) {
+            return result.toLongArray();
+        }
+        int minChunkX = (x - radius) >> 4;
+        int maxChunkX = (x + radius) >> 4;
+        int minChunkZ = (z - radius) >> 4;
+        int maxChunkZ = (z + radius) >> 4;
+        if ((long) (maxChunkX - minChunkX + 1) * (maxChunkZ - minChunkZ + 1) > byChunk.size()) {
+            // more columns in range than there are with positions in them, so go through those instead
+            for (Long2ObjectMap.Entry<LongOpenHashSet> entry : byChunk.long2ObjectEntrySet()) {
+                int chunkX = ChunkPos.getX(entry.getLongKey());
+                int chunkZ = ChunkPos.getZ(entry.getLongKey());
+                if (chunkX >= minChunkX && chunkX <= maxChunkX && chunkZ >= minChunkZ && chunkZ <= maxChunkZ) {
+                    collectWithin(entry.getValue(), x, y, z, radius, result);
+                }
+            }
+            return result.toLongArray();
+        }
+        for (int cx = minChunkX; cx <= maxChunkX; cx++) {
+            for (int cz = minChunkZ; cz <= maxChunkZ; cz++) {
+                LongOpenHashSet positions = byChunk.get(ChunkPos.asLong(cx, cz));
+                if (positions != null) {
+                    collectWithin(positions, x, y, z, radius, result);
+                }
+            }
+        }
+        return result.toLongArray();
+    }
+
+    private static void collectWithin(LongOpenHashSet positions, int x, int y, int z, int radius, LongArrayList result) {
+        LongIterator it = positions.iterator();
+        while (it.hasNext()) {
+            long pos = it.nextLong();
+            if (Math.abs(BlockPos.getX(pos) - x) <= radius && Math.abs(BlockPos.getY(pos) - y) <= radius && Math.abs(BlockPos.getZ(pos) - z) <= radius) {
+                result.add(pos);
+            }
+        }
+    }
+
+    /**
+     * @return The positions in this chunk column, copied so that they can be removed while going through them
+     */
+    long[] inChunk(int chunkX, int chunkZ) {
+        LongOpenHashSet positions = byChunk.get(ChunkPos.asLong(chunkX, chunkZ));
+        return positions == null ? new long[0] : positions.toLongArray();
+    }
+
+    void markDirty(int x, int y, int z) {
+        dirtyBlocks.add(BlockPos.asLong(x, y, z));
+    }
+
+    void markChunkDirty(int chunkX, int chunkZ) {
+        dirtyChunks.add(ChunkPos.asLong(chunkX, chunkZ));
+    }
+
+    /**
+     * @return The positions that changed since the last call
+     */
+    long[] takeDirtyBlocks() {
+        long[] result = dirtyBlocks.toLongArray();
+        dirtyBlocks.clear();
+        return result;
+    }
+
+    /**
+     * @return The chunk columns that were loaded since the last call
+     */
+    long[] takeDirtyChunks() {
+        long[] result = dirtyChunks.toLongArray();
+        dirtyChunks.clear();
+        return result;
+    }
+
+    /**
+     * Forgets the incorrect positions, but not what changed or where the scan is at
+     */
+    void clear() {
+        byChunk.clear();
+        size = 0;
+    }
+}
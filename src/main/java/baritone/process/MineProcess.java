@@ -31,6 +31,7 @@ import baritone.pathing.movement.CalculationContext;
 import baritone.pathing.movement.MovementHelper;
 import baritone.utils.BaritoneProcessHelper;
 import baritone.utils.BlockStateInterface;
+import baritone.utils.TaskScheduler;
 import baritone.utils.Trail;
 import net.minecraft.client.multiplayer.ClientLevel;
 import net.minecraft.core.BlockPos;
@@ -79,10 +80,11 @@ public final class MineProcess extends BaritoneProcessHelper implements IMinePro
                 BetterBlockPos pf = ctx.baritone.getPlayerContext().playerFeet();
 
                 // maxRegionDistanceSq 2 means adjacent directly or adjacent diagonally; nothing further than that
-                locs.addAll(ctx.worldData.getCachedWorld().getLocationsOf(
+                locs.addAll(ctx.worldData.getCachedWorld().getNearestLocationsOf(
                         BlockUtils.blockToString(block),
                         Baritone.settings().maxCachedWorldScanCount.value,
                         pf.x,
+                        pf.y,
                         pf.z,
                         2
                 ));
@@ -195,7 +197,7 @@ public final class MineProcess extends BaritoneProcessHelper implements IMinePro
             CalculationContext context = new CalculationContext(baritone);
             List<BlockPos> locs2 = prune(context, new ArrayList<>(locs), filter, ORE_LOCATIONS_COUNT, blacklist, droppedItemsScan());
             // can't reassign locs, gotta make a new var locs2, because we use it in a lambda right here, and variables you use in a lambda must be effectively final
-            Goal goal = new GoalComposite(locs2.stream().map(loc -> coalesce(loc, locs2, context)).toArray(Goal[]::new));
+            Goal goal = new IndexedGoalComposite(locs2.stream().map(loc -> coalesce(loc, locs2, context)).toArray(Goal[]::new));
             knownOreLocations = locs2;
             return new PathingCommand(goal, legit ? PathingCommandType.FORCE_REVALIDATE_GOAL_AND_PATH : PathingCommandType.REVALIDATE_GOAL_AND_PATH);
         }
@@ -425,7 +427,7 @@ public final class MineProcess extends BaritoneProcessHelper implements IMinePro
         List<BlockPos> curr = new ArrayList<>(knownOreLocations);
         if (mineGoalUpdateInterval != 0 && tickCount++ % mineGoalUpdateInterval == 0) { // big brain
             CalculationContext context = new CalculationContext(baritone, true);
-            Baritone.getExecutor().execute(() -> rescan(curr, context));
+            Baritone.getScheduler().execute(TaskScheduler.Lane.SCANNING, TaskScheduler.Priority.NORMAL, this, () -> rescan(curr, context));
         }
         if (Baritone.settings().legitMine.value) {
             addNearby();
@@ -479,6 +481,13 @@ public final class MineProcess extends BaritoneProcessHelper implements IMinePro
             int zDiff = z - this.z;
             return GoalBlock.calculate(xDiff, yDiff < -1 ? yDiff + 2 : yDiff == -1 ? 0 : yDiff, zDiff);
         }
+
+        @Override
+        public boolean bounds(int[] box) {
+            super.bounds(box);
+            box[1] = y - 2;
+            return true;
+        }
     }
 
     @Override
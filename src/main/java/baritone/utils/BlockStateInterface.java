@@ -54,6 +54,12 @@ public class BlockStateInterface {
     private final boolean useTheRealWorld;
     private CachedRegion prevCached = null;
 
+    // how often the prev and prevCached shortcuts pay off, see getCacheStats
+    private long chunkHits;
+    private long chunkMisses;
+    private long regionHits;
+    private long regionMisses;
+
     public BlockStateInterface(IPlayerContext ctx) {
         this(ctx, false);
     }
@@ -79,6 +85,40 @@ public class BlockStateInterface {
         this.access = new BlockStateInterfaceAccessWrapper(this);
     }
 
+    /**
+     * Creates a copy that reads from the same chunks and cache as {@code other}, but keeps its own lookup caches, so
+     * that both can be used at the same time from different threads. Only meant for plain instances, a subclass would
+     * lose its overrides.
+     *
+     * @param other The instance to copy
+     */
+    public BlockStateInterface(BlockStateInterface other) {
+        this.world = other.world;
+        this.worldBorder = other.worldBorder;
+        this.worldData = other.worldData;
+        this.provider = other.provider;
+        this.useTheRealWorld = other.useTheRealWorld;
+        this.isPassableBlockPos = new BlockPos.MutableBlockPos();
+        this.access = new BlockStateInterfaceAccessWrapper(this);
+    }
+
+    /**
+     * For subclasses that aren't backed by a {@link Level} at all, such as the synthetic worlds in the benchmarks.
+     * They must override {@link #get0(int, int, int)}, {@link #isLoaded(int, int)} and
+     * {@link #worldContainsLoadedChunk(int, int)}, since there is neither a chunk provider nor a cache to fall back to.
+     *
+     * @param worldBorder The world border to report to movements
+     */
+    protected BlockStateInterface(BetterWorldBorder worldBorder) {
+        this.world = null;
+        this.worldBorder = worldBorder;
+        this.worldData = null;
+        this.provider = null;
+        this.useTheRealWorld = false;
+        this.isPassableBlockPos = new BlockPos.MutableBlockPos();
+        this.access = new BlockStateInterfaceAccessWrapper(this);
+    }
+
     public static Block getBlock(IPlayerContext ctx, BlockPos pos) { // won't be called from the pathing thread because the pathing thread doesn't make a single blockpos pog
         return get(ctx, pos).getBlock();
     }
@@ -118,8 +158,10 @@ public class BlockStateInterface {
             // which is a Long2ObjectOpenHashMap.get
             // see issue #113
             if (cached != null && cached.getPos().x == x >> 4 && cached.getPos().z == z >> 4) {
+                chunkHits++;
                 return getFromChunk(cached, x, y, z);
             }
+            chunkMisses++;
             LevelChunk chunk = provider.getChunk(x >> 4, z >> 4, ChunkStatus.FULL, false);
             if (chunk != null && !chunk.isEmpty()) {
                 prev = chunk;
@@ -130,6 +172,7 @@ public class BlockStateInterface {
         // except here, it's 512x512 tiles instead of 16x16, so even better repetition
         CachedRegion cached = prevCached;
         if (cached == null || cached.getX() != x >> 9 || cached.getZ() != z >> 9) {
+            regionMisses++;
             if (worldData == null) {
                 return AIR;
             }
@@ -139,6 +182,8 @@ public class BlockStateInterface {
             }
             prevCached = region;
             cached = region;
+        } else {
+            regionHits++;
         }
         BlockState type = cached.getBlock(x & 511, y, z & 511);
         if (type == null) {
@@ -172,6 +217,14 @@ public class BlockStateInterface {
         return prevRegion.isCached(x & 511, z & 511);
     }
 
+    /**
+     * @return How many lookups in {@link #get0(int, int, int)} so far were answered by the chunk and region the one
+     * before used, and how many had to look them up, as {chunk hits, chunk misses, region hits, region misses}
+     */
+    public long[] getCacheStats() {
+        return new long[]{chunkHits, chunkMisses, regionHits, regionMisses};
+    }
+
     public boolean worldContainsLoadedChunk(int blockX, int blockZ) {
         return provider.hasChunk(blockX >> 4, blockZ >> 4);
     }
@@ -0,0 +1,248 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.utils;
+
+import baritone.Baritone;
+import baritone.api.event.events.PathEvent;
+import baritone.api.pathing.calc.IPathingMetrics;
+import baritone.api.utils.PathCalculationResult;
+import baritone.pathing.calc.SearchStats;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Keeps the numbers behind {@link IPathingMetrics}. Everything is recorded once per search or path event, which is
+ * rare enough that plain synchronization is fine, and the searches themselves only ever touch their own
+ * {@link SearchStats}.
+ */
+public final class PathingMetrics implements IPathingMetrics {
+
+    private static final double[] DURATION_BUCKETS = {0.05, 0.1, 0.25, 0.5, 1, 2, 5, 10};
+    private static final double[] NODES_BUCKETS = {1_000, 10_000, 100_000, 1_000_000};
+    private static final double[] RATE_BUCKETS = {10_000, 50_000, 100_000, 250_000, 500_000, 1_000_000};
+
+    /**
+     * By metric name, in the order they're exported in
+     */
+    private final Map<String, Family> families = new LinkedHashMap<>();
+
+    private final Family searchesStarted = family("baritone_searches_started_total", "counter", "Path searches started, by whether they were for the path being walked, planning ahead, or repairing an older search");
+    private final Family searches = family("baritone_searches_total", "counter", "Path searches finished, by how they ended");
+    private final Family nodesExpanded = family("baritone_search_nodes_expanded_total", "counter", "Nodes taken off the open set and expanded");
+    private final Family movementsConsidered = family("baritone_search_movements_considered_total", "counter", "Movements whose cost was calculated");
+    private final Family searchTime = family("baritone_search_time_seconds_total", "counter", "Time spent in movement costs, the open set and the heuristic, only while pathingMetricsTiming is on");
+    private final Family blockLookups = family("baritone_block_lookups_total", "counter", "Block lookups during searches, by whether the chunk or region of the lookup before could be reused");
+    private final Family pathEvents = family("baritone_path_events_total", "counter", "Path events, such as calculations starting and segments being discarded");
+    private final Family splices = family("baritone_splices_total", "counter", "Times the path being walked was joined up with or replaced by another one, by how");
+    private final Family openSetPeak = family("baritone_last_search_open_set_peak", "gauge", "The most nodes the open set of the last search held at once");
+    private final Family nodeMapSize = family("baritone_last_search_node_map_size", "gauge", "How many nodes the last search created");
+    private final Family nodesPerSecond = family("baritone_last_search_nodes_per_second", "gauge", "How many nodes per second the last search expanded");
+    private final Family durationHistogram = histogram("baritone_search_duration_seconds", "How long searches took", DURATION_BUCKETS);
+    private final Family nodesHistogram = histogram("baritone_search_expanded_nodes", "How many nodes searches expanded", NODES_BUCKETS);
+    private final Family rateHistogram = histogram("baritone_search_nodes_per_second", "How many nodes per second searches expanded", RATE_BUCKETS);
+
+    /**
+     * @return Where the metrics are exported to, see {@link baritone.api.Settings#pathingMetricsExport}
+     */
+    public static Path exportFile() {
+        return Baritone.getDir().toPath().resolve("metrics.prom");
+    }
+
+    /**
+     * @param kind {@code fresh}, {@code plan_ahead} or {@code repair}
+     */
+    public synchronized void recordSearchStarted(String kind) {
+        searchesStarted.add(label("kind", kind), 1);
+    }
+
+    public synchronized void recordSearch(SearchStats stats, PathCalculationResult.Type result) {
+        searches.add(label("result", result.name().toLowerCase(Locale.ROOT)), 1);
+        nodesExpanded.add("", stats.nodesExpanded);
+        movementsConsidered.add("", stats.movementsConsidered);
+        if (stats.costNanos > 0 || stats.openSetNanos > 0 || stats.heuristicNanos > 0) {
+            searchTime.add(label("phase", "cost"), stats.costNanos / 1e9);
+            searchTime.add(label("phase", "open_set"), stats.openSetNanos / 1e9);
+            searchTime.add(label("phase", "heuristic"), stats.heuristicNanos / 1e9);
+        }
+        blockLookups.add("{cache=\"chunk\",result=\"hit\"}", stats.chunkCacheHits);
+        blockLookups.add("{cache=\"chunk\",result=\"miss\"}", stats.chunkCacheMisses);
+        blockLookups.add("{cache=\"region\",result=\"hit\"}", stats.regionCacheHits);
+        blockLookups.add("{cache=\"region\",result=\"miss\"}", stats.regionCacheMisses);
+        openSetPeak.set(stats.openSetPeak);
+        nodeMapSize.set(stats.nodeMapSize);
+        nodesPerSecond.set(stats.nodesPerSecond());
+        durationHistogram.observe(stats.durationMillis / 1000D);
+        nodesHistogram.observe(stats.nodesExpanded);
+        rateHistogram.observe(stats.nodesPerSecond());
+    }
+
+    public synchronized void recordEvent(PathEvent event) {
+        pathEvents.add(label("event", event.name().toLowerCase(Locale.ROOT)), 1);
+    }
+
+    /**
+     * @param outcome {@code spliced}, {@code early}, {@code continued} or {@code improved}
+     */
+    public synchronized void recordSplice(String outcome) {
+        splices.add(label("outcome", outcome), 1);
+    }
+
+    @Override
+    public double get(String sample) {
+        return getSamples().getOrDefault(sample, 0D);
+    }
+
+    @Override
+    public synchronized Map<String, Double> getSamples() {
+        Map<String, Double> samples = new LinkedHashMap<>();
+        for (Family family : families.values()) {
+            family.forEachSample(samples::put);
+        }
+        return samples;
+    }
+
+    @Override
+    public synchronized String toPrometheusText() {
+        StringBuilder out = new StringBuilder();
+        for (Family family : families.values()) {
+            out.append("# HELP ").append(family.name).append(' ').append(family.help).append('\n');
+            out.append("# TYPE ").append(family.name).append(' ').append(family.type).append('\n');
+            family.forEachSample((name, value) -> out.append(name).append(' ').append(format(value)).append('\n'));
+        }
+        return out.toString();
+    }
+
+    @Override
+    public void writeTo(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, toPrometheusText().getBytes(StandardCharsets.UTF_8));
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public synchronized void reset() {
+        families.values().forEach(Family::reset);
+    }
+
+    private Family family(String name, String type, String help) {
+        Family family = new Family(name, type, help, null);
+        families.put(name, family);
+        return family;
+    }
+
+    private Family histogram(String name, String help, double[] buckets) {
+        Family family = new Family(name, "histogram", help, buckets);
+        families.put(name, family);
+        return family;
+    }
+
+    private static String label(String name, String value) {
+        return "{" + name + "=\"" + value + "\"}";
+    }
+
+    private static String format(double value) {
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    /**
+     * A metric and all of its samples, a sample per label value for counters and gauges, or the buckets of a
+     * histogram
+     */
+    private static final class Family {
+
+        private final String name;
+        private final String type;
+        private final String help;
+        private final double[] buckets;
+
+        /**
+         * By label suffix, such as {@code {result="failure"}}, or the empty string for no labels
+         */
+        private final Map<String, Double> values = new LinkedHashMap<>();
+        private long[] bucketCounts;
+        private long count;
+        private double sum;
+
+        private Family(String name, String type, String help, double[] buckets) {
+            this.name = name;
+            this.type = type;
+            this.help = help;
+            this.buckets = buckets;
+            reset();
+        }
+
+        /**
+         * @param labels The label suffix, see {@link #values}
+         */
+        private void add(String labels, double amount) {
+            values.merge(labels, amount, Double::sum);
+        }
+
+        private void set(double value) {
+            values.put("", value);
+        }
+
+        private void observe(double value) {
+            for (int i = 0; i < buckets.length; i++) {
+                if (value <= buckets[i]) {
+                    bucketCounts[i]++;
+                }
+            }
+            count++;
+            sum += value;
+        }
+
+        private void reset() {
+            values.clear();
+            if (buckets != null) {
+                bucketCounts = new long[buckets.length];
+                count = 0;
+                sum = 0;
+            }
+        }
+
+        private void forEachSample(BiConsumer<String, Double> consumer) {
+            if (buckets == null) {
+                values.forEach((labels, value) -> consumer.accept(name + labels, value));
+                return;
+            }
+            // the buckets are cumulative, like prometheus wants them
+            for (int i = 0; i < buckets.length; i++) {
+                consumer.accept(name + "_bucket{le=\"" + format(buckets[i]) + "\"}", (double) bucketCounts[i]);
+            }
+            consumer.accept(name + "_bucket{le=\"+Inf\"}", (double) count);
+            consumer.accept(name + "_sum", sum);
+            consumer.accept(name + "_count", (double) count);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package baritone.utils;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs Baritone's background work in separate lanes, so that e.g. a slow rescan or a region being read from disk can
+ * never hold up a path calculation, and nothing can make the number of threads grow without bound.
+ * <p>
+ * Every lane but {@link Lane#BACKGROUND} has a fixed number of threads and queues whatever doesn't fit, highest
+ * {@link Priority} first and then in the order it was submitted. A task submitted with a key supersedes the task with
+ * the same key that's still waiting in the queue, if any, so that e.g. rescans can't pile up behind each other.
+ */
+public final class TaskScheduler {
+
+    public enum Lane {
+        /**
+         * Path calculations
+         */
+        PATHING,
+
+        /**
+         * Looking through loaded chunks or the cache for blocks, like rescans for mining
+         */
+        SCANNING,
+
+        /**
+         * Reading and writing the cache on disk
+         */
+        DISK,
+
+        /**
+         * Tasks that live as long as the world or wait on each other, like the chunk packers and the helpers of a
+         * parallel path calculation. Never queued, every task gets a thread right away.
+         */
+        BACKGROUND
+    }
+
+    public enum Priority {
+        HIGH,
+        NORMAL,
+        LOW
+    }
+
+    private final LaneExecutor[] lanes = new LaneExecutor[Lane.values().length];
+
+    public TaskScheduler(int pathingThreads, int scanningThreads, int diskThreads, boolean virtualDiskThreads) {
+        lanes[Lane.PATHING.ordinal()] = new LaneExecutor(Lane.PATHING, pathingThreads, factory("Baritone pathing", Thread.NORM_PRIORITY, false));
+        lanes[Lane.SCANNING.ordinal()] = new LaneExecutor(Lane.SCANNING, scanningThreads, factory("Baritone scanning", Thread.NORM_PRIORITY - 1, false));
+        lanes[Lane.DISK.ordinal()] = new LaneExecutor(Lane.DISK, diskThreads, factory("Baritone disk", Thread.NORM_PRIORITY - 1, virtualDiskThreads));
+        lanes[Lane.BACKGROUND.ordinal()] = new LaneExecutor(Lane.BACKGROUND, -1, factory("Baritone background", Thread.NORM_PRIORITY - 1, false));
+    }
+
+    public void execute(Lane lane, Runnable task) {
+        execute(lane, Priority.NORMAL, null, task);
+    }
+
+    public void execute(Lane lane, Priority priority, Runnable task) {
+        execute(lane, priority, null, task);
+    }
+
+    /**
+     * @param lane     Where to run the task
+     * @param priority Which queued tasks of the lane to run first
+     * @param key      If not null, the task supersedes the queued task with an equal key in the same lane
+     * @param task     The task
+     */
+    public void execute(Lane lane, Priority priority, Object key, Runnable task) {
+        lanes[lane.ordinal()].submit(priority, key, task);
+    }
+
+    /**
+     * @return An {@link Executor} that runs everything on the lane with normal priority
+     */
+    public Executor executor(Lane lane) {
+        return task -> execute(lane, task);
+    }
+
+    /**
+     * @return How many tasks of the lane are waiting for a thread right now
+     */
+    public int queued(Lane lane) {
+        return lanes[lane.ordinal()].queued.get();
+    }
+
+    public String stats() {
+        StringBuilder sb = new StringBuilder("Scheduler");
+        for (LaneExecutor lane : lanes) {
+            sb.append(' ').append(lane.stats());
+        }
+        return sb.toString();
+    }
+
+    private static ThreadFactory factory(String name, int priority, boolean virtual) {
+        ThreadFactory base = virtual ? virtualThreadFactory() : null;
+        if (base != null) {
+            return base; // virtual threads ignore priorities anyway
+        }
+        AtomicInteger count = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, name + " " + count.incrementAndGet());
+            thread.setPriority(priority);
+            return thread;
+        };
+    }
+
+    /**
+     * @return A factory for virtual threads, or null if this Java doesn't have them
+     */
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            // Java 21, and Baritone still builds against 17
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            return (ThreadFactory) builder.getClass().getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException ex) {
+            return null;
+        }
+    }
+
+    private static final class LaneExecutor {
+
+        private final Lane lane;
+        private final ThreadPoolExecutor pool;
+
+        /**
+         * The queued task for each key, see {@link TaskScheduler#execute(Lane, Priority, Object, Runnable)}
+         */
+        private final Map<Object, Task> keyed = new ConcurrentHashMap<>();
+
+        private final AtomicLong sequence = new AtomicLong();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicInteger maxQueued = new AtomicInteger();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder superseded = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+        private final LongAdder runNanos = new LongAdder();
+
+        LaneExecutor(Lane lane, int threads, ThreadFactory factory) {
+            this.lane = lane;
+            if (threads < 0) {
+                this.pool = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(), factory);
+            } else {
+                int n = Math.max(1, threads);
+                this.pool = new ThreadPoolExecutor(n, n, 60L, TimeUnit.SECONDS, new PriorityBlockingQueue<>(), factory);
+                this.pool.allowCoreThreadTimeOut(true);
+            }
+        }
+
+        void submit(Priority priority, Object key, Runnable runnable) {
+            Task task = new Task(this, priority, sequence.getAndIncrement(), key, runnable);
+            maxQueued.accumulateAndGet(queued.incrementAndGet(), Math::max);
+            if (key != null) {
+                Task previous = keyed.put(key, task);
+                if (previous != null && previous.cancel()) {
+                    superseded.increment();
+                }
+            }
+            pool.execute(task);
+        }
+
+        String stats() {
+            long done = completed.sum();
+            return String.format(Locale.ROOT, "%s[threads=%d, queued=%d (max %d), done=%d, superseded=%d, failed=%d, wait=%.1fms avg %.1fms max, run=%.1fms avg]",
+                    lane.name().toLowerCase(Locale.ROOT),
+                    pool.getPoolSize(),
+                    queued.get(),
+                    maxQueued.get(),
+                    done,
+                    superseded.sum(),
+                    failed.sum(),
+                    done == 0 ? 0 : waitNanos.sum() / 1e6 / done,
+                    maxWaitNanos.get() / 1e6,
+                    done == 0 ? 0 : runNanos.sum() / 1e6 / done
+            );
+        }
+    }
+
+    private static final class Task implements Runnable, Comparable<Task> {
+
+        private static final int QUEUED = 0;
+        private static final int RUNNING = 1;
+        private static final int CANCELLED = 2;
+
+        private final LaneExecutor lane;
+        private final Priority priority;
+        private final long sequence;
+        private final Object key;
+        private final Runnable runnable;
+        private final long submitted = System.nanoTime();
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+        Task(LaneExecutor lane, Priority priority, long sequence, Object key, Runnable runnable) {
+            this.lane = lane;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.key = key;
+            this.runnable = runnable;
+        }
+
+        boolean cancel() {
+            if (state.compareAndSet(QUEUED, CANCELLED)) {
+                lane.queued.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void run() {
+            if (!state.compareAndSet(QUEUED, RUNNING)) {
+                return; // superseded while it was waiting
+            }
+            lane.queued.decrementAndGet();
+            if (key != null) {
+                lane.keyed.remove(key, this);
+            }
+            long start = System.nanoTime();
+            long wait = start - submitted;
+            lane.waitNanos.add(wait);
+            lane.maxWaitNanos.accumulateAndGet(wait, Math::max);
+            try {
+                runnable.run();
+            } catch (Throwable th) {
+                lane.failed.increment();
+                throw th;
+            } finally {
+                lane.runNanos.add(System.nanoTime() - start);
+                lane.completed.increment();
+            }
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            int cmp = priority.compareTo(other.priority);
+            return cmp != 0 ? cmp : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -66,6 +66,16 @@ public class ToolSet {
         }
     }
 
+    /**
+     * Creates a tool set for the same player as {@code other}, with its own cache, so that both can be used at the same
+     * time from different threads.
+     *
+     * @param other The tool set to copy
+     */
+    public ToolSet(ToolSet other) {
+        this(other.player);
+    }
+
     /**
      * Calculates how long would it take to mine the specified block given the best tool
      * in this toolset is used. A negative value is returned if the specified block is unbreakable.
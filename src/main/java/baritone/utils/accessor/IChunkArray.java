@@ -31,4 +31,9 @@ public interface IChunkArray {
     int centerZ();
 
     int viewDistance();
+
+    /**
+     * @return A number that changes whenever a chunk is put into or taken out of the array
+     */
+    long version();
 }
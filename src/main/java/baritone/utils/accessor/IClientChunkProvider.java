@@ -20,6 +20,11 @@ package baritone.utils.accessor;
 import net.minecraft.client.multiplayer.ClientChunkCache;
 
 public interface IClientChunkProvider {
+
+    /**
+     * @return A copy of the loaded chunks that other threads can read from. Nothing may change it, since the same copy
+     * is handed out again until the loaded chunks change.
+     */
     ClientChunkCache createThreadSafeCopy();
 
     IChunkArray extractReferenceArray();
@@ -0,0 +1,130 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.utils.pathing;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+import java.util.Arrays;
+
+/**
+ * The spheres around mobs and spawners that pathing should keep away from, evaluated on demand instead of being
+ * written out block by block. The spheres are bucketed into a uniform grid of {@link #CELL_SIZE} cubes, so a lookup
+ * only tests the few spheres that overlap the cell of the position asked about.
+ * <p>
+ * Not safe to add to while being queried, but querying is read only and may happen from several threads.
+ */
+public final class AvoidanceField {
+
+    private static final int CELL_SHIFT = 4;
+    private static final int CELL_SIZE = 1 << CELL_SHIFT;
+
+    private int count;
+    private int[] centers = new int[3 * 4]; // x, y, z per sphere
+    private int[] radiiSq = new int[4];
+    private double[] coefficients = new double[4];
+
+    private final Long2ObjectOpenHashMap<int[]> cells = new Long2ObjectOpenHashMap<>();
+
+    // bounds of everything added, to skip the cell lookup for positions nowhere near any sphere
+    private int minX = Integer.MAX_VALUE;
+    private int minY = Integer.MAX_VALUE;
+    private int minZ = Integer.MAX_VALUE;
+    private int maxX = Integer.MIN_VALUE;
+    private int maxY = Integer.MIN_VALUE;
+    private int maxZ = Integer.MIN_VALUE;
+
+    /**
+     * Adds a sphere in which {@link #coefficient(int, int, int)} is multiplied by {@code coefficient}, exactly like
+     * {@link Avoidance#coefficient(int, int, int)}.
+     */
+    public void add(int centerX, int centerY, int centerZ, int radius, double coefficient) {
+        if (radius < 0 || coefficient == 1.0D) {
+            return;
+        }
+        if (count == radiiSq.length) {
+            centers = Arrays.copyOf(centers, centers.length * 2);
+            radiiSq = Arrays.copyOf(radiiSq, radiiSq.length * 2);
+            coefficients = Arrays.copyOf(coefficients, coefficients.length * 2);
+        }
+        int index = count++;
+        centers[index * 3] = centerX;
+        centers[index * 3 + 1] = centerY;
+        centers[index * 3 + 2] = centerZ;
+        radiiSq[index] = radius * radius;
+        coefficients[index] = coefficient;
+
+        minX = Math.min(minX, centerX - radius);
+        minY = Math.min(minY, centerY - radius);
+        minZ = Math.min(minZ, centerZ - radius);
+        maxX = Math.max(maxX, centerX + radius);
+        maxY = Math.max(maxY, centerY + radius);
+        maxZ = Math.max(maxZ, centerZ + radius);
+
+        for (int cx = (centerX - radius) >> CELL_SHIFT; cx <= (centerX + radius) >> CELL_SHIFT; cx++) {
+            for (int cy = (centerY - radius) >> CELL_SHIFT; cy <= (centerY + radius) >> CELL_SHIFT; cy++) {
+                for (int cz = (centerZ - radius) >> CELL_SHIFT; cz <= (centerZ + radius) >> CELL_SHIFT; cz++) {
+                    long key = cellKey(cx, cy, cz);
+                    int[] inCell = cells.get(key);
+                    if (inCell == null) {
+                        inCell = new int[]{index};
+                    } else {
+                        inCell = Arrays.copyOf(inCell, inCell.length + 1);
+                        inCell[inCell.length - 1] = index;
+                    }
+                    cells.put(key, inCell);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The product of the coefficients of every sphere containing this position, or 1 if there are none
+     */
+    public double coefficient(int x, int y, int z) {
+        if (x < minX || x > maxX || y < minY || y > maxY || z < minZ || z > maxZ) {
+            return 1.0D;
+        }
+        int[] inCell = cells.get(cellKey(x >> CELL_SHIFT, y >> CELL_SHIFT, z >> CELL_SHIFT));
+        if (inCell == null) {
+            return 1.0D;
+        }
+        double result = 1.0D;
+        for (int index : inCell) {
+            int xDiff = x - centers[index * 3];
+            int yDiff = y - centers[index * 3 + 1];
+            int zDiff = z - centers[index * 3 + 2];
+            if (xDiff * xDiff + yDiff * yDiff + zDiff * zDiff <= radiiSq[index]) {
+                result *= coefficients[index];
+            }
+        }
+        return result;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    private static long cellKey(int cx, int cy, int cz) {
+        // 22 bits each for x and z and 20 for y is plenty for cells within the world border
+        return ((long) cx & 0x3FFFFF) << 42 | ((long) cz & 0x3FFFFF) << 20 | (cy & 0xFFFFF);
+    }
+}
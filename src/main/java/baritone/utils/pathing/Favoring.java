@@ -22,34 +22,48 @@ import baritone.api.utils.BetterBlockPos;
 import baritone.api.utils.Helper;
 import baritone.api.utils.IPlayerContext;
 import baritone.pathing.movement.CalculationContext;
-import it.unimi.dsi.fastutil.longs.Long2DoubleOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 
+/**
+ * Multipliers on the cost of moving into a position: the backtrack coefficient for positions on the previous path,
+ * times the coefficient of every mob or spawner avoidance sphere the position is in.
+ */
 public final class Favoring {
 
-    private final Long2DoubleOpenHashMap favorings;
+    private final LongOpenHashSet backtrack;
+    private final double backtrackCoefficient;
+    private final AvoidanceField avoidances;
 
     public Favoring(IPlayerContext ctx, IPath previous, CalculationContext context) {
         this(previous, context);
         for (Avoidance avoid : Avoidance.create(ctx)) {
-            avoid.applySpherical(favorings);
+            avoid.addTo(avoidances);
         }
-        Helper.HELPER.logDebug("Favoring size: " + favorings.size());
+        Helper.HELPER.logDebug("Favoring " + backtrack.size() + " backtrack positions and " + avoidances.size() + " avoidances");
     }
 
     public Favoring(IPath previous, CalculationContext context) { // create one just from previous path, no mob avoidances
-        favorings = new Long2DoubleOpenHashMap();
-        favorings.defaultReturnValue(1.0D);
-        double coeff = context.backtrackCostFavoringCoefficient;
-        if (coeff != 1D && previous != null) {
-            previous.positions().forEach(pos -> favorings.put(BetterBlockPos.longHash(pos), coeff));
+        backtrack = new LongOpenHashSet();
+        backtrackCoefficient = context.backtrackCostFavoringCoefficient;
+        avoidances = new AvoidanceField();
+        if (backtrackCoefficient != 1D && previous != null) {
+            previous.positions().forEach(pos -> backtrack.add(BetterBlockPos.longHash(pos)));
         }
     }
 
     public boolean isEmpty() {
-        return favorings.isEmpty();
+        return backtrack.isEmpty() && avoidances.isEmpty();
     }
 
-    public double calculate(long hash) {
-        return favorings.get(hash);
+    /**
+     * @param hash The hash of the position, see {@link BetterBlockPos#longHash(int, int, int)}
+     * @return The multiplier on the cost of moving into this position
+     */
+    public double calculate(int x, int y, int z, long hash) {
+        double coefficient = avoidances.coefficient(x, y, z);
+        if (!backtrack.isEmpty() && backtrack.contains(hash)) {
+            coefficient *= backtrackCoefficient;
+        }
+        return coefficient;
     }
 }
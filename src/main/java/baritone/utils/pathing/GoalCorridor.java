@@ -0,0 +1,146 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.utils.pathing;
+
+import baritone.api.pathing.goals.Goal;
+import baritone.api.pathing.goals.GoalBlock;
+import baritone.api.utils.Helper;
+import baritone.cache.ChunkPortalGraph;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+/**
+ * Wraps a far away goal so that the heuristic follows a route planned over the {@link ChunkPortalGraph}, instead of
+ * a straight line that might run into an ocean or a mountain range. The heuristic at a position is the cheapest of
+ * going straight to a nearby portal on the route and following the rest of the route from there, or of going straight
+ * to the goal, so that it's never worse than the wrapped goal's own heuristic and still reaches zero in the goal.
+ * <p>
+ * The route is planned on the first heuristic call, so that it happens on the pathing thread. Everything else is
+ * passed through to the wrapped goal, including {@link #toString()}, since that's how paths are compared to goals.
+ */
+public final class GoalCorridor implements Goal {
+
+    /**
+     * How many chunks away from a position to look for portals on the route before checking every one of them
+     */
+    private static final int SEARCH_RADIUS = 2;
+
+    private final Goal goal;
+    private final ChunkPortalGraph graph;
+    private final int startX;
+    private final int startY;
+    private final int startZ;
+    private final int goalX;
+    private final int goalZ;
+
+    private volatile boolean planned;
+    private ChunkPortalGraph.Plan plan;
+    private Long2ObjectOpenHashMap<IntArrayList> byChunk;
+
+    public GoalCorridor(Goal goal, ChunkPortalGraph graph, int startX, int startY, int startZ, int goalX, int goalZ) {
+        this.goal = goal;
+        this.graph = graph;
+        this.startX = startX;
+        this.startY = startY;
+        this.startZ = startZ;
+        this.goalX = goalX;
+        this.goalZ = goalZ;
+    }
+
+    public Goal getGoal() {
+        return goal;
+    }
+
+    @Override
+    public boolean isInGoal(int x, int y, int z) {
+        return goal.isInGoal(x, y, z);
+    }
+
+    @Override
+    public double heuristic(int x, int y, int z) {
+        if (!planned) {
+            plan();
+        }
+        ChunkPortalGraph.Plan plan = this.plan;
+        if (plan == null) {
+            return goal.heuristic(x, y, z);
+        }
+        double best = Double.MAX_VALUE;
+        boolean found = false;
+        int chunkX = x >> 4;
+        int chunkZ = z >> 4;
+        for (int dx = -SEARCH_RADIUS; dx <= SEARCH_RADIUS; dx++) {
+            for (int dz = -SEARCH_RADIUS; dz <= SEARCH_RADIUS; dz++) {
+                IntArrayList portals = byChunk.get(chunkKey(chunkX + dx, chunkZ + dz));
+                if (portals == null) {
+                    continue;
+                }
+                found = true;
+                for (int k = 0; k < portals.size(); k++) {
+                    best = Math.min(best, viaPortal(plan, portals.getInt(k), x, y, z));
+                }
+            }
+        }
+        if (!found) {
+            // off the route, rare enough that checking every portal is fine
+            for (int i = 0; i < plan.length(); i++) {
+                best = Math.min(best, viaPortal(plan, i, x, y, z));
+            }
+        }
+        // the route ends at a portal next to the goal rather than in it, so near the end going straight is cheaper
+        return Math.min(best, goal.heuristic(x, y, z));
+    }
+
+    private static double viaPortal(ChunkPortalGraph.Plan plan, int i, int x, int y, int z) {
+        return GoalBlock.calculate(x - plan.x[i], y - plan.y[i], z - plan.z[i]) + plan.remaining[i];
+    }
+
+    private synchronized void plan() {
+        if (planned) {
+            return;
+        }
+        long before = System.currentTimeMillis();
+        ChunkPortalGraph.Plan plan = graph.plan(startX, startY, startZ, goalX, goalZ, goal);
+        if (plan != null) {
+            Long2ObjectOpenHashMap<IntArrayList> byChunk = new Long2ObjectOpenHashMap<>();
+            for (int i = 0; i < plan.length(); i++) {
+                byChunk.computeIfAbsent(chunkKey(plan.x[i] >> 4, plan.z[i] >> 4), k -> new IntArrayList()).add(i);
+            }
+            this.byChunk = byChunk;
+            Helper.HELPER.logDebug("Planned a corridor through " + plan.length() + " chunk borders in " + (System.currentTimeMillis() - before) + "ms");
+        } else {
+            Helper.HELPER.logDebug("No corridor found over the cache, using the plain heuristic");
+        }
+        this.plan = plan;
+        this.planned = true;
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return (long) chunkX & 0xFFFFFFFFL | ((long) chunkZ & 0xFFFFFFFFL) << 32;
+    }
+
+    @Override
+    public double heuristic() {
+        return goal.heuristic();
+    }
+
+    @Override
+    public String toString() {
+        return goal.toString();
+    }
+}
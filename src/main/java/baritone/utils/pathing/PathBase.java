@@ -21,12 +21,85 @@ import baritone.Baritone;
 import baritone.api.BaritoneAPI;
 import baritone.api.pathing.calc.IPath;
 import baritone.api.pathing.goals.Goal;
+import baritone.api.pathing.movement.IMovement;
+import baritone.api.utils.BetterBlockPos;
 import baritone.pathing.path.CutoffPath;
 import baritone.utils.BlockStateInterface;
 import net.minecraft.core.BlockPos;
 
+import java.util.HashSet;
+import java.util.List;
+
 public abstract class PathBase implements IPath {
 
+    /**
+     * @return Whether {@link #movements()} only creates each movement when it's first asked for, and checks it goes
+     * between the right positions then
+     */
+    public boolean createsMovementsLazily() {
+        return false;
+    }
+
+    /**
+     * @param index The index of the movement, see {@link #movements()}
+     * @return The movement, created now if it hasn't been yet, or null if it can't be created any more because the
+     * world changed since the path was calculated. Only a path that {@link #createsMovementsLazily()} returns null.
+     */
+    public IMovement tryMovement(int index) {
+        return movements().get(index);
+    }
+
+    /**
+     * @param index The index of the movement, see {@link #movements()}
+     * @return The movement if it has been created already, or null if it hasn't, so that it can be looked at without
+     * creating it. Only a path that {@link #createsMovementsLazily()} returns null.
+     */
+    public IMovement createdMovement(int index) {
+        return movements().get(index);
+    }
+
+    /**
+     * {@link #tryMovement(int)} for any path
+     */
+    public static IMovement tryMovementOf(IPath path, int index) {
+        return path instanceof PathBase ? ((PathBase) path).tryMovement(index) : path.movements().get(index);
+    }
+
+    /**
+     * {@link #createdMovement(int)} for any path
+     */
+    public static IMovement createdMovementOf(IPath path, int index) {
+        return path instanceof PathBase ? ((PathBase) path).createdMovement(index) : path.movements().get(index);
+    }
+
+    /**
+     * Same as {@link IPath#sanityCheck()}, except that a path that {@link #createsMovementsLazily()} only has its
+     * positions checked, since asking for every movement would create all of them
+     */
+    @Override
+    public void sanityCheck() {
+        if (!createsMovementsLazily()) {
+            IPath.super.sanityCheck();
+            return;
+        }
+        List<BetterBlockPos> path = positions();
+        if (!getSrc().equals(path.get(0))) {
+            throw new IllegalStateException("Start node does not equal first path element");
+        }
+        if (!getDest().equals(path.get(path.size() - 1))) {
+            throw new IllegalStateException("End node does not equal last path element");
+        }
+        if (path.size() != movements().size() + 1) {
+            throw new IllegalStateException("Size of path array is unexpected");
+        }
+        HashSet<BetterBlockPos> seenSoFar = new HashSet<>();
+        for (int i = 0; i < path.size() - 1; i++) {
+            if (!seenSoFar.add(path.get(i))) {
+                throw new IllegalStateException("Path doubles back on itself, making a loop");
+            }
+        }
+    }
+
     @Override
     public PathBase cutoffAtLoadedChunks(Object bsi0) { // <-- cursed cursed cursed
         if (!Baritone.settings().cutoffAtLoadBoundary.value) {
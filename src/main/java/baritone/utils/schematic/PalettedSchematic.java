@@ -0,0 +1,197 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.utils.schematic;
+
+import baritone.api.schematic.AbstractSchematic;
+import baritone.api.schematic.IStaticSchematic;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import net.minecraft.world.level.block.state.BlockState;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An {@link IStaticSchematic} that stores its states the way chunks do, instead of one reference per block like
+ * {@link StaticSchematic}. Every state is put into a palette shared by the whole schematic, and the schematic is split
+ * into 16x16x16 sections that each store bit packed palette indices, just wide enough for the largest index in that
+ * section. A section that is all the same state only stores that one index.
+ * <p>
+ * Positions that were never {@link #set(int, int, int, BlockState) set} are {@code null}, like in a fresh
+ * {@link StaticSchematic}. Setting isn't thread safe, reading is once setting is done.
+ */
+public class PalettedSchematic extends AbstractSchematic implements IStaticSchematic {
+
+    private static final int SECTION_VOLUME = 16 * 16 * 16;
+
+    private final List<BlockState> palette = new ArrayList<>();
+    private final Reference2IntOpenHashMap<BlockState> paletteIndices = new Reference2IntOpenHashMap<>();
+
+    private final int sectionsY;
+    private final int sectionsZ;
+
+    /**
+     * The palette index of every block in a section, or {@code null} if the section is uniform
+     */
+    private final long[][] sections;
+
+    /**
+     * The bits per block of every section that isn't uniform
+     */
+    private final byte[] bits;
+
+    /**
+     * The palette index of every block in a section, for the sections that are uniform
+     */
+    private final int[] uniform;
+
+    public PalettedSchematic(int x, int y, int z) {
+        super(x, y, z);
+        this.sectionsY = (y + 15) >> 4;
+        this.sectionsZ = (z + 15) >> 4;
+        int count = ((x + 15) >> 4) * sectionsY * sectionsZ;
+        this.sections = new long[count][];
+        this.bits = new byte[count];
+        this.uniform = new int[count];
+        this.palette.add(null); // index 0, so that every section starts out uniformly unset
+        this.paletteIndices.defaultReturnValue(-1);
+    }
+
+    /**
+     * @return The palette index of this state, adding it to the palette if it isn't in it yet
+     */
+    public int paletteIndex(BlockState state) {
+        if (state == null) {
+            return 0;
+        }
+        int index = paletteIndices.getInt(state);
+        if (index == -1) {
+            index = palette.size();
+            palette.add(state);
+            paletteIndices.put(state, index);
+        }
+        return index;
+    }
+
+    public void set(int x, int y, int z, BlockState state) {
+        set(x, y, z, paletteIndex(state));
+    }
+
+    /**
+     * Same as {@link #set(int, int, int, BlockState)}, for a state that's already been looked up with
+     * {@link #paletteIndex(BlockState)}, which is worth it when setting the same few states over and over.
+     */
+    public void set(int x, int y, int z, int paletteIndex) {
+        int section = section(x, y, z);
+        long[] data = sections[section];
+        if (data == null) {
+            if (uniform[section] == paletteIndex) {
+                return;
+            }
+            data = resize(section, bitsFor(Math.max(uniform[section], paletteIndex)));
+        } else if (paletteIndex >= 1 << bits[section]) {
+            data = resize(section, bitsFor(paletteIndex));
+        }
+        int bitsPerBlock = bits[section];
+        int perLong = 64 / bitsPerBlock;
+        int index = index(x, y, z);
+        int shift = (index % perLong) * bitsPerBlock;
+        long mask = (1L << bitsPerBlock) - 1;
+        data[index / perLong] = data[index / perLong] & ~(mask << shift) | (long) paletteIndex << shift;
+    }
+
+    /**
+     * Turns every section that ended up all the same state back into a uniform one. Worth calling once when done
+     * setting, since a section that is set block by block stops being uniform as soon as it's first set.
+     */
+    public void trim() {
+        for (int section = 0; section < sections.length; section++) {
+            long[] data = sections[section];
+            if (data == null) {
+                continue;
+            }
+            int first = get(section, 0);
+            boolean same = true;
+            for (int i = 1; i < SECTION_VOLUME && same; i++) {
+                same = get(section, i) == first;
+            }
+            if (same) {
+                sections[section] = null;
+                uniform[section] = first;
+            }
+        }
+    }
+
+    /**
+     * @return The number of distinct states in this schematic, not counting unset positions
+     */
+    public int paletteSize() {
+        return palette.size() - 1;
+    }
+
+    @Override
+    public BlockState desiredState(int x, int y, int z, BlockState current, List<BlockState> approxPlaceable) {
+        return getDirect(x, y, z);
+    }
+
+    @Override
+    public BlockState getDirect(int x, int y, int z) {
+        return palette.get(paletteIndexAt(x, y, z));
+    }
+
+    /**
+     * @return The palette index of the state at this position, 0 if it was never set, see {@link #paletteIndex(BlockState)}
+     */
+    public int paletteIndexAt(int x, int y, int z) {
+        int section = section(x, y, z);
+        if (sections[section] == null) {
+            return uniform[section];
+        }
+        return get(section, index(x, y, z));
+    }
+
+    private int get(int section, int index) {
+        int bitsPerBlock = bits[section];
+        int perLong = 64 / bitsPerBlock;
+        return (int) (sections[section][index / perLong] >>> ((index % perLong) * bitsPerBlock)) & ((1 << bitsPerBlock) - 1);
+    }
+
+    private long[] resize(int section, int bitsPerBlock) {
+        long[] old = sections[section];
+        int perLong = 64 / bitsPerBlock;
+        long[] data = new long[(SECTION_VOLUME + perLong - 1) / perLong];
+        for (int i = 0; i < SECTION_VOLUME; i++) {
+            long value = old == null ? uniform[section] : get(section, i);
+            data[i / perLong] |= value << ((i % perLong) * bitsPerBlock);
+        }
+        sections[section] = data;
+        bits[section] = (byte) bitsPerBlock;
+        return data;
+    }
+
+    private int section(int x, int y, int z) {
+        return ((x >> 4) * sectionsZ + (z >> 4)) * sectionsY + (y >> 4);
+    }
+
+    private static int index(int x, int y, int z) {
+        return (y & 15) << 8 | (z & 15) << 4 | (x & 15);
+    }
+
+    private static int bitsFor(int paletteIndex) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(paletteIndex));
+    }
+}
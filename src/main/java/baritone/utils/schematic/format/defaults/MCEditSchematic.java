@@ -17,28 +17,27 @@
 
 package baritone.utils.schematic.format.defaults;
 
-import baritone.utils.schematic.StaticSchematic;
+import baritone.utils.schematic.PalettedSchematic;
 import net.minecraft.core.Registry;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.util.datafix.fixes.ItemIdFix;
 import net.minecraft.world.level.block.Block;
-import net.minecraft.world.level.block.state.BlockState;
+
+import java.util.Arrays;
 
 /**
  * @author Brady
  * @since 12/27/2019
  */
-public final class MCEditSchematic extends StaticSchematic {
+public final class MCEditSchematic extends PalettedSchematic {
 
     public MCEditSchematic(CompoundTag schematic) {
+        super(schematic.getInt("Width"), schematic.getInt("Height"), schematic.getInt("Length"));
         String type = schematic.getString("Materials");
         if (!type.equals("Alpha")) {
             throw new IllegalStateException("bad schematic " + type);
         }
-        this.x = schematic.getInt("Width");
-        this.y = schematic.getInt("Height");
-        this.z = schematic.getInt("Length");
         byte[] blocks = schematic.getByteArray("Blocks");
 //        byte[] metadata = schematic.getByteArray("Data");
 
@@ -51,7 +50,9 @@ public final class MCEditSchematic extends StaticSchematic {
                 additional[i * 2 + 1] = (byte) ((addBlocks[i] >> 0) & 0xF); // upper nibble
             }
         }
-        this.states = new BlockState[this.x][this.z][this.y];
+        // palette index of each legacy block id, looked up the first time it's seen
+        int[] paletteIndices = new int[1 << 12];
+        Arrays.fill(paletteIndices, -1);
         for (int y = 0; y < this.y; y++) {
             for (int z = 0; z < this.z; z++) {
                 for (int x = 0; x < this.x; x++) {
@@ -62,12 +63,18 @@ public final class MCEditSchematic extends StaticSchematic {
                         // additional is 0 through 15 inclusive since it's & 0xF above
                         blockID |= additional[blockInd] << 8;
                     }
-                    Block block = Registry.BLOCK.get(ResourceLocation.tryParse(ItemIdFix.getItem(blockID)));
-//                    int meta = metadata[blockInd] & 0xFF;
-//                    this.states[x][z][y] = block.getStateFromMeta(meta);
-                    this.states[x][z][y] = block.defaultBlockState();
+                    int state = paletteIndices[blockID];
+                    if (state == -1) {
+                        Block block = Registry.BLOCK.get(ResourceLocation.tryParse(ItemIdFix.getItem(blockID)));
+//                        int meta = metadata[blockInd] & 0xFF;
+//                        state = this.paletteIndex(block.getStateFromMeta(meta));
+                        state = this.paletteIndex(block.defaultBlockState());
+                        paletteIndices[blockID] = state;
+                    }
+                    this.set(x, y, z, state);
                 }
             }
         }
+        this.trim();
     }
 }
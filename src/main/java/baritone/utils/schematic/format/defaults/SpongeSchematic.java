@@ -17,9 +17,9 @@
 
 package baritone.utils.schematic.format.defaults;
 
-import baritone.utils.schematic.StaticSchematic;
+import baritone.utils.schematic.PalettedSchematic;
 import baritone.utils.type.VarInt;
-import it.unimi.dsi.fastutil.ints.Int2ObjectArrayMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
 import net.minecraft.core.Registry;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.resources.ResourceLocation;
@@ -37,15 +37,13 @@ import java.util.regex.Pattern;
  * @author Brady
  * @since 12/27/2019
  */
-public final class SpongeSchematic extends StaticSchematic {
+public final class SpongeSchematic extends PalettedSchematic {
 
     public SpongeSchematic(CompoundTag nbt) {
-        this.x = nbt.getInt("Width");
-        this.y = nbt.getInt("Height");
-        this.z = nbt.getInt("Length");
-        this.states = new BlockState[this.x][this.z][this.y];
+        super(nbt.getInt("Width"), nbt.getInt("Height"), nbt.getInt("Length"));
 
-        Int2ObjectArrayMap<BlockState> palette = new Int2ObjectArrayMap<>();
+        Int2IntOpenHashMap palette = new Int2IntOpenHashMap();
+        palette.defaultReturnValue(-1);
         CompoundTag paletteTag = nbt.getCompound("Palette");
         for (String tag : paletteTag.getAllKeys()) {
             int index = paletteTag.getInt(tag);
@@ -60,36 +58,33 @@ public final class SpongeSchematic extends StaticSchematic {
                 throw new IllegalArgumentException("Unable to deserialize palette tag");
             }
 
-            palette.put(index, state);
+            palette.put(index, this.paletteIndex(state));
         }
 
         // BlockData is stored as an NBT byte[], however, the actual data that is represented is a varint[]
+        // in y, z, x order, so it can be read straight into place without decoding it all first
         byte[] rawBlockData = nbt.getByteArray("BlockData");
-        int[] blockData = new int[this.x * this.y * this.z];
         int offset = 0;
-        for (int i = 0; i < blockData.length; i++) {
-            if (offset >= rawBlockData.length) {
-                throw new IllegalArgumentException("No remaining bytes in BlockData for complete schematic");
-            }
-
-            VarInt varInt = VarInt.read(rawBlockData, offset);
-            blockData[i] = varInt.getValue();
-            offset += varInt.getSize();
-        }
-
         for (int y = 0; y < this.y; y++) {
             for (int z = 0; z < this.z; z++) {
                 for (int x = 0; x < this.x; x++) {
-                    int index = (y * this.z + z) * this.x + x;
-                    BlockState state = palette.get(blockData[index]);
-                    if (state == null) {
+                    if (offset >= rawBlockData.length) {
+                        throw new IllegalArgumentException("No remaining bytes in BlockData for complete schematic");
+                    }
+                    VarInt varInt = VarInt.read(rawBlockData, offset);
+                    offset += varInt.getSize();
+
+                    int state = palette.get(varInt.getValue());
+                    if (state == -1) {
+                        int index = (y * this.z + z) * this.x + x;
                         throw new IllegalArgumentException("Invalid Palette Index " + index);
                     }
 
-                    this.states[x][z][y] = state;
+                    this.set(x, y, z, state);
                 }
             }
         }
+        this.trim();
     }
 
     private static final class SerializedBlockState {
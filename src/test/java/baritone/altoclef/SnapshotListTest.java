@@ -0,0 +1,120 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.altoclef;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.ListIterator;
+
+import static org.junit.Assert.*;
+
+public class SnapshotListTest {
+
+    private static void assertPublished(SnapshotList<String> list) {
+        assertArrayEquals(list.toArray(), list.snapshot());
+    }
+
+    @Test
+    public void startsEmpty() {
+        assertEquals(0, new SnapshotList<String>().snapshot().length);
+    }
+
+    @Test
+    public void publishesEveryChange() {
+        SnapshotList<String> list = new SnapshotList<>();
+        list.add("a");
+        assertPublished(list);
+        list.add(0, "b");
+        assertPublished(list);
+        list.addAll(Arrays.asList("c", "d", "e"));
+        assertPublished(list);
+        list.addAll(1, Arrays.asList("f", "g"));
+        assertPublished(list);
+        list.set(2, "h");
+        assertPublished(list);
+        list.remove(0);
+        assertPublished(list);
+        list.remove("c");
+        assertPublished(list);
+        list.sort(String::compareTo);
+        assertPublished(list);
+        list.replaceAll(String::toUpperCase);
+        assertPublished(list);
+        list.removeIf(s -> s.equals("A"));
+        assertPublished(list);
+        list.removeAll(Arrays.asList("D", "nothing"));
+        assertPublished(list);
+        list.retainAll(Arrays.asList("E", "H"));
+        assertPublished(list);
+        assertArrayEquals(new Object[]{"E", "H"}, list.snapshot());
+        list.clear();
+        assertPublished(list);
+    }
+
+    @Test
+    public void snapshotIsNeverModified() {
+        SnapshotList<String> list = new SnapshotList<>();
+        list.addAll(Arrays.asList("a", "b", "c"));
+        Object[] before = list.snapshot();
+        list.set(0, "x");
+        list.remove(1);
+        list.clear();
+        assertArrayEquals(new Object[]{"a", "b", "c"}, before);
+    }
+
+    @Test
+    public void iteratorRemoval() {
+        SnapshotList<String> list = new SnapshotList<>();
+        list.addAll(Arrays.asList("a", "b", "c", "d"));
+        Iterator<String> it = list.iterator();
+        while (it.hasNext()) {
+            if (it.next().compareTo("c") < 0) {
+                it.remove();
+            }
+        }
+        assertPublished(list);
+        assertArrayEquals(new Object[]{"c", "d"}, list.snapshot());
+    }
+
+    @Test
+    public void listIteratorChanges() {
+        SnapshotList<String> list = new SnapshotList<>();
+        list.addAll(Arrays.asList("a", "b", "c"));
+        ListIterator<String> it = list.listIterator();
+        it.next();
+        it.set("x");
+        assertPublished(list);
+        it.add("y");
+        assertPublished(list);
+        it.next();
+        it.remove();
+        assertPublished(list);
+        assertArrayEquals(new Object[]{"x", "y", "c"}, list.snapshot());
+    }
+
+    @Test
+    public void removeRange() {
+        SnapshotList<String> list = new SnapshotList<>();
+        list.addAll(Arrays.asList("a", "b", "c", "d"));
+        list.subList(1, 3).clear(); // goes through removeRange
+        assertPublished(list);
+        assertArrayEquals(new Object[]{"a", "d"}, list.snapshot());
+    }
+}
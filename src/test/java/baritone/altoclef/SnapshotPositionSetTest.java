@@ -0,0 +1,110 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.altoclef;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.core.BlockPos;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import static org.junit.Assert.*;
+
+public class SnapshotPositionSetTest {
+
+    private static void assertPublished(SnapshotPositionSet set) {
+        LongOpenHashSet expected = new LongOpenHashSet();
+        for (BlockPos pos : set) {
+            expected.add(pos.asLong());
+        }
+        assertEquals(expected, set.snapshot());
+        for (BlockPos pos : set) {
+            assertTrue(set.contains(pos.getX(), pos.getY(), pos.getZ()));
+        }
+    }
+
+    @Test
+    public void publishesEveryChange() {
+        SnapshotPositionSet set = new SnapshotPositionSet();
+        assertFalse(set.contains(0, 0, 0));
+        set.add(new BlockPos(1, 2, 3));
+        assertPublished(set);
+        assertTrue(set.contains(1, 2, 3));
+        assertFalse(set.contains(3, 2, 1));
+        set.addAll(Arrays.asList(new BlockPos(4, 5, 6), new BlockPos(-7, -8, -9), new BlockPos(1, 2, 3)));
+        assertPublished(set);
+        assertEquals(3, set.snapshot().size());
+        set.remove(new BlockPos(4, 5, 6));
+        assertPublished(set);
+        assertFalse(set.contains(4, 5, 6));
+        set.removeAll(Arrays.asList(new BlockPos(1, 2, 3), new BlockPos(100, 100, 100)));
+        assertPublished(set);
+        set.addAll(Arrays.asList(new BlockPos(10, 64, 10), new BlockPos(11, 64, 10)));
+        set.retainAll(Arrays.asList(new BlockPos(10, 64, 10), new BlockPos(-7, -8, -9)));
+        assertPublished(set);
+        assertEquals(2, set.snapshot().size());
+        set.removeIf(pos -> pos.getY() < 0);
+        assertPublished(set);
+        assertTrue(set.contains(10, 64, 10));
+        assertFalse(set.contains(-7, -8, -9));
+        set.clear();
+        assertPublished(set);
+        assertFalse(set.contains(10, 64, 10));
+    }
+
+    @Test
+    public void snapshotIsNeverModified() {
+        SnapshotPositionSet set = new SnapshotPositionSet();
+        set.add(new BlockPos(1, 1, 1));
+        LongOpenHashSet before = set.snapshot();
+        set.add(new BlockPos(2, 2, 2));
+        set.clear();
+        assertEquals(1, before.size());
+        assertTrue(before.contains(BlockPos.asLong(1, 1, 1)));
+    }
+
+    @Test
+    public void unchangedKeepsSnapshot() {
+        SnapshotPositionSet set = new SnapshotPositionSet();
+        set.add(new BlockPos(1, 1, 1));
+        LongOpenHashSet before = set.snapshot();
+        set.add(new BlockPos(1, 1, 1));
+        set.remove(new BlockPos(2, 2, 2));
+        set.removeIf(pos -> false);
+        assertSame(before, set.snapshot());
+    }
+
+    @Test
+    public void iteratorRemoval() {
+        SnapshotPositionSet set = new SnapshotPositionSet();
+        for (int i = 0; i < 10; i++) {
+            set.add(new BlockPos(i, 0, 0));
+        }
+        Iterator<BlockPos> it = set.iterator();
+        while (it.hasNext()) {
+            if (it.next().getX() % 2 == 0) {
+                it.remove();
+            }
+        }
+        assertPublished(set);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i % 2 != 0, set.contains(i, 0, 0));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.cache;
+
+import net.minecraft.core.BlockPos;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class BlockLocationIndexTest {
+
+    private static long distanceSq(BlockPos pos, int x, int y, int z) {
+        long dx = pos.getX() - x;
+        long dy = pos.getY() - y;
+        long dz = pos.getZ() - z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    @Test
+    public void nearestMatchesBruteForce() {
+        Random random = new Random(2020);
+        for (int trial = 0; trial < 50; trial++) {
+            int count = random.nextInt(500);
+            List<BlockPos> all = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                // few enough distinct positions that there are ties
+                all.add(new BlockPos(random.nextInt(64) - 32, random.nextInt(16), random.nextInt(64) - 32));
+            }
+            int x = random.nextInt(80) - 40;
+            int y = random.nextInt(20);
+            int z = random.nextInt(80) - 40;
+            // both below and above the initial capacity, and more than there are
+            int k = 1 + random.nextInt(trial % 2 == 0 ? 10 : 200);
+            BlockLocationIndex.Nearest nearest = new BlockLocationIndex.Nearest(k, x, y, z);
+            for (BlockPos pos : all) {
+                nearest.offer(pos.asLong());
+            }
+            all.sort((a, b) -> Long.compare(distanceSq(a, x, y, z), distanceSq(b, x, y, z)));
+            List<BlockPos> expected = all.subList(0, Math.min(k, all.size()));
+            List<BlockPos> actual = nearest.toSortedList();
+            assertEquals(expected.size(), actual.size());
+            assertEquals(k <= all.size(), nearest.isFull());
+            for (int i = 0; i < expected.size(); i++) {
+                // ties can come in either order, but the distances can't differ
+                assertEquals(distanceSq(expected.get(i), x, y, z), distanceSq(actual.get(i), x, y, z));
+            }
+            if (nearest.isFull() && !expected.isEmpty()) {
+                assertEquals(distanceSq(expected.get(expected.size() - 1), x, y, z), nearest.worstDistanceSq());
+            }
+        }
+    }
+
+    @Test
+    public void minDistanceToArea() {
+        BlockLocationIndex.Nearest nearest = new BlockLocationIndex.Nearest(1, 5, 64, 5);
+        assertEquals(0, nearest.minDistanceSq(0, 0, 16)); // inside
+        assertEquals(11 * 11, nearest.minDistanceSq(16, 0, 16));
+        assertEquals(6 * 6 + 6 * 6, nearest.minDistanceSq(-16, -16, 16));
+        // no position in an area can be closer than its minimum distance
+        Random random = new Random(7);
+        for (int i = 0; i < 1000; i++) {
+            int minX = random.nextInt(64) - 32;
+            int minZ = random.nextInt(64) - 32;
+            long bound = nearest.minDistanceSq(minX, minZ, 16);
+            BlockPos pos = new BlockPos(minX + random.nextInt(16), 64, minZ + random.nextInt(16));
+            assertTrue(distanceSq(pos, 5, 64, 5) >= bound);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.cache;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+
+public class RegionFileTest {
+
+    private Path dir;
+    private Path path;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("baritone-region");
+        path = dir.resolve("r.0.0.bcr");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private static byte[] record(Random random, int length) {
+        byte[] record = new byte[length];
+        random.nextBytes(record); // incompressible, so the records keep their size on disk
+        return record;
+    }
+
+    private static Int2ObjectMap<byte[]> changes(Object... indexAndRecord) {
+        Int2ObjectMap<byte[]> changed = new Int2ObjectOpenHashMap<>();
+        for (int i = 0; i < indexAndRecord.length; i += 2) {
+            changed.put((int) indexAndRecord[i], (byte[]) indexAndRecord[i + 1]);
+        }
+        return changed;
+    }
+
+    private static void assertRecord(byte[] expected, RegionFile file, int chunkX, int chunkZ) throws IOException {
+        assertTrue(file.has(chunkX, chunkZ));
+        try (DataInputStream in = file.read(chunkX, chunkZ)) {
+            byte[] actual = new byte[expected.length];
+            in.readFully(actual);
+            assertArrayEquals(expected, actual);
+            assertEquals(-1, in.read());
+        }
+    }
+
+    @Test
+    public void roundTrip() throws IOException {
+        Random random = new Random(5021);
+        byte[] a = record(random, 3000);
+        byte[] b = record(random, 10);
+        RegionFile file = RegionFile.open(path);
+        assertTrue(file.needsRewrite());
+        file.write(changes(RegionFile.index(0, 0), a, RegionFile.index(31, 17), b));
+        assertFalse(file.needsRewrite());
+        assertRecord(a, file, 0, 0);
+
+        RegionFile reopened = RegionFile.open(path);
+        assertFalse(reopened.needsRewrite());
+        assertRecord(a, reopened, 0, 0);
+        assertRecord(b, reopened, 31, 17);
+        assertFalse(reopened.has(1, 0));
+        assertNull(reopened.read(1, 0));
+    }
+
+    @Test
+    public void legacyConversion() throws IOException {
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(path))) {
+            out.write(new byte[100_000]); // stands in for a whole region in the old format
+        }
+        assertFalse(RegionFile.isRegionFile(path));
+        RegionFile file = RegionFile.open(path);
+        assertTrue(file.needsRewrite());
+        assertFalse(file.has(0, 0));
+
+        byte[] a = record(new Random(1), 500);
+        file.write(changes(RegionFile.index(3, 4), a));
+        assertTrue(RegionFile.isRegionFile(path));
+        assertFalse(Files.exists(path.resolveSibling(path.getFileName() + ".tmp")));
+        RegionFile reopened = RegionFile.open(path);
+        assertRecord(a, reopened, 3, 4);
+        for (int x = 0; x < 32; x++) {
+            for (int z = 0; z < 32; z++) {
+                assertEquals(x == 3 && z == 4, reopened.has(x, z));
+            }
+        }
+    }
+
+    @Test
+    public void rewriteKeepsOtherRecords() throws IOException {
+        Random random = new Random(24);
+        byte[] a = record(random, 2000);
+        byte[] b = record(random, 2000);
+        byte[] c = record(random, 700);
+        RegionFile file = RegionFile.open(path);
+        file.write(changes(RegionFile.index(0, 0), a, RegionFile.index(0, 1), b, RegionFile.index(5, 5), c));
+
+        byte[] smaller = record(random, 1500);
+        byte[] larger = record(random, 2500);
+        file.write(changes(RegionFile.index(0, 0), smaller, RegionFile.index(0, 1), larger, RegionFile.index(5, 5), null));
+        assertRecord(smaller, file, 0, 0);
+        assertRecord(larger, file, 0, 1);
+        assertFalse(file.has(5, 5));
+
+        RegionFile reopened = RegionFile.open(path);
+        assertRecord(smaller, reopened, 0, 0);
+        assertRecord(larger, reopened, 0, 1);
+        assertFalse(reopened.has(5, 5));
+    }
+
+    @Test
+    public void tornTableFallsBack() throws IOException {
+        Random random = new Random(6);
+        byte[] a = record(random, 1000);
+        byte[] b = record(random, 1000);
+        RegionFile file = RegionFile.open(path);
+        file.write(changes(RegionFile.index(1, 1), a)); // rewrite, into the first table
+        file.write(changes(RegionFile.index(1, 1), b)); // append, into the second table
+        assertRecord(b, RegionFile.open(path), 1, 1);
+
+        // as if the second table had only been partly written when the game crashed
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            byte[] garbage = new byte[100];
+            Arrays.fill(garbage, (byte) -1);
+            channel.write(ByteBuffer.wrap(garbage), 4 + (RegionFile.HEADER_SIZE - 4) / 2 + 10);
+        }
+        RegionFile reopened = RegionFile.open(path);
+        assertRecord(a, reopened, 1, 1);
+
+        byte[] c = record(random, 1000);
+        reopened.write(changes(RegionFile.index(1, 1), c)); // goes over the torn table again
+        assertRecord(c, RegionFile.open(path), 1, 1);
+    }
+
+    @Test
+    public void compaction() throws IOException {
+        Random random = new Random(1337);
+        byte[] kept = record(random, 4000);
+        RegionFile file = RegionFile.open(path);
+        file.write(changes(RegionFile.index(10, 10), kept));
+        byte[] latest = null;
+        for (int i = 0; i < 100; i++) {
+            latest = record(random, 4000);
+            file.write(changes(RegionFile.index(2, 3), latest));
+            // without compaction, this would grow by a record every time
+            assertTrue(Files.size(path) < 2 * (RegionFile.HEADER_SIZE + 2 * 4100) + 4100);
+        }
+        assertRecord(kept, file, 10, 10);
+        assertRecord(latest, file, 2, 3);
+
+        RegionFile reopened = RegionFile.open(path);
+        assertRecord(kept, reopened, 10, 10);
+        assertRecord(latest, reopened, 2, 3);
+        assertFalse(Files.exists(path.resolveSibling(path.getFileName() + ".tmp")));
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MovementCostCacheTest {
+
+    @Test
+    public void generations() {
+        MovementCostCache cache = new MovementCostCache(1024);
+        int first = cache.generation(42);
+        assertNotEquals(0, first); // the generation of every empty slot
+        assertEquals(first, cache.generation(42));
+
+        int second = cache.generation(43);
+        assertNotEquals(first, second);
+        assertEquals(second, cache.generation(43));
+        // going back to an earlier fingerprint doesn't bring its costs back, they were overwritten in the meantime
+        assertNotEquals(first, cache.generation(42));
+    }
+
+    @Test
+    public void generationFromZeroFingerprint() {
+        assertNotEquals(0, new MovementCostCache(1024).generation(0));
+    }
+
+    @Test
+    public void clearStartsNewGeneration() {
+        MovementCostCache cache = new MovementCostCache(1024);
+        int before = cache.generation(7);
+        cache.clear();
+        int after = cache.generation(7);
+        assertNotEquals(before, after);
+        assertEquals(after, cache.generation(7));
+    }
+
+    @Test
+    public void invalidationCoversNeighbours() {
+        MovementCostCache cache = new MovementCostCache(1024);
+        int[] snapshot = cache.snapshot();
+        assertFalse(cache.changedSince(snapshot, 5, 5));
+
+        cache.invalidateChunk(3, -2);
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dz = -1; dz <= 1; dz++) {
+                int x = (3 + dx) * 16;
+                int z = (-2 + dz) * 16;
+                assertTrue(cache.changedSince(snapshot, x, z));
+                assertTrue(cache.changedSince(snapshot, x + 15, z + 15));
+            }
+        }
+        assertFalse(cache.changedSince(snapshot, 6 * 16, -2 * 16));
+        assertFalse(cache.changedSince(snapshot, 3 * 16, 2 * 16));
+        assertFalse(cache.changedSince(snapshot, -1000, 1000));
+
+        int[] later = cache.snapshot();
+        assertFalse(cache.changedSince(later, 3 * 16, -2 * 16));
+    }
+
+    @Test
+    public void hitRateWithoutLookups() {
+        assertEquals(0, new MovementCostCache(1024).hitRate(), 0);
+    }
+}
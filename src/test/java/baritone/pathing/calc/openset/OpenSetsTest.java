@@ -76,9 +76,16 @@ public class OpenSetsTest {
     @Test
     public void testSize() {
         System.out.println("Testing size " + size);
+        // each heap gets its own set of nodes, since they all keep track of their position in PathNode.heapPosition
+        testAgainstLinkedList(new BinaryHeapOpenSet());
+        testAgainstLinkedList(new QuaternaryHeapOpenSet());
+        testAgainstLinkedList(new RadixHeapOpenSet());
+    }
+
+    private void testAgainstLinkedList(IOpenSet heap) {
         // Include LinkedListOpenSet even though it's not performant because I absolutely trust that it behaves properly
         // I'm really testing the heap implementations against it as the ground truth
-        IOpenSet[] test = new IOpenSet[]{new BinaryHeapOpenSet(), new LinkedListOpenSet()};
+        IOpenSet[] test = new IOpenSet[]{heap, new LinkedListOpenSet()};
         for (IOpenSet set : test) {
             assertTrue(set.isEmpty());
         }
@@ -165,6 +172,7 @@ public class OpenSetsTest {
         // every set should now be empty
         for (IOpenSet set : test) {
             assertTrue(set.isEmpty());
+            assertEquals(0, set.size());
         }
     }
 }
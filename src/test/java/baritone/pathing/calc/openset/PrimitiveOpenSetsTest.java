@@ -0,0 +1,144 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc.openset;
+
+import baritone.api.pathing.goals.Goal;
+import baritone.pathing.calc.NodeStore;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.*;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+@RunWith(Parameterized.class)
+public class PrimitiveOpenSetsTest {
+
+    private final int size;
+
+    public PrimitiveOpenSetsTest(int size) {
+        this.size = size;
+    }
+
+    @Parameterized.Parameters
+    public static Collection<Object[]> data() {
+        ArrayList<Object[]> testSizes = new ArrayList<>();
+        for (int size = 1; size < 20; size++) {
+            testSizes.add(new Object[]{size});
+        }
+        for (int size = 100; size <= 1000; size += 100) {
+            testSizes.add(new Object[]{size});
+        }
+        testSizes.add(new Object[]{5000});
+        testSizes.add(new Object[]{10000});
+        return testSizes;
+    }
+
+    private static NodeStore createStore(double[] keys) {
+        // can't use an existing goal, see OpenSetsTest
+        NodeStore store = new NodeStore(new Goal() {
+            @Override
+            public boolean isInGoal(int x, int y, int z) {
+                return false;
+            }
+
+            @Override
+            public double heuristic(int x, int y, int z) {
+                return 0;
+            }
+        }, 16, 0.75f);
+        for (int i = 0; i < keys.length; i++) {
+            int node = store.getOrCreate(i, 0, 0, i);
+            assertEquals(i, node);
+            store.setCombinedCost(node, keys[i]);
+        }
+        return store;
+    }
+
+    @Test
+    public void testSize() {
+        System.out.println("Testing size " + size);
+        Random random = new Random(size);
+        double[] keys = new double[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = random.nextDouble() * 2 - 0.5; // include some negative keys, like GoalInverted would make
+        }
+        // decrease a random half of the keys after the first quarter has been removed, many of them far enough that
+        // they end up below the last key that was removed
+        double[] decreases = new double[size];
+        for (int i = 0; i < size; i++) {
+            decreases[i] = random.nextBoolean() ? 0.5 + random.nextDouble() : 0;
+        }
+        testHeap(PrimitiveBinaryHeapOpenSet::new, keys, decreases);
+        testHeap(PrimitiveQuaternaryHeapOpenSet::new, keys, decreases);
+        testHeap(PrimitiveRadixHeapOpenSet::new, keys, decreases);
+    }
+
+    private void testHeap(Function<NodeStore, IPrimitiveOpenSet> constructor, double[] keys, double[] decreases) {
+        NodeStore store = createStore(keys);
+        IPrimitiveOpenSet set = constructor.apply(store);
+        assertTrue(set.isEmpty());
+        for (int i = 0; i < size; i++) {
+            set.insert(i);
+            assertTrue(store.isOpen(i));
+        }
+        assertEquals(size, set.size());
+
+        // reference, sorted copy of what's still in the set
+        TreeMap<Double, Integer> remaining = new TreeMap<>();
+        for (int i = 0; i < size; i++) {
+            remaining.merge(keys[i], 1, Integer::sum);
+        }
+
+        removeAndTest(size / 4, set, store, remaining);
+
+        for (int i = 0; i < size; i++) {
+            if (!store.isOpen(i) || decreases[i] == 0) {
+                continue;
+            }
+            double before = store.combinedCost(i);
+            double after = before - decreases[i];
+            store.setCombinedCost(i, after);
+            set.update(i);
+            remaining.merge(before, -1, Integer::sum);
+            remaining.remove(before, 0);
+            remaining.merge(after, 1, Integer::sum);
+        }
+
+        removeAndTest(size - size / 4, set, store, remaining);
+        assertTrue(set.isEmpty());
+        assertEquals(0, set.size());
+        for (int i = 0; i < size; i++) {
+            assertFalse(store.isOpen(i));
+        }
+    }
+
+    private static void removeAndTest(int amount, IPrimitiveOpenSet set, NodeStore store, TreeMap<Double, Integer> remaining) {
+        for (int i = 0; i < amount; i++) {
+            assertFalse(set.isEmpty());
+            int node = set.removeLowest();
+            assertFalse(store.isOpen(node));
+            double key = store.combinedCost(node);
+            assertEquals(remaining.firstKey(), key, 0);
+            remaining.merge(key, -1, Integer::sum);
+            remaining.remove(key, 0);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.goals;
+
+import baritone.api.pathing.goals.*;
+import net.minecraft.core.BlockPos;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class IndexedGoalCompositeTest {
+
+    private static Goal randomGoal(Random random, int spread) {
+        int x = random.nextInt(2 * spread) - spread;
+        int y = random.nextInt(64);
+        int z = random.nextInt(2 * spread) - spread;
+        switch (random.nextInt(10)) {
+            case 0:
+                return new GoalGetToBlock(new BlockPos(x, y, z));
+            case 1:
+                return new GoalTwoBlocks(x, y, z);
+            case 2:
+                return new GoalNear(new BlockPos(x, y, z), random.nextInt(20));
+            case 3:
+                return new GoalNear(new BlockPos(x, y, z), 2000); // too big to be worth indexing
+            case 4:
+                return new GoalYLevel(y); // no bounds at all
+            default:
+                return new GoalBlock(x, y, z);
+        }
+    }
+
+    @Test
+    public void matchesGoalComposite() {
+        Random random = new Random(2121);
+        for (int trial = 0; trial < 60; trial++) {
+            // below and above the size where it starts indexing, spread over areas of different sizes
+            int count = 1 + random.nextInt(trial % 3 == 0 ? 16 : 400);
+            int spread = 8 << random.nextInt(10);
+            Goal[] goals = new Goal[count];
+            for (int i = 0; i < count; i++) {
+                // mostly positional, since the rest would make every lookup go through them anyway
+                goals[i] = random.nextInt(20) == 0 ? randomGoal(random, spread) : new GoalBlock(random.nextInt(2 * spread) - spread, random.nextInt(64), random.nextInt(2 * spread) - spread);
+            }
+            GoalComposite plain = new GoalComposite(goals);
+            IndexedGoalComposite indexed = new IndexedGoalComposite(goals);
+            for (int i = 0; i < 2000; i++) {
+                int x;
+                int y;
+                int z;
+                if (random.nextInt(4) == 0) {
+                    // right on or next to a member, so that isInGoal is true now and then
+                    Goal goal = goals[random.nextInt(count)];
+                    int[] box = new int[6];
+                    if (!goal.bounds(box)) {
+                        continue;
+                    }
+                    x = box[0] + random.nextInt(3) - 1;
+                    y = box[1] + random.nextInt(3) - 1;
+                    z = box[2] + random.nextInt(3) - 1;
+                } else {
+                    // including far outside of everything
+                    x = random.nextInt(8 * spread) - 4 * spread;
+                    y = random.nextInt(100) - 20;
+                    z = random.nextInt(8 * spread) - 4 * spread;
+                }
+                String at = x + "," + y + "," + z + " in trial " + trial;
+                assertEquals(at, plain.isInGoal(x, y, z), indexed.isInGoal(x, y, z));
+                assertEquals(at, plain.heuristic(x, y, z), indexed.heuristic(x, y, z), 1e-9);
+            }
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.process;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.ChunkPos;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class IncorrectPositionIndexTest {
+
+    private static Set<Long> asSet(long[] positions) {
+        Set<Long> set = new HashSet<>();
+        for (long pos : positions) {
+            assertTrue("duplicate " + pos, set.add(pos));
+        }
+        return set;
+    }
+
+    @Test
+    public void addAndRemove() {
+        IncorrectPositionIndex index = new IncorrectPositionIndex();
+        assertTrue(index.isEmpty());
+        assertTrue(index.add(1, 2, 3));
+        assertFalse(index.add(1, 2, 3));
+        assertTrue(index.add(-1, 2, 3)); // another chunk
+        assertEquals(2, index.size());
+        assertTrue(index.contains(1, 2, 3));
+        assertFalse(index.contains(1, 3, 3));
+        assertTrue(index.remove(1, 2, 3));
+        assertFalse(index.remove(1, 2, 3));
+        assertFalse(index.remove(100, 2, 3));
+        assertEquals(1, index.size());
+        assertArrayEquals(new long[0], index.inChunk(0, 0));
+        index.clear();
+        assertTrue(index.isEmpty());
+        assertFalse(index.contains(-1, 2, 3));
+    }
+
+    @Test
+    public void withinMatchesBruteForce() {
+        Random random = new Random(4242);
+        IncorrectPositionIndex index = new IncorrectPositionIndex();
+        Set<Long> all = new HashSet<>();
+        for (int i = 0; i < 3000; i++) {
+            int x = random.nextInt(100) - 50;
+            int y = random.nextInt(40) - 10;
+            int z = random.nextInt(100) - 50;
+            assertEquals(all.add(BlockPos.asLong(x, y, z)), index.add(x, y, z));
+        }
+        assertEquals(all.size(), index.size());
+        for (int i = 0; i < 200; i++) {
+            int x = random.nextInt(120) - 60;
+            int y = random.nextInt(60) - 20;
+            int z = random.nextInt(120) - 60;
+            int radius = random.nextInt(20);
+            Set<Long> expected = new HashSet<>();
+            for (long pos : all) {
+                if (Math.abs(BlockPos.getX(pos) - x) <= radius && Math.abs(BlockPos.getY(pos) - y) <= radius && Math.abs(BlockPos.getZ(pos) - z) <= radius) {
+                    expected.add(pos);
+                }
+            }
+            assertEquals(expected, asSet(index.within(x, y, z, radius)));
+        }
+    }
+
+    private static int distance(long pos, int x, int y, int z) {
+        return Math.max(Math.abs(BlockPos.getX(pos) - x), Math.max(Math.abs(BlockPos.getY(pos) - y), Math.abs(BlockPos.getZ(pos) - z)));
+    }
+
+    @Test
+    public void nearGoesThroughTheClosestOnes() {
+        Random random = new Random(18);
+        IncorrectPositionIndex index = new IncorrectPositionIndex();
+        Set<Long> all = new HashSet<>();
+        for (int i = 0; i < 500; i++) {
+            int x = random.nextInt(2000) - 1000;
+            int y = random.nextInt(256);
+            int z = random.nextInt(2000) - 1000;
+            index.add(x, y, z);
+            all.add(BlockPos.asLong(x, y, z));
+        }
+        // far more chunk columns in range than there are with positions in them
+        assertEquals(all, asSet(index.within(0, 128, 0, 5000)));
+        for (int minimum : new int[]{1, 50, 499, 1000}) {
+            Set<Long> near = new HashSet<>();
+            index.forEachNear(100, 64, -100, minimum, pos -> assertTrue(near.add(BlockPos.asLong(pos.x, pos.y, pos.z))));
+            assertTrue(near.size() >= Math.min(minimum, all.size()));
+            int farthestIn = 0;
+            int nearestOut = Integer.MAX_VALUE;
+            for (long pos : all) {
+                if (near.contains(pos)) {
+                    farthestIn = Math.max(farthestIn, distance(pos, 100, 64, -100));
+                } else {
+                    nearestOut = Math.min(nearestOut, distance(pos, 100, 64, -100));
+                }
+            }
+            assertTrue(farthestIn < nearestOut);
+        }
+    }
+
+    @Test
+    public void inChunkMatchesBruteForce() {
+        Random random = new Random(99);
+        IncorrectPositionIndex index = new IncorrectPositionIndex();
+        Set<Long> all = new HashSet<>();
+        for (int i = 0; i < 2000; i++) {
+            int x = random.nextInt(64) - 32;
+            int y = random.nextInt(256);
+            int z = random.nextInt(64) - 32;
+            index.add(x, y, z);
+            all.add(BlockPos.asLong(x, y, z));
+        }
+        for (int cx = -3; cx <= 2; cx++) {
+            for (int cz = -3; cz <= 2; cz++) {
+                Set<Long> expected = new HashSet<>();
+                for (long pos : all) {
+                    if (BlockPos.getX(pos) >> 4 == cx && BlockPos.getZ(pos) >> 4 == cz) {
+                        expected.add(pos);
+                    }
+                }
+                assertEquals(expected, asSet(index.inChunk(cx, cz)));
+            }
+        }
+    }
+
+    @Test
+    public void removeWhileGoingThrough() {
+        IncorrectPositionIndex index = new IncorrectPositionIndex();
+        for (int x = 0; x < 32; x++) {
+            index.add(x, 64, 0);
+        }
+        for (long pos : index.within(10, 64, 0, 8)) {
+            assertTrue(index.remove(BlockPos.getX(pos), BlockPos.getY(pos), BlockPos.getZ(pos)));
+        }
+        assertEquals(32 - 17, index.size());
+        for (long pos : index.inChunk(1, 0)) {
+            assertTrue(index.remove(BlockPos.getX(pos), BlockPos.getY(pos), BlockPos.getZ(pos)));
+        }
+        assertEquals(2, index.size()); // x 0 and 1, the rest of chunk 0 went above
+        assertArrayEquals(new long[0], index.inChunk(1, 0));
+    }
+
+    @Test
+    public void dirtyIsTakenOnce() {
+        IncorrectPositionIndex index = new IncorrectPositionIndex();
+        index.markDirty(1, 2, 3);
+        index.markDirty(1, 2, 3);
+        index.markChunkDirty(-1, 4);
+        assertArrayEquals(new long[]{BlockPos.asLong(1, 2, 3)}, index.takeDirtyBlocks());
+        assertEquals(0, index.takeDirtyBlocks().length);
+        assertArrayEquals(new long[]{ChunkPos.asLong(-1, 4)}, index.takeDirtyChunks());
+        assertEquals(0, index.takeDirtyChunks().length);
+    }
+}
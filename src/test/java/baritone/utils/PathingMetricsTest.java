@@ -0,0 +1,154 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.utils;
+
+import baritone.api.event.events.PathEvent;
+import baritone.api.utils.PathCalculationResult;
+import baritone.pathing.calc.SearchStats;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+public class PathingMetricsTest {
+
+    private static final Pattern SAMPLE = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*(\\{[a-zA-Z_][a-zA-Z0-9_]*=\"[^\"]*\"(,[a-zA-Z_][a-zA-Z0-9_]*=\"[^\"]*\")*})? -?[0-9]+(\\.[0-9]+)?(E-?[0-9]+)?");
+
+    private static SearchStats stats(long nodes, long millis) {
+        SearchStats stats = new SearchStats();
+        stats.nodesExpanded = nodes;
+        stats.movementsConsidered = nodes * 10;
+        stats.durationMillis = millis;
+        stats.openSetPeak = (int) nodes / 2;
+        stats.chunkCacheHits = 90;
+        stats.chunkCacheMisses = 10;
+        return stats;
+    }
+
+    @Test
+    public void countersAndGauges() {
+        PathingMetrics metrics = new PathingMetrics();
+        metrics.recordSearchStarted("fresh");
+        metrics.recordSearchStarted("fresh");
+        metrics.recordSearchStarted("plan_ahead");
+        metrics.recordSearch(stats(5_000, 200), PathCalculationResult.Type.SUCCESS_TO_GOAL);
+        metrics.recordSearch(stats(20_000, 3000), PathCalculationResult.Type.FAILURE);
+        metrics.recordEvent(PathEvent.CALC_STARTED);
+        metrics.recordSplice("spliced");
+
+        assertEquals(2, metrics.get("baritone_searches_started_total{kind=\"fresh\"}"), 0);
+        assertEquals(1, metrics.get("baritone_searches_started_total{kind=\"plan_ahead\"}"), 0);
+        assertEquals(1, metrics.get("baritone_searches_total{result=\"failure\"}"), 0);
+        assertEquals(25_000, metrics.get("baritone_search_nodes_expanded_total"), 0);
+        assertEquals(250_000, metrics.get("baritone_search_movements_considered_total"), 0);
+        assertEquals(180, metrics.get("baritone_block_lookups_total{cache=\"chunk\",result=\"hit\"}"), 0);
+        assertEquals(1, metrics.get("baritone_path_events_total{event=\"calc_started\"}"), 0);
+        assertEquals(1, metrics.get("baritone_splices_total{outcome=\"spliced\"}"), 0);
+        // gauges are the last search, not a sum
+        assertEquals(10_000, metrics.get("baritone_last_search_open_set_peak"), 0);
+        assertEquals(0, metrics.get("baritone_no_such_metric"), 0);
+        // not timed, so no time samples at all
+        assertFalse(metrics.getSamples().keySet().stream().anyMatch(name -> name.startsWith("baritone_search_time_seconds_total")));
+    }
+
+    @Test
+    public void histogramBucketsAreCumulative() {
+        PathingMetrics metrics = new PathingMetrics();
+        metrics.recordSearch(stats(500, 40), PathCalculationResult.Type.SUCCESS_TO_GOAL);
+        metrics.recordSearch(stats(50_000, 300), PathCalculationResult.Type.SUCCESS_SEGMENT);
+        metrics.recordSearch(stats(5_000_000, 30_000), PathCalculationResult.Type.FAILURE);
+        assertEquals(1, metrics.get("baritone_search_duration_seconds_bucket{le=\"0.05\"}"), 0);
+        assertEquals(1, metrics.get("baritone_search_duration_seconds_bucket{le=\"0.25\"}"), 0);
+        assertEquals(2, metrics.get("baritone_search_duration_seconds_bucket{le=\"0.5\"}"), 0);
+        assertEquals(2, metrics.get("baritone_search_duration_seconds_bucket{le=\"10\"}"), 0);
+        assertEquals(3, metrics.get("baritone_search_duration_seconds_bucket{le=\"+Inf\"}"), 0);
+        assertEquals(3, metrics.get("baritone_search_duration_seconds_count"), 0);
+        assertEquals(30.34, metrics.get("baritone_search_duration_seconds_sum"), 1e-9);
+        assertEquals(1, metrics.get("baritone_search_expanded_nodes_bucket{le=\"1000\"}"), 0);
+        assertEquals(2, metrics.get("baritone_search_expanded_nodes_bucket{le=\"100000\"}"), 0);
+        assertEquals(2, metrics.get("baritone_search_expanded_nodes_bucket{le=\"1000000\"}"), 0);
+        assertEquals(3, metrics.get("baritone_search_expanded_nodes_bucket{le=\"+Inf\"}"), 0);
+    }
+
+    @Test
+    public void prometheusText() {
+        PathingMetrics metrics = new PathingMetrics();
+        metrics.recordSearchStarted("repair");
+        metrics.recordSearch(stats(1_234, 250), PathCalculationResult.Type.SUCCESS_SEGMENT);
+        String text = metrics.toPrometheusText();
+        assertTrue(text.endsWith("\n"));
+        List<String> lines = Arrays.asList(text.split("\n"));
+        String currentFamily = null;
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (line.startsWith("# HELP ")) {
+                currentFamily = line.split(" ")[2];
+                // every family is described and typed before its samples
+                String type = lines.get(i + 1);
+                assertTrue(type, type.matches("# TYPE " + currentFamily + " (counter|gauge|histogram)"));
+                i++;
+                continue;
+            }
+            assertNotNull(line, currentFamily);
+            assertTrue(line, line.startsWith(currentFamily));
+            assertTrue(line, SAMPLE.matcher(line).matches());
+        }
+        assertTrue(text.contains("baritone_searches_started_total{kind=\"repair\"} 1\n"));
+        assertTrue(text.contains("baritone_search_nodes_expanded_total 1234\n")); // whole numbers without a fraction
+        assertTrue(text.contains("baritone_search_duration_seconds_sum 0.25\n"));
+        assertTrue(text.contains("baritone_search_duration_seconds_bucket{le=\"+Inf\"} 1\n"));
+    }
+
+    @Test
+    public void reset() {
+        PathingMetrics metrics = new PathingMetrics();
+        metrics.recordSearch(stats(1_000, 100), PathCalculationResult.Type.SUCCESS_TO_GOAL);
+        metrics.reset();
+        assertEquals(0, metrics.get("baritone_search_nodes_expanded_total"), 0);
+        assertEquals(0, metrics.get("baritone_search_duration_seconds_count"), 0);
+        assertFalse(metrics.getSamples().containsKey("baritone_searches_total{result=\"success_to_goal\"}"));
+        // the families are still there for the next search
+        assertTrue(metrics.toPrometheusText().contains("# TYPE baritone_searches_total counter\n"));
+    }
+
+    @Test
+    public void writeTo() throws IOException {
+        Path dir = Files.createTempDirectory("baritone-metrics");
+        Path file = dir.resolve("nested").resolve("metrics.prom");
+        try {
+            PathingMetrics metrics = new PathingMetrics();
+            metrics.recordSearchStarted("fresh");
+            metrics.writeTo(file);
+            metrics.recordSearchStarted("fresh");
+            metrics.writeTo(file); // replaces the previous export
+            assertEquals(metrics.toPrometheusText(), new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+            assertFalse(Files.exists(file.resolveSibling("metrics.prom.tmp")));
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(file.getParent());
+            Files.deleteIfExists(dir);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class TaskSchedulerTest {
+
+    /**
+     * Keeps the only thread of a lane busy until the returned latch is counted down, so that what's submitted after
+     * this has to queue
+     */
+    private static CountDownLatch block(TaskScheduler scheduler, TaskScheduler.Lane lane) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.execute(lane, TaskScheduler.Priority.HIGH, () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        return release;
+    }
+
+    private static Runnable record(List<String> ran, String name, CountDownLatch done) {
+        return () -> {
+            ran.add(name);
+            done.countDown();
+        };
+    }
+
+    @Test
+    public void priorityThenSubmissionOrder() throws InterruptedException {
+        TaskScheduler scheduler = new TaskScheduler(1, 1, 1, false);
+        CountDownLatch release = block(scheduler, TaskScheduler.Lane.PATHING);
+        List<String> ran = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(6);
+        scheduler.execute(TaskScheduler.Lane.PATHING, TaskScheduler.Priority.LOW, record(ran, "low 1", done));
+        scheduler.execute(TaskScheduler.Lane.PATHING, TaskScheduler.Priority.NORMAL, record(ran, "normal 1", done));
+        scheduler.execute(TaskScheduler.Lane.PATHING, TaskScheduler.Priority.HIGH, record(ran, "high 1", done));
+        scheduler.execute(TaskScheduler.Lane.PATHING, TaskScheduler.Priority.LOW, record(ran, "low 2", done));
+        scheduler.execute(TaskScheduler.Lane.PATHING, record(ran, "normal 2", done));
+        scheduler.execute(TaskScheduler.Lane.PATHING, TaskScheduler.Priority.HIGH, record(ran, "high 2", done));
+        assertEquals(6, scheduler.queued(TaskScheduler.Lane.PATHING));
+        release.countDown();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("high 1", "high 2", "normal 1", "normal 2", "low 1", "low 2"), ran);
+        assertEquals(0, scheduler.queued(TaskScheduler.Lane.PATHING));
+    }
+
+    @Test
+    public void keyedSupersedesQueued() throws InterruptedException {
+        TaskScheduler scheduler = new TaskScheduler(1, 1, 1, false);
+        CountDownLatch release = block(scheduler, TaskScheduler.Lane.SCANNING);
+        List<String> ran = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(2);
+        scheduler.execute(TaskScheduler.Lane.SCANNING, TaskScheduler.Priority.NORMAL, "rescan", record(ran, "rescan 1", done));
+        scheduler.execute(TaskScheduler.Lane.SCANNING, TaskScheduler.Priority.NORMAL, "other", record(ran, "other", done));
+        scheduler.execute(TaskScheduler.Lane.SCANNING, TaskScheduler.Priority.NORMAL, "rescan", record(ran, "rescan 2", done));
+        scheduler.execute(TaskScheduler.Lane.SCANNING, TaskScheduler.Priority.LOW, "rescan", record(ran, "rescan 3", done));
+        assertEquals(2, scheduler.queued(TaskScheduler.Lane.SCANNING));
+        release.countDown();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        // the one that's left keeps its own priority and place in line
+        assertEquals(Arrays.asList("other", "rescan 3"), ran);
+        assertTrue(scheduler.stats().contains("superseded=2"));
+    }
+
+    @Test
+    public void keyedDoesNotSupersedeRunning() throws InterruptedException {
+        TaskScheduler scheduler = new TaskScheduler(1, 1, 1, false);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(2);
+        scheduler.execute(TaskScheduler.Lane.DISK, TaskScheduler.Priority.NORMAL, "save", () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            done.countDown();
+        });
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        scheduler.execute(TaskScheduler.Lane.DISK, TaskScheduler.Priority.NORMAL, "save", done::countDown);
+        release.countDown();
+        assertTrue(done.await(10, TimeUnit.SECONDS)); // both ran
+    }
+
+    @Test
+    public void backgroundNeverQueues() throws InterruptedException {
+        TaskScheduler scheduler = new TaskScheduler(1, 1, 1, false);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(3);
+        for (int i = 0; i < 3; i++) {
+            // each waits on the others having started, which only works if they all get a thread
+            scheduler.execute(TaskScheduler.Lane.BACKGROUND, () -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        }
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        assertEquals(0, scheduler.queued(TaskScheduler.Lane.BACKGROUND));
+        release.countDown();
+    }
+}
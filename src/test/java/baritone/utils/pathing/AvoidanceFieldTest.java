@@ -0,0 +1,100 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.utils.pathing;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class AvoidanceFieldTest {
+
+    private static long key(int x, int y, int z) {
+        return ((long) x & 0xFFFFF) << 40 | ((long) y & 0xFFFFF) << 20 | (long) z & 0xFFFFF;
+    }
+
+    /**
+     * The way avoidance used to be applied, every block of every sphere written into a map
+     */
+    private static void expand(Map<Long, Double> map, int centerX, int centerY, int centerZ, int radius, double coefficient) {
+        for (int x = -radius; x <= radius; x++) {
+            for (int y = -radius; y <= radius; y++) {
+                for (int z = -radius; z <= radius; z++) {
+                    if (x * x + y * y + z * z <= radius * radius) {
+                        long hash = key(centerX + x, centerY + y, centerZ + z);
+                        map.merge(hash, coefficient, (a, b) -> a * b);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void empty() {
+        AvoidanceField field = new AvoidanceField();
+        assertTrue(field.isEmpty());
+        assertEquals(1, field.coefficient(0, 0, 0), 0);
+        field.add(0, 0, 0, 5, 1.0); // no effect, so not even kept
+        field.add(0, 0, 0, -1, 2.0);
+        assertTrue(field.isEmpty());
+        assertEquals(1, field.coefficient(0, 0, 0), 0);
+    }
+
+    @Test
+    public void matchesSphericalExpansion() {
+        Random random = new Random(8086);
+        for (int trial = 0; trial < 20; trial++) {
+            AvoidanceField field = new AvoidanceField();
+            Map<Long, Double> expanded = new HashMap<>();
+            int spheres = 1 + random.nextInt(12);
+            // clustered around a cell corner, at negative coordinates half the time, so they overlap and straddle cells
+            int baseX = random.nextBoolean() ? -64 : 48;
+            int baseY = random.nextInt(20) - 10;
+            int baseZ = random.nextBoolean() ? -32 : 16;
+            for (int i = 0; i < spheres; i++) {
+                int x = baseX + random.nextInt(24) - 12;
+                int y = baseY + random.nextInt(24) - 12;
+                int z = baseZ + random.nextInt(24) - 12;
+                int radius = random.nextInt(9);
+                double coefficient = random.nextBoolean() ? 0.5 + random.nextDouble() : 1.5 + random.nextDouble() * 2;
+                field.add(x, y, z, radius, coefficient);
+                expand(expanded, x, y, z, radius, coefficient);
+            }
+            assertEquals(spheres, field.size());
+            for (int x = baseX - 24; x <= baseX + 24; x++) {
+                for (int y = baseY - 24; y <= baseY + 24; y++) {
+                    for (int z = baseZ - 24; z <= baseZ + 24; z++) {
+                        assertEquals(expanded.getOrDefault(key(x, y, z), 1.0), field.coefficient(x, y, z), 1e-9);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void radiusZeroIsOneBlock() {
+        AvoidanceField field = new AvoidanceField();
+        field.add(15, 15, 15, 0, 3.0);
+        assertEquals(3, field.coefficient(15, 15, 15), 0);
+        assertEquals(1, field.coefficient(16, 15, 15), 0);
+        assertEquals(1, field.coefficient(15, 14, 15), 0);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.utils.schematic;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PalettedSchematicTest {
+
+    // not a multiple of 16, so the sections along the edges are partly outside
+    private static final int X = 37;
+    private static final int Y = 20;
+    private static final int Z = 18;
+
+    private static void assertMatches(int[][][] expected, PalettedSchematic schematic) {
+        for (int x = 0; x < X; x++) {
+            for (int y = 0; y < Y; y++) {
+                for (int z = 0; z < Z; z++) {
+                    assertEquals(x + "," + y + "," + z, expected[x][y][z], schematic.paletteIndexAt(x, y, z));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void startsUnset() {
+        PalettedSchematic schematic = new PalettedSchematic(X, Y, Z);
+        assertEquals(0, schematic.paletteSize());
+        assertMatches(new int[X][Y][Z], schematic);
+        assertNull(schematic.getDirect(X - 1, Y - 1, Z - 1));
+    }
+
+    @Test
+    public void widensAsIndicesGrow() {
+        PalettedSchematic schematic = new PalettedSchematic(X, Y, Z);
+        int[][][] expected = new int[X][Y][Z];
+        Random random = new Random(1717);
+        // each round needs more bits per block than the last, and every earlier index has to survive the resize
+        for (int bound : new int[]{2, 3, 5, 17, 300, 5000, 70000}) {
+            for (int i = 0; i < 2000; i++) {
+                int x = random.nextInt(X);
+                int y = random.nextInt(Y);
+                int z = random.nextInt(Z);
+                int index = random.nextInt(bound);
+                schematic.set(x, y, z, index);
+                expected[x][y][z] = index;
+            }
+            assertMatches(expected, schematic);
+        }
+    }
+
+    @Test
+    public void settingUniformValueKeepsSection() {
+        PalettedSchematic schematic = new PalettedSchematic(X, Y, Z);
+        schematic.set(3, 3, 3, 0); // what the section already is everywhere
+        assertMatches(new int[X][Y][Z], schematic);
+    }
+
+    @Test
+    public void trim() {
+        PalettedSchematic schematic = new PalettedSchematic(X, Y, Z);
+        int[][][] expected = new int[X][Y][Z];
+        for (int x = 0; x < X; x++) {
+            for (int y = 0; y < Y; y++) {
+                for (int z = 0; z < Z; z++) {
+                    // the first section column ends up all 9, the rest stays mixed
+                    int index = x < 16 ? 9 : (x + y + z) % 4;
+                    schematic.set(x, y, z, index);
+                    expected[x][y][z] = index;
+                }
+            }
+        }
+        schematic.trim();
+        assertMatches(expected, schematic);
+
+        // a trimmed section goes back to being packed as soon as it's set to something else
+        schematic.set(5, 5, 5, 3);
+        expected[5][5][5] = 3;
+        schematic.set(20, 5, 5, 1000);
+        expected[20][5][5] = 1000;
+        assertMatches(expected, schematic);
+    }
+}